@@ -0,0 +1,286 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.UrlShortenerApplication;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures one server build for comparing Tomcat (servlet) and Reactor Netty (reactive, {@code -Preactive}):
+ * redirect and shorten requests/s with a fixed number of keep-alive connections, and the server memory held
+ * by idle keep-alive connections. Run it once per build and compare the two result files.
+ * <p>
+ * The server runs in its own process (same classpath, {@code -Xmx1g}), so its resident memory and threads
+ * can be read from {@code /proc} (Linux only). For the idle measurement every connection sends one redirect
+ * and then stays open; heap (after a {@code jcmd GC.run}), direct buffers and live threads come from the
+ * server's actuator metrics. Tomcat runs with {@code max-connections} raised to 20000 and no keep-alive
+ * request cap, as its default of 8192 connections could not hold the idle set.
+ * <p>
+ * {@code mvn -Pbenchmark test-compile exec:exec@stack-test -Dload.args="10000 20 64"}
+ * {@code mvn -Preactive,benchmark test-compile exec:exec@stack-test -Dload.args="10000 20 64"}
+ * Arguments: stack ({@code tomcat} or {@code netty}, set by the build), result file, idle connections
+ * (default 10000), seconds per throughput run (default 20), concurrent requests (default 64). 10K connections
+ * need an open-file limit above 10K ({@code ulimit -n}).
+ */
+public final class ServerStackLoadTest {
+
+    private static final int KEYS = 10_000;
+    private static final Pattern MEASUREMENT = Pattern.compile("\"value\"\\s*:\\s*([0-9.E+-]+)");
+
+    private ServerStackLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String stack = args[0];
+        Path resultFile = Path.of(args[1]);
+        int idleConnections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int concurrency = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+
+        System.out.printf("%-8s %13s %13s %12s %15s %15s %15s %13s%n", "stack", "redirects/s", "redirect p99",
+                "shortens/s", "RSS MB/10K", "heap MB/10K", "direct MB/10K", "threads");
+        Result r = run(stack, idleConnections, seconds, concurrency);
+        double per10K = 10_000.0 / idleConnections / (1 << 20);
+        System.out.printf(Locale.ROOT, "%-8s %13.0f %10.2f ms %12.0f %15.1f %15.1f %15.1f %6d -> %-5d%n",
+                stack, r.redirectsPerSecond, r.redirectP99Millis, r.shortensPerSecond,
+                r.rssBytes * per10K, r.heapBytes * per10K, r.directBytes * per10K, r.threadsBefore, r.threadsAfter);
+        Files.writeString(resultFile, String.format(Locale.ROOT,
+                "{\"stack\":\"%s\",\"redirectsPerSecond\":%.1f,\"redirectP99Millis\":%.3f,"
+                        + "\"shortensPerSecond\":%.1f,\"idleConnections\":%d,\"rssBytes\":%d,\"heapBytes\":%d,"
+                        + "\"directBytes\":%d,\"threadsBefore\":%d,\"threadsAfter\":%d}%n",
+                stack, r.redirectsPerSecond, r.redirectP99Millis, r.shortensPerSecond, idleConnections,
+                r.rssBytes, r.heapBytes, r.directBytes, r.threadsBefore, r.threadsAfter));
+        System.out.println("Results written to " + resultFile);
+    }
+
+    private static Result run(String stack, int idleConnections, int seconds, int concurrency) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Path log = Files.createTempFile("server-" + stack, ".log");
+        Process server = new ProcessBuilder(
+                ProcessHandle.current().info().command().orElse("java"),
+                "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                UrlShortenerApplication.class.getName(),
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--spring.main.web-application-type=" + (stack.equals("netty") ? "reactive" : "servlet"),
+                "--server.tomcat.max-connections=20000",
+                "--server.tomcat.max-keep-alive-requests=-1",
+                "--server.tomcat.keep-alive-timeout=300s")
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + port;
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            awaitStarted(http, baseUrl, server, log);
+            String[] keys = seed(http, baseUrl);
+
+            URI[] targets = Arrays.stream(keys).map(key -> URI.create(baseUrl + "/r/" + key)).toArray(URI[]::new);
+            load(http, concurrency, Math.max(2, seconds / 4), () -> redirect(targets), 302);
+            long[] latencies = new long[4_000_000];
+            long[] redirects = load(http, concurrency, seconds, () -> redirect(targets), 302, latencies);
+            Arrays.sort(latencies, 0, (int) Math.min(redirects[0], latencies.length));
+            double p99 = latencies[(int) Math.min(latencies.length, redirects[0]) * 99 / 100] / 1e6;
+            AtomicLong next = new AtomicLong();
+            long[] shortens = load(http, concurrency, seconds / 2, () -> shorten(baseUrl, next.incrementAndGet()), 200);
+
+            Memory before = memory(http, baseUrl, server.pid());
+            List<SocketChannel> idle = openIdle(port, keys, idleConnections);
+            Thread.sleep(2_000);
+            Memory after = memory(http, baseUrl, server.pid());
+            for (SocketChannel channel : idle) {
+                channel.close();
+            }
+            return new Result(redirects[0] / (double) seconds, p99, shortens[0] / (seconds / 2.0),
+                    after.rss - before.rss, after.heap - before.heap, after.direct - before.direct,
+                    before.threads, after.threads);
+        } finally {
+            server.destroy();
+            server.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitStarted(HttpClient http, String baseUrl, Process server, Path log) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited:\n" + Files.readString(log));
+            }
+            try {
+                if (http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Server did not start, see " + log);
+    }
+
+    private static String[] seed(HttpClient http, String baseUrl) throws Exception {
+        String[] keys = new String[KEYS];
+        Pattern shortKey = Pattern.compile("\"shortKey\"\\s*:\\s*\"([0-9A-Za-z]+)\"");
+        for (int from = 0; from < KEYS; from += 1000) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < from + 1000; i++) {
+                body.append(i == from ? "" : ",").append("{\"originalUrl\":\"https://stack.example/").append(i).append("\"}");
+            }
+            String response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString())).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            Matcher m = shortKey.matcher(response);
+            for (int i = from; i < from + 1000; i++) {
+                if (!m.find()) {
+                    throw new IllegalStateException("Seeding failed: " + response);
+                }
+                keys[i] = m.group(1);
+            }
+        }
+        return keys;
+    }
+
+    private static HttpRequest redirect(URI[] targets) {
+        return HttpRequest.newBuilder(targets[ThreadLocalRandom.current().nextInt(targets.length)])
+                .timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static HttpRequest shorten(String baseUrl, long n) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://new.example/" + n + "\"}"))
+                .build();
+    }
+
+    private static long[] load(HttpClient http, int concurrency, int seconds, RequestSource requests,
+                               int expectedStatus) throws InterruptedException {
+        return load(http, concurrency, seconds, requests, expectedStatus, null);
+    }
+
+    /**
+     * Keeps {@code concurrency} requests in flight for the given duration.
+     *
+     * @return completed requests and errors
+     */
+    private static long[] load(HttpClient http, int concurrency, int seconds, RequestSource requests,
+                               int expectedStatus, long[] latencies) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            long started = System.nanoTime();
+            http.sendAsync(requests.next(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != expectedStatus) {
+                    errors.incrementAndGet();
+                } else {
+                    long i = completed.getAndIncrement();
+                    if (latencies != null && i < latencies.length) {
+                        latencies[(int) i] = System.nanoTime() - started;
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency); // drain
+        if (errors.get() > 0) {
+            System.out.println(errors.get() + " requests failed");
+        }
+        return new long[]{completed.get(), errors.get()};
+    }
+
+    /**
+     * Opens connections that each complete one redirect and then stay open (HTTP/1.1 keep-alive).
+     */
+    private static List<SocketChannel> openIdle(int port, String[] keys, int count) throws IOException {
+        List<SocketChannel> channels = new ArrayList<>(count);
+        ByteBuffer response = ByteBuffer.allocate(4096);
+        for (int i = 0; i < count; i++) {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+            channel.write(ByteBuffer.wrap(("GET /r/" + keys[i % keys.length] + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII)));
+            response.clear();
+            while (!headersComplete(response)) {
+                if (channel.read(response) < 0) {
+                    throw new IOException("Connection " + i + " closed by the server");
+                }
+            }
+            channels.add(channel);
+        }
+        return channels;
+    }
+
+    private static boolean headersComplete(ByteBuffer buffer) {
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII);
+        return text.contains("\r\n\r\n");
+    }
+
+    private static Memory memory(HttpClient http, String baseUrl, long pid) throws Exception {
+        new ProcessBuilder("jcmd", Long.toString(pid), "GC.run").redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start().waitFor();
+        long rss = 0;
+        for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                rss = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+            }
+        }
+        return new Memory(rss,
+                (long) metric(http, baseUrl, "jvm.memory.used?tag=area:heap"),
+                (long) metric(http, baseUrl, "jvm.buffer.memory.used?tag=id:direct"),
+                (int) metric(http, baseUrl, "jvm.threads.live"));
+    }
+
+    private static double metric(HttpClient http, String baseUrl, String name) throws Exception {
+        String body = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name)).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = MEASUREMENT.matcher(body);
+        if (!m.find()) {
+            throw new IllegalStateException("No value for " + name + ": " + body);
+        }
+        return Double.parseDouble(m.group(1));
+    }
+
+    private interface RequestSource {
+        HttpRequest next();
+    }
+
+    private record Memory(long rss, long heap, long direct, int threads) {
+    }
+
+    private record Result(double redirectsPerSecond, double redirectP99Millis, double shortensPerSecond,
+                          long rssBytes, long heapBytes, long directBytes, int threadsBefore, int threadsAfter) {
+    }
+}
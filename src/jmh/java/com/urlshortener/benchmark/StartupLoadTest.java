@@ -0,0 +1,343 @@
+package com.urlshortener.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures how soon a freshly started node serves redirects well, for the plain JIT build and the
+ * fast-startup build (Spring AOT + AppCDS), each with and without the readiness warm-up:
+ * <ul>
+ *   <li>time to ready: process launch until {@code /actuator/health/readiness} reports UP</li>
+ *   <li>time to first redirect: launch until the first redirect sent after ready is answered, as a
+ *       load balancer honouring the readiness probe would see it</li>
+ *   <li>time to steady p99: launch until the end of the first 250 ms window from which every window's
+ *       redirect p99 stays within 1.5x of the steady p99 (median p99 of the last quarter of the run)</li>
+ * </ul>
+ * Every run starts the jar under {@code target/cds} as its own process on one mapped store, seeded once
+ * with 10K links and a saved hot-key set, so each start finds existing data as a scaled-out node would.
+ * All runs use the fast-startup Spring profile, as the AOT classes were generated for it; warm-up is
+ * turned off with {@code app.warmup.requests=0}.
+ * <p>
+ * {@code mvn -Pfast-startup,benchmark package exec:exec@startup-test -DskipTests -Dload.args="30 16"}
+ * Arguments: result file, application jar (default target/cds/url-shortener-0.0.1-SNAPSHOT.jar), seconds of
+ * load per run (default 30), concurrent requests (default 16).
+ */
+public final class StartupLoadTest {
+
+    private static final int KEYS = 10_000;
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final double STEADY_TOLERANCE = 1.5;
+
+    private StartupLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path resultFile = Path.of(args[0]);
+        Path jar = Path.of(args.length > 1 ? args[1] : "target/cds/url-shortener-0.0.1-SNAPSHOT.jar").toAbsolutePath();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        Path archive = jar.resolveSibling("application.jsa");
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("No AppCDS archive at " + archive + "; build with -Pfast-startup package");
+        }
+
+        Path data = Files.createTempDirectory("startup-test");
+        String[] keys = seed(jar, data);
+
+        List<String> results = new ArrayList<>();
+        System.out.printf("%-16s %10s %16s %16s %18s%n", "variant", "ready ms", "first redirect ms",
+                "steady p99 ms", "steady p99 at ms");
+        for (Variant variant : Variant.values()) {
+            Result r = run(variant, jar, data, keys, seconds, concurrency);
+            System.out.printf(Locale.ROOT, "%-16s %10d %16d %16.2f %18d%n", variant.label, r.readyMillis,
+                    r.firstRedirectMillis, r.steadyP99Millis, r.steadyAtMillis);
+            results.add(String.format(Locale.ROOT,
+                    "{\"variant\":\"%s\",\"readyMillis\":%d,\"firstRedirectMillis\":%d,\"steadyP99Millis\":%.3f,"
+                            + "\"steadyAtMillis\":%d,\"firstWindowP99Millis\":%.3f}",
+                    variant.label, r.readyMillis, r.firstRedirectMillis, r.steadyP99Millis, r.steadyAtMillis,
+                    r.firstWindowP99Millis));
+        }
+        Files.writeString(resultFile, "[\n  " + String.join(",\n  ", results) + "\n]\n");
+        System.out.println("Results written to " + resultFile);
+    }
+
+    private enum Variant {
+        JIT("jit", false, false),
+        JIT_WARMUP("jit+warmup", false, true),
+        AOT_CDS("aot-cds", true, false),
+        AOT_CDS_WARMUP("aot-cds+warmup", true, true);
+
+        final String label;
+        final boolean aotCds;
+        final boolean warmup;
+
+        Variant(String label, boolean aotCds, boolean warmup) {
+            this.label = label;
+            this.aotCds = aotCds;
+            this.warmup = warmup;
+        }
+    }
+
+    /**
+     * Creates the links and, through a skewed redirect load and a graceful shutdown, the saved hot-key set.
+     */
+    private static String[] seed(Path jar, Path data) throws Exception {
+        int port = freePort();
+        Path log = Files.createTempFile("startup-seed", ".log");
+        Process server = start(jar, data, port, false, false, log);
+        try {
+            String baseUrl = "http://127.0.0.1:" + port;
+            HttpClient http = client();
+            awaitReady(http, baseUrl, server, log, System.nanoTime());
+            String[] keys = shorten(http, baseUrl);
+            load(http, baseUrl, keys, 4, 5, System.nanoTime());
+            return keys;
+        } finally {
+            stop(server);
+        }
+    }
+
+    private static Result run(Variant variant, Path jar, Path data, String[] keys, int seconds, int concurrency)
+            throws Exception {
+        int port = freePort();
+        Path log = Files.createTempFile("startup-" + variant.label, ".log");
+        long launched = System.nanoTime();
+        Process server = start(jar, data, port, variant.aotCds, variant.warmup, log);
+        try {
+            String baseUrl = "http://127.0.0.1:" + port;
+            HttpClient http = client();
+            long ready = awaitReady(http, baseUrl, server, log, launched);
+            HttpResponse<Void> first = http.send(redirect(baseUrl, keys[0]), HttpResponse.BodyHandlers.discarding());
+            if (first.statusCode() != 302) {
+                throw new IllegalStateException("First redirect answered " + first.statusCode());
+            }
+            long firstRedirect = System.nanoTime();
+
+            double[] p99 = load(http, baseUrl, keys, concurrency, seconds, launched);
+            double[] tail = Arrays.copyOfRange(p99, p99.length * 3 / 4, p99.length);
+            Arrays.sort(tail);
+            double steady = tail[tail.length / 2];
+            int steadyFrom = p99.length;
+            while (steadyFrom > 0 && p99[steadyFrom - 1] <= steady * STEADY_TOLERANCE) {
+                steadyFrom--;
+            }
+            // Windows are counted from launch; the first ones passed before the node was ready
+            int firstLoaded = 0;
+            while (firstLoaded < p99.length && Double.isNaN(p99[firstLoaded])) {
+                firstLoaded++;
+            }
+            steadyFrom = Math.max(steadyFrom, firstLoaded);
+            return new Result(TimeUnit.NANOSECONDS.toMillis(ready - launched),
+                    TimeUnit.NANOSECONDS.toMillis(firstRedirect - launched), steady,
+                    TimeUnit.NANOSECONDS.toMillis((steadyFrom + 1) * WINDOW_NANOS), p99[firstLoaded]);
+        } finally {
+            stop(server);
+        }
+    }
+
+    private static Process start(Path jar, Path data, int port, boolean aotCds, boolean warmup, Path log)
+            throws IOException {
+        List<String> command = new ArrayList<>(List.of(ProcessHandle.current().info().command().orElse("java"),
+                "-Xmx512m"));
+        if (aotCds) {
+            command.add("-XX:SharedArchiveFile=" + jar.resolveSibling("application.jsa"));
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar.toString(),
+                "--spring.profiles.active=fast-startup",
+                "--server.port=" + port,
+                "--logging.level.root=WARN",
+                "--app.store.type=mapped",
+                "--app.store.mapped.path=" + data.resolve("store"),
+                "--app.store.mapped.capacity=100000",
+                "--app.store.mapped.arena-bytes=16777216",
+                "--app.id.coordinator=file",
+                "--app.id.file=" + data.resolve("id-lease"),
+                "--app.warmup.hot-keys.path=" + data.resolve("hot-keys")));
+        if (!warmup) {
+            command.add("--app.warmup.requests=0");
+        }
+        return new ProcessBuilder(command)
+                .directory(jar.getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+    }
+
+    private static void stop(Process server) throws InterruptedException {
+        // SIGTERM, so the hot-key set is saved like on a normal shutdown
+        server.destroy();
+        if (!server.waitFor(60, TimeUnit.SECONDS)) {
+            server.destroyForcibly();
+        }
+    }
+
+    /**
+     * @return time the readiness probe first reported UP
+     */
+    private static long awaitReady(HttpClient http, String baseUrl, Process server, Path log, long launched)
+            throws Exception {
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).build();
+        while (System.nanoTime() - launched < TimeUnit.SECONDS.toNanos(120)) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited:\n" + Files.readString(log));
+            }
+            try {
+                if (http.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.nanoTime();
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Server did not become ready, see " + log);
+    }
+
+    private static String[] shorten(HttpClient http, String baseUrl) throws Exception {
+        String[] keys = new String[KEYS];
+        Pattern shortKey = Pattern.compile("\"shortKey\"\\s*:\\s*\"([0-9A-Za-z]+)\"");
+        for (int from = 0; from < KEYS; from += 1000) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < from + 1000; i++) {
+                body.append(i == from ? "" : ",").append("{\"originalUrl\":\"https://startup.example/").append(i).append("\"}");
+            }
+            String response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten/batch"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString())).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            Matcher m = shortKey.matcher(response);
+            for (int i = from; i < from + 1000; i++) {
+                if (!m.find()) {
+                    throw new IllegalStateException("Seeding failed: " + response);
+                }
+                keys[i] = m.group(1);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Sends Zipfian redirects from {@code concurrency} threads, each waiting for its response before the next.
+     *
+     * @return redirect p99 in milliseconds per 250 ms window since {@code launched}; NaN for windows without requests
+     */
+    private static double[] load(HttpClient http, String baseUrl, String[] keys, int concurrency, int seconds,
+                                 long launched) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Samples>> workers = new ArrayList<>();
+            for (int t = 0; t < concurrency; t++) {
+                long seed = t;
+                workers.add(threads.submit(() -> {
+                    ZipfianKeys ranks = new ZipfianKeys(keys.length, 0.99, 1 << 16, seed);
+                    Samples samples = new Samples();
+                    long now;
+                    while ((now = System.nanoTime()) < deadline) {
+                        int status = http.send(redirect(baseUrl, keys[ranks.next()]),
+                                HttpResponse.BodyHandlers.discarding()).statusCode();
+                        long done = System.nanoTime();
+                        if (status != 302) {
+                            throw new IllegalStateException("Redirect answered " + status);
+                        }
+                        samples.add((int) ((done - launched) / WINDOW_NANOS), done - now);
+                    }
+                    return samples;
+                }));
+            }
+            int windows = (int) ((deadline - launched) / WINDOW_NANOS) + 1;
+            long[][] byWindow = new long[windows][];
+            int[] counts = new int[windows];
+            List<Samples> all = new ArrayList<>();
+            for (Future<Samples> worker : workers) {
+                all.add(worker.get());
+            }
+            for (Samples samples : all) {
+                for (int i = 0; i < samples.size; i++) {
+                    counts[Math.min(samples.windows[i], windows - 1)]++;
+                }
+            }
+            for (int w = 0; w < windows; w++) {
+                byWindow[w] = new long[counts[w]];
+                counts[w] = 0;
+            }
+            for (Samples samples : all) {
+                for (int i = 0; i < samples.size; i++) {
+                    int w = Math.min(samples.windows[i], windows - 1);
+                    byWindow[w][counts[w]++] = samples.nanos[i];
+                }
+            }
+            double[] p99 = new double[windows];
+            for (int w = 0; w < windows; w++) {
+                long[] latencies = byWindow[w];
+                if (latencies.length == 0) {
+                    p99[w] = Double.NaN;
+                } else {
+                    Arrays.sort(latencies);
+                    p99[w] = latencies[latencies.length * 99 / 100] / 1e6;
+                }
+            }
+            return p99;
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private static HttpRequest redirect(String baseUrl, String key) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/r/" + key)).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static HttpClient client() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * One thread's redirect latencies with the window each completed in.
+     */
+    private static final class Samples {
+        int[] windows = new int[1 << 16];
+        long[] nanos = new long[1 << 16];
+        int size;
+
+        void add(int window, long latencyNanos) {
+            if (size == nanos.length) {
+                windows = Arrays.copyOf(windows, size * 2);
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            windows[size] = window;
+            nanos[size++] = latencyNanos;
+        }
+    }
+
+    private record Result(long readyMillis, long firstRedirectMillis, double steadyP99Millis, long steadyAtMillis,
+                          double firstWindowP99Millis) {
+    }
+}
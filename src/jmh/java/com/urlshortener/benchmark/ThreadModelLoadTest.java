@@ -0,0 +1,160 @@
+package com.urlshortener.benchmark;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the platform thread pool with virtual threads under many concurrent connections.
+ * For each thread model and concurrency level the application is started in-process, and an
+ * asynchronous client keeps that many redirect requests in flight for a fixed duration.
+ * <p>
+ * Run on Java 21 to include the virtual-thread mode:
+ * {@code mvn -Pbenchmark,java21 test-compile exec:exec@load-test -Dload.args="1000,10000 20"}
+ * Arguments: result file, comma-separated concurrency levels (default 1000,10000), seconds per run (default 20).
+ * 10K connections need an open-file limit above 20K ({@code ulimit -n}).
+ */
+public final class ThreadModelLoadTest {
+
+    private static final int KEYS = 10_000;
+    private static final int MAX_SAMPLES = 4_000_000;
+
+    private ThreadModelLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path resultFile = Path.of(args[0]);
+        int[] concurrencies = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1_000, 10_000};
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        List<String> modes = new ArrayList<>(List.of("platform"));
+        if (Runtime.version().feature() >= 21) {
+            modes.add("virtual");
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": skipping virtual threads (needs 21+)");
+        }
+
+        List<String> results = new ArrayList<>();
+        System.out.printf("%-9s %11s %12s %10s %10s %8s%n", "mode", "connections", "requests/s", "p50 ms", "p99 ms", "errors");
+        for (String mode : modes) {
+            for (int concurrency : concurrencies) {
+                Result result = run(mode, concurrency, seconds);
+                System.out.printf(Locale.ROOT, "%-9s %11d %12.0f %10.2f %10.2f %8d%n",
+                        mode, concurrency, result.throughput, result.p50Millis, result.p99Millis, result.errors);
+                results.add(String.format(Locale.ROOT,
+                        "{\"mode\":\"%s\",\"connections\":%d,\"requestsPerSecond\":%.1f,"
+                                + "\"p50Millis\":%.3f,\"p99Millis\":%.3f,\"errors\":%d}",
+                        mode, concurrency, result.throughput, result.p50Millis, result.p99Millis, result.errors));
+            }
+        }
+        Files.writeString(resultFile, "[\n  " + String.join(",\n  ", results) + "\n]\n");
+        System.out.println("Results written to " + resultFile);
+    }
+
+    private static Result run(String mode, int concurrency, int seconds) throws Exception {
+        try (ConfigurableApplicationContext context = SpringApplication.run(UrlShortenerApplication.class,
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                "--server.tomcat.max-connections=" + (concurrency * 2),
+                "--server.tomcat.accept-count=" + concurrency)) {
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            UrlShortenerService service = context.getBean(UrlShortenerService.class);
+            URI[] targets = new URI[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                targets[i] = URI.create(baseUrl + "/r/" + service.createShortUrl("https://example.com/" + i).getShortKey());
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            // Warm up, then measure
+            load(client, targets, concurrency, Math.max(2, seconds / 4), null);
+            long[] samples = new long[MAX_SAMPLES];
+            AtomicInteger sampleCount = new AtomicInteger();
+            long[] counts = load(client, targets, concurrency, seconds, (latency) -> {
+                int i = sampleCount.getAndIncrement();
+                if (i < MAX_SAMPLES) {
+                    samples[i] = latency;
+                }
+            });
+
+            int n = Math.min(sampleCount.get(), MAX_SAMPLES);
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            return new Result(counts[0] / (double) seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), counts[1]);
+        }
+    }
+
+    /**
+     * Keeps {@code concurrency} requests in flight for the given duration.
+     *
+     * @return completed requests and errors
+     */
+    private static long[] load(HttpClient client, URI[] targets, int concurrency, int seconds,
+                               LatencySink sink) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicLong completed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < deadline) {
+            inFlight.acquire();
+            HttpRequest request = HttpRequest.newBuilder(targets[ThreadLocalRandom.current().nextInt(targets.length)])
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long started = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != 302) {
+                    errors.incrementAndGet();
+                } else {
+                    completed.incrementAndGet();
+                    if (sink != null) {
+                        sink.record(System.nanoTime() - started);
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency); // drain
+        return new long[]{completed.get(), errors.get()};
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private interface LatencySink {
+        void record(long nanos);
+    }
+
+    private record Result(double throughput, double p50Millis, double p99Millis, long errors) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.urlshortener.benchmark;
+
+import java.util.Random;
+
+/**
+ * Precomputed Zipfian samples over ranks 0..n-1, so benchmark loops only pay an array read.
+ * Rank 0 is the most popular; probability of rank k is proportional to 1 / (k + 1)^exponent.
+ */
+public final class ZipfianKeys {
+
+    private final int[] samples;
+    private int next;
+
+    public ZipfianKeys(int n, double exponent, int sampleCount, long seed) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        Random random = new Random(seed);
+        samples = new int[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            double target = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = n - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < target) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            samples[i] = lo;
+        }
+    }
+
+    /**
+     * @return the next sampled rank; not thread-safe, use one instance per thread
+     */
+    public int next() {
+        int rank = samples[next];
+        next = next + 1 == samples.length ? 0 : next + 1;
+        return rank;
+    }
+}
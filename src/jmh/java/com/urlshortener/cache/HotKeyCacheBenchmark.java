@@ -0,0 +1,157 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.benchmark.ZipfianKeys;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect-cache lookups with Zipfian key popularity: W-TinyLFU ({@link HotKeyCache}) against a
+ * synchronized access-ordered LinkedHashMap LRU of the same entry count.
+ * <p>
+ * A miss puts the key, as {@link CachingUrlStore} does after reading the store, so the score is the
+ * cost of the cache itself. The hits and misses counters give each policy's hit ratio.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class HotKeyCacheBenchmark {
+
+    interface Cache {
+        String get(String key);
+
+        void put(String key, String value);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"tinylfu", "lru"})
+        String policy;
+
+        @Param({"1000000"})
+        int keys;
+
+        @Param({"10000"})
+        int cacheSize;
+
+        @Param({"0.99"})
+        double exponent;
+
+        String[] shortKeys;
+        String[] urls;
+        Cache cache;
+
+        @Setup
+        public void setUp() {
+            shortKeys = new String[keys];
+            urls = new String[keys];
+            for (int i = 0; i < keys; i++) {
+                shortKeys[i] = Integer.toString(i, 36);
+                urls[i] = "https://example.com/page/" + i;
+            }
+        }
+
+        // Each iteration starts cold, so warmup does not hide how fast a policy finds the hot set
+        @Setup(Level.Iteration)
+        public void newCache() {
+            cache = switch (policy) {
+                case "tinylfu" -> tinyLfu(cacheSize);
+                case "lru" -> lru(cacheSize);
+                default -> throw new IllegalArgumentException(policy);
+            };
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Sampler {
+
+        public long hits;
+        public long misses;
+
+        ZipfianKeys zipf;
+
+        @Setup
+        public void setUp(Shared shared) {
+            zipf = new ZipfianKeys(shared.keys, shared.exponent, 1 << 20, Thread.currentThread().getId());
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    @Benchmark
+    public String lookup(Shared shared, Sampler sampler) {
+        int rank = sampler.zipf.next();
+        String key = shared.shortKeys[rank];
+        String url = shared.cache.get(key);
+        if (url != null) {
+            sampler.hits++;
+            return url;
+        }
+        sampler.misses++;
+        shared.cache.put(key, shared.urls[rank]);
+        return shared.urls[rank];
+    }
+
+    static Cache tinyLfu(int size) {
+        HotKeyCache cache = HotKeyCache.ofEntries(size);
+        return new Cache() {
+            @Override
+            public String get(String key) {
+                return cache.get(key);
+            }
+
+            @Override
+            public void put(String key, String value) {
+                cache.put(key, value);
+            }
+        };
+    }
+
+    static Cache lru(int size) {
+        Map<String, String> map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > size;
+            }
+        };
+        return new Cache() {
+            @Override
+            public String get(String key) {
+                synchronized (map) {
+                    return map.get(key);
+                }
+            }
+
+            @Override
+            public void put(String key, String value) {
+                synchronized (map) {
+                    map.put(key, value);
+                }
+            }
+        };
+    }
+}
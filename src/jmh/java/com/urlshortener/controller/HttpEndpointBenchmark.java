@@ -0,0 +1,102 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.benchmark.ZipfianKeys;
+import com.urlshortener.service.UrlShortenerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of the HTTP endpoints over loopback, including Tomcat and Spring MVC.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class HttpEndpointBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"10000"})
+        int keys;
+
+        ConfigurableApplicationContext context;
+
+        HttpClient client;
+
+        String baseUrl;
+
+        String[] shortKeys;
+
+        @Setup
+        public void setUp() {
+            context = SpringApplication.run(UrlShortenerApplication.class,
+                    "--server.port=0", "--logging.level.root=WARN");
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+
+            UrlShortenerService service = context.getBean(UrlShortenerService.class);
+            shortKeys = new String[keys];
+            for (int i = 0; i < keys; i++) {
+                shortKeys[i] = service.createShortUrl("https://example.com/page/" + i).getShortKey();
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sampler {
+
+        ZipfianKeys zipf;
+
+        @Setup
+        public void setUp(Server server) {
+            zipf = new ZipfianKeys(server.keys, 0.99, 1 << 16, Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    public int redirect(Server server, Sampler sampler) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(server.baseUrl + "/r/" + server.shortKeys[sampler.zipf.next()])).build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int shortenHit(Server server) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"https://example.com/page/1\"}"))
+                .build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,173 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.metrics.ShortenerMetrics;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.KeyFilterUrlStore;
+import com.urlshortener.store.MappedUrlStore;
+import com.urlshortener.store.UrlStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of redirects to random keys that were never issued, as sent by scanners.
+ * <p>
+ * {@code http}: over loopback, {@code path=mvc} is the former miss path (no fast-path filter, no key
+ * filter: the lookup misses in the store, the controller throws and the exception handler builds the
+ * body) and {@code path=filter} the current one (key filter, preallocated 404 from the servlet filter).
+ * {@code lookup}: the service lookup alone, with and without the key filter in front of the store.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class MissBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        @Param({"mvc", "filter"})
+        String path;
+
+        ConfigurableApplicationContext context;
+
+        HttpClient client;
+
+        String baseUrl;
+
+        @Setup
+        public void setUp() {
+            boolean fast = path.equals("filter");
+            context = SpringApplication.run(UrlShortenerApplication.class,
+                    "--server.port=0", "--logging.level.root=WARN",
+                    "--app.redirect.fast-path=" + fast, "--app.store.key-filter.enabled=" + fast);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .build();
+            UrlShortenerService service = context.getBean(UrlShortenerService.class);
+            for (int i = 0; i < KEYS; i++) {
+                service.createShortUrl("https://example.com/page/" + i);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lookup {
+
+        @Param({"memory", "mapped"})
+        String store;
+
+        @Param({"false", "true"})
+        boolean keyFilter;
+
+        Path dir;
+
+        UrlStore urlStore;
+
+        UrlShortenerService service;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            if (store.equals("mapped")) {
+                dir = Files.createTempDirectory("miss-benchmark");
+                urlStore = new MappedUrlStore(dir, 2L * KEYS, 64L << 20);
+            } else {
+                urlStore = new InMemoryUrlStore();
+            }
+            if (keyFilter) {
+                urlStore = new KeyFilterUrlStore(urlStore);
+            }
+            service = new UrlShortenerService(urlStore, new LeasedIdAllocator(new InMemoryBlockCoordinator(0)),
+                    ShortenerMetrics.noop());
+            for (int i = 0; i < KEYS; i++) {
+                service.createShortUrl("https://example.com/page/" + i);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            urlStore.close();
+            if (dir != null) {
+                try (var files = Files.walk(dir)) {
+                    files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RandomKeys {
+
+        private static final String ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+        final String[] keys = new String[1 << 16];
+
+        int next;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+            char[] chars = new char[6];
+            for (int i = 0; i < keys.length; i++) {
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+                }
+                keys[i] = new String(chars);
+            }
+        }
+
+        String next() {
+            return keys[next++ & (keys.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public int http(Server server, RandomKeys keys) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.baseUrl + "/r/" + keys.next())).build();
+        return server.client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public String lookup(Lookup lookup, RandomKeys keys) {
+        return lookup.service.findOriginalUrl(keys.next());
+    }
+}
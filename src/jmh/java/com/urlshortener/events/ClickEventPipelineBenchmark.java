@@ -0,0 +1,133 @@
+package com.urlshortener.events;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of publishing a click event from several redirect threads, as seen by the publisher: the
+ * lock-free {@link ClickEventPipeline} against an ArrayBlockingQueue (one lock shared by producers and
+ * the consumer) feeding the same sink. Both drop events when full; the counters show how many.
+ * Publishers run flat out, faster than the sink can compress and hash, so the queue is mostly full and
+ * the dropped counter reflects the sink's throughput rather than real traffic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(4)
+public class ClickEventPipelineBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"ring", "blocking"})
+        String queue;
+
+        @Param({"65536"})
+        int capacity;
+
+        Path directory;
+        ClickEvent[] events;
+        ClickEventPipeline pipeline;
+        ArrayBlockingQueue<ClickEvent> blocking;
+        Thread consumer;
+        volatile boolean running;
+
+        @Setup
+        public void setUp() throws IOException {
+            events = new ClickEvent[1024];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new ClickEvent("k" + i, System.currentTimeMillis(), "https://referrer.example/" + (i & 7),
+                        "Mozilla/5.0 (" + (i & 15) + ")", "10.0.0." + (i & 255));
+            }
+            directory = Files.createTempDirectory("click-events");
+            ClickEventSink sink = new ClickEventSink(directory, 64 << 20, 60_000, new byte[16]);
+            if (queue.equals("ring")) {
+                pipeline = new ClickEventPipeline(capacity, FullPolicy.DROP, sink, 1024);
+                return;
+            }
+            blocking = new ArrayBlockingQueue<>(capacity);
+            running = true;
+            consumer = new Thread(() -> {
+                try (sink) {
+                    while (running) {
+                        ClickEvent event = blocking.poll(1, TimeUnit.MILLISECONDS);
+                        if (event != null) {
+                            sink.write(event);
+                        }
+                    }
+                } catch (IOException | InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, "click-events-blocking");
+            consumer.start();
+        }
+
+        boolean publish(ClickEvent event) {
+            return pipeline != null ? pipeline.publish(event) : blocking.offer(event);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            if (pipeline != null) {
+                pipeline.close();
+            } else {
+                running = false;
+                consumer.join();
+            }
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long published;
+        public long dropped;
+
+        int next;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            published = 0;
+            dropped = 0;
+        }
+    }
+
+    @Benchmark
+    public boolean publish(Shared shared, Counters counters) {
+        boolean accepted = shared.publish(shared.events[counters.next++ & 1023]);
+        if (accepted) {
+            counters.published++;
+        } else {
+            counters.dropped++;
+        }
+        return accepted;
+    }
+}
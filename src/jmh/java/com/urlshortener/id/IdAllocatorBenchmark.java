@@ -0,0 +1,42 @@
+package com.urlshortener.id;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id minting under contention: one shared AtomicLong versus leased blocks split into striped sub-blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IdAllocatorBenchmark {
+
+    final AtomicLong counter = new AtomicLong();
+
+    final IdAllocator leased = new LeasedIdAllocator(new InMemoryBlockCoordinator(0));
+
+    @Benchmark
+    public long sharedCounter() {
+        return counter.incrementAndGet();
+    }
+
+    @Benchmark
+    public long leasedBlocks() {
+        return leased.nextId();
+    }
+}
@@ -0,0 +1,52 @@
+package com.urlshortener.service;
+
+import com.urlshortener.metrics.DomainCount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the top-domains query after shortening URLs on a given number of distinct domains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MetricsServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int domains;
+
+    MetricsService metricsService;
+
+    @Setup
+    public void setUp() {
+        UrlShortenerService service = new UrlShortenerService();
+        for (int i = 0; i < domains; i++) {
+            // Skew the counts so the ranking is not a flat tie
+            int repeats = i % 100 == 0 ? 3 : 1;
+            for (int r = 0; r < repeats; r++) {
+                service.createShortUrl("https://domain" + i + ".com/" + r);
+            }
+        }
+        metricsService = new MetricsService(service);
+    }
+
+    @Benchmark
+    public List<DomainCount> topDomains() {
+        return metricsService.topDomains();
+    }
+}
@@ -0,0 +1,84 @@
+package com.urlshortener.service;
+
+import com.urlshortener.benchmark.ZipfianKeys;
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.metrics.ShortenerMetrics;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redirect lookups from several threads with Zipfian key popularity, as real traffic is skewed.
+ * {@code timing} sets the redirect instrumentation: none (no meters), or a Prometheus registry with
+ * one in N redirects timed (0 counts only, 1 times every redirect).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class RedirectBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"100000"})
+        int keys;
+
+        @Param({"0.99"})
+        double exponent;
+
+        @Param({"none", "0", "64", "1"})
+        String timing;
+
+        UrlShortenerService service;
+
+        String[] shortKeys;
+
+        @Setup
+        public void setUp() {
+            UrlStore store = new InMemoryUrlStore();
+            ShortenerMetrics metrics = timing.equals("none")
+                    ? ShortenerMetrics.noop()
+                    : new ShortenerMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT), Integer.parseInt(timing));
+            service = new UrlShortenerService(store, new LeasedIdAllocator(new InMemoryBlockCoordinator(0)), metrics);
+            shortKeys = new String[keys];
+            for (int i = 0; i < keys; i++) {
+                shortKeys[i] = service.createShortUrl("https://example.com/page/" + i).getShortKey();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sampler {
+
+        ZipfianKeys zipf;
+
+        @Setup
+        public void setUp(Shared shared) {
+            zipf = new ZipfianKeys(shared.keys, shared.exponent, 1 << 20, Thread.currentThread().getId());
+        }
+    }
+
+    @Benchmark
+    public String redirect(Shared shared, Sampler sampler) {
+        return shared.service.getOriginalUrl(shared.shortKeys[sampler.zipf.next()]);
+    }
+}
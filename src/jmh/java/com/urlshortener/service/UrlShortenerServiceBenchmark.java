@@ -0,0 +1,57 @@
+package com.urlshortener.service;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.CanonicalUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of validation and idempotent creation.
+ * The service is recreated every iteration so the miss benchmark does not grow the heap without bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UrlShortenerServiceBenchmark {
+
+    private static final String URL = "https://example.com/articles/2024/how-to-benchmark?utm_source=newsletter";
+
+    UrlShortenerService service;
+
+    long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        service = new UrlShortenerService();
+        service.createShortUrl(URL);
+    }
+
+    @Benchmark
+    public CanonicalUrl validate() {
+        return service.validate(URL);
+    }
+
+    @Benchmark
+    public ShortUrl createHit() {
+        return service.createShortUrl(URL);
+    }
+
+    @Benchmark
+    public ShortUrl createMiss() {
+        return service.createShortUrl(URL + "&n=" + sequence++);
+    }
+}
@@ -0,0 +1,51 @@
+package com.urlshortener.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Base62Benchmark {
+
+    @Param({"1", "3844", "56800235584", "9223372036854775807"})
+    long value;
+
+    String key;
+
+    final char[] buffer = new char[Base62Util.MAX_LENGTH];
+
+    @Setup
+    public void setUp() {
+        key = Base62Util.encode(value);
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base62Util.encode(value);
+    }
+
+    @Benchmark
+    public int encodeIntoBuffer() {
+        return Base62Util.encode(value, buffer, 0);
+    }
+
+    @Benchmark
+    public long decode() {
+        return Base62Util.decode(key);
+    }
+}
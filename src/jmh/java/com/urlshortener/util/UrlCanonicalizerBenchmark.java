@@ -0,0 +1,84 @@
+package com.urlshortener.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating one create's URL: the former {@code @Pattern} regex plus {@link URI} parsing versus the
+ * single-pass {@link UrlCanonicalizer}. {@code canonical} URLs are already in normal form, {@code variant}
+ * ones need rewriting (which the former path did not do). Add {@code -prof gc} for allocation per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlCanonicalizerBenchmark {
+
+    private static final Pattern HTTP = Pattern.compile("^(https?://).*");
+
+    private static final String[] CANONICAL = {
+            "https://example.com/articles/2024/how-to-benchmark?utm_source=newsletter",
+            "https://github.com/openjdk/jdk/blob/master/src/java.base/share/classes/java/net/URI.java",
+            "http://news.example.org/2024/05/17/story.html#comments",
+            "https://shop.example.co.uk/search?q=running+shoes&size=42&sort=price",
+    };
+
+    private static final String[] VARIANT = {
+            "https://Example.com:443/articles/2024/how-to-benchmark?utm_source=newsletter",
+            "https://GitHub.com./openjdk/jdk/blob/master/src/java.base/share/classes/java/net/URI.java",
+            "http://news.example.org:80/2024/05/./17/story.html#comments",
+            "https://shop.example.co.uk/search?q=running%2bshoes&size=42&sort=price",
+    };
+
+    @Param({"canonical", "variant"})
+    String urls;
+
+    String[] inputs;
+
+    int next;
+
+    @Setup
+    public void setUp() {
+        inputs = urls.equals("canonical") ? CANONICAL : VARIANT;
+    }
+
+    @Benchmark
+    public void patternAndUri(Blackhole bh) {
+        String url = inputs[next++ & 3];
+        if (!HTTP.matcher(url).matches()) {
+            throw new IllegalArgumentException();
+        }
+        URI uri = URI.create(url.trim());
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            throw new IllegalArgumentException();
+        }
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException();
+        }
+        bh.consume(uri.toString());
+        bh.consume(uri.getHost().toLowerCase());
+    }
+
+    @Benchmark
+    public void canonicalizer(Blackhole bh) {
+        CanonicalUrl canonical = UrlCanonicalizer.canonicalize(inputs[next++ & 3]);
+        bh.consume(canonical.url());
+        bh.consume(canonical.host());
+    }
+}
@@ -0,0 +1,17 @@
+package com.urlshortener.cache;
+
+/**
+ * Point-in-time counters of a {@link HotKeyCache}.
+ *
+ * @param hits          lookups answered by the cache
+ * @param misses        lookups that fell through to the store
+ * @param hitRatio      hits / (hits + misses), 0 before the first lookup
+ * @param evictions     entries removed to make room, including rejected admissions
+ * @param rejections    new entries the admission filter turned away in favour of a more frequent one
+ * @param entries       entries currently cached
+ * @param weight        current weight (entries or estimated bytes)
+ * @param maximumWeight weight limit
+ */
+public record CacheStats(long hits, long misses, double hitRatio, long evictions, long rejections,
+                         long entries, long weight, long maximumWeight) {
+}
@@ -0,0 +1,136 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator answering redirects of hot keys from a {@link HotKeyCache}.
+ * <p>
+ * A hit skips the delegate's read of the mapping (a record decode, or a page fault for the mapped
+ * store) and only bumps its access count through {@link UrlStore#recordAccess}. A miss resolves
+ * through the delegate and offers the result to the cache. Mappings never change once created, so
+ * entries only leave the cache by eviction or through {@link #invalidate} when a mapping is deleted
+ * or expires. All other operations go straight to the delegate.
+ * <p>
+ * A miss that read the mapping just before a concurrent {@link #remove} could put it back after the
+ * removal invalidated it. Removals therefore bump a counter after deleting and before invalidating,
+ * and a miss that sees the counter change while it resolved drops what it put.
+ */
+public class CachingUrlStore implements UrlStore {
+
+    private final UrlStore delegate;
+    private final HotKeyCache cache;
+    private final AtomicLong removals = new AtomicLong();
+
+    public CachingUrlStore(UrlStore delegate, HotKeyCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        return delegate.findOrCreate(originalUrl, factory);
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        return delegate.findOrCreateAll(originalUrls, factory);
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        return delegate.putIfAbsent(shortUrl);
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return delegate.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        String originalUrl = cache.get(shortKey);
+        if (originalUrl != null) {
+            delegate.recordAccess(shortKey);
+            return originalUrl;
+        }
+        long removalsBefore = removals.get();
+        originalUrl = delegate.resolve(shortKey);
+        if (originalUrl != null) {
+            cache.put(shortKey, originalUrl);
+            if (removals.get() != removalsBefore) {
+                cache.invalidate(shortKey);
+            }
+        }
+        return originalUrl;
+    }
+
+    /**
+     * Like {@link #resolve}, but a hit counts no access and a miss is not offered to the cache.
+     */
+    @Override
+    public String peek(String shortKey) {
+        String originalUrl = cache.get(shortKey);
+        return originalUrl != null ? originalUrl : delegate.peek(shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        boolean removed = delegate.remove(shortKey);
+        removals.incrementAndGet();
+        cache.invalidate(shortKey);
+        return removed;
+    }
+
+    /**
+     * Drops a key from the cache; call when its mapping is deleted or expires.
+     */
+    public void invalidate(String shortKey) {
+        cache.invalidate(shortKey);
+    }
+
+    /**
+     * Drops every key from the cache; call after the delegate's mappings were replaced wholesale.
+     * Like {@link #remove}, it bumps the removal counter first, so a miss that read the old mappings drops
+     * what it put.
+     */
+    public void invalidateAll() {
+        removals.incrementAndGet();
+        cache.clear();
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
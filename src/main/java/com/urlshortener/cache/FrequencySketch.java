@@ -0,0 +1,98 @@
+package com.urlshortener.cache;
+
+/**
+ * Count-Min sketch of 4-bit counters estimating how often each key was recently seen (TinyLFU).
+ * <p>
+ * Counters are packed 16 to a long. A key maps to four counters, all in the same 16-counter group of
+ * four different longs, and its frequency is the smallest of them. When the number of increments
+ * reaches ten times the table width every counter is halved, so the estimates follow a sliding
+ * history and keys that were popular long ago age out.
+ * <p>
+ * Not thread-safe; the cache calls it under its eviction lock.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_WIDTH = 1 << 26;
+
+    private long[] table = new long[0];
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * Widens the table to hold about {@code expectedEntries} keys; a resize drops all counts.
+     */
+    void ensureCapacity(long expectedEntries) {
+        int width = (int) Math.min(MAX_WIDTH, Math.max(8, Long.highestOneBit(Math.max(1, expectedEntries) - 1) << 1));
+        if (table.length >= width) {
+            return;
+        }
+        table = new long[width];
+        sampleSize = 10 * width;
+        additions = 0;
+    }
+
+    int capacity() {
+        return table.length;
+    }
+
+    int frequency(int hash) {
+        int h = spread(hash);
+        int start = (h & 3) << 2;
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < 4; i++) {
+            long word = table[indexOf(h, i)];
+            frequency = Math.min(frequency, (int) (word >>> ((start + i) << 2)) & 0xf);
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        int h = spread(hash);
+        int start = (h & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(h, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) == mask) {
+            return false;
+        }
+        table[index] += 1L << offset;
+        return true;
+    }
+
+    // Halves every counter; counts lost to truncation are taken off the number of additions
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
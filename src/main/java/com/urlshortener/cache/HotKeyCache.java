@@ -0,0 +1,444 @@
+package com.urlshortener.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded {@code shortKey -> originalUrl} cache with W-TinyLFU eviction (Einziger et al.), for keeping
+ * the hot keys of a skewed redirect workload in front of a slower store.
+ * <p>
+ * New entries enter a small LRU window (1% of the weight limit). An entry leaving the window is only
+ * admitted to the main segmented LRU if a {@link FrequencySketch} estimates it was requested more
+ * often than the entry it would evict, so a burst of one-off keys cannot flush the popular ones. In
+ * the main area entries hit again move from probation to a protected segment (80% of it).
+ * <p>
+ * Lookups read a {@link ConcurrentHashMap} without locking. The policy update for a hit is recorded
+ * in a small per-stripe ring buffer and applied in batches by whichever thread gets the eviction
+ * lock; when a buffer is full the update is dropped, which only makes the policy slightly less
+ * precise. Inserts and invalidations take the lock.
+ * <p>
+ * The limit is either an entry count or an estimate of retained heap bytes.
+ */
+public class HotKeyCache {
+
+    /**
+     * Approximate heap bytes of an entry besides its characters (node, map entry, two Latin-1 strings).
+     */
+    static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    // Node.queue: not in any queue (new, or leaving the window), in one of the queues, or dropped
+    private static final int UNLINKED = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int REMOVED = 4;
+
+    private static final int ADMIT_HASHDOS_THRESHOLD = 6;
+    private static final int READ_BUFFER_SLOTS = 32;
+    private static final int DRAIN_THRESHOLD = READ_BUFFER_SLOTS / 2;
+    // Stripe counters are spaced a cache line apart
+    private static final int PAD = 16;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+    private final boolean weighBytes;
+    private final long maximumWeight;
+    private final long maxWindow;
+    private final long maxMain;
+    private final long maxProtected;
+
+    // Recorded hits: a ring of READ_BUFFER_SLOTS per stripe; tails advanced by readers, heads by the drain
+    private final int stripeMask;
+    private final AtomicReferenceArray<Node> readBuffer;
+    private final AtomicLongArray readTails;
+    private final AtomicLongArray readHeads;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Policy state, guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private long windowWeight;
+    private long mainWeight;
+    private long protectedWeight;
+    private long evictions;
+    private long rejections;
+
+    private HotKeyCache(long maximumWeight, boolean weighBytes) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Cache limit must be positive");
+        }
+        this.weighBytes = weighBytes;
+        this.maximumWeight = maximumWeight;
+        this.maxWindow = Math.max(1, maximumWeight / 100);
+        this.maxMain = maximumWeight - maxWindow;
+        this.maxProtected = maxMain * 4 / 5;
+
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        this.stripeMask = stripes - 1;
+        this.readBuffer = new AtomicReferenceArray<>(stripes * READ_BUFFER_SLOTS);
+        this.readTails = new AtomicLongArray(stripes * PAD);
+        this.readHeads = new AtomicLongArray(stripes * PAD);
+        sketch.ensureCapacity(weighBytes ? 1024 : maximumWeight);
+    }
+
+    /**
+     * @param maximumEntries number of entries to keep
+     */
+    public static HotKeyCache ofEntries(long maximumEntries) {
+        return new HotKeyCache(maximumEntries, false);
+    }
+
+    /**
+     * @param maximumBytes estimated heap bytes to keep, counting {@link #ENTRY_OVERHEAD_BYTES} plus
+     *                     the key and URL length per entry
+     */
+    public static HotKeyCache ofBytes(long maximumBytes) {
+        return new HotKeyCache(maximumBytes, true);
+    }
+
+    /**
+     * @return the cached URL of the key, or null if it is not cached
+     */
+    public String get(String shortKey) {
+        Node node = data.get(shortKey);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordHit(node);
+        return node.value;
+    }
+
+    /**
+     * Offers a mapping to the cache. It is kept if the admission policy favours it over the entries it
+     * would displace; a key already cached keeps its value.
+     */
+    public void put(String shortKey, String originalUrl) {
+        Node node = new Node(shortKey, originalUrl, weigh(shortKey, originalUrl));
+        if (data.putIfAbsent(shortKey, node) != null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            drainHits();
+            if (node.queue == UNLINKED) {
+                onAdd(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the key, e.g. because its mapping was deleted or expired. Later lookups miss until it is put again.
+     */
+    public void invalidate(String shortKey) {
+        Node node = data.remove(shortKey);
+        if (node == null) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            unlink(node);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Drops every key, e.g. because the mappings behind the cache were replaced.
+     */
+    public void clear() {
+        for (String shortKey : data.keySet()) {
+            invalidate(shortKey);
+        }
+    }
+
+    /**
+     * @return number of cached entries
+     */
+    public long size() {
+        return data.size();
+    }
+
+    /**
+     * Lists cached keys hottest first: the protected segment, then probation, then the window, each
+     * from most to least recently used.
+     *
+     * @param limit maximum number of keys to return
+     */
+    public List<String> hotKeys(int limit) {
+        List<String> keys = new ArrayList<>((int) Math.min(limit, data.size()));
+        evictionLock.lock();
+        try {
+            drainHits();
+            for (AccessQueue queue : new AccessQueue[]{protectedQueue, probation, window}) {
+                for (Node node = queue.last; node != null && keys.size() < limit; node = node.prev) {
+                    keys.add(node.key);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return keys;
+    }
+
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        evictionLock.lock();
+        try {
+            return new CacheStats(hitCount, missCount, lookups == 0 ? 0 : (double) hitCount / lookups,
+                    evictions, rejections, data.size(), windowWeight + mainWeight, maximumWeight);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Applies buffered hits to the policy now instead of on a later operation.
+     */
+    void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainHits();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void recordHit(Node node) {
+        int stripe = stripeIndex();
+        int counter = stripe * PAD;
+        long head = readHeads.get(counter);
+        long tail = readTails.get(counter);
+        long pending = tail - head;
+        if (pending < READ_BUFFER_SLOTS && readTails.compareAndSet(counter, tail, tail + 1)) {
+            readBuffer.lazySet(stripe * READ_BUFFER_SLOTS + (int) (tail & (READ_BUFFER_SLOTS - 1)), node);
+            pending++;
+        }
+        if (pending >= DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainHits();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    // Caller holds evictionLock
+    private void drainHits() {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int counter = stripe * PAD;
+            long head = readHeads.get(counter);
+            long tail = readTails.get(counter);
+            for (; head < tail; head++) {
+                int slot = stripe * READ_BUFFER_SLOTS + (int) (head & (READ_BUFFER_SLOTS - 1));
+                Node node = readBuffer.get(slot);
+                if (node == null) {
+                    break; // claimed by a reader that has not stored it yet
+                }
+                readBuffer.lazySet(slot, null);
+                onHit(node);
+            }
+            readHeads.lazySet(counter, head);
+        }
+    }
+
+    private void onAdd(Node node) {
+        sketch.ensureCapacity(data.size());
+        sketch.increment(node.key.hashCode());
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowWeight += node.weight;
+        while (windowWeight > maxWindow) {
+            Node candidate = window.pollFirst();
+            windowWeight -= candidate.weight;
+            candidate.queue = UNLINKED;
+            admit(candidate);
+        }
+    }
+
+    private void onHit(Node node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > maxProtected) {
+                    Node demoted = protectedQueue.pollFirst();
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+            }
+            case PROTECTED -> protectedQueue.moveToBack(node);
+            default -> {
+                return; // not linked yet, or already removed
+            }
+        }
+        sketch.increment(node.key.hashCode());
+    }
+
+    /**
+     * Moves a candidate leaving the window into probation if it beats the least recently used main
+     * entries it has to displace, otherwise drops it.
+     */
+    private void admit(Node candidate) {
+        int candidateFrequency = -1;
+        while (mainWeight + candidate.weight > maxMain) {
+            Node victim = probation.peekFirst() != null ? probation.peekFirst() : protectedQueue.peekFirst();
+            if (victim == null) {
+                break; // heavier than the whole main area
+            }
+            if (candidateFrequency < 0) {
+                candidateFrequency = sketch.frequency(candidate.key.hashCode());
+            }
+            if (!admits(candidateFrequency, sketch.frequency(victim.key.hashCode()))) {
+                rejections++;
+                evict(candidate);
+                return;
+            }
+            evict(victim);
+        }
+        if (mainWeight + candidate.weight > maxMain) {
+            evict(candidate);
+            return;
+        }
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+        mainWeight += candidate.weight;
+    }
+
+    private static boolean admits(int candidateFrequency, int victimFrequency) {
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        if (candidateFrequency < ADMIT_HASHDOS_THRESHOLD) {
+            return false;
+        }
+        // A warm candidate occasionally wins a tie, so colliding keys cannot pin a victim in place
+        return (ThreadLocalRandom.current().nextInt() & 127) == 0;
+    }
+
+    private void evict(Node node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictions++;
+    }
+
+    private void unlink(Node node) {
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> {
+                probation.remove(node);
+                mainWeight -= node.weight;
+            }
+            case PROTECTED -> {
+                protectedQueue.remove(node);
+                mainWeight -= node.weight;
+                protectedWeight -= node.weight;
+            }
+            default -> {
+            }
+        }
+        node.queue = REMOVED;
+    }
+
+    private int weigh(String shortKey, String originalUrl) {
+        return weighBytes ? ENTRY_OVERHEAD_BYTES + shortKey.length() + originalUrl.length() : 1;
+    }
+
+    private int stripeIndex() {
+        int h = System.identityHashCode(Thread.currentThread());
+        h ^= h >>> 16;
+        return h & stripeMask;
+    }
+
+    private static final class Node {
+        final String key;
+        final String value;
+        final int weight;
+
+        // Guarded by evictionLock
+        int queue = UNLINKED;
+        Node prev;
+        Node next;
+
+        Node(String key, String value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list, least recently used first.
+     */
+    private static final class AccessQueue {
+        private Node first;
+        private Node last;
+
+        Node peekFirst() {
+            return first;
+        }
+
+        Node pollFirst() {
+            Node node = first;
+            if (node != null) {
+                remove(node);
+            }
+            return node;
+        }
+
+        void addLast(Node node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Carries the hot-key set of a {@link HotKeyCache} across restarts: {@link #close} writes the cached
+ * keys to a text file, hottest first, and {@link #load} refills the cache from it on the next start,
+ * so the first redirects of popular keys do not all miss.
+ * <p>
+ * The file holds keys only, one per line; their URLs are read back from the store, so a key deleted
+ * or expired in the meantime is simply skipped. A node can also be started with a file copied from
+ * another node serving the same shard.
+ */
+@Slf4j
+public class HotKeySnapshot implements AutoCloseable {
+
+    private final HotKeyCache cache;
+    private final Path file;
+    private final int maxKeys;
+
+    /**
+     * @param maxKeys maximum number of keys written on close
+     */
+    public HotKeySnapshot(HotKeyCache cache, Path file, int maxKeys) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        this.cache = cache;
+        this.file = file;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Puts the keys listed in the file into the cache, with their URLs read from the store.
+     * Reading a mapping does not count as an access.
+     *
+     * @return number of keys cached; 0 if there is no file yet
+     */
+    public int load(UrlStore store) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            String key;
+            while ((key = reader.readLine()) != null) {
+                if (key.isEmpty()) {
+                    continue;
+                }
+                ShortUrl shortUrl = store.findByKey(key);
+                if (shortUrl != null) {
+                    cache.put(key, shortUrl.getOriginalUrl());
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Writes the current hot keys, replacing the file atomically.
+     *
+     * @return number of keys written
+     */
+    public int save() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.US_ASCII)) {
+            for (String key : cache.hotKeys(maxKeys)) {
+                writer.write(key);
+                writer.newLine();
+                written++;
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Saves the hot keys; a failure is logged, as it only costs the next start its warm cache.
+     */
+    @Override
+    public void close() {
+        try {
+            log.info("Saved {} hot keys to {}", save(), file);
+        } catch (IOException e) {
+            log.warn("Could not save hot keys to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.urlshortener.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.exception.LinkExpiredException;
+import com.urlshortener.exception.ServiceUnavailableException;
+import com.urlshortener.model.ShortUrl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forwards requests to the node that owns a key or URL, through that node's internal API
+ * ({@code /api/internal/}), which neither counts clicks nor records creates in its metrics: the node that
+ * received the request has already done both. Owners answer forwarded requests locally because every node
+ * uses the same ring.
+ */
+public class ClusterClient {
+
+    /** Lookups ({@code GET <MAPPINGS>/<key>}) and creates ({@code POST <MAPPINGS>}) on the owner. */
+    public static final String MAPPINGS = "/api/internal/mappings";
+    /** Access counts of redirects served by other nodes ({@code POST}, body: key to count). */
+    public static final String ACCESSES = "/api/internal/accesses";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<String, URI> baseUrls;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+
+    /**
+     * @param baseUrls base URL of every node, by node id
+     */
+    public ClusterClient(Map<String, URI> baseUrls) {
+        this.baseUrls = Map.copyOf(baseUrls);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+    }
+
+    /**
+     * Looks up a key on its owner without recording an access; see {@link #recordAccesses}.
+     *
+     * @return the original URL, or null if the owner does not know the key
+     * @throws LinkExpiredException        if the owner answered 410
+     * @throws ServiceUnavailableException if the owner answered 503, with its Retry-After
+     */
+    public String resolve(String node, String shortKey) {
+        HttpRequest request = HttpRequest.newBuilder(uri(node, MAPPINGS + "/" + shortKey))
+                .timeout(TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = send(node, request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() == 200) {
+            JsonNode originalUrl;
+            try {
+                originalUrl = json.readTree(response.body()).get("originalUrl");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Invalid lookup response from node " + node, e);
+            }
+            if (originalUrl == null || !originalUrl.isTextual()) {
+                throw new IllegalStateException("Lookup response without originalUrl from node " + node);
+            }
+            return originalUrl.asText();
+        }
+        if (response.statusCode() == 404) {
+            return null;
+        }
+        if (response.statusCode() == 410) {
+            throw new LinkExpiredException("Short URL has expired: " + shortKey);
+        }
+        checkAvailable(node, response);
+        throw new IllegalStateException("Node " + node + " answered " + response.statusCode() + " for key " + shortKey);
+    }
+
+    /**
+     * Adds access counts of redirects served elsewhere to the owner's mappings.
+     *
+     * @param counts accesses to add, by short key; keys the owner does not know are ignored
+     * @throws ServiceUnavailableException if the owner answered 503, with its Retry-After
+     */
+    public void recordAccesses(String node, Map<String, Long> counts) {
+        HttpResponse<Void> response = send(node, post(node, ACCESSES, counts), HttpResponse.BodyHandlers.discarding());
+        checkAvailable(node, response);
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Node " + node + " answered " + response.statusCode() + " to access counts");
+        }
+    }
+
+    /**
+     * Creates (or finds) mappings on their owner with one batch request.
+     *
+     * @param originalUrls normalized URLs owned by the node
+     * @return the owner's mappings in input order (short key and URL; creation time and count are not transferred)
+     * @throws ServiceUnavailableException if the owner answered 503, with its Retry-After
+     */
+    public List<ShortUrl> createAll(String node, List<String> originalUrls) {
+        List<Map<String, String>> body = new ArrayList<>(originalUrls.size());
+        for (String url : originalUrls) {
+            body.add(Map.of("originalUrl", url));
+        }
+        HttpResponse<byte[]> response = send(node, post(node, MAPPINGS, body), HttpResponse.BodyHandlers.ofByteArray());
+        checkAvailable(node, response);
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Node " + node + " answered " + response.statusCode() + " to a create");
+        }
+
+        List<ShortUrl> created = new ArrayList<>(originalUrls.size());
+        try {
+            for (JsonNode item : json.readTree(response.body())) {
+                if (item.hasNonNull("error")) {
+                    throw new IllegalStateException("Node " + node + " rejected "
+                            + item.path("originalUrl").asText() + ": " + item.get("error").asText());
+                }
+                ShortUrl shortUrl = new ShortUrl();
+                shortUrl.setOriginalUrl(item.get("originalUrl").asText());
+                shortUrl.setShortKey(item.get("shortKey").asText());
+                created.add(shortUrl);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid create response from node " + node, e);
+        }
+        return created;
+    }
+
+    // An overloaded owner is passed through as such, so clients back off instead of seeing a 500
+    private static void checkAvailable(String node, HttpResponse<?> response) {
+        if (response.statusCode() == 503) {
+            throw new ServiceUnavailableException("Node " + node + " is unavailable, retry later",
+                    response.headers().firstValue("Retry-After").orElse(null));
+        }
+    }
+
+    private HttpRequest post(String node, String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri(node, path))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private URI uri(String node, String path) {
+        URI base = baseUrls.get(node);
+        if (base == null) {
+            throw new IllegalArgumentException("Unknown cluster node " + node);
+        }
+        return base.resolve(path);
+    }
+
+    private <T> HttpResponse<T> send(String node, HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        try {
+            return http.send(request, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Forwarding to node " + node + " failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while forwarding to node " + node, e);
+        }
+    }
+}
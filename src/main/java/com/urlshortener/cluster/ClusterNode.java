@@ -0,0 +1,49 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.id.IdAllocator;
+import com.urlshortener.store.UrlStore;
+
+/**
+ * This process's membership in the cluster: its id, the shared ring and the client to reach the other nodes.
+ */
+public class ClusterNode {
+
+    private final String self;
+    private final HashRing ring;
+    private final ClusterClient client;
+    private final int readCacheSize;
+    private final long accessFlushMillis;
+
+    public ClusterNode(String self, HashRing ring, ClusterClient client, int readCacheSize, long accessFlushMillis) {
+        if (!ring.nodes().contains(self)) {
+            throw new IllegalArgumentException("Node " + self + " is not on the ring " + ring.nodes());
+        }
+        this.self = self;
+        this.ring = ring;
+        this.client = client;
+        this.readCacheSize = readCacheSize;
+        this.accessFlushMillis = accessFlushMillis;
+    }
+
+    /**
+     * @return a store that keeps owned mappings in the local shard and forwards the rest
+     */
+    public UrlStore shard(UrlStore local) {
+        return new ShardedUrlStore(local, ring, self, client, readCacheSize, accessFlushMillis);
+    }
+
+    /**
+     * @return an allocator that only returns ids whose keys this node owns
+     */
+    public IdAllocator shard(IdAllocator ids) {
+        return new ShardedIdAllocator(ids, ring, self);
+    }
+
+    public String self() {
+        return self;
+    }
+
+    public HashRing ring() {
+        return ring;
+    }
+}
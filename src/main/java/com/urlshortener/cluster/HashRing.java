@@ -0,0 +1,75 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.store.UrlHashing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consistent-hash ring with virtual nodes.
+ * Each node is placed at {@code virtualNodes} points, hash(nodeId + "#" + i); a 64-bit hash belongs to
+ * the node at the first point at or after it, wrapping around. Adding or removing a node only moves
+ * the hashes next to its points, about 1/N of the space.
+ */
+public class HashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodes;
+
+    /**
+     * @param nodes        node ids; every node of the cluster must use the same ids and virtual node count
+     * @param virtualNodes points per node
+     */
+    public HashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+        }
+        this.nodes = List.copyOf(nodes);
+        int count = nodes.size() * virtualNodes;
+        long[][] entries = new long[count][];
+        int i = 0;
+        for (int n = 0; n < this.nodes.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[i++] = new long[]{UrlHashing.hash(this.nodes.get(n) + "#" + v), n};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[count];
+        this.owners = new String[count];
+        for (i = 0; i < count; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * @return id of the node owning the hash
+     */
+    public String ownerOf(long hash) {
+        int i = Arrays.binarySearch(points, hash);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /**
+     * @return id of the node owning the short key
+     */
+    public String ownerOfKey(String shortKey) {
+        return ownerOf(UrlHashing.hash(shortKey));
+    }
+
+    /**
+     * @return id of the node owning the normalized URL
+     */
+    public String ownerOfUrl(String originalUrl) {
+        return ownerOf(UrlHashing.hash(originalUrl));
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+}
@@ -0,0 +1,38 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.id.IdAllocator;
+import com.urlshortener.util.Base62Util;
+
+/**
+ * Restricts an {@link IdAllocator} to ids whose Base62 key the ring assigns to this node.
+ * Other ids are skipped, so on N nodes each node uses about 1/N of its allocator's ids. Because a
+ * key's owner is a function of the key alone, two nodes can never mint the same key, even when
+ * their allocators hand out overlapping ids.
+ */
+public class ShardedIdAllocator implements IdAllocator {
+
+    private final IdAllocator delegate;
+    private final HashRing ring;
+    private final String self;
+
+    public ShardedIdAllocator(IdAllocator delegate, HashRing ring, String self) {
+        this.delegate = delegate;
+        this.ring = ring;
+        this.self = self;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long id = delegate.nextId();
+            if (ring.ownerOfKey(Base62Util.encode(id)).equals(self)) {
+                return id;
+            }
+        }
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        delegate.advanceTo(id);
+    }
+}
@@ -0,0 +1,221 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator for cluster mode: keys and URLs are partitioned over a {@link HashRing}.
+ * <p>
+ * A mapping lives on the node owning its URL, and that node only mints keys the ring also assigns
+ * to it ({@link ShardedIdAllocator}), so both directions of a mapping are on one node. Creates and
+ * lookups for URLs and keys owned elsewhere are forwarded to the owner; redirect targets of
+ * forwarded keys are kept in a bounded {@link HotKeyCache}, so repeated redirects of popular remote
+ * keys are answered locally. Cached targets never expire, which is why link expiration (and so a
+ * create's TTL) is rejected in cluster mode.
+ * <p>
+ * Clicks and creates are recorded (click tracker, events, metrics) by the node that received them; owners
+ * do not record forwarded requests again. Access counts of remote keys, whether looked up or served from
+ * the cache, are summed per key and sent to their owners every {@code accessFlushMillis}, so an owner's
+ * counts lag by up to that long. Counts that cannot be sent are kept and sent with the next flush.
+ * <p>
+ * Bulk operations (putIfAbsent, forEach, size, maxId) and findByKey act on the local shard only.
+ */
+@Slf4j
+public class ShardedUrlStore implements UrlStore {
+
+    private final UrlStore local;
+    private final HashRing ring;
+    private final String self;
+    private final ClusterClient client;
+    private final HotKeyCache readCache;
+
+    // Accesses of remote keys not yet sent to their owners
+    private final ConcurrentHashMap<String, Long> pendingAccesses = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param local             this node's shard
+     * @param ring              cluster ring, identical on every node
+     * @param self              id of this node on the ring
+     * @param client            forwards requests to other nodes
+     * @param readCacheSize     redirect targets of remote keys to keep, 0 to disable
+     * @param accessFlushMillis interval between sends of remote keys' access counts to their owners
+     */
+    public ShardedUrlStore(UrlStore local, HashRing ring, String self, ClusterClient client, int readCacheSize,
+                           long accessFlushMillis) {
+        this.local = local;
+        this.ring = ring;
+        this.self = self;
+        this.client = client;
+        this.readCache = readCacheSize > 0 ? HotKeyCache.ofEntries(readCacheSize) : null;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-access-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAccesses, accessFlushMillis, accessFlushMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        String owner = ring.ownerOfUrl(originalUrl);
+        if (owner.equals(self)) {
+            return local.findOrCreate(originalUrl, factory);
+        }
+        return client.createAll(owner, List.of(originalUrl)).get(0);
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        // Group by owner, one request per remote node, then reassemble in input order
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < originalUrls.size(); i++) {
+            positions.computeIfAbsent(ring.ownerOfUrl(originalUrls.get(i)), node -> new ArrayList<>()).add(i);
+        }
+        ShortUrl[] result = new ShortUrl[originalUrls.size()];
+        for (Map.Entry<String, List<Integer>> group : positions.entrySet()) {
+            List<String> urls = new ArrayList<>(group.getValue().size());
+            for (int i : group.getValue()) {
+                urls.add(originalUrls.get(i));
+            }
+            List<ShortUrl> created = group.getKey().equals(self)
+                    ? local.findOrCreateAll(urls, factory)
+                    : client.createAll(group.getKey(), urls);
+            for (int j = 0; j < created.size(); j++) {
+                result[group.getValue().get(j)] = created.get(j);
+            }
+        }
+        return List.of(result);
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        return local.putIfAbsent(shortUrl);
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return local.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        String owner = ring.ownerOfKey(shortKey);
+        if (owner.equals(self)) {
+            return local.resolve(shortKey);
+        }
+        String originalUrl = readCache == null ? null : readCache.get(shortKey);
+        if (originalUrl == null) {
+            originalUrl = client.resolve(owner, shortKey);
+            if (originalUrl == null) {
+                return null;
+            }
+            if (readCache != null) {
+                readCache.put(shortKey, originalUrl);
+            }
+        }
+        pendingAccesses.merge(shortKey, 1L, Long::sum);
+        return originalUrl;
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        String owner = ring.ownerOfKey(shortKey);
+        if (owner.equals(self)) {
+            return local.peek(shortKey);
+        }
+        String originalUrl = readCache == null ? null : readCache.get(shortKey);
+        return originalUrl != null ? originalUrl : client.resolve(owner, shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        recordAccesses(shortKey, 1);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        if (ring.ownerOfKey(shortKey).equals(self)) {
+            local.recordAccesses(shortKey, count);
+        } else {
+            pendingAccesses.merge(shortKey, count, Long::sum);
+        }
+    }
+
+    /**
+     * Removes the key from this node's shard and read cache; each node expires the keys it owns.
+     */
+    @Override
+    public boolean remove(String shortKey) {
+        if (readCache != null) {
+            readCache.invalidate(shortKey);
+        }
+        return ring.ownerOfKey(shortKey).equals(self) && local.remove(shortKey);
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        local.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return local.size();
+    }
+
+    @Override
+    public long maxId() {
+        return local.maxId();
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                flushAccesses();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            local.close();
+        }
+    }
+
+    /**
+     * Sends the pending access counts, one request per owner. Counts of an owner that cannot be reached
+     * are put back.
+     */
+    void flushAccesses() {
+        Map<String, Map<String, Long>> byOwner = new HashMap<>();
+        for (String key : pendingAccesses.keySet()) {
+            Long count = pendingAccesses.remove(key);
+            if (count != null) {
+                byOwner.computeIfAbsent(ring.ownerOfKey(key), node -> new HashMap<>()).put(key, count);
+            }
+        }
+        for (Map.Entry<String, Map<String, Long>> owner : byOwner.entrySet()) {
+            try {
+                client.recordAccesses(owner.getKey(), owner.getValue());
+            } catch (RuntimeException e) {
+                log.warn("Could not send access counts to node {}, retrying later: {}", owner.getKey(), e.toString());
+                owner.getValue().forEach((key, count) -> pendingAccesses.merge(key, count, Long::sum));
+            }
+        }
+    }
+}
@@ -14,6 +14,14 @@ public class AppConfig {
     @Value("${app.short-url-prefix:/r/}")
     private String shortUrlPrefix;
 
+    // Largest JSON array accepted by the batch endpoint
+    @Value("${app.batch.max-size:10000}")
+    private int batchMaxSize;
+
+    // Lines of a streamed NDJSON batch shortened (and written back) together
+    @Value("${app.batch.chunk-size:1000}")
+    private int batchChunkSize;
+
     public String buildShortUrl(String key) {
         return baseUrl + shortUrlPrefix + key;
     }
@@ -0,0 +1,58 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cluster.ClusterClient;
+import com.urlshortener.cluster.ClusterNode;
+import com.urlshortener.cluster.HashRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cluster mode ({@code app.cluster.enabled=true}): short keys and URLs are partitioned over a consistent-hash
+ * ring of the nodes in {@code app.cluster.nodes} (id=baseUrl, comma separated). Every node must use the same
+ * node list and virtual node count; {@code app.cluster.node-id} names this node.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Value("${app.cluster.node-id}")
+    private String nodeId;
+
+    @Value("${app.cluster.nodes}")
+    private String nodes;
+
+    @Value("${app.cluster.virtual-nodes:128}")
+    private int virtualNodes;
+
+    @Value("${app.cluster.read-cache-size:10000}")
+    private int readCacheSize;
+
+    @Value("${app.cluster.access-flush-millis:1000}")
+    private long accessFlushMillis;
+
+    @Bean
+    public ClusterNode clusterNode() {
+        Map<String, URI> baseUrls = parseNodes(nodes);
+        HashRing ring = new HashRing(baseUrls.keySet(), virtualNodes);
+        return new ClusterNode(nodeId, ring, new ClusterClient(baseUrls), readCacheSize, accessFlushMillis);
+    }
+
+    static Map<String, URI> parseNodes(String nodes) {
+        Map<String, URI> baseUrls = new LinkedHashMap<>();
+        for (String entry : nodes.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Invalid app.cluster.nodes entry '" + entry.trim()
+                        + "', expected id=baseUrl");
+            }
+            baseUrls.put(entry.substring(0, eq).trim(), URI.create(entry.substring(eq + 1).trim()));
+        }
+        return baseUrls;
+    }
+}
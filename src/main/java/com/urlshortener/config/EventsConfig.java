@@ -0,0 +1,62 @@
+package com.urlshortener.config;
+
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.events.ClickEventSink;
+import com.urlshortener.events.FullPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the click-event pipeline when {@code app.events.enabled=true}: every redirect is queued as an
+ * event and written to rolling gzip files under {@code app.events.path}.
+ * Client addresses are hashed with {@code app.events.client-hash-salt}; when it is empty a random salt
+ * is used, so hashes cannot be joined across restarts.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.events.enabled", havingValue = "true")
+public class EventsConfig {
+
+    @Value("${app.events.path:data/events}")
+    private String path;
+
+    @Value("${app.events.capacity:65536}")
+    private int capacity;
+
+    @Value("${app.events.on-full:drop}")
+    private String onFull;
+
+    @Value("${app.events.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${app.events.file.max-bytes:67108864}")
+    private long maxFileBytes;
+
+    @Value("${app.events.file.max-age-seconds:300}")
+    private long maxFileAgeSeconds;
+
+    @Value("${app.events.client-hash-salt:}")
+    private String clientHashSalt;
+
+    @Bean
+    public ClickEventPipeline clickEventPipeline() throws IOException {
+        byte[] salt = clientHashSalt.getBytes(StandardCharsets.UTF_8);
+        if (salt.length == 0) {
+            log.info("app.events.client-hash-salt is not set; client hashes change on every restart");
+            salt = new byte[16];
+            new SecureRandom().nextBytes(salt);
+        }
+        ClickEventSink sink = new ClickEventSink(Path.of(path), maxFileBytes,
+                TimeUnit.SECONDS.toMillis(maxFileAgeSeconds), salt);
+        return new ClickEventPipeline(capacity, FullPolicy.valueOf(onFull.toUpperCase()), sink, batchSize);
+    }
+}
@@ -0,0 +1,52 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cluster.ClusterNode;
+import com.urlshortener.id.BlockCoordinator;
+import com.urlshortener.id.FileBlockCoordinator;
+import com.urlshortener.id.IdAllocator;
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.store.UrlStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Builds the {@link IdAllocator} that short keys are minted from.
+ * The block coordinator is selected via {@code app.id.coordinator}:
+ * - memory (default): leases restart after the store's highest id; single node only
+ * - file: high-water mark kept in {@code app.id.file}; shared by every process using the same file,
+ *   and never reissued after a restart
+ * In cluster mode only ids whose keys this node owns on the ring are used.
+ */
+@Configuration
+public class IdConfig {
+
+    @Value("${app.id.coordinator:memory}")
+    private String coordinator;
+
+    @Value("${app.id.file:data/id-lease}")
+    private String file;
+
+    @Value("${app.id.block-size:10000}")
+    private long blockSize;
+
+    @Value("${app.id.sub-block-size:100}")
+    private int subBlockSize;
+
+    @Bean
+    public IdAllocator idAllocator(UrlStore store, ObjectProvider<ClusterNode> cluster) throws IOException {
+        BlockCoordinator blocks = switch (coordinator) {
+            case "memory" -> new InMemoryBlockCoordinator(store.maxId());
+            case "file" -> new FileBlockCoordinator(Path.of(file));
+            default -> throw new IllegalArgumentException("Unknown app.id.coordinator: " + coordinator);
+        };
+        IdAllocator ids = new LeasedIdAllocator(blocks, blockSize, subBlockSize);
+        ClusterNode node = cluster.getIfAvailable();
+        return node == null ? ids : node.shard(ids);
+    }
+}
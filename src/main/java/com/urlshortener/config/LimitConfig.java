@@ -0,0 +1,71 @@
+package com.urlshortener.config;
+
+import com.urlshortener.limit.ConcurrencyLimitFilter;
+import com.urlshortener.limit.ConcurrencyLimiter;
+import com.urlshortener.limit.RequestLimits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive concurrency limits when {@code app.limit.enabled=true}: redirects and {@code /api/} requests
+ * each get a budget that starts at its maximum and shrinks while their latency shows queueing.
+ * Requests over budget are answered 503 at once. Keep the maximums below the server's worker threads
+ * ({@code server.tomcat.threads.max}), so a full budget never holds every thread. Servlet stack only: the
+ * reactive stack has no worker threads for a burst to hold.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "app.limit.enabled", havingValue = "true")
+public class LimitConfig {
+
+    @Value("${app.limit.redirect.min:8}")
+    private int redirectMin;
+
+    @Value("${app.limit.redirect.max:150}")
+    private int redirectMax;
+
+    @Value("${app.limit.api.min:2}")
+    private int apiMin;
+
+    @Value("${app.limit.api.max:40}")
+    private int apiMax;
+
+    @Value("${app.limit.tolerance:2.0}")
+    private double tolerance;
+
+    @Value("${app.limit.latency-floor-millis:5}")
+    private long latencyFloorMillis;
+
+    @Value("${app.limit.window-samples:100}")
+    private int windowSamples;
+
+    @Value("${app.limit.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Bean
+    public RequestLimits requestLimits() {
+        long floor = TimeUnit.MILLISECONDS.toNanos(latencyFloorMillis);
+        return new RequestLimits(
+                new ConcurrencyLimiter("redirect", redirectMin, redirectMax, tolerance, floor, windowSamples),
+                new ConcurrencyLimiter("api", apiMin, apiMax, tolerance, floor, windowSamples));
+    }
+
+    /**
+     * Registered ahead of the redirect fast path, so redirects are counted against their budget too.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(RequestLimits limits,
+                                                                               AppConfig appConfig) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(limits, appConfig.getShortUrlPrefix(), retryAfterSeconds));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
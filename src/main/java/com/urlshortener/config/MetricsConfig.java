@@ -0,0 +1,44 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.expiration.ExpirationManager;
+import com.urlshortener.limit.RequestLimits;
+import com.urlshortener.metrics.ShortenerMetrics;
+import com.urlshortener.replication.ReplicationFollower;
+import com.urlshortener.replication.ReplicationServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the shortener's Micrometer meters with the actuator's registry; they are scraped from
+ * {@code /actuator/prometheus}.
+ * Redirects are timed for one in {@code app.metrics.redirect-timing-sample-rate} requests
+ * (1 times every redirect, 0 none); they are always counted.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Value("${app.metrics.redirect-timing-sample-rate:64}")
+    private int redirectTimingSampleRate;
+
+    @Bean
+    public ShortenerMetrics shortenerMetrics(MeterRegistry registry, ObjectProvider<HotKeyCache> hotKeyCache,
+                                             ObjectProvider<ClickEventPipeline> clickEvents,
+                                             ObjectProvider<ExpirationManager> expiration,
+                                             ObjectProvider<RequestLimits> limits,
+                                             ObjectProvider<ReplicationServer> replicationServer,
+                                             ObjectProvider<ReplicationFollower> replicationFollower) {
+        ShortenerMetrics metrics = new ShortenerMetrics(registry, redirectTimingSampleRate);
+        hotKeyCache.ifAvailable(metrics::bind);
+        clickEvents.ifAvailable(metrics::bind);
+        expiration.ifAvailable(metrics::bind);
+        limits.ifAvailable(metrics::bind);
+        replicationServer.ifAvailable(metrics::bind);
+        replicationFollower.ifAvailable(metrics::bind);
+        return metrics;
+    }
+}
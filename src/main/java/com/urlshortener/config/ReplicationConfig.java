@@ -0,0 +1,64 @@
+package com.urlshortener.config;
+
+import com.urlshortener.replication.ReplicationFollower;
+import com.urlshortener.replication.ReplicationLog;
+import com.urlshortener.replication.ReplicationServer;
+import com.urlshortener.store.UrlStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * Leader-follower replication, selected via {@code app.replication.role}:
+ * - none (default): a standalone node
+ * - leader: shortens links and streams creates, expiries and access counts to followers on
+ *   {@code app.replication.port}
+ * - follower: copies the leader at {@code app.replication.leader-host}:{@code app.replication.port} and serves
+ *   redirects from the copy; shortening is forwarded to {@code app.replication.leader-url}
+ * Replication cannot be combined with cluster mode.
+ */
+@Configuration
+public class ReplicationConfig {
+
+    @Value("${app.replication.port:9090}")
+    private int port;
+
+    @Value("${app.replication.log-capacity:1000000}")
+    private int logCapacity;
+
+    @Value("${app.replication.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${app.replication.count-interval-millis:1000}")
+    private long countIntervalMillis;
+
+    @Value("${app.replication.heartbeat-millis:1000}")
+    private long heartbeatMillis;
+
+    @Value("${app.replication.leader-host:localhost}")
+    private String leaderHost;
+
+    @Value("${app.replication.reconnect-millis:1000}")
+    private long reconnectMillis;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "leader")
+    public ReplicationLog replicationLog() {
+        return new ReplicationLog(logCapacity, countIntervalMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "leader")
+    public ReplicationServer replicationServer(ReplicationLog replicationLog, UrlStore store) throws IOException {
+        return new ReplicationServer(replicationLog, store, port, batchSize, heartbeatMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.replication.role", havingValue = "follower")
+    public ReplicationFollower replicationFollower() {
+        return new ReplicationFollower(leaderHost, port, reconnectMillis, heartbeatMillis);
+    }
+}
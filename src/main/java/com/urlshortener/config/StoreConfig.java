@@ -0,0 +1,210 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cache.CachingUrlStore;
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.cluster.ClusterNode;
+import com.urlshortener.expiration.ExpirationManager;
+import com.urlshortener.expiration.ExpiringUrlStore;
+import com.urlshortener.persistence.FsyncPolicy;
+import com.urlshortener.persistence.PersistenceManager;
+import com.urlshortener.replication.ReplicaUrlStore;
+import com.urlshortener.replication.ReplicatingUrlStore;
+import com.urlshortener.replication.ReplicationFollower;
+import com.urlshortener.replication.ReplicationLog;
+import com.urlshortener.store.ColumnarUrlStore;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.KeyFilterUrlStore;
+import com.urlshortener.store.MappedUrlStore;
+import com.urlshortener.store.UrlStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@link UrlStore}.
+ * The backend is selected via {@code app.store.type}:
+ * - memory (default): on-heap ShortUrl objects, lost on restart
+ * - columnar: on-heap primitive columns keyed by numeric id, lost on restart
+ * - mapped: off-heap memory-mapped files under {@code app.store.mapped.path}
+ * With {@code app.persistence.enabled=true} the backend is recovered from and logged to a write-ahead log.
+ * With {@code app.cache.enabled=true} redirects of hot keys are answered from a {@link HotKeyCache}.
+ * With {@code app.store.key-filter.enabled=true} (default) lookups of keys never stored are answered by a
+ * {@link KeyFilterUrlStore} ahead of the cache and the backend.
+ * With {@code app.expiration.enabled=true} expired mappings are removed (memory store only, not in cluster mode).
+ * With {@code app.replication.role=leader} changes are appended to the {@link ReplicationLog}; with
+ * {@code app.replication.role=follower} the store is a replica kept up to date from the leader.
+ * In cluster mode it holds this node's shard and requests for other shards are forwarded.
+ */
+@Configuration
+public class StoreConfig {
+
+    @Value("${app.store.type:memory}")
+    private String type;
+
+    @Value("${app.store.mapped.path:data/store}")
+    private String mappedPath;
+
+    @Value("${app.store.mapped.capacity:10000000}")
+    private long mappedCapacity;
+
+    @Value("${app.store.mapped.arena-bytes:1073741824}")
+    private long mappedArenaBytes;
+
+    @Value("${app.store.key-filter.enabled:true}")
+    private boolean keyFilterEnabled;
+
+    @Value("${app.persistence.enabled:false}")
+    private boolean persistenceEnabled;
+
+    @Value("${app.persistence.path:data/wal}")
+    private String persistencePath;
+
+    @Value("${app.persistence.fsync:interval}")
+    private String fsyncPolicy;
+
+    @Value("${app.persistence.fsync-interval-ms:100}")
+    private long fsyncIntervalMillis;
+
+    @Value("${app.persistence.snapshot-interval-seconds:3600}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${app.persistence.recovery-threads:0}")
+    private int recoveryThreads;
+
+    @Value("${app.cache.max-bytes:67108864}")
+    private long cacheMaxBytes;
+
+    @Value("${app.expiration.max-age-seconds:0}")
+    private long expirationMaxAgeSeconds;
+
+    @Value("${app.expiration.tick-millis:1000}")
+    private long expirationTickMillis;
+
+    @Value("${app.expiration.batch-size:1000}")
+    private int expirationBatchSize;
+
+    @Value("${app.replication.leader-url:http://localhost:8080}")
+    private String replicationLeaderUrl;
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.enabled", havingValue = "true")
+    public HotKeyCache hotKeyCache() {
+        return HotKeyCache.ofBytes(cacheMaxBytes);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.expiration.enabled", havingValue = "true")
+    public ExpirationManager expirationManager() {
+        if (!"memory".equals(type)) {
+            throw new IllegalArgumentException("app.expiration.enabled requires app.store.type=memory");
+        }
+        return new ExpirationManager(TimeUnit.SECONDS.toMillis(expirationMaxAgeSeconds), expirationTickMillis,
+                expirationBatchSize);
+    }
+
+    @Bean
+    public UrlStore urlStore(ObjectProvider<ClusterNode> cluster, ObjectProvider<HotKeyCache> hotKeyCache,
+                             ObjectProvider<ExpirationManager> expiration,
+                             ObjectProvider<ReplicationLog> replicationLog,
+                             ObjectProvider<ReplicationFollower> replicationFollower) throws IOException {
+        ClusterNode node = cluster.getIfAvailable();
+        ReplicationLog changes = replicationLog.getIfAvailable();
+        ReplicationFollower follower = replicationFollower.getIfAvailable();
+        if (node != null && (changes != null || follower != null)) {
+            throw new IllegalArgumentException("app.replication.role requires app.cluster.enabled=false");
+        }
+        // Other nodes would keep serving an expired key from their read caches
+        ExpirationManager manager = expiration.getIfAvailable();
+        if (node != null && manager != null) {
+            throw new IllegalArgumentException("app.expiration.enabled requires app.cluster.enabled=false");
+        }
+        HotKeyCache cache = hotKeyCache.getIfAvailable();
+        if (follower != null) {
+            return replicaStore(follower, manager, cache);
+        }
+        UrlStore store = localStore();
+        if (cache != null) {
+            store = new CachingUrlStore(store, cache);
+        }
+        if (keyFilterEnabled) {
+            store = new KeyFilterUrlStore(store);
+        }
+        // Below the expiration decorator, so the expiry worker's removals are replicated
+        if (changes != null) {
+            store = new ReplicatingUrlStore(store, changes);
+        }
+        // Removals go through the key filter and the cache, so an expired key is not served from either
+        if (manager != null) {
+            store = new ExpiringUrlStore(store, manager);
+        }
+        return node == null ? store : node.shard(store);
+    }
+
+    /**
+     * A follower's store: a local copy (backend and key filter) that is rebuilt empty for every snapshot and
+     * swapped in once loaded, under the hot-key cache, which is emptied on each swap. Expiries come from the
+     * leader, and a copy that is rebuilt cannot share files with the one it replaces.
+     */
+    private UrlStore replicaStore(ReplicationFollower follower, ExpirationManager manager, HotKeyCache cache)
+            throws IOException {
+        if (manager != null) {
+            throw new IllegalArgumentException("app.expiration.enabled is not supported on a follower; "
+                    + "expiries are replicated from the leader");
+        }
+        // The copy must remove the mappings the leader expires, which only the in-memory store can
+        if (persistenceEnabled || !"memory".equals(type)) {
+            throw new IllegalArgumentException(
+                    "app.replication.role=follower requires app.store.type=memory without persistence");
+        }
+        ReplicaUrlStore replica = new ReplicaUrlStore(replicaCopy(), follower, URI.create(replicationLeaderUrl));
+        CachingUrlStore caching = cache == null ? null : new CachingUrlStore(replica, cache);
+        UrlStore store = caching == null ? replica : caching;
+        follower.start(store, () -> {
+            try {
+                return replicaCopy();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, copy -> {
+            replica.replace(copy);
+            if (caching != null) {
+                caching.invalidateAll();
+            }
+        });
+        return store;
+    }
+
+    private UrlStore replicaCopy() throws IOException {
+        UrlStore store = localStore();
+        return keyFilterEnabled ? new KeyFilterUrlStore(store) : store;
+    }
+
+    private UrlStore localStore() throws IOException {
+        UrlStore store = switch (type) {
+            case "memory" -> new InMemoryUrlStore();
+            case "columnar" -> new ColumnarUrlStore();
+            case "mapped" -> new MappedUrlStore(Path.of(mappedPath), mappedCapacity, mappedArenaBytes);
+            default -> throw new IllegalArgumentException("Unknown app.store.type: " + type);
+        };
+        if (!persistenceEnabled) {
+            return store;
+        }
+        try {
+            PersistenceManager persistence = new PersistenceManager(Path.of(persistencePath),
+                    FsyncPolicy.valueOf(fsyncPolicy.toUpperCase()), fsyncIntervalMillis,
+                    snapshotIntervalSeconds, recoveryThreads);
+            return persistence.open(store);
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.urlshortener.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reports which thread model serves requests. Virtual threads are opt-in through the
+ * virtual-threads Spring profile and only take effect on Java 21+.
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    public ThreadingConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        int javaVersion = Runtime.version().feature();
+        if (virtualThreads && javaVersion < 21) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; "
+                    + "requests are served by the platform thread pool", javaVersion);
+        } else {
+            log.info("Serving requests on {} threads", virtualThreads ? "virtual" : "platform");
+        }
+    }
+}
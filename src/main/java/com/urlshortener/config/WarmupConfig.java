@@ -0,0 +1,137 @@
+package com.urlshortener.config;
+
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.cache.HotKeySnapshot;
+import com.urlshortener.cluster.ClusterNode;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import com.urlshortener.warmup.RedirectWarmup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Readiness gate when {@code app.warmup.enabled=true} (the fast-startup Spring profile): before the
+ * instance reports ready it loads the hot-key set saved by its last run into the cache (with
+ * {@code app.cache.enabled=true}) and sends {@code app.warmup.requests} redirects to itself over loopback.
+ * <p>
+ * Spring Boot only moves readiness ({@code /actuator/health/readiness}) to ACCEPTING_TRAFFIC once every
+ * {@link ApplicationRunner} has returned, so a load balancer probing it sends no traffic until the warm-up
+ * is done. Half the warm-up redirects go to hot keys (or, before there are any, the newest mappings) and are
+ * answered 302 from the cache like real ones, but carry the node's warm-up token so they are not counted; the
+ * other half go to a key that is never issued. Nothing is written to the store and no clicks are counted; in
+ * cluster mode every key is one this node owns, so none are forwarded. A failed warm-up is logged and the
+ * instance reports ready anyway.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class WarmupConfig {
+
+    @Value("${app.warmup.hot-keys.path:data/hot-keys}")
+    private String hotKeysPath;
+
+    @Value("${app.warmup.hot-keys.max:100000}")
+    private int hotKeysMax;
+
+    @Value("${app.warmup.requests:10000}")
+    private int requests;
+
+    @Value("${app.warmup.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.warmup.max-seconds:30}")
+    private long maxSeconds;
+
+    // Existing keys the redirect hit path is warmed with
+    private static final int HIT_KEYS = 64;
+
+    // Ids looked at below the store's highest one when the cache has no hot keys yet
+    private static final int HIT_KEY_PROBES = 1024;
+
+    /**
+     * Saves the hot keys on shutdown for the next start.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.cache.enabled", havingValue = "true")
+    public HotKeySnapshot hotKeySnapshot(HotKeyCache cache) {
+        return new HotKeySnapshot(cache, Path.of(hotKeysPath), hotKeysMax);
+    }
+
+    @Bean
+    public ApplicationRunner startupWarmup(UrlStore store, UrlShortenerService service, AppConfig appConfig,
+                                           ObjectProvider<HotKeySnapshot> hotKeys, ObjectProvider<HotKeyCache> cache,
+                                           ObjectProvider<ClusterNode> cluster, Environment environment) {
+        return args -> {
+            long started = System.nanoTime();
+            HotKeySnapshot snapshot = hotKeys.getIfAvailable();
+            if (snapshot != null) {
+                try {
+                    log.info("Loaded {} hot keys into the cache", snapshot.load(store));
+                } catch (IOException e) {
+                    log.warn("Could not load hot keys from {}", hotKeysPath, e);
+                }
+            }
+
+            // Set once the embedded server listens; absent without one (e.g. mock web environment in tests)
+            Integer port = environment.getProperty("local.server.port", Integer.class);
+            if (port != null && port > 0) {
+                try {
+                    ClusterNode node = cluster.getIfAvailable();
+                    Predicate<String> ownedHere = k -> node == null || node.ring().ownerOfKey(k).equals(node.self());
+                    String key = RedirectWarmup.unknownKey(ownedHere);
+                    List<String> hitKeys = hitKeys(store, cache.getIfAvailable(), ownedHere);
+                    URI base = URI.create("http://127.0.0.1:" + port + appConfig.getShortUrlPrefix());
+                    RedirectWarmup.Result result = new RedirectWarmup(base, requests, concurrency,
+                            Duration.ofSeconds(maxSeconds)).run(key, hitKeys, service.warmupToken());
+                    if (result.failed() > 0) {
+                        log.warn("{} of {} warm-up redirects failed", result.failed(), result.sent());
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Warm-up redirects failed", e);
+                }
+            }
+            log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        };
+    }
+
+    /**
+     * Hot keys just loaded into the cache, or else the newest mappings, that this node answers itself.
+     */
+    private static List<String> hitKeys(UrlStore store, HotKeyCache cache, Predicate<String> ownedHere) {
+        List<String> keys = new ArrayList<>(HIT_KEYS);
+        if (cache != null) {
+            for (String key : cache.hotKeys(HIT_KEYS)) {
+                if (ownedHere.test(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            return keys;
+        }
+        long maxId = store.maxId();
+        for (long id = maxId; id > 0 && id > maxId - HIT_KEY_PROBES && keys.size() < HIT_KEYS; id--) {
+            String key = Base62Util.encode(id);
+            if (ownedHere.test(key) && store.peek(key) != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
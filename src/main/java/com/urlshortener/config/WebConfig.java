@@ -0,0 +1,36 @@
+package com.urlshortener.config;
+
+import com.urlshortener.controller.RedirectFilter;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Servlet (Tomcat) web setup; {@code ReactiveConfig} (reactive build) is its counterpart on Reactor Netty.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig {
+
+    /**
+     * Registers the redirect fast path ahead of every other filter but the concurrency limit, limited to the
+     * short URL prefix.
+     * Disable with {@code app.redirect.fast-path=false} to serve redirects through Spring MVC only.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.redirect.fast-path", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<RedirectFilter> redirectFilter(UrlShortenerService service, AppConfig appConfig,
+                                                                 ObjectProvider<ClickEventPipeline> events) {
+        FilterRegistrationBean<RedirectFilter> registration = new FilterRegistrationBean<>(
+                new RedirectFilter(service, appConfig.getShortUrlPrefix(), events.getIfAvailable()));
+        registration.addUrlPatterns(appConfig.getShortUrlPrefix() + "*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,48 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.persistence.ImportResult;
+import com.urlshortener.persistence.TransferFormat;
+import com.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+/**
+ * Bulk import and export of mappings. Both directions stream the HTTP body, so neither is limited by heap size.
+ * Only registered with {@code app.admin.enabled=true}, on the servlet stack; expose it on a trusted network only.
+ */
+@RestController
+@RequestMapping("/api/admin")
+@ConditionalOnProperty(name = "app.admin.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AdminController {
+
+    private final UrlShortenerService service;
+
+    public AdminController(UrlShortenerService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/export")
+    public void exportMappings(@RequestParam(defaultValue = "ndjson") String format,
+                               HttpServletResponse response) throws IOException {
+        TransferFormat transferFormat = TransferFormat.fromLabel(format);
+        response.setContentType(transferFormat.contentType());
+        service.exportMappings(Channels.newChannel(response.getOutputStream()), transferFormat);
+    }
+
+    @PostMapping("/import")
+    public ImportResult importMappings(@RequestParam(defaultValue = "ndjson") String format,
+                                       HttpServletRequest request) throws IOException {
+        return service.importMappings(Channels.newChannel(request.getInputStream()), TransferFormat.fromLabel(format));
+    }
+}
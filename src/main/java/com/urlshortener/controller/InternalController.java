@@ -0,0 +1,48 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.cluster.ClusterClient;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints other nodes call through {@link ClusterClient}: lookups and creates forwarded to the owner of a key
+ * or URL, and access counts of redirects served elsewhere. Nothing is recorded twice, as the node that received
+ * the request records the click or create itself. Expose them on a trusted network only.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class InternalController {
+
+    private final UrlShortenerService service;
+
+    public InternalController(UrlShortenerService service) {
+        this.service = service;
+    }
+
+    @GetMapping(ClusterClient.MAPPINGS + "/{key}")
+    public Map<String, String> lookup(@PathVariable String key) {
+        return InternalResults.lookup(service, key);
+    }
+
+    @PostMapping(ClusterClient.MAPPINGS)
+    public List<Map<String, String>> create(@RequestBody List<UrlRequest> requests) {
+        return InternalResults.create(service, requests);
+    }
+
+    @PostMapping(ClusterClient.ACCESSES)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void recordAccesses(@RequestBody Map<String, Long> counts) {
+        service.recordForwardedAccesses(counts);
+    }
+}
@@ -0,0 +1,44 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.service.UrlShortenerService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response bodies of the internal endpoints, shared by the servlet and reactive stacks.
+ */
+final class InternalResults {
+
+    private InternalResults() {
+    }
+
+    static Map<String, String> lookup(UrlShortenerService service, String key) {
+        return Map.of("originalUrl", service.lookupForwarded(key));
+    }
+
+    /**
+     * @throws IllegalArgumentException if a request has no URL or an invalid one
+     */
+    static List<Map<String, String>> create(UrlShortenerService service, List<UrlRequest> requests) {
+        List<String> urls = new ArrayList<>(requests.size());
+        for (UrlRequest request : requests) {
+            if (request == null || request.getOriginalUrl() == null) {
+                throw new IllegalArgumentException("URL cannot be empty");
+            }
+            urls.add(request.getOriginalUrl());
+        }
+        List<Map<String, String>> results = new ArrayList<>(urls.size());
+        for (ShortUrl shortUrl : service.createForwarded(urls)) {
+            Map<String, String> result = new LinkedHashMap<>();
+            result.put("originalUrl", shortUrl.getOriginalUrl());
+            result.put("shortKey", shortUrl.getShortKey());
+            results.add(result);
+        }
+        return results;
+    }
+}
@@ -1,10 +1,19 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.cache.CacheStats;
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.DomainCount;
+import com.urlshortener.metrics.LinkClicks;
+import com.urlshortener.metrics.TimeWindow;
 import com.urlshortener.service.MetricsService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,7 +27,28 @@ public class MetricsController {
     }
 
     @GetMapping("/top-domains")
-    public Map<String, Integer> topDomains() {
-        return metricsService.topDomains();
+    public List<DomainCount> topDomains(@RequestParam(defaultValue = "3") int k,
+                                        @RequestParam(defaultValue = "all") String window) {
+        return metricsService.topDomains(k, TimeWindow.fromLabel(window));
+    }
+
+    @GetMapping("/links/{key}")
+    public LinkClicks linkClicks(@PathVariable String key) {
+        return metricsService.linkClicks(key);
+    }
+
+    @GetMapping("/trending-links")
+    public Map<String, Long> trendingLinks(@RequestParam(defaultValue = "10") int k,
+                                           @RequestParam(defaultValue = "1h") String window) {
+        return metricsService.trendingLinks(k, ClickWindow.fromLabel(window));
+    }
+
+    /**
+     * Redirect cache counters; 404 when {@code app.cache.enabled} is off.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> cache() {
+        CacheStats stats = metricsService.cacheStats();
+        return stats == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(stats);
     }
 }
@@ -0,0 +1,149 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.events.ClickEvent;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.exception.LinkExpiredException;
+import com.urlshortener.exception.ServiceUnavailableException;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.warmup.RedirectWarmup;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fast path for redirects, which are most of the traffic.
+ * Answers {@code GET <prefix><key>} with a 302 directly from the servlet filter chain, skipping
+ * handler mapping, path-variable binding and view resolution in Spring MVC.
+ * Unknown and expired keys are answered 404 and 410 here too, with preallocated bodies and no exception,
+ * as scanners probing random keys can make misses as frequent as redirects. In cluster mode an owner's 410
+ * and 503 are passed on here too, as exceptions thrown from a filter never reach the controller advice.
+ * Anything else (other methods, nested paths) falls through to {@link RedirectionController}.
+ * Answered redirects are published to the click-event pipeline when it is enabled, except the node's own
+ * warm-up redirects ({@link RedirectWarmup#TOKEN_HEADER}), which are resolved without counting anything.
+ */
+public class RedirectFilter implements Filter {
+
+    private static final byte[] NOT_FOUND = errorBody(HttpServletResponse.SC_NOT_FOUND, "Not Found",
+            "Short URL not found");
+    private static final byte[] GONE = errorBody(HttpServletResponse.SC_GONE, "Gone", "Short URL has expired");
+    static final byte[] UNAVAILABLE = errorBody(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Service Unavailable",
+            "Owner node is unavailable, retry later");
+
+    private final UrlShortenerService service;
+    private final String prefix;
+    private final ClickEventPipeline events;
+
+    public RedirectFilter(UrlShortenerService service, String prefix) {
+        this(service, prefix, null);
+    }
+
+    /**
+     * @param events click-event pipeline, or null if click events are disabled
+     */
+    public RedirectFilter(UrlShortenerService service, String prefix, ClickEventPipeline events) {
+        this.service = service;
+        this.prefix = prefix;
+        this.events = events;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        String key = shortKey(request);
+        if (key != null) {
+            HttpServletResponse response = (HttpServletResponse) res;
+            boolean warmup = service.isWarmup(request.getHeader(RedirectWarmup.TOKEN_HEADER));
+            String originalUrl;
+            try {
+                originalUrl = warmup ? service.peekOriginalUrl(key) : service.findOriginalUrl(key);
+            } catch (LinkExpiredException e) {
+                writeError(response, HttpServletResponse.SC_GONE, GONE);
+                return;
+            } catch (ServiceUnavailableException e) {
+                if (e.getRetryAfter() != null) {
+                    response.setHeader("Retry-After", e.getRetryAfter());
+                }
+                writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, UNAVAILABLE);
+                return;
+            }
+            if (originalUrl == null) {
+                boolean expired = service.isExpired(key);
+                writeError(response, expired ? HttpServletResponse.SC_GONE : HttpServletResponse.SC_NOT_FOUND,
+                        expired ? GONE : NOT_FOUND);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_FOUND);
+            response.setHeader("Location", location(originalUrl));
+            if (events != null) {
+                ClickEvent event = clickEvent(key, request);
+                if (!warmup) {
+                    events.publish(event);
+                }
+            }
+            return;
+        }
+        chain.doFilter(req, res);
+    }
+
+    private static void writeError(HttpServletResponse response, int status, byte[] body) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // Same fields as GlobalExceptionHandler's bodies, less the timestamp
+    static byte[] errorBody(int status, String error, String message) {
+        return ("{\"status\":" + status + ",\"error\":\"" + error + "\",\"message\":\"" + message
+                + "\",\"path\":\"URL Redirection\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the key for {@code GET|HEAD <context><prefix><key>}, or null if the request is not a plain redirect
+     */
+    private String shortKey(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return null;
+        }
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        int start = contextPath.length() + prefix.length();
+        if (uri.length() <= start || !uri.startsWith(prefix, contextPath.length())
+                || !uri.startsWith(contextPath)) {
+            return null;
+        }
+        // Only single-segment keys; encoded or extra segments are left to Spring MVC
+        if (uri.indexOf('/', start) >= 0) {
+            return null;
+        }
+        return uri.substring(start);
+    }
+
+    static ClickEvent clickEvent(String key, HttpServletRequest request) {
+        return new ClickEvent(key, System.currentTimeMillis(), request.getHeader("Referer"),
+                request.getHeader("User-Agent"), request.getRemoteAddr());
+    }
+
+    /**
+     * Stored URLs are normally ASCII already and are used as-is; anything else is percent-encoded
+     * so the header stays valid.
+     */
+    static String location(String url) {
+        for (int i = 0; i < url.length(); i++) {
+            if (url.charAt(i) >= 128) {
+                return URI.create(url).toASCIIString();
+            }
+        }
+        return url;
+    }
+}
@@ -1,21 +1,43 @@
 package com.urlshortener.controller;
 
+import com.urlshortener.events.ClickEvent;
+import com.urlshortener.events.ClickEventPipeline;
 import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.warmup.RedirectWarmup;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class RedirectionController {
 
     private final UrlShortenerService service;
 
-    public RedirectionController(UrlShortenerService service) {
+    // Null unless app.events.enabled=true
+    private final ClickEventPipeline events;
+
+    public RedirectionController(UrlShortenerService service, ObjectProvider<ClickEventPipeline> events) {
         this.service = service;
+        this.events = events.getIfAvailable();
     }
 
     @GetMapping("/r/{key}")
-    public String redirect(@PathVariable String key) {
-        return "redirect:" + service.getOriginalUrl(key);
+    public String redirect(@PathVariable String key, HttpServletRequest request) {
+        boolean warmup = service.isWarmup(request.getHeader(RedirectWarmup.TOKEN_HEADER));
+        String originalUrl = warmup ? service.peekOriginalUrl(key) : null;
+        if (originalUrl == null) {
+            originalUrl = service.getOriginalUrl(key);
+        }
+        if (events != null) {
+            ClickEvent event = RedirectFilter.clickEvent(key, request);
+            if (!warmup) {
+                events.publish(event);
+            }
+        }
+        return "redirect:" + originalUrl;
     }
-}
\ No newline at end of file
+}
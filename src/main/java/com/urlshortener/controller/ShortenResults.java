@@ -0,0 +1,111 @@
+package com.urlshortener.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.config.AppConfig;
+import com.urlshortener.model.BatchItem;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.service.UrlShortenerService;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shortening and response bodies shared by the servlet and reactive shorten endpoints, so both stacks
+ * answer alike. Every method may block (the service may write its log or forward to another node).
+ */
+class ShortenResults {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final UrlShortenerService service;
+    private final AppConfig appConfig;
+    private final ObjectMapper objectMapper;
+
+    ShortenResults(UrlShortenerService service, AppConfig appConfig, ObjectMapper objectMapper) {
+        this.service = service;
+        this.appConfig = appConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    Map<String, String> shorten(UrlRequest request) {
+        return toResult(service.createShortUrl(request.getOriginalUrl(), request.getTtlSeconds()));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the batch exceeds {@code app.batch.max-size}
+     */
+    List<Map<String, String>> shortenBatch(List<UrlRequest> requests) {
+        if (requests.size() > appConfig.getBatchMaxSize()) {
+            throw new IllegalArgumentException("Batch size " + requests.size()
+                    + " exceeds the maximum of " + appConfig.getBatchMaxSize()
+                    + "; stream larger batches as " + NDJSON);
+        }
+        List<String> urls = new ArrayList<>(requests.size());
+        List<Long> ttls = new ArrayList<>(requests.size());
+        for (UrlRequest request : requests) {
+            urls.add(request == null ? null : request.getOriginalUrl());
+            ttls.add(request == null ? null : request.getTtlSeconds());
+        }
+
+        List<Map<String, String>> results = new ArrayList<>(urls.size());
+        for (BatchItem item : service.createShortUrls(urls, ttls)) {
+            results.add(toResult(item));
+        }
+        return results;
+    }
+
+    /**
+     * Shortens one chunk of NDJSON lines as a batch.
+     *
+     * @return one result per line, in line order; lines that are not valid JSON are reported in place
+     */
+    List<Map<String, String>> shortenLines(List<String> lines) {
+        String[] parseErrors = new String[lines.size()];
+        List<String> urls = new ArrayList<>(lines.size());
+        List<Long> ttls = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                UrlRequest request = objectMapper.readValue(lines.get(i), UrlRequest.class);
+                urls.add(request == null ? null : request.getOriginalUrl());
+                ttls.add(request == null ? null : request.getTtlSeconds());
+            } catch (JsonProcessingException e) {
+                parseErrors[i] = "Malformed JSON line";
+            }
+        }
+
+        List<BatchItem> items = service.createShortUrls(urls, ttls);
+        List<Map<String, String>> results = new ArrayList<>(lines.size());
+        int next = 0;
+        for (String parseError : parseErrors) {
+            results.add(parseError != null ? Map.of("error", parseError) : toResult(items.get(next++)));
+        }
+        return results;
+    }
+
+    private Map<String, String> toResult(ShortUrl shortUrl) {
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("originalUrl", shortUrl.getOriginalUrl());
+        result.put("shortKey", shortUrl.getShortKey());
+        result.put("shortUrl", appConfig.buildShortUrl(shortUrl.getShortKey()));
+        if (shortUrl.getExpiresAt() != null) {
+            result.put("expiresAt", shortUrl.getExpiresAt().toString());
+        }
+        return result;
+    }
+
+    private Map<String, String> toResult(BatchItem item) {
+        if (item.getError() == null) {
+            return toResult(item.getShortUrl());
+        }
+        Map<String, String> result = new LinkedHashMap<>();
+        if (item.getOriginalUrl() != null) {
+            result.put("originalUrl", item.getOriginalUrl());
+        }
+        result.put("error", item.getError());
+        return result;
+    }
+}
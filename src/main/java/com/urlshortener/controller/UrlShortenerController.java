@@ -1,37 +1,93 @@
 package com.urlshortener.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.urlshortener.config.AppConfig;
-import com.urlshortener.model.ShortUrl;
 import com.urlshortener.model.UrlRequest;
 import com.urlshortener.service.UrlShortenerService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UrlShortenerController {
 
+    static final String NDJSON = ShortenResults.NDJSON;
+
     private final AppConfig appConfig;
-    private final UrlShortenerService service;
+    private final ObjectMapper objectMapper;
+    private final ShortenResults results;
 
-    public UrlShortenerController(UrlShortenerService service,  AppConfig appConfig) {
-        this.service = service;
+    public UrlShortenerController(UrlShortenerService service,  AppConfig appConfig, ObjectMapper objectMapper) {
         this.appConfig = appConfig;
+        this.objectMapper = objectMapper;
+        this.results = new ShortenResults(service, appConfig, objectMapper);
     }
 
     @PostMapping("/shorten")
     public Map<String, String> shorten(@Valid @RequestBody UrlRequest request) {
-        ShortUrl shortUrl = service.createShortUrl(request.getOriginalUrl());
+        return results.shorten(request);
+    }
+
+    /**
+     * Shortens a JSON array of requests. Results are returned in request order;
+     * an invalid URL or TTL yields an item with an error instead of failing the batch.
+     */
+    @PostMapping(value = "/shorten/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<Map<String, String>> shortenBatch(@RequestBody List<UrlRequest> requests) {
+        return results.shortenBatch(requests);
+    }
+
+    /**
+     * Shortens a streamed NDJSON body, one {"originalUrl": ...} object per line.
+     * Lines are processed in chunks and each chunk's results are written (one JSON object per line,
+     * in input order) before the next chunk is read, so arbitrarily large bodies use bounded memory.
+     */
+    @PostMapping(value = "/shorten/batch", consumes = NDJSON)
+    public void shortenStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        BufferedReader reader = request.getReader();
+        OutputStream out = response.getOutputStream();
+
+        int chunkSize = Math.max(1, appConfig.getBatchChunkSize());
+        List<String> lines = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            lines.add(line);
+            if (lines.size() == chunkSize) {
+                writeChunk(lines, out);
+                lines.clear();
+            }
+        }
+        writeChunk(lines, out);
+    }
 
-        return Map.of(
-                "originalUrl", shortUrl.getOriginalUrl(),
-                "shortKey", shortUrl.getShortKey(),
-                "shortUrl", appConfig.buildShortUrl(shortUrl.getShortKey())
-        );
+    private void writeChunk(List<String> lines, OutputStream out) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        for (Map<String, String> result : results.shortenLines(lines)) {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+        }
+        out.flush();
     }
-}
\ No newline at end of file
+}
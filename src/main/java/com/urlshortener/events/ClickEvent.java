@@ -0,0 +1,15 @@
+package com.urlshortener.events;
+
+/**
+ * One redirect, as published by the redirect path. The client address is only hashed by the sink,
+ * off the request thread, and never written out as-is.
+ *
+ * @param shortKey        the short key that was resolved
+ * @param timestampMillis time of the redirect, epoch milliseconds
+ * @param referrer        Referer header, or null
+ * @param userAgent       User-Agent header, or null
+ * @param clientAddress   remote address of the client
+ */
+public record ClickEvent(String shortKey, long timestampMillis, String referrer, String userAgent,
+                         String clientAddress) {
+}
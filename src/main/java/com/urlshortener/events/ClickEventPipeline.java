@@ -0,0 +1,147 @@
+package com.urlshortener.events;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carries click events from redirect threads to a {@link ClickEventSink} without I/O or locks on the
+ * redirect path.
+ * <p>
+ * {@link #publish} is a compare-and-set on a bounded {@link MpscRingBuffer}; when the buffer is full the
+ * event is dropped according to the {@link FullPolicy} and counted. One daemon thread drains the buffer
+ * in batches into the sink and parks briefly when it is empty. A failed write loses that event, is
+ * logged and counted, and the next event starts a new file.
+ */
+@Slf4j
+public class ClickEventPipeline implements AutoCloseable {
+
+    private static final int RETRY_YIELDS = 8;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpscRingBuffer<ClickEvent> buffer;
+    private final FullPolicy fullPolicy;
+    private final ClickEventSink sink;
+    private final int batchSize;
+    private final Thread consumer;
+
+    private final LongAdder dropped = new LongAdder();
+    private volatile long written;
+    private volatile long failed;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity   maximum number of queued events, rounded up to a power of two
+     * @param fullPolicy what publishers do when the queue is full
+     * @param sink       destination of the events; closed with this pipeline
+     * @param batchSize  maximum events written per drain
+     */
+    public ClickEventPipeline(int capacity, FullPolicy fullPolicy, ClickEventSink sink, int batchSize) {
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.fullPolicy = fullPolicy;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.consumer = new Thread(this::run, "click-events");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Queues the event for the sink. Never blocks.
+     *
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean publish(ClickEvent event) {
+        if (buffer.offer(event)) {
+            return true;
+        }
+        if (fullPolicy == FullPolicy.RETRY) {
+            for (int i = 0; i < RETRY_YIELDS; i++) {
+                Thread.yield();
+                if (buffer.offer(event)) {
+                    return true;
+                }
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * @return events queued and not yet written
+     */
+    public int depth() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return events dropped because the queue was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return events handed to the sink
+     */
+    public long written() {
+        return written;
+    }
+
+    /**
+     * @return events lost to write errors
+     */
+    public long failed() {
+        return failed;
+    }
+
+    /**
+     * Stops the consumer once everything published so far is written, and closes the sink.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+    }
+
+    private void run() {
+        while (true) {
+            int drained = buffer.drain(this::write, batchSize);
+            if (drained > 0) {
+                continue;
+            }
+            if (!running && buffer.size() == 0) {
+                return;
+            }
+            try {
+                sink.rollIfDue();
+            } catch (IOException e) {
+                log.warn("Failed to complete click event file", e);
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    private void write(ClickEvent event) {
+        try {
+            sink.write(event);
+            written++;
+        } catch (IOException e) {
+            failed++;
+            log.warn("Failed to write click event", e);
+        }
+    }
+}
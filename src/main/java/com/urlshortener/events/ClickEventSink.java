@@ -0,0 +1,218 @@
+package com.urlshortener.events;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only, gzip-compressed files of click events, one tab-separated line per event:
+ * {@code timestampMillis, shortKey, clientHash, referrer, userAgent}; missing headers are written as "-".
+ * <p>
+ * A file is written as clicks-&lt;yyyyMMdd-HHmmss&gt;-&lt;seq&gt;.tsv.gz.part and renamed without the
+ * .part suffix once it holds {@code maxFileBytes} compressed bytes or is {@code maxFileAgeMillis} old,
+ * so readers only pick up complete files. Files are opened on the first event, so idle periods leave
+ * none behind. A .part file left by a crash is renamed on startup; its gzip stream is truncated.
+ * <p>
+ * The client hash is the first 8 bytes of SHA-256(salt, address), in hex. Not thread-safe: used by the
+ * single consumer of {@link ClickEventPipeline}.
+ */
+public class ClickEventSink implements AutoCloseable {
+
+    private static final Pattern FILE = Pattern.compile("clicks-\\d{8}-\\d{6}-(\\d+)\\.tsv\\.gz(\\.part)?");
+    private static final DateTimeFormatter OPENED_AT =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final String PART = ".part";
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final long maxFileAgeMillis;
+    private final LongSupplier clock;
+    private final byte[] salt;
+    private final MessageDigest sha256;
+    private final StringBuilder line = new StringBuilder(256);
+
+    private long sequence;
+    private Path file;
+    private CountingOutputStream compressed;
+    private OutputStream out;
+    private long openedAt;
+    private long filesCompleted;
+
+    public ClickEventSink(Path directory, long maxFileBytes, long maxFileAgeMillis, byte[] salt) throws IOException {
+        this(directory, maxFileBytes, maxFileAgeMillis, salt, System::currentTimeMillis);
+    }
+
+    public ClickEventSink(Path directory, long maxFileBytes, long maxFileAgeMillis, byte[] salt, LongSupplier clock)
+            throws IOException {
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFileAgeMillis = maxFileAgeMillis;
+        this.clock = clock;
+        this.salt = salt.clone();
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        Files.createDirectories(directory);
+        this.sequence = recover();
+    }
+
+    /**
+     * Appends one event, rolling over first if the current file is full or too old.
+     */
+    public void write(ClickEvent event) throws IOException {
+        rollIfDue();
+        if (out == null) {
+            open();
+        }
+        line.setLength(0);
+        line.append(event.timestampMillis()).append('\t');
+        appendField(event.shortKey());
+        line.append('\t').append(clientHash(event.clientAddress())).append('\t');
+        appendField(event.referrer());
+        line.append('\t');
+        appendField(event.userAgent());
+        line.append('\n');
+        try {
+            out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            abandon();
+            throw e;
+        }
+    }
+
+    /**
+     * Completes the current file if it is full or older than the maximum age.
+     */
+    public void rollIfDue() throws IOException {
+        if (out != null && (compressed.count >= maxFileBytes || clock.getAsLong() - openedAt >= maxFileAgeMillis)) {
+            complete();
+        }
+    }
+
+    /**
+     * @return number of files completed since this sink was created
+     */
+    public long filesCompleted() {
+        return filesCompleted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            complete();
+        }
+    }
+
+    // Renames leftover .part files and returns the highest sequence number in the directory
+    private long recover() throws IOException {
+        long highest = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path existing : (Iterable<Path>) files::iterator) {
+                String name = existing.getFileName().toString();
+                Matcher match = FILE.matcher(name);
+                if (!match.matches()) {
+                    continue;
+                }
+                highest = Math.max(highest, Long.parseLong(match.group(1)));
+                if (match.group(2) != null) {
+                    Files.move(existing, existing.resolveSibling(name.substring(0, name.length() - PART.length())),
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        return highest;
+    }
+
+    private void open() throws IOException {
+        openedAt = clock.getAsLong();
+        String name = String.format("clicks-%s-%06d.tsv.gz", OPENED_AT.format(Instant.ofEpochMilli(openedAt)),
+                ++sequence);
+        file = directory.resolve(name + PART);
+        compressed = new CountingOutputStream(Files.newOutputStream(file));
+        out = new BufferedOutputStream(new GZIPOutputStream(compressed, 64 * 1024), 64 * 1024);
+    }
+
+    private void complete() throws IOException {
+        try {
+            out.close();
+        } finally {
+            out = null;
+            compressed = null;
+        }
+        String name = file.getFileName().toString();
+        Files.move(file, file.resolveSibling(name.substring(0, name.length() - PART.length())),
+                StandardCopyOption.ATOMIC_MOVE);
+        filesCompleted++;
+    }
+
+    // Gives up on a file after a write error; it keeps its .part name until the next startup
+    private void abandon() {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // The stream is already broken
+        } finally {
+            out = null;
+            compressed = null;
+        }
+    }
+
+    private String clientHash(String address) {
+        if (address == null) {
+            return "-";
+        }
+        sha256.update(salt);
+        sha256.update(address.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(sha256.digest(), 0, 8);
+    }
+
+    // Tabs and line breaks would split the record, so they become spaces
+    private void appendField(String value) {
+        if (value == null || value.isEmpty()) {
+            line.append('-');
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            line.append(c == '\t' || c == '\n' || c == '\r' ? ' ' : c);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.urlshortener.events;
+
+/**
+ * What a redirect thread does when the click-event queue is full. Neither policy blocks: an event that
+ * still does not fit is dropped and counted.
+ */
+public enum FullPolicy {
+    /** Drop the event straight away. */
+    DROP,
+    /** Yield a few times to let the consumer catch up, then drop the event. */
+    RETRY
+}
@@ -0,0 +1,101 @@
+package com.urlshortener.events;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and one consumer.
+ * <p>
+ * A producer claims a slot with one compare-and-set on the tail counter and then publishes its element
+ * into the slot with a release store; when the queue is full, {@link #offer} returns false instead of
+ * waiting. The consumer takes elements in claim order, nulls their slots and advances the head; a null
+ * slot at the head means the producer that claimed it has not stored its element yet, and draining
+ * stops there until the next call.
+ *
+ * @param <E> element type
+ */
+public final class MpscRingBuffer<E> {
+
+    // Longs between the head and tail counters, so producers and the consumer do not share a cache line
+    private static final int PAD = 16;
+    private static final int HEAD = PAD;
+    private static final int TAIL = 2 * PAD;
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLongArray counters = new AtomicLongArray(3 * PAD);
+
+    /**
+     * @param capacity maximum number of queued elements, rounded up to a power of two
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Appends the element unless the queue is full. Safe to call from any thread; never blocks.
+     *
+     * @return false if the queue was full and the element was not added
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long tail = counters.get(TAIL);
+        while (true) {
+            if (tail - counters.get(HEAD) > mask) {
+                return false;
+            }
+            long witnessed = counters.compareAndExchange(TAIL, tail, tail + 1);
+            if (witnessed == tail) {
+                break;
+            }
+            tail = witnessed;
+        }
+        slots.setRelease((int) (tail & mask), element);
+        return true;
+    }
+
+    /**
+     * Removes up to {@code limit} elements in order and passes each to the consumer.
+     * Must only be called by one thread at a time.
+     *
+     * @return number of elements removed
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        long head = counters.getPlain(HEAD);
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (head & mask);
+            E element = slots.getAcquire(index);
+            if (element == null) {
+                break;
+            }
+            slots.setPlain(index, null);
+            // Free the slot before handing the element on, so producers are not held up by the consumer
+            counters.setRelease(HEAD, ++head);
+            drained++;
+            consumer.accept(element);
+        }
+        return drained;
+    }
+
+    /**
+     * @return number of queued elements, including slots claimed but not yet stored
+     */
+    public int size() {
+        long head = counters.get(HEAD);
+        long tail = counters.get(TAIL);
+        return (int) Math.max(0, Math.min(tail - head, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
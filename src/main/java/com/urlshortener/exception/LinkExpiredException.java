@@ -0,0 +1,12 @@
+package com.urlshortener.exception;
+
+/**
+ * Thrown when a short key existed but its mapping has expired.
+ * A {@link UrlNotFoundException}, so callers that only care whether a key resolves need not tell them apart.
+ */
+public class LinkExpiredException extends UrlNotFoundException {
+
+    public LinkExpiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,22 @@
+package com.urlshortener.exception;
+
+/**
+ * Thrown when a request cannot be answered now but may succeed later, e.g. because the cluster node
+ * owning the key is shedding load. Answered {@code 503 Service Unavailable}.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final String retryAfter;
+
+    /**
+     * @param retryAfter value for the {@code Retry-After} header, or null to send none
+     */
+    public ServiceUnavailableException(String message, String retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+}
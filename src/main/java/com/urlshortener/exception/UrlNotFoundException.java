@@ -2,14 +2,16 @@ package com.urlshortener.exception;
 
 /**
  * Custom exception thrown when a shortened URL is not found in the system.
+ * Misses are routine (mistyped links, scanners probing keys), so it carries no stack trace: filling
+ * one in would cost more than the lookup itself.
  */
 public class UrlNotFoundException extends RuntimeException {
 
     public UrlNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public UrlNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,191 @@
+package com.urlshortener.expiration;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.IdBitmap;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Removes mappings once they expire, using a {@link TimingWheel} of their ids.
+ * <p>
+ * A mapping expires at its own {@code expiresAt} (a per-link TTL) or {@code maxAge} after it was
+ * created, whichever is earlier. A daemon thread advances the wheel every tick and removes the due
+ * mappings from the store in batches of {@code batchSize}: the wheel lock is held only while a batch
+ * is taken out of the wheel, and each removal only locks what a create of the same URL would, so
+ * neither creates nor redirects wait for more than one batch. Expired keys keep answering as expired
+ * (rather than unknown) until restart.
+ * <p>
+ * Expiry is enforced to tick resolution: a mapping is removed within one tick after its deadline,
+ * never before.
+ */
+@Slf4j
+public class ExpirationManager implements ExpiredKeys, AutoCloseable {
+
+    private final long maxAgeMillis;
+    private final long tickMillis;
+    private final int batchSize;
+    private final LongSupplier clock;
+    private final TimingWheel wheel;
+    // Ids of expired mappings, so a removed key can be told apart from one that never existed
+    private final IdBitmap expiredKeys = new IdBitmap();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong longestBatchNanos = new AtomicLong();
+
+    private volatile UrlStore store;
+    private volatile Thread worker;
+
+    /**
+     * @param maxAgeMillis maximum age of every mapping, 0 for no limit
+     * @param tickMillis   wheel resolution, and the interval at which due mappings are removed
+     * @param batchSize    maximum mappings taken out of the wheel at once
+     */
+    public ExpirationManager(long maxAgeMillis, long tickMillis, int batchSize) {
+        this(maxAgeMillis, tickMillis, batchSize, System::currentTimeMillis);
+    }
+
+    public ExpirationManager(long maxAgeMillis, long tickMillis, int batchSize, LongSupplier clock) {
+        if (maxAgeMillis < 0 || tickMillis <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("maxAgeMillis must not be negative, tickMillis and batchSize must be positive");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.wheel = new TimingWheel(clock.getAsLong() / tickMillis);
+    }
+
+    /**
+     * Caps the mapping's expiry at the maximum age; call before the mapping is stored.
+     */
+    public void applyMaxAge(ShortUrl shortUrl) {
+        if (maxAgeMillis == 0 || shortUrl.getCreatedAt() == null) {
+            return;
+        }
+        LocalDateTime cap = shortUrl.getCreatedAt().plus(Duration.ofMillis(maxAgeMillis));
+        if (shortUrl.getExpiresAt() == null || shortUrl.getExpiresAt().isAfter(cap)) {
+            shortUrl.setExpiresAt(cap);
+        }
+    }
+
+    /**
+     * Schedules the removal of a stored mapping at its expiry, if it has one.
+     */
+    public void schedule(ShortUrl shortUrl) {
+        if (shortUrl.getExpiresAt() == null) {
+            return;
+        }
+        long deadline = shortUrl.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        // Rounded up, so a mapping is never removed before its deadline
+        long dueTick = Math.floorDiv(deadline + tickMillis - 1, tickMillis);
+        long id = Base62Util.decode(shortUrl.getShortKey());
+        synchronized (wheel) {
+            wheel.schedule(id, dueTick);
+        }
+    }
+
+    /**
+     * Starts removing expired mappings from the store.
+     */
+    public synchronized void start(UrlStore target) {
+        if (worker != null) {
+            throw new IllegalStateException("Already started");
+        }
+        this.store = target;
+        Thread thread = new Thread(this::run, "url-expiration");
+        thread.setDaemon(true);
+        thread.start();
+        this.worker = thread;
+    }
+
+    /**
+     * @return true if the key belonged to a mapping that expired since startup
+     */
+    @Override
+    public boolean isExpired(String shortKey) {
+        long id = Base62Util.tryDecode(shortKey);
+        return expiredKeys.contains(id);
+    }
+
+    /**
+     * Removes every mapping due by now, batch by batch.
+     *
+     * @return number of mappings removed
+     */
+    public long expireDue() {
+        UrlStore target = store;
+        long nowTick = clock.getAsLong() / tickMillis;
+        long[] batch = new long[batchSize];
+        long removed = 0;
+        boolean caughtUp = false;
+        while (!caughtUp) {
+            long started = System.nanoTime();
+            int count;
+            synchronized (wheel) {
+                count = wheel.advance(nowTick, batch);
+                caughtUp = wheel.caughtUp(nowTick);
+            }
+            for (int i = 0; i < count; i++) {
+                if (target.remove(Base62Util.encode(batch[i]))) {
+                    expiredKeys.add(batch[i]);
+                    removed++;
+                }
+            }
+            longestBatchNanos.accumulateAndGet(System.nanoTime() - started, Math::max);
+        }
+        expired.addAndGet(removed);
+        return removed;
+    }
+
+    /**
+     * @return mappings scheduled to expire and not yet removed
+     */
+    public long pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * @return mappings removed on expiry since startup
+     */
+    public long expired() {
+        return expired.get();
+    }
+
+    /**
+     * @return longest time one batch took to take out of the wheel and remove, in nanoseconds
+     */
+    public long longestBatchNanos() {
+        return longestBatchNanos.get();
+    }
+
+    @Override
+    public void close() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(tickMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                expireDue();
+            } catch (RuntimeException e) {
+                log.warn("Failed to remove expired mappings", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.urlshortener.expiration;
+
+/**
+ * Keys of mappings that expired, so requests for them can be answered as expired (410) rather than unknown.
+ * Kept by the {@link ExpirationManager} on a node that expires its own mappings, and by the replication
+ * follower from the leader's expiries.
+ */
+public interface ExpiredKeys {
+
+    /**
+     * @return true if the key belonged to a mapping that has expired
+     */
+    boolean isExpired(String shortKey);
+}
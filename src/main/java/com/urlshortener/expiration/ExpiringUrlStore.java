@@ -0,0 +1,126 @@
+package com.urlshortener.expiration;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator that schedules every mapping with an expiry for removal by an
+ * {@link ExpirationManager}, and applies the maximum age to new mappings before they are stored
+ * (so the durable log records the capped expiry).
+ * <p>
+ * Mappings already in the delegate (e.g. recovered from disk) are scheduled once when the decorator
+ * is created; from then on only creates and inserts are seen. Redirects go straight to the delegate.
+ */
+public class ExpiringUrlStore implements UrlStore {
+
+    private final UrlStore delegate;
+    private final ExpirationManager expiration;
+
+    public ExpiringUrlStore(UrlStore delegate, ExpirationManager expiration) {
+        this.delegate = delegate;
+        this.expiration = expiration;
+        delegate.forEach(shortUrl -> {
+            expiration.applyMaxAge(shortUrl);
+            expiration.schedule(shortUrl);
+        });
+        expiration.start(delegate);
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        ShortUrl[] created = new ShortUrl[1];
+        ShortUrl shortUrl = delegate.findOrCreate(originalUrl, url -> created[0] = withMaxAge(factory.apply(url)));
+        if (created[0] != null) {
+            expiration.schedule(created[0]);
+        }
+        return shortUrl;
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        // By URL: a retried factory call (key already taken) replaces the mapping it built first
+        Map<String, ShortUrl> created = new LinkedHashMap<>();
+        List<ShortUrl> shortUrls = delegate.findOrCreateAll(originalUrls, url -> {
+            ShortUrl shortUrl = withMaxAge(factory.apply(url));
+            created.put(url, shortUrl);
+            return shortUrl;
+        });
+        created.values().forEach(expiration::schedule);
+        return shortUrls;
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        expiration.applyMaxAge(shortUrl);
+        boolean inserted = delegate.putIfAbsent(shortUrl);
+        if (inserted) {
+            expiration.schedule(shortUrl);
+        }
+        return inserted;
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return delegate.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        return delegate.resolve(shortKey);
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        return delegate.peek(shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        return delegate.remove(shortKey);
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        try {
+            expiration.close();
+        } finally {
+            delegate.close();
+        }
+    }
+
+    private ShortUrl withMaxAge(ShortUrl shortUrl) {
+        expiration.applyMaxAge(shortUrl);
+        return shortUrl;
+    }
+}
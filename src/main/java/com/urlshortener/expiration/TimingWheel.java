@@ -0,0 +1,216 @@
+package com.urlshortener.expiration;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel of numeric ids, advanced incrementally in bounded steps.
+ * <p>
+ * Time is counted in ticks. Level L has 64 slots of 64^L ticks each (5 levels cover 2^30 ticks); an
+ * entry due at tick d, with c the next tick to process, goes to the lowest level L at which d lies in
+ * the same 64^(L+1)-tick block as c, in slot (d / 64^L) mod 64. When c reaches the start of a slot's
+ * block the slot is cascaded: its entries are placed again relative to c, moving down at least one level.
+ * Entries past the top level's block wait in an overflow list that is re-placed when c enters the next
+ * block.
+ * <p>
+ * An entry is one long: the id in the high 40 bits and its due tick's offset within the slot in the
+ * low 24 (level 0 entries hold the id only). Slots are chunked lists, so appending never copies
+ * entries, and a slot's chunks are released as soon as it has been expired or cascaded.
+ * <p>
+ * {@link #advance} does at most a fixed number of entry moves per call, so the caller can drop its
+ * lock between calls however many entries come due at once. Not thread-safe.
+ */
+final class TimingWheel {
+
+    static final long MAX_ID = (1L << 40) - 1;
+
+    private static final int LEVELS = 5;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int OFFSET_BITS = SLOT_BITS * (LEVELS - 1);
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final int RANGE_BITS = SLOT_BITS * LEVELS;
+    private static final int OVERFLOW = LEVELS;
+
+    private final LongList[][] slots = new LongList[LEVELS][SLOTS];
+    // Pairs of (id, due tick)
+    private LongList overflow;
+
+    // Next tick to process, and the next of its stages (OVERFLOW down to 0) to run
+    private long currentTick;
+    private int stage = OVERFLOW;
+    private long size;
+
+    // Slot being expired (level 0) or cascaded, detached from the wheel
+    private LongList work;
+    private long workPosition;
+    private int workLevel;
+    private long workBase;
+
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Adds an id due at the tick; ticks already processed are due at the next one.
+     */
+    void schedule(long id, long dueTick) {
+        if (id < 1 || id > MAX_ID) {
+            throw new IllegalArgumentException("Id " + id + " is outside the timing wheel range");
+        }
+        place(id, Math.max(dueTick, currentTick));
+        size++;
+    }
+
+    /**
+     * Processes due ticks up to and including {@code nowTick}, moving at most {@code expired.length}
+     * entries (expired or cascaded), and hands back the ids that came due. Call again until
+     * {@link #caughtUp} to finish.
+     *
+     * @return number of ids written to {@code expired}
+     */
+    int advance(long nowTick, long[] expired) {
+        int budget = expired.length;
+        int moves = 0;
+        int count = 0;
+        while (moves < budget) {
+            if (work == null && !nextWork(nowTick)) {
+                break;
+            }
+            while (moves < budget && workPosition < work.size()) {
+                long entry = work.get(workPosition++);
+                moves++;
+                if (workLevel == 0) {
+                    expired[count++] = entry;
+                } else if (workLevel == OVERFLOW) {
+                    place(entry, work.get(workPosition++));
+                } else {
+                    place(entry >>> OFFSET_BITS, workBase + (entry & OFFSET_MASK));
+                }
+            }
+            if (workPosition == work.size()) {
+                work = null;
+            }
+        }
+        size -= count;
+        return count;
+    }
+
+    /**
+     * @return true if every tick up to and including {@code nowTick} has been processed
+     */
+    boolean caughtUp(long nowTick) {
+        return work == null && currentTick > nowTick;
+    }
+
+    /**
+     * @return number of scheduled ids that have not come due
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return next tick to be processed
+     */
+    long currentTick() {
+        return currentTick;
+    }
+
+    private void place(long id, long tick) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if (tick >>> shift == currentTick >>> shift) {
+                int slot = (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+                LongList list = slots[level][slot];
+                if (list == null) {
+                    list = slots[level][slot] = new LongList();
+                }
+                list.add(level == 0 ? id : id << OFFSET_BITS | (tick & ((1L << (SLOT_BITS * level)) - 1)));
+                return;
+            }
+        }
+        if (overflow == null) {
+            overflow = new LongList();
+        }
+        overflow.add(id);
+        overflow.add(tick);
+    }
+
+    // Detaches the next non-empty slot to cascade or expire; false once past nowTick
+    private boolean nextWork(long nowTick) {
+        while (currentTick <= nowTick) {
+            while (stage >= 0) {
+                int level = stage--;
+                LongList list = detach(level);
+                if (level == 0) {
+                    // Later schedules for this tick must go to the next one
+                    currentTick++;
+                    stage = OVERFLOW;
+                }
+                if (list != null) {
+                    work = list;
+                    workPosition = 0;
+                    workLevel = level;
+                    workBase = level == 0 ? currentTick - 1 : currentTick;
+                    return true;
+                }
+                if (level == 0) {
+                    break;
+                }
+            }
+        }
+        return false;
+    }
+
+    private LongList detach(int level) {
+        if (level == OVERFLOW) {
+            if ((currentTick & ((1L << RANGE_BITS) - 1)) != 0 || overflow == null) {
+                return null;
+            }
+            LongList list = overflow;
+            overflow = null;
+            return list;
+        }
+        if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+            return null;
+        }
+        int slot = (int) (currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+        LongList list = slots[level][slot];
+        slots[level][slot] = null;
+        return list;
+    }
+
+    /**
+     * Append-only list of longs in fixed-size chunks.
+     */
+    static final class LongList {
+        private static final int CHUNK_BITS = 10;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private long[][] chunks = new long[1][];
+        private long size;
+
+        void add(long value) {
+            int chunk = (int) (size >>> CHUNK_BITS);
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            if (chunks[chunk] == null) {
+                // Small slots stay small: the first chunk grows up to the full chunk size
+                chunks[chunk] = new long[chunk == 0 ? 8 : CHUNK_SIZE];
+            } else if (chunk == 0 && size == chunks[0].length) {
+                chunks[0] = Arrays.copyOf(chunks[0], chunks[0].length * 2);
+            }
+            chunks[chunk][(int) (size & (CHUNK_SIZE - 1))] = value;
+            size++;
+        }
+
+        long get(long index) {
+            return chunks[(int) (index >>> CHUNK_BITS)][(int) (index & (CHUNK_SIZE - 1))];
+        }
+
+        long size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.urlshortener.id;
+
+/**
+ * Hands out disjoint blocks of ids to {@link LeasedIdAllocator}s.
+ * A leased block is never leased again, to any node, including after a restart.
+ */
+public interface BlockCoordinator {
+
+    /**
+     * @param size number of ids in the block
+     * @return first id of the block [first, first + size)
+     */
+    long lease(long size);
+
+    /**
+     * Ensures no block leased from now on contains an id at or below the given one.
+     */
+    void advanceTo(long id);
+}
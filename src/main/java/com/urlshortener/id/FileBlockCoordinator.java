@@ -0,0 +1,86 @@
+package com.urlshortener.id;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Coordinator backed by a file holding the high-water mark (highest id ever leased).
+ * <p>
+ * Each lease takes an exclusive file lock, reads the mark, writes the raised mark and fsyncs it before
+ * the block is handed out, so processes sharing the file (several nodes on one host, or on a file
+ * system with working locks) get disjoint blocks, and a crash can at worst skip ids, never reuse them.
+ * Stands in for a shared coordinator such as a database sequence.
+ */
+public class FileBlockCoordinator implements BlockCoordinator {
+
+    // FileLock is held per process: coordinators of one process sharing a file serialize on one monitor first
+    private static final ConcurrentHashMap<Path, Object> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final Object processLock;
+
+    public FileBlockCoordinator(Path file) throws IOException {
+        this.file = file;
+        this.processLock = PROCESS_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), p -> new Object());
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+
+    @Override
+    public long lease(long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        return update(mark -> mark + size) - size + 1;
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        update(mark -> Math.max(mark, id));
+    }
+
+    /**
+     * Applies the change to the high-water mark under the file lock.
+     *
+     * @return the new high-water mark
+     */
+    private long update(LongUnaryOperator change) {
+        synchronized (processLock) {
+            return updateLocked(change);
+        }
+    }
+
+    private long updateLocked(LongUnaryOperator change) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            long mark = 0;
+            if (channel.read(buffer, 0) == Long.BYTES) {
+                mark = buffer.getLong(0);
+            }
+            long updated = change.applyAsLong(mark);
+            if (updated != mark) {
+                buffer.clear();
+                buffer.putLong(0, updated);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+                channel.force(false);
+            }
+            return updated;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update id lease file " + file, e);
+        }
+    }
+}
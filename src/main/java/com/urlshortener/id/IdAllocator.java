@@ -0,0 +1,20 @@
+package com.urlshortener.id;
+
+/**
+ * Source of the numeric ids behind short keys.
+ * Ids are unique across every thread and every node sharing the allocator's coordinator,
+ * but not necessarily dense or increasing.
+ */
+public interface IdAllocator {
+
+    /**
+     * @return an id never returned before (by this allocator or any other sharing its coordinator)
+     */
+    long nextId();
+
+    /**
+     * Ensures this allocator never returns an id at or below the given one,
+     * e.g. after ids up to it were imported from elsewhere.
+     */
+    void advanceTo(long id);
+}
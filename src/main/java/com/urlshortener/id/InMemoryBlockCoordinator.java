@@ -0,0 +1,29 @@
+package com.urlshortener.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-process coordinator keeping its high-water mark in memory.
+ * Leases restart after the store's highest id, so it is only safe for one node.
+ */
+public class InMemoryBlockCoordinator implements BlockCoordinator {
+
+    private final AtomicLong highWaterMark;
+
+    /**
+     * @param lastIssued highest id already in use; the first block starts after it
+     */
+    public InMemoryBlockCoordinator(long lastIssued) {
+        this.highWaterMark = new AtomicLong(lastIssued);
+    }
+
+    @Override
+    public long lease(long size) {
+        return highWaterMark.getAndAdd(size) + 1;
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        highWaterMark.accumulateAndGet(id, Math::max);
+    }
+}
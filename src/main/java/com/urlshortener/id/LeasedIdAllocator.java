@@ -0,0 +1,105 @@
+package com.urlshortener.id;
+
+/**
+ * {@link IdAllocator} that leases blocks of ids from a {@link BlockCoordinator} (hi/lo) and splits
+ * each block into sub-blocks handed to stripes, so creates on different threads do not share a
+ * counter.
+ * <p>
+ * A thread is mapped to one of a fixed number of stripes by identity hash; each stripe holds its own
+ * sub-block under its own lock, so threads only contend when they share a stripe. Stripes are used
+ * instead of thread locals so that short-lived (e.g. virtual) threads do not each strand a sub-block.
+ * <p>
+ * Ids are unique but only increasing within a stripe; unused ids of a block are lost on restart.
+ */
+public class LeasedIdAllocator implements IdAllocator {
+
+    public static final long DEFAULT_BLOCK_SIZE = 10_000;
+    public static final int DEFAULT_SUB_BLOCK_SIZE = 100;
+
+    private final BlockCoordinator coordinator;
+    private final long blockSize;
+    private final int subBlockSize;
+    private final Stripe[] stripes;
+
+    // Ids at or below this are never returned
+    private volatile long floor;
+
+    // Node block [blockNext, blockEnd], guarded by this
+    private long blockNext = 1;
+    private long blockEnd = 0;
+
+    public LeasedIdAllocator(BlockCoordinator coordinator) {
+        this(coordinator, DEFAULT_BLOCK_SIZE, DEFAULT_SUB_BLOCK_SIZE);
+    }
+
+    /**
+     * @param coordinator  source of node blocks
+     * @param blockSize    ids leased from the coordinator at a time
+     * @param subBlockSize ids taken from the node block by a stripe at a time
+     */
+    public LeasedIdAllocator(BlockCoordinator coordinator, long blockSize, int subBlockSize) {
+        if (blockSize <= 0 || subBlockSize <= 0) {
+            throw new IllegalArgumentException("Block sizes must be positive");
+        }
+        this.coordinator = coordinator;
+        this.blockSize = blockSize;
+        this.subBlockSize = (int) Math.min(subBlockSize, blockSize);
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public long nextId() {
+        Stripe stripe = stripes[stripeIndex()];
+        synchronized (stripe) {
+            if (stripe.next <= floor) {
+                stripe.next = floor + 1;
+            }
+            if (stripe.next > stripe.end) {
+                long first = takeSubBlock();
+                stripe.next = first;
+                stripe.end = first + subBlockSize - 1;
+            }
+            return stripe.next++;
+        }
+    }
+
+    @Override
+    public void advanceTo(long id) {
+        coordinator.advanceTo(id);
+        synchronized (this) {
+            if (id > floor) {
+                floor = id;
+            }
+        }
+    }
+
+    private synchronized long takeSubBlock() {
+        if (blockNext <= floor) {
+            blockNext = floor + 1;
+        }
+        if (blockEnd - blockNext + 1 < subBlockSize) {
+            // The remainder of the block is too small for a sub-block and is skipped
+            blockNext = coordinator.lease(blockSize);
+            blockEnd = blockNext + blockSize - 1;
+        }
+        long first = blockNext;
+        blockNext += subBlockSize;
+        return first;
+    }
+
+    private int stripeIndex() {
+        int h = System.identityHashCode(Thread.currentThread());
+        h ^= h >>> 16;
+        return h & (stripes.length - 1);
+    }
+
+    private static final class Stripe {
+        // Sub-block [next, end], guarded by this
+        long next = 1;
+        long end = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.urlshortener.limit;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Sheds load before it queues: a request over its budget's {@link ConcurrencyLimiter} is answered
+ * {@code 503 Service Unavailable} with {@code Retry-After} at once, instead of waiting for a worker
+ * thread behind the requests that caused the overload. Redirects and {@code /api/} requests have
+ * separate budgets; anything else (actuator, errors) is not limited, so health checks keep answering.
+ * <p>
+ * Runs ahead of every other filter, including the redirect fast path, so the latency it measures is
+ * the whole request.
+ */
+public class ConcurrencyLimitFilter implements Filter {
+
+    private static final byte[] OVERLOADED = ("{\"status\":503,\"error\":\"Service Unavailable\","
+            + "\"message\":\"Server is overloaded, retry later\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final RequestLimits limits;
+    private final String redirectPrefix;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(RequestLimits limits, String redirectPrefix, long retryAfterSeconds) {
+        this.limits = limits;
+        this.redirectPrefix = redirectPrefix;
+        this.retryAfterSeconds = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        ConcurrencyLimiter limiter = limiterFor(request);
+        if (limiter == null) {
+            chain.doFilter(req, res);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            reject((HttpServletResponse) res);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(req, res);
+            if (request.isAsyncStarted()) {
+                // The permit is held until the response is actually complete
+                request.getAsyncContext().addListener(new Release(limiter, start));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(start);
+            }
+        }
+    }
+
+    private ConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        int context = request.getContextPath().length();
+        if (uri.startsWith(redirectPrefix, context)) {
+            return limits.redirects();
+        }
+        if (uri.startsWith("/api/", context)) {
+            return limits.api();
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", retryAfterSeconds);
+        response.setContentType("application/json");
+        response.setContentLength(OVERLOADED.length);
+        response.getOutputStream().write(OVERLOADED);
+    }
+
+    private record Release(ConcurrencyLimiter limiter, long start) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
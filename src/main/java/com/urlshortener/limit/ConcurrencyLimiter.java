@@ -0,0 +1,141 @@
+package com.urlshortener.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limit on the requests of one kind running at once, adapted to their measured latency (AIMD).
+ * <p>
+ * A request takes a permit before it runs, or is rejected if the limit is reached, and returns the
+ * permit with its latency when done. Latencies are averaged over windows of {@code windowSamples}
+ * requests. At the end of a window the limit is cut by a tenth if the average exceeded
+ * {@code tolerance} times the no-load latency (and the latency floor), or raised by one if the window
+ * used at least half the limit. The no-load latency follows lower averages at once and higher ones
+ * slowly, and only while not overloaded or already at the minimum limit, so it can track a changing
+ * floor without taking queueing delay for it.
+ * <p>
+ * Taking and returning a permit cost one atomic update each, plus one to record the sample; only the
+ * request that closes a window takes a lock.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double BACKOFF = 0.9;
+    // A window packs the latency sum (nanoseconds, high bits) and the sample count (low bits) into one long
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long MAX_SAMPLE_NANOS = (1L << 36) - 1;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final long latencyFloorNanos;
+    private final int windowSamples;
+
+    private volatile int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+
+    // Guarded by this
+    private long noLoadNanos = Long.MAX_VALUE;
+
+    /**
+     * @param name              kind of request limited, for metrics
+     * @param minLimit          the limit is never cut below this
+     * @param maxLimit          the limit starts here and is never raised above it
+     * @param tolerance         average latency, as a multiple of the no-load latency, that counts as overload
+     * @param latencyFloorNanos average latency that never counts as overload
+     * @param windowSamples     requests per window, at most 1024
+     */
+    public ConcurrencyLimiter(String name, int minLimit, int maxLimit, double tolerance,
+                              long latencyFloorNanos, int windowSamples) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance <= 1 || windowSamples < 1 || windowSamples > 1024) {
+            throw new IllegalArgumentException("Need 1 <= minLimit <= maxLimit, tolerance > 1 and 1 <= windowSamples <= 1024");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.latencyFloorNanos = latencyFloorNanos;
+        this.windowSamples = windowSamples;
+        this.limit = maxLimit;
+    }
+
+    /**
+     * @return true if the request may run, in which case the caller must {@link #release} it
+     */
+    public boolean tryAcquire() {
+        int current = inFlight.get();
+        while (current < limit) {
+            int witness = inFlight.compareAndExchange(current, current + 1);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the permit of a request that started at {@code startNanos} ({@link System#nanoTime()}).
+     */
+    public void release(long startNanos) {
+        long latency = Math.min(System.nanoTime() - startNanos, MAX_SAMPLE_NANOS);
+        int running = inFlight.getAndDecrement();
+        if (running > windowMaxInFlight.get()) {
+            windowMaxInFlight.accumulateAndGet(running, Math::max);
+        }
+        long sample = (Math.max(latency, 0) << COUNT_BITS) + 1;
+        // Only the request that completes the window closes it; later samples start the next one
+        if (((window.getAndAdd(sample) + sample) & COUNT_MASK) == windowSamples) {
+            closeWindow(window.getAndSet(0), windowMaxInFlight.getAndSet(0));
+        }
+    }
+
+    private synchronized void closeWindow(long samples, int maxInFlight) {
+        long count = samples & COUNT_MASK;
+        if (count == 0) {
+            return;
+        }
+        long average = (samples >>> COUNT_BITS) / count;
+        int current = limit;
+        boolean overloaded = average > latencyFloorNanos && average > tolerance * noLoadNanos;
+        if (average < noLoadNanos) {
+            noLoadNanos = average;
+        } else if (!overloaded || current == minLimit) {
+            // At the minimum limit a higher latency is no longer queueing but the new floor
+            noLoadNanos += (average - noLoadNanos) >> 6;
+        }
+        if (overloaded) {
+            limit = Math.max(minLimit, (int) (current * BACKOFF));
+        } else if (maxInFlight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return current estimate of the latency without queueing, in nanoseconds, or 0 before the first window
+     */
+    public synchronized long getNoLoadNanos() {
+        return noLoadNanos == Long.MAX_VALUE ? 0 : noLoadNanos;
+    }
+}
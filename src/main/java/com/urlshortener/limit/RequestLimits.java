@@ -0,0 +1,17 @@
+package com.urlshortener.limit;
+
+import java.util.List;
+
+/**
+ * The separate concurrency budgets of the API: redirects are never queued behind creates or metrics
+ * queries, however many of those arrive at once.
+ *
+ * @param redirects limit on redirects ({@code <prefix><key>})
+ * @param api       limit on everything under {@code /api/}: creates, batches, metrics and admin
+ */
+public record RequestLimits(ConcurrencyLimiter redirects, ConcurrencyLimiter api) {
+
+    public List<ConcurrencyLimiter> all() {
+        return List.of(redirects, api);
+    }
+}
@@ -0,0 +1,289 @@
+package com.urlshortener.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Rolling per-link click counts for recently active short keys, in fixed memory.
+ * <p>
+ * Each tracked key has one ring of 60 per-minute and 168 per-hour buckets (about 2 KB). A bucket is a
+ * single long holding the minute or hour it counts in its high 32 bits and the count in the low 32,
+ * so a click is a compare-and-set on two buckets and a bucket left over from an earlier lap of the
+ * ring resets itself on the next click; readers ignore buckets whose period has passed.
+ * <p>
+ * Keys in the long tail are clicked once and never again, so a key only gets a ring on its second
+ * click: the first one just sets two bits in a doorkeeper bitset (cleared after {@code 8 * maxKeys}
+ * first clicks), and the ring starts with both clicks in the current minute.
+ * <p>
+ * At most {@code maxKeys} keys are tracked. When the table is full, the first thread to notice in a
+ * minute removes the tenth of the keys with the fewest clicks in the last hour; until the next
+ * sweep, new keys are not tracked. Sweeping at most once a minute keeps a working set larger than
+ * the table from turning over on every click.
+ */
+public class ClickTracker {
+
+    public static final int DEFAULT_MAX_KEYS = 10_000;
+
+    static final int MINUTES = 60;
+    static final int HOURS = 168;
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int maxKeys;
+    private final LongSupplier clock;
+    // Ring per key: buckets 0..MINUTES-1 count minutes, the rest count hours
+    private final Map<String, long[]> series = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepMinute = new AtomicLong(-1);
+
+    // Bucket positions of the current minute, recomputed when the minute changes
+    private volatile Tick tick;
+
+    // Doorkeeper: keys clicked once since the last reset
+    private final AtomicLongArray seen;
+    private final AtomicInteger firstClicks = new AtomicInteger();
+
+    public ClickTracker() {
+        this(DEFAULT_MAX_KEYS, CoarseClock::millis);
+    }
+
+    public ClickTracker(int maxKeys, LongSupplier clock) {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+        this.tick = new Tick(clock.getAsLong() / MINUTE_MILLIS);
+        this.seen = new AtomicLongArray(Integer.highestOneBit(Math.max(1, maxKeys - 1)) << 1);
+    }
+
+    /**
+     * Counts one click on the key. Lock-free unless the key is new.
+     */
+    public void record(String shortKey) {
+        Tick now = tick(clock.getAsLong());
+        long[] ring = series.get(shortKey);
+        if (ring != null) {
+            add(ring, now);
+        } else if (!firstClick(shortKey)) {
+            ring = track(shortKey, now);
+            if (ring != null) {
+                add(ring, now);
+            }
+        }
+    }
+
+    /**
+     * @param shortKey    the short key
+     * @param accessCount lifetime count of the key, passed through to the result
+     * @return rolling click history of the key; all zero if it had no recent clicks
+     */
+    public LinkClicks clicks(String shortKey, long accessCount) {
+        long minute = clock.getAsLong() / MINUTE_MILLIS;
+        long hour = minute / 60;
+        long[] perMinute = new long[MINUTES];
+        long[] perHour = new long[HOURS];
+        long[] ring = series.get(shortKey);
+        if (ring != null) {
+            for (int i = 0; i < MINUTES; i++) {
+                perMinute[i] = count(ring, minute - (MINUTES - 1) + i, true);
+            }
+            for (int i = 0; i < HOURS; i++) {
+                perHour[i] = count(ring, hour - (HOURS - 1) + i, false);
+            }
+        }
+        return new LinkClicks(shortKey, accessCount, Arrays.stream(perMinute).sum(),
+                Arrays.stream(perHour, HOURS - 24, HOURS).sum(), Arrays.stream(perHour).sum(), perMinute, perHour);
+    }
+
+    /**
+     * @param k      number of links to return
+     * @param window time window to rank by
+     * @return the most clicked keys within the window, by count descending, ties broken alphabetically
+     */
+    public List<HeavyHitter> trending(int k, ClickWindow window) {
+        long minute = clock.getAsLong() / MINUTE_MILLIS;
+        Comparator<HeavyHitter> order = Comparator.comparingLong(HeavyHitter::count).reversed()
+                .thenComparing(HeavyHitter::item);
+        // Min-heap of the best k so far: its head is the weakest of them
+        PriorityQueue<HeavyHitter> best = new PriorityQueue<>(k + 1, order.reversed());
+        series.forEach((key, ring) -> {
+            long count = sum(ring, window, minute);
+            if (count > 0) {
+                best.add(new HeavyHitter(key, count, 0));
+                if (best.size() > k) {
+                    best.poll();
+                }
+            }
+        });
+        List<HeavyHitter> result = new ArrayList<>(best);
+        result.sort(order);
+        return result;
+    }
+
+    /**
+     * @return number of keys currently tracked
+     */
+    public int trackedKeys() {
+        return series.size();
+    }
+
+    /**
+     * Marks the key in the doorkeeper.
+     *
+     * @return true if the key was not marked yet
+     */
+    private boolean firstClick(String shortKey) {
+        int h = shortKey.hashCode() * 0x9E3779B9;
+        int bits = seen.length() * Long.SIZE;
+        int first = (h >>> 16) & (bits - 1);
+        int second = (h * 0x85EBCA6B >>> 8) & (bits - 1);
+        boolean marked = isSet(first) & isSet(second);
+        if (marked) {
+            return false;
+        }
+        set(first);
+        set(second);
+        if (firstClicks.incrementAndGet() >= maxKeys * 8) {
+            firstClicks.set(0);
+            for (int i = 0; i < seen.length(); i++) {
+                seen.set(i, 0);
+            }
+        }
+        return true;
+    }
+
+    private boolean isSet(int bit) {
+        return (seen.get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    private void set(int bit) {
+        long mask = 1L << bit;
+        if ((seen.get(bit >>> 6) & mask) == 0) {
+            seen.getAndAccumulate(bit >>> 6, mask, (a, b) -> a | b);
+        }
+    }
+
+    // Creates the key's ring holding its doorkeeper click, or returns null if the table is full
+    private long[] track(String shortKey, Tick now) {
+        if (series.size() >= maxKeys) {
+            sweep(now.minute);
+            if (series.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return series.computeIfAbsent(shortKey, key -> {
+            long[] ring = new long[MINUTES + HOURS];
+            add(ring, now);
+            return ring;
+        });
+    }
+
+    // Drops the keys with the fewest clicks in the last hour until the table is at 90% of maxKeys
+    private void sweep(long minute) {
+        long last = lastSweepMinute.get();
+        if (last >= minute || !lastSweepMinute.compareAndSet(last, minute)) {
+            return;
+        }
+        long[] scores = new long[series.size() + 64];
+        int n = 0;
+        for (long[] ring : series.values()) {
+            if (n == scores.length) {
+                break;
+            }
+            scores[n++] = sum(ring, ClickWindow.LAST_HOUR, minute);
+        }
+        int excess = n - maxKeys * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        Arrays.sort(scores, 0, n);
+        long threshold = scores[excess - 1];
+        // Everything below the threshold goes, then keys at it until enough are gone
+        int belowThreshold = 0;
+        while (belowThreshold < excess && scores[belowThreshold] < threshold) {
+            belowThreshold++;
+        }
+        int[] atThreshold = {excess - belowThreshold};
+        series.values().removeIf(ring -> {
+            long score = sum(ring, ClickWindow.LAST_HOUR, minute);
+            if (score < threshold) {
+                return true;
+            }
+            return score == threshold && atThreshold[0]-- > 0;
+        });
+    }
+
+    private Tick tick(long millis) {
+        Tick current = tick;
+        if (millis - current.startMillis < MINUTE_MILLIS && millis >= current.startMillis) {
+            return current;
+        }
+        current = new Tick(millis / MINUTE_MILLIS);
+        tick = current;
+        return current;
+    }
+
+    private static void add(long[] ring, Tick now) {
+        increment(ring, now.minuteIndex, now.minute);
+        increment(ring, now.hourIndex, now.hour);
+    }
+
+    private static void increment(long[] ring, int index, long period) {
+        while (true) {
+            long bucket = (long) LONGS.getVolatile(ring, index);
+            long next = bucket >>> 32 == period ? bucket + 1 : period << 32 | 1;
+            if (LONGS.compareAndSet(ring, index, bucket, next)) {
+                return;
+            }
+        }
+    }
+
+    private static long count(long[] ring, long period, boolean minutes) {
+        if (period < 0) {
+            return 0;
+        }
+        int index = minutes ? (int) (period % MINUTES) : MINUTES + (int) (period % HOURS);
+        long bucket = (long) LONGS.getVolatile(ring, index);
+        return bucket >>> 32 == period ? bucket & COUNT_MASK : 0;
+    }
+
+    private static long sum(long[] ring, ClickWindow window, long minute) {
+        long end = window.minutes() ? minute : minute / 60;
+        long total = 0;
+        for (long period = end - window.buckets() + 1; period <= end; period++) {
+            total += count(ring, period, window.minutes());
+        }
+        return total;
+    }
+
+    private static final class Tick {
+        final long minute;
+        final long hour;
+        final long startMillis;
+        final int minuteIndex;
+        final int hourIndex;
+
+        Tick(long minute) {
+            this.minute = minute;
+            this.hour = minute / 60;
+            this.startMillis = minute * MINUTE_MILLIS;
+            this.minuteIndex = (int) Math.floorMod(minute, MINUTES);
+            this.hourIndex = MINUTES + (int) Math.floorMod(hour, HOURS);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.urlshortener.metrics;
+
+/**
+ * Query windows for per-link click counts. The last hour is read from per-minute buckets, longer
+ * windows from per-hour buckets, so they cover between {@code hours - 1} and {@code hours} hours.
+ */
+public enum ClickWindow {
+    LAST_HOUR("1h", 60, true),
+    LAST_DAY("24h", 24, false),
+    LAST_WEEK("7d", 168, false);
+
+    private final String label;
+    private final int buckets;
+    private final boolean minutes;
+
+    ClickWindow(String label, int buckets, boolean minutes) {
+        this.label = label;
+        this.buckets = buckets;
+        this.minutes = minutes;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    int buckets() {
+        return buckets;
+    }
+
+    boolean minutes() {
+        return minutes;
+    }
+
+    /**
+     * @param label one of 1h, 24h, 7d
+     * @throws IllegalArgumentException for an unknown label
+     */
+    public static ClickWindow fromLabel(String label) {
+        for (ClickWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window '" + label + "', expected one of 1h, 24h, 7d");
+    }
+}
@@ -0,0 +1,37 @@
+package com.urlshortener.metrics;
+
+/**
+ * Wall clock kept in a field that a daemon thread refreshes every {@link #RESOLUTION_MILLIS}.
+ * Reading it is a volatile load, whereas {@link System#currentTimeMillis()} costs tens of nanoseconds
+ * on some (virtualized) clock sources; per-request counters bucketed by minute do not need more.
+ */
+final class CoarseClock {
+
+    static final long RESOLUTION_MILLIS = 100;
+
+    private static volatile long now = System.currentTimeMillis();
+
+    static {
+        Thread ticker = new Thread(CoarseClock::run, "coarse-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    private CoarseClock() {
+    }
+
+    static long millis() {
+        return now;
+    }
+
+    private static void run() {
+        while (true) {
+            try {
+                Thread.sleep(RESOLUTION_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            now = System.currentTimeMillis();
+        }
+    }
+}
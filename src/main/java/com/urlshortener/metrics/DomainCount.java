@@ -0,0 +1,11 @@
+package com.urlshortener.metrics;
+
+/**
+ * One entry of the top-domains report.
+ *
+ * @param domain the shortened URLs' host
+ * @param count  estimated number of shortenings, never lower than the true count
+ * @param error  maximum overestimation; the true count is at least {@code count - error}
+ */
+public record DomainCount(String domain, long count, long error) {
+}
@@ -0,0 +1,125 @@
+package com.urlshortener.metrics;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the most shortened domains, all-time and over rolling windows, in fixed memory.
+ * Each summary keeps at most {@code capacity} domains; see {@link SpaceSaving} for accuracy bounds.
+ * <p>
+ * Creates are recorded into one of several stripes, each with its own summaries and lock; a create takes the
+ * first free stripe from a per-thread starting point, so concurrent creates do not queue on one monitor.
+ * Queries merge the stripes with {@link MergedSummary}, which keeps the {@link HeavyHitter} bounds, reading at
+ * most {@code stripes * slices * capacity} counters and holding only K of them while selecting.
+ */
+public class DomainTracker {
+
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+    private final LongSupplier clock;
+    private final Stripe[] stripes;
+
+    public DomainTracker() {
+        this(DEFAULT_CAPACITY, System::currentTimeMillis);
+    }
+
+    public DomainTracker(int capacity, LongSupplier clock) {
+        this(capacity, clock, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param stripes independently locked summary sets; memory grows linearly with it
+     */
+    public DomainTracker(int capacity, LongSupplier clock, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive");
+        }
+        this.capacity = capacity;
+        this.clock = clock;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    public void record(String domain) {
+        long now = clock.getAsLong();
+        int start = stripeIndex();
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(start + i) % stripes.length];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.add(domain, now);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        // Every stripe busy: wait for this thread's own
+        Stripe stripe = stripes[start];
+        stripe.lock.lock();
+        try {
+            stripe.add(domain, now);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @param k      number of domains to return, at most {@link #capacity()}
+     * @param window time window to report on
+     * @return top domains by estimated count descending, ties broken alphabetically
+     */
+    public List<HeavyHitter> top(int k, TimeWindow window) {
+        long now = clock.getAsLong();
+        MergedSummary merged = new MergedSummary();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (window == TimeWindow.ALL_TIME) {
+                    merged.add(stripe.allTime);
+                } else {
+                    stripe.windows.get(window).mergeInto(merged, now);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return merged.top(k);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int stripeIndex() {
+        int h = System.identityHashCode(Thread.currentThread());
+        h ^= h >>> 16;
+        return (h & Integer.MAX_VALUE) % stripes.length;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final SpaceSaving allTime;
+        final Map<TimeWindow, WindowedSpaceSaving> windows = new EnumMap<>(TimeWindow.class);
+
+        Stripe(int capacity) {
+            this.allTime = new SpaceSaving(capacity);
+            for (TimeWindow window : TimeWindow.values()) {
+                if (window != TimeWindow.ALL_TIME) {
+                    windows.put(window, new WindowedSpaceSaving(window.slices(), window.sliceMillis(), capacity));
+                }
+            }
+        }
+
+        void add(String domain, long now) {
+            allTime.add(domain);
+            windows.values().forEach(w -> w.add(domain, now));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.urlshortener.metrics;
+
+/**
+ * An item reported by a {@link SpaceSaving} summary.
+ *
+ * @param item  the tracked item (e.g. a domain)
+ * @param count estimated count, never lower than the true count
+ * @param error maximum overestimation; the true count is at least {@code count - error}
+ */
+public record HeavyHitter(String item, long count, long error) {
+}
@@ -0,0 +1,16 @@
+package com.urlshortener.metrics;
+
+/**
+ * Rolling click history of one short link.
+ *
+ * @param shortKey    the short key
+ * @param accessCount lifetime redirect count kept by the store
+ * @param lastHour    clicks in the last 60 minutes
+ * @param lastDay     clicks in the last 24 hours
+ * @param lastWeek    clicks in the last 7 days
+ * @param perMinute   60 per-minute counts, oldest first, ending with the current minute
+ * @param perHour     168 per-hour counts, oldest first, ending with the current hour
+ */
+public record LinkClicks(String shortKey, long accessCount, long lastHour, long lastDay, long lastWeek,
+                         long[] perMinute, long[] perHour) {
+}
@@ -0,0 +1,60 @@
+package com.urlshortener.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Merges {@link SpaceSaving} summaries of disjoint parts of one stream (stripes, time slices) while keeping
+ * the {@link HeavyHitter} bounds. An item a full summary does not track occurred there at most that summary's
+ * minimum count times, so the minimum is added to the item's count and error; a summary that tracks the item
+ * adds its own count and error. Only items tracked by at least one summary are reported.
+ * Not thread-safe.
+ */
+final class MergedSummary {
+
+    static final Comparator<HeavyHitter> ORDER = Comparator.comparingLong(HeavyHitter::count).reversed()
+            .thenComparing(HeavyHitter::item);
+
+    // Per item: sum over the summaries tracking it of (count - min) and (error - min)
+    private final Map<String, long[]> items = new HashMap<>();
+    // Sum of the minimum counts of every summary merged
+    private long baseline;
+
+    void add(SpaceSaving summary) {
+        long min = summary.minCount();
+        baseline += min;
+        for (HeavyHitter hitter : summary.entries()) {
+            long[] sums = items.computeIfAbsent(hitter.item(), item -> new long[2]);
+            sums[0] += hitter.count() - min;
+            sums[1] += hitter.error() - min;
+        }
+    }
+
+    /**
+     * Returns the K items with the highest merged counts, ties broken alphabetically. Only K items are held
+     * while selecting, so no full sort of the merged entries is needed.
+     */
+    List<HeavyHitter> top(int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<HeavyHitter> best = new PriorityQueue<>(k, ORDER.reversed());
+        for (Map.Entry<String, long[]> entry : items.entrySet()) {
+            long[] sums = entry.getValue();
+            HeavyHitter hitter = new HeavyHitter(entry.getKey(), baseline + sums[0], baseline + sums[1]);
+            if (best.size() < k) {
+                best.add(hitter);
+            } else if (ORDER.compare(hitter, best.peek()) < 0) {
+                best.poll();
+                best.add(hitter);
+            }
+        }
+        List<HeavyHitter> result = new ArrayList<>(best);
+        result.sort(ORDER);
+        return result;
+    }
+}
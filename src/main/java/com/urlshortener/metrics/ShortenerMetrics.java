@@ -0,0 +1,294 @@
+package com.urlshortener.metrics;
+
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.expiration.ExpirationManager;
+import com.urlshortener.limit.ConcurrencyLimiter;
+import com.urlshortener.limit.RequestLimits;
+import com.urlshortener.replication.ReplicationFollower;
+import com.urlshortener.replication.ReplicationServer;
+import com.urlshortener.store.UrlStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for the shortening and redirect paths.
+ * <p>
+ * Every request is counted by outcome. Shortening is always timed; redirects are timed for one in
+ * {@code redirectSampleRate} requests (0 turns redirect timing off), because two clock reads and a
+ * histogram update cost more than the redirect lookup itself. Sampled latencies give the same
+ * percentiles; request rates come from the counters, not the timer count.
+ * <p>
+ * Meters:
+ * - urlshortener.shorten (timer), urlshortener.shorten.requests{result=created|existing|invalid}
+ * - urlshortener.shorten.batch (timer, one sample per batch request)
+ * - urlshortener.redirect (timer, sampled), urlshortener.redirect.requests{result=found|not_found}
+ * - urlshortener.keys.generated: new short keys minted
+ * - urlshortener.store.mappings, urlshortener.clicks.tracked.keys (gauges)
+ * - urlshortener.cache.* when the hot-key cache is enabled
+ * - urlshortener.events.* when click events are enabled
+ * - urlshortener.expiration.* when link expiration is enabled
+ * - urlshortener.limit.*{budget=redirect|api} when concurrency limits are enabled
+ * - urlshortener.replication.* on a replication leader or follower
+ */
+public class ShortenerMetrics {
+
+    private final MeterRegistry registry;
+    private final int redirectSampleRate;
+
+    private final Timer shortenTimer;
+    private final Timer batchTimer;
+    private final Counter shortenCreated;
+    private final Counter shortenExisting;
+    private final Counter shortenInvalid;
+    private final Counter keysGenerated;
+
+    private final Timer redirectTimer;
+    private final Counter redirectFound;
+    private final Counter redirectNotFound;
+
+    /**
+     * @param registry           registry to publish to
+     * @param redirectSampleRate time one in this many redirects, 0 to not time redirects
+     */
+    public ShortenerMetrics(MeterRegistry registry, int redirectSampleRate) {
+        if (redirectSampleRate < 0) {
+            throw new IllegalArgumentException("Redirect sample rate must not be negative");
+        }
+        this.registry = registry;
+        this.redirectSampleRate = redirectSampleRate;
+
+        this.shortenTimer = Timer.builder("urlshortener.shorten")
+                .description("Latency of shortening one URL")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+        this.batchTimer = Timer.builder("urlshortener.shorten.batch")
+                .description("Latency of shortening one batch of URLs")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+        this.shortenCreated = shortenCounter("created");
+        this.shortenExisting = shortenCounter("existing");
+        this.shortenInvalid = shortenCounter("invalid");
+        this.keysGenerated = Counter.builder("urlshortener.keys.generated")
+                .description("Short keys minted for new mappings")
+                .register(registry);
+
+        this.redirectTimer = Timer.builder("urlshortener.redirect")
+                .description("Latency of resolving a short key (sampled)")
+                .tag("sample.rate", Integer.toString(redirectSampleRate))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofSeconds(1))
+                .register(registry);
+        this.redirectFound = redirectCounter("found");
+        this.redirectNotFound = redirectCounter("not_found");
+    }
+
+    /**
+     * @return meters that are counted nowhere, for services built outside Spring
+     */
+    public static ShortenerMetrics noop() {
+        return new ShortenerMetrics(new CompositeMeterRegistry(), 0);
+    }
+
+    /**
+     * @return start time to pass to {@link #shortened}
+     */
+    public long startShorten() {
+        return System.nanoTime();
+    }
+
+    /**
+     * @param created true if a new mapping was created, false for an idempotent hit
+     */
+    public void shortened(long startNanos, boolean created) {
+        (created ? shortenCreated : shortenExisting).increment();
+        shortenTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a batch: its URLs are counted by outcome and the batch is timed once, in its own timer,
+     * so the per-URL timer keeps only single-URL latencies.
+     */
+    public void shortenedBatch(long startNanos, int created, int existing, int invalid) {
+        shortenCreated.increment(created);
+        shortenExisting.increment(existing);
+        shortenInvalid.increment(invalid);
+        batchTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void shortenRejected() {
+        shortenInvalid.increment();
+    }
+
+    public void keyGenerated() {
+        keysGenerated.increment();
+    }
+
+    /**
+     * @return start time to pass to {@link #resolved}, or 0 if this redirect is not sampled
+     */
+    public long startRedirect() {
+        if (redirectSampleRate == 0) {
+            return 0;
+        }
+        if (redirectSampleRate > 1 && ThreadLocalRandom.current().nextInt(redirectSampleRate) != 0) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    public void resolved(long startNanos, boolean found) {
+        (found ? redirectFound : redirectNotFound).increment();
+        if (startNanos != 0) {
+            redirectTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Publishes the size of the store and of the click tracker as gauges.
+     */
+    public void bind(UrlStore store, ClickTracker clickTracker) {
+        Gauge.builder("urlshortener.store.mappings", store, UrlStore::size)
+                .description("Mappings held by this node's store")
+                .register(registry);
+        Gauge.builder("urlshortener.clicks.tracked.keys", clickTracker, ClickTracker::trackedKeys)
+                .description("Keys with a rolling click history")
+                .register(registry);
+    }
+
+    /**
+     * Publishes hot-key cache counters; they are read from {@link HotKeyCache#stats()} on each scrape.
+     */
+    public void bind(HotKeyCache cache) {
+        FunctionCounter.builder("urlshortener.cache.requests", cache, c -> c.stats().hits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.cache.requests", cache, c -> c.stats().misses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.cache.evictions", cache, c -> c.stats().evictions())
+                .register(registry);
+        FunctionCounter.builder("urlshortener.cache.rejections", cache, c -> c.stats().rejections())
+                .description("New entries turned away by the admission filter")
+                .register(registry);
+        Gauge.builder("urlshortener.cache.entries", cache, HotKeyCache::size)
+                .register(registry);
+        Gauge.builder("urlshortener.cache.weight", cache, c -> c.stats().weight())
+                .register(registry);
+    }
+
+    /**
+     * Publishes click-event queue depth and event counts.
+     */
+    public void bind(ClickEventPipeline events) {
+        Gauge.builder("urlshortener.events.queue.depth", events, ClickEventPipeline::depth)
+                .description("Click events queued and not yet written")
+                .register(registry);
+        Gauge.builder("urlshortener.events.queue.capacity", events, ClickEventPipeline::capacity)
+                .register(registry);
+        FunctionCounter.builder("urlshortener.events.dropped", events, ClickEventPipeline::dropped)
+                .description("Click events dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.events.written", events, ClickEventPipeline::written)
+                .register(registry);
+        FunctionCounter.builder("urlshortener.events.failed", events, ClickEventPipeline::failed)
+                .description("Click events lost to write errors")
+                .register(registry);
+    }
+
+    /**
+     * Publishes pending and removed expirations and the longest removal batch.
+     */
+    public void bind(ExpirationManager expiration) {
+        Gauge.builder("urlshortener.expiration.pending", expiration, ExpirationManager::pending)
+                .description("Mappings scheduled to expire")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.expiration.removed", expiration, ExpirationManager::expired)
+                .description("Mappings removed on expiry")
+                .register(registry);
+        TimeGauge.builder("urlshortener.expiration.batch.max", expiration, TimeUnit.NANOSECONDS,
+                        ExpirationManager::longestBatchNanos)
+                .description("Longest removal batch since startup")
+                .register(registry);
+    }
+
+    public void bind(RequestLimits limits) {
+        for (ConcurrencyLimiter limiter : limits.all()) {
+            Gauge.builder("urlshortener.limit.limit", limiter, ConcurrencyLimiter::getLimit)
+                    .description("Requests allowed to run at once")
+                    .tag("budget", limiter.getName())
+                    .register(registry);
+            Gauge.builder("urlshortener.limit.inflight", limiter, ConcurrencyLimiter::getInFlight)
+                    .description("Requests running")
+                    .tag("budget", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder("urlshortener.limit.rejected", limiter, ConcurrencyLimiter::getRejected)
+                    .description("Requests answered 503 because the limit was reached")
+                    .tag("budget", limiter.getName())
+                    .register(registry);
+            TimeGauge.builder("urlshortener.limit.latency.noload", limiter, TimeUnit.NANOSECONDS,
+                            ConcurrencyLimiter::getNoLoadNanos)
+                    .description("Estimated request latency without queueing")
+                    .tag("budget", limiter.getName())
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Publishes the leader's change sequence and connected followers.
+     */
+    public void bind(ReplicationServer server) {
+        Gauge.builder("urlshortener.replication.followers", server, ReplicationServer::followers)
+                .description("Followers connected to this leader")
+                .register(registry);
+        FunctionCounter.builder("urlshortener.replication.sequence", server, ReplicationServer::lastSeq)
+                .description("Changes appended to the replication log since startup")
+                .register(registry);
+    }
+
+    /**
+     * Publishes a follower's replication lag and applied changes.
+     */
+    public void bind(ReplicationFollower follower) {
+        TimeGauge.builder("urlshortener.replication.lag", follower, TimeUnit.MILLISECONDS,
+                        ReplicationFollower::lagMillis)
+                .description("Time from the leader appending a change to this follower applying it")
+                .register(registry);
+        Gauge.builder("urlshortener.replication.lag.changes", follower, ReplicationFollower::lagChanges)
+                .description("Changes the leader has that this follower has not applied")
+                .register(registry);
+        Gauge.builder("urlshortener.replication.connected", follower, f -> f.isConnected() ? 1 : 0)
+                .register(registry);
+        FunctionCounter.builder("urlshortener.replication.applied", follower, ReplicationFollower::applied)
+                .register(registry);
+        FunctionCounter.builder("urlshortener.replication.snapshots", follower, ReplicationFollower::snapshots)
+                .description("Snapshots loaded from the leader to catch up")
+                .register(registry);
+    }
+
+    private Counter shortenCounter(String result) {
+        return Counter.builder("urlshortener.shorten.requests")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter redirectCounter(String result) {
+        return Counter.builder("urlshortener.redirect.requests")
+                .tag("result", result)
+                .register(registry);
+    }
+}
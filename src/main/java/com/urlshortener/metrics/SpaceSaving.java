@@ -0,0 +1,204 @@
+package com.urlshortener.metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded top-K counter using the Space-Saving algorithm (Metwally et al.) on a Stream-Summary.
+ * <p>
+ * At most {@code capacity} items are tracked. When a new item arrives and the summary is full,
+ * it replaces the item with the lowest count and inherits that count as its error.
+ * With N items offered, every estimate is at most N / capacity too high, and every item that
+ * occurred more than N / capacity times is guaranteed to be tracked.
+ * <p>
+ * Counters are kept in buckets of equal count, linked in ascending order, so an update is O(1)
+ * and the top K are read by walking down from the highest bucket. Not thread-safe.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Node> nodes;
+    private Bucket min;
+    private Bucket max;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.nodes = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts one occurrence of the item.
+     */
+    public void add(String item) {
+        total++;
+        Node node = nodes.get(item);
+        if (node == null) {
+            if (nodes.size() < capacity) {
+                node = new Node(item, 0);
+                attach(node, 1, null);
+                nodes.put(item, node);
+                return;
+            }
+            // Evict an item with the minimum count and take over its counter
+            node = min.head;
+            nodes.remove(node.item);
+            node.item = item;
+            node.error = min.count;
+            nodes.put(item, node);
+        }
+        increment(node);
+    }
+
+    /**
+     * Returns the K items with the highest estimated counts, ties broken alphabetically.
+     */
+    public List<HeavyHitter> top(int k) {
+        List<HeavyHitter> result = new ArrayList<>(Math.min(k, nodes.size()));
+        for (Bucket bucket = max; bucket != null && result.size() < k; bucket = bucket.prev) {
+            List<Node> tied = new ArrayList<>();
+            for (Node node = bucket.head; node != null; node = node.next) {
+                tied.add(node);
+            }
+            tied.sort((a, b) -> a.item.compareTo(b.item));
+            for (Node node : tied) {
+                if (result.size() == k) {
+                    break;
+                }
+                result.add(new HeavyHitter(node.item, bucket.count, node.error));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return every tracked item, in no particular order
+     */
+    public List<HeavyHitter> entries() {
+        List<HeavyHitter> result = new ArrayList<>(nodes.size());
+        for (Node node : nodes.values()) {
+            result.add(new HeavyHitter(node.item, node.bucket.count, node.error));
+        }
+        return result;
+    }
+
+    /**
+     * @return the lowest tracked count once the summary is full, else 0: an untracked item occurred at most this
+     * many times
+     */
+    public long minCount() {
+        return nodes.size() < capacity ? 0 : min.count;
+    }
+
+    /**
+     * @return number of occurrences offered so far
+     */
+    public long total() {
+        return total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void increment(Node node) {
+        Bucket bucket = node.bucket;
+        long next = bucket.count + 1;
+        detach(node);
+        Bucket after = bucket.head == null ? unlink(bucket) : bucket;
+        attach(node, next, after);
+    }
+
+    /**
+     * Places the node into the bucket with the given count, which must directly follow {@code after}
+     * (or be the lowest bucket when {@code after} is null).
+     */
+    private void attach(Node node, long count, Bucket after) {
+        Bucket target = after == null ? min : after.next;
+        if (target == null || target.count != count) {
+            Bucket bucket = new Bucket(count);
+            bucket.prev = after;
+            bucket.next = target;
+            if (after == null) {
+                min = bucket;
+            } else {
+                after.next = bucket;
+            }
+            if (target == null) {
+                max = bucket;
+            } else {
+                target.prev = bucket;
+            }
+            target = bucket;
+        }
+        node.bucket = target;
+        node.prev = null;
+        node.next = target.head;
+        if (target.head != null) {
+            target.head.prev = node;
+        }
+        target.head = node;
+    }
+
+    private void detach(Node node) {
+        Bucket bucket = node.bucket;
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            bucket.head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * Removes an empty bucket from the list.
+     *
+     * @return the bucket before it
+     */
+    private Bucket unlink(Bucket bucket) {
+        if (bucket.prev != null) {
+            bucket.prev.next = bucket.next;
+        } else {
+            min = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        } else {
+            max = bucket.prev;
+        }
+        return bucket.prev;
+    }
+
+    private static final class Bucket {
+        final long count;
+        Bucket prev;
+        Bucket next;
+        Node head;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+
+    private static final class Node {
+        String item;
+        long error;
+        Bucket bucket;
+        Node prev;
+        Node next;
+
+        Node(String item, long error) {
+            this.item = item;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.urlshortener.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query windows for rolling metrics. Each window is tracked as a ring of fixed-length slices,
+ * so a window covers between {@code slices - 1} and {@code slices} slice lengths of history.
+ */
+public enum TimeWindow {
+    LAST_MINUTE("1m", 6, TimeUnit.SECONDS.toMillis(10)),
+    LAST_HOUR("1h", 60, TimeUnit.MINUTES.toMillis(1)),
+    LAST_DAY("24h", 24, TimeUnit.HOURS.toMillis(1)),
+    ALL_TIME("all", 1, 0);
+
+    private final String label;
+    private final int slices;
+    private final long sliceMillis;
+
+    TimeWindow(String label, int slices, long sliceMillis) {
+        this.label = label;
+        this.slices = slices;
+        this.sliceMillis = sliceMillis;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    int slices() {
+        return slices;
+    }
+
+    long sliceMillis() {
+        return sliceMillis;
+    }
+
+    /**
+     * @param label one of 1m, 1h, 24h, all
+     * @throws IllegalArgumentException for an unknown label
+     */
+    public static TimeWindow fromLabel(String label) {
+        for (TimeWindow window : values()) {
+            if (window.label.equalsIgnoreCase(label)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown window '" + label + "', expected one of 1m, 1h, 24h, all");
+    }
+}
@@ -0,0 +1,56 @@
+package com.urlshortener.metrics;
+
+import java.util.List;
+
+/**
+ * Space-Saving summaries over a sliding time window.
+ * The window is a ring of slices, each with its own bounded summary; a slice is cleared
+ * when the ring wraps around to it. Queries merge the live slices with {@link MergedSummary}, which keeps
+ * the Space-Saving bounds across slices, and memory stays at {@code slices * capacity} counters.
+ * Not thread-safe.
+ */
+public class WindowedSpaceSaving {
+
+    private final long sliceMillis;
+    private final SpaceSaving[] slices;
+    private final long[] sliceIds;
+    private final int capacity;
+
+    public WindowedSpaceSaving(int sliceCount, long sliceMillis, int capacity) {
+        this.sliceMillis = sliceMillis;
+        this.slices = new SpaceSaving[sliceCount];
+        this.sliceIds = new long[sliceCount];
+        this.capacity = capacity;
+    }
+
+    public void add(String item, long nowMillis) {
+        long sliceId = nowMillis / sliceMillis;
+        int index = (int) (sliceId % slices.length);
+        if (slices[index] == null || sliceIds[index] != sliceId) {
+            slices[index] = new SpaceSaving(capacity);
+            sliceIds[index] = sliceId;
+        }
+        slices[index].add(item);
+    }
+
+    /**
+     * Returns the K items with the highest estimated counts within the window, ties broken alphabetically.
+     */
+    public List<HeavyHitter> top(int k, long nowMillis) {
+        MergedSummary merged = new MergedSummary();
+        mergeInto(merged, nowMillis);
+        return merged.top(k);
+    }
+
+    /**
+     * Adds the slices still inside the window to a merge.
+     */
+    void mergeInto(MergedSummary merged, long nowMillis) {
+        long current = nowMillis / sliceMillis;
+        for (int i = 0; i < slices.length; i++) {
+            if (slices[i] != null && current - sliceIds[i] < slices.length) {
+                merged.add(slices[i]);
+            }
+        }
+    }
+}
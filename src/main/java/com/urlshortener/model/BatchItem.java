@@ -0,0 +1,14 @@
+package com.urlshortener.model;
+
+import lombok.Data;
+
+/**
+ * Outcome of one URL in a batch shorten request.
+ * Exactly one of shortUrl and error is set.
+ */
+@Data
+public class BatchItem {
+    private final String originalUrl;
+    private final ShortUrl shortUrl;
+    private final String error;
+}
@@ -1,12 +1,18 @@
 package com.urlshortener.model;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Model representing a shortened URL.
- * Stores the original URL, shortened key, creation timestamp, and access count.
+ * Stores the original URL, shortened key, creation and expiry timestamps, and access count.
  * This class serves as the in-memory data structure for URL storage.
  */
 @Data
@@ -14,13 +20,43 @@ public class ShortUrl {
     private String originalUrl;      // The original long URL
     private String shortKey;         // The shortened key (e.g: "abc123")
     private LocalDateTime createdAt; // When the short URL was created
-    private int accessCount;         // How many times this short URL was accessed
+    private LocalDateTime expiresAt; // When the short URL expires, null if it never does
+
+    // How many times this short URL was accessed.
+    // Striped counter: concurrent redirects of one hot key update separate cells instead of one contended field
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final LongAdder accessCount = new LongAdder();
+
+    /**
+     * @return total number of accesses, summed over all counter cells
+     */
+    public long getAccessCount() {
+        return accessCount.sum();
+    }
+
+    /**
+     * Replaces the access count, e.g. when restoring a mapping from storage.
+     */
+    public void setAccessCount(long count) {
+        accessCount.reset();
+        accessCount.add(count);
+    }
 
     /**
      * Increments the access count by 1.
      * Used when someone clicks on the short URL.
      */
     public void incrementAccessCount() {
-        this.accessCount++;
+        accessCount.increment();
+    }
+
+    /**
+     * Adds several accesses at once, e.g. counts replicated from another node.
+     */
+    public void addAccessCount(long count) {
+        accessCount.add(count);
     }
-}
\ No newline at end of file
+}
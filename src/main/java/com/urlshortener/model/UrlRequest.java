@@ -1,18 +1,26 @@
 package com.urlshortener.model;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import lombok.Data;
 
 /**
  * Request model for URL shortening.
  * Contains the original URL that needs to be shortened.
- * Uses validation annotations to ensure the URL is properly formatted.
+ * Only presence is checked here; the URL itself is validated and canonicalized once, by the service.
+ * An optional TTL makes the link expire; batch endpoints take one per item.
  */
 
 @Data
 public class UrlRequest {
+    // 100 years: later expiry times no longer fit the epoch-millisecond deadlines of the expiration wheel
+    public static final long MAX_TTL_SECONDS = 100L * 365 * 24 * 60 * 60;
+
     @NotBlank(message = "URL cannot be empty")
-    @Pattern(regexp = "^(https?://).*", message = "URL must start with http:// or https://")
     private String originalUrl;
+
+    @Positive(message = "TTL must be positive")
+    @Max(value = MAX_TTL_SECONDS, message = "TTL must be at most 100 years")
+    private Long ttlSeconds;
 }
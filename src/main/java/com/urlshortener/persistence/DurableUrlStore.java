@@ -0,0 +1,117 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator that logs every newly created mapping to the write-ahead log.
+ * The record is appended after the mapping is in the backing store, so a snapshot taken after
+ * a log rotation always contains every mapping logged to the older segments.
+ */
+public class DurableUrlStore implements UrlStore {
+
+    private final UrlStore delegate;
+    private final PersistenceManager persistence;
+
+    DurableUrlStore(UrlStore delegate, PersistenceManager persistence) {
+        this.delegate = delegate;
+        this.persistence = persistence;
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        ShortUrl[] created = new ShortUrl[1];
+        ShortUrl shortUrl = delegate.findOrCreate(originalUrl, url -> created[0] = factory.apply(url));
+        if (created[0] != null) {
+            persistence.log(created[0]);
+        }
+        return shortUrl;
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        // By URL: a retried factory call (key already taken) replaces the mapping it built first
+        Map<String, ShortUrl> created = new LinkedHashMap<>();
+        List<ShortUrl> shortUrls = delegate.findOrCreateAll(originalUrls, url -> {
+            ShortUrl shortUrl = factory.apply(url);
+            created.put(url, shortUrl);
+            return shortUrl;
+        });
+        persistence.logAll(new ArrayList<>(created.values()));
+        return shortUrls;
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        boolean inserted = delegate.putIfAbsent(shortUrl);
+        if (inserted) {
+            persistence.log(shortUrl);
+        }
+        return inserted;
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return delegate.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        return delegate.resolve(shortKey);
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        return delegate.peek(shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+    }
+
+    /**
+     * Removals are not logged: a removed mapping stays in older log segments until the next snapshot,
+     * and a recovery before then restores it.
+     */
+    @Override
+    public boolean remove(String shortKey) {
+        return delegate.remove(shortKey);
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        try {
+            persistence.close();
+        } finally {
+            delegate.close();
+        }
+    }
+}
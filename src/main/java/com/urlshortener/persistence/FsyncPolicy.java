@@ -0,0 +1,20 @@
+package com.urlshortener.persistence;
+
+/**
+ * When the write-ahead log forces appended records to the storage device.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every create waits until its record is fsynced. Concurrent creates share one fsync (group commit).
+     */
+    ALWAYS,
+    /**
+     * Records are written and fsynced in the background every fsync interval.
+     * A crash can lose up to one interval of creates.
+     */
+    INTERVAL,
+    /**
+     * Records are written in the background and fsync is left to the operating system.
+     */
+    NEVER
+}
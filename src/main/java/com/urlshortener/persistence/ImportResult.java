@@ -0,0 +1,12 @@
+package com.urlshortener.persistence;
+
+/**
+ * Outcome of a bulk import.
+ *
+ * @param imported   mappings inserted into the store
+ * @param duplicates mappings skipped because their key or URL already existed
+ * @param rejected   rows skipped because they could not be parsed or were invalid
+ * @param maxId      highest numeric id (decoded short key) seen in the input
+ */
+public record ImportResult(long imported, long duplicates, long rejected, long maxId) {
+}
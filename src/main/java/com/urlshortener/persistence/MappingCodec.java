@@ -0,0 +1,130 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary record format shared by the write-ahead log and snapshots.
+ * <pre>
+ * int  bodyLength
+ * int  crc32c(body)
+ * body:
+ *   long id           (decoded short key; top bit set if expiresAt follows)
+ *   long createdAt    (epoch millis)
+ *   long accessCount
+ *   [long expiresAt]  (epoch millis, only for mappings that expire)
+ *   byte[] url        (UTF-8, the rest of the body)
+ * </pre>
+ * Records of mappings without an expiry are laid out as before expiry existed.
+ */
+final class MappingCodec {
+
+    static final int HEADER_BYTES = 8;
+    static final int FIXED_BODY_BYTES = 24;
+    static final int MAX_BODY_BYTES = 1 << 24;
+
+    private static final long HAS_EXPIRY = Long.MIN_VALUE;
+
+    private MappingCodec() {
+    }
+
+    /**
+     * @return total encoded size of the mapping
+     */
+    static int encodedSize(ShortUrl shortUrl, byte[] url) {
+        return HEADER_BYTES + FIXED_BODY_BYTES + (shortUrl.getExpiresAt() == null ? 0 : Long.BYTES) + url.length;
+    }
+
+    /**
+     * Writes the mapping at the buffer's position. The buffer must have {@link #encodedSize} bytes remaining.
+     */
+    static void encode(ShortUrl shortUrl, byte[] url, ByteBuffer out) {
+        int start = out.position();
+        boolean expires = shortUrl.getExpiresAt() != null;
+        out.putInt(encodedSize(shortUrl, url) - HEADER_BYTES);
+        out.putInt(0); // crc placeholder
+        long id = Base62Util.decode(shortUrl.getShortKey());
+        out.putLong(expires ? id | HAS_EXPIRY : id);
+        out.putLong(toEpochMillis(shortUrl.getCreatedAt()));
+        out.putLong(shortUrl.getAccessCount());
+        if (expires) {
+            out.putLong(toEpochMillis(shortUrl.getExpiresAt()));
+        }
+        out.put(url);
+
+        CRC32C crc = new CRC32C();
+        crc.update(out.duplicate().position(start + HEADER_BYTES).limit(out.position()));
+        out.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Decodes one mapping from the buffer's position.
+     *
+     * @return the mapping, or null if the buffer does not hold a complete record (position is left unchanged)
+     * @throws CorruptRecordException if a complete record fails its checksum
+     */
+    static ShortUrl decode(ByteBuffer in) {
+        if (in.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = in.position();
+        int bodyLength = in.getInt(start);
+        if (bodyLength < FIXED_BODY_BYTES || bodyLength > MAX_BODY_BYTES) {
+            throw new CorruptRecordException("Invalid record length " + bodyLength);
+        }
+        if (in.remaining() < HEADER_BYTES + bodyLength) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(in.duplicate().position(start + HEADER_BYTES).limit(start + HEADER_BYTES + bodyLength));
+        if ((int) crc.getValue() != in.getInt(start + 4)) {
+            throw new CorruptRecordException("Checksum mismatch");
+        }
+
+        in.position(start + HEADER_BYTES);
+        long id = in.getLong();
+        long createdAt = in.getLong();
+        long accessCount = in.getLong();
+        boolean expires = (id & HAS_EXPIRY) != 0;
+        if (expires && bodyLength < FIXED_BODY_BYTES + Long.BYTES) {
+            throw new CorruptRecordException("Invalid record length " + bodyLength);
+        }
+        long expiresAt = expires ? in.getLong() : 0;
+        byte[] url = new byte[bodyLength - FIXED_BODY_BYTES - (expires ? Long.BYTES : 0)];
+        in.get(url);
+
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(Base62Util.encode(id & ~HAS_EXPIRY));
+        shortUrl.setOriginalUrl(new String(url, StandardCharsets.UTF_8));
+        shortUrl.setCreatedAt(toLocalDateTime(createdAt));
+        shortUrl.setAccessCount(accessCount);
+        if (expires) {
+            shortUrl.setExpiresAt(toLocalDateTime(expiresAt));
+        }
+        return shortUrl;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Thrown when a stored record is damaged (bad length or checksum).
+     */
+    static class CorruptRecordException extends RuntimeException {
+        CorruptRecordException(String message) {
+            super(message);
+        }
+    }
+}
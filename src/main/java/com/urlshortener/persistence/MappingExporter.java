@@ -0,0 +1,92 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams every mapping of a store to a channel in one of the {@link TransferFormat}s.
+ * Output goes through a single direct buffer, so memory use does not depend on the store size.
+ */
+public final class MappingExporter {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private MappingExporter() {
+    }
+
+    /**
+     * @return number of mappings written
+     */
+    public static long export(UrlStore store, WritableByteChannel out, TransferFormat format) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        if (format == TransferFormat.CSV) {
+            put(buffer, out, (TextMappingCodec.CSV_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        long[] count = new long[1];
+        try {
+            store.forEach(shortUrl -> {
+                try {
+                    write(buffer, out, format, shortUrl);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        drain(buffer, out);
+        return count[0];
+    }
+
+    private static void write(ByteBuffer buffer, WritableByteChannel out, TransferFormat format,
+                              ShortUrl shortUrl) throws IOException {
+        switch (format) {
+            case NDJSON -> put(buffer, out, TextMappingCodec.toNdjson(shortUrl).getBytes(StandardCharsets.UTF_8));
+            case CSV -> put(buffer, out, TextMappingCodec.toCsv(shortUrl).getBytes(StandardCharsets.UTF_8));
+            case BINARY -> {
+                byte[] url = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+                int size = MappingCodec.encodedSize(shortUrl, url);
+                if (buffer.remaining() < size) {
+                    drain(buffer, out);
+                }
+                if (buffer.remaining() < size) {
+                    ByteBuffer single = ByteBuffer.allocate(size);
+                    MappingCodec.encode(shortUrl, url, single);
+                    writeFully(single.flip(), out);
+                } else {
+                    MappingCodec.encode(shortUrl, url, buffer);
+                }
+            }
+        }
+    }
+
+    private static void put(ByteBuffer buffer, WritableByteChannel out, byte[] bytes) throws IOException {
+        if (buffer.remaining() < bytes.length) {
+            drain(buffer, out);
+        }
+        if (buffer.remaining() < bytes.length) {
+            writeFully(ByteBuffer.wrap(bytes), out);
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        writeFully(buffer, out);
+        buffer.clear();
+    }
+
+    private static void writeFully(ByteBuffer src, WritableByteChannel out) throws IOException {
+        while (src.hasRemaining()) {
+            out.write(src);
+        }
+    }
+}
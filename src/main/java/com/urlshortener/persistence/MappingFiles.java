@@ -0,0 +1,117 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Sequential reading and writing of files made of {@link MappingCodec} records.
+ */
+final class MappingFiles {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private MappingFiles() {
+    }
+
+    /**
+     * Streams every record of the file to the sink.
+     *
+     * @param tolerateTornTail if true, an incomplete or corrupt record ends the file instead of failing
+     *                         (the tail of the active log segment after a crash)
+     * @return number of records read
+     */
+    static long read(Path file, boolean tolerateTornTail, Consumer<ShortUrl> sink) throws IOException {
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            boolean eof = false;
+            while (!eof) {
+                eof = channel.read(buffer) < 0;
+                buffer.flip();
+                try {
+                    ShortUrl shortUrl;
+                    while ((shortUrl = MappingCodec.decode(buffer)) != null) {
+                        sink.accept(shortUrl);
+                        count++;
+                    }
+                } catch (MappingCodec.CorruptRecordException e) {
+                    if (tolerateTornTail) {
+                        return count;
+                    }
+                    throw new IOException("Corrupt record in " + file + " after " + count + " records", e);
+                }
+                if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                    // A single record larger than the buffer
+                    ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    larger.put(buffer);
+                    buffer = larger;
+                } else {
+                    buffer.compact();
+                }
+            }
+            if (buffer.position() > 0 && !tolerateTornTail) {
+                throw new IOException("Truncated record at end of " + file);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Buffered, append-only writer of mapping records.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+
+        void write(ShortUrl shortUrl) throws IOException {
+            byte[] url = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+            int size = MappingCodec.encodedSize(shortUrl, url);
+            if (buffer.remaining() < size) {
+                drain();
+            }
+            if (buffer.remaining() < size) {
+                ByteBuffer single = ByteBuffer.allocate(size);
+                MappingCodec.encode(shortUrl, url, single);
+                single.flip();
+                writeFully(single);
+            } else {
+                MappingCodec.encode(shortUrl, url, buffer);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer src) throws IOException {
+            while (src.hasRemaining()) {
+                channel.write(src);
+            }
+        }
+    }
+}
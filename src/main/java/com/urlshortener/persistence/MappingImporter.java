@@ -0,0 +1,313 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import com.urlshortener.util.UrlCanonicalizer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * Parallel bulk import of mappings from a channel in one of the {@link TransferFormat}s.
+ * <p>
+ * The calling thread reads the channel into fixed-size chunks cut at record boundaries (line ends, or
+ * record lengths for binary) and hands them to worker threads that parse the chunk and insert its
+ * mappings with {@link UrlStore#putIfAbsent}. Chunks come from a fixed pool of two per worker, so the
+ * import needs at most {@code 2 * threads * chunkBytes} of heap besides the store itself, however
+ * large the input is.
+ * <p>
+ * Before inserting a chunk, a worker reports the chunk's highest id so the caller can move its id
+ * counter past it; keys created concurrently with the import then never collide with imported ones.
+ */
+@Slf4j
+public class MappingImporter {
+
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+    private static final int MAX_LOGGED_REJECTS = 10;
+    private static final Chunk END = new Chunk(new byte[0]);
+
+    private final UrlStore store;
+    private final int threads;
+    private final int chunkBytes;
+
+    /**
+     * @param store   store receiving the mappings
+     * @param threads parse and insert parallelism, 0 for one per core
+     */
+    public MappingImporter(UrlStore store, int threads) {
+        this(store, threads, DEFAULT_CHUNK_BYTES);
+    }
+
+    MappingImporter(UrlStore store, int threads, int chunkBytes) {
+        this.store = store;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Imports every mapping of the input. URLs are canonicalized like those of new links; rows that are
+     * invalid, in any format, are skipped and counted, and a row without createdAt is stamped with the start
+     * of the import. A corrupt binary record fails the import (mappings inserted before it stay in the store).
+     *
+     * @param in         input channel, read to its end but not closed
+     * @param format     input format
+     * @param reserveIds called with the highest id of each chunk before the chunk is inserted
+     */
+    public ImportResult importFrom(ReadableByteChannel in, TransferFormat format, LongConsumer reserveIds)
+            throws IOException {
+        long started = System.nanoTime();
+        LocalDateTime importedAt = LocalDateTime.now();
+        int poolSize = threads * 2;
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(poolSize);
+        BlockingQueue<Chunk> full = new ArrayBlockingQueue<>(poolSize + threads);
+        for (int i = 0; i < poolSize; i++) {
+            free.add(new Chunk(new byte[chunkBytes]));
+        }
+
+        Counts counts = new Counts();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "mapping-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> workers = new ArrayList<>(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    work(full, free, format, importedAt, reserveIds, counts, failure);
+                    return null;
+                }));
+            }
+            try {
+                readChunks(in, format, free, full, failure);
+            } finally {
+                for (int i = 0; i < threads; i++) {
+                    full.put(END);
+                }
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Import failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        if (failure.get() instanceof IOException io) {
+            throw io;
+        } else if (failure.get() != null) {
+            throw new IOException("Import failed", failure.get());
+        }
+
+        ImportResult result = new ImportResult(counts.imported.sum(), counts.duplicates.sum(),
+                counts.rejected.sum(), counts.maxId.get());
+        log.info("Imported {} mappings ({} duplicates, {} rejected) in {} ms", result.imported(),
+                result.duplicates(), result.rejected(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    private void readChunks(ReadableByteChannel in, TransferFormat format, BlockingQueue<Chunk> free,
+                            BlockingQueue<Chunk> full, AtomicReference<Exception> failure)
+            throws IOException, InterruptedException {
+        Chunk current = free.take();
+        int filled = 0;
+        boolean eof = false;
+        while (!eof && failure.get() == null) {
+            ByteBuffer target = ByteBuffer.wrap(current.data, filled, chunkBytes - filled);
+            while (target.hasRemaining()) {
+                if (in.read(target) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+            filled = target.position();
+
+            int cut = eof ? filled : boundary(format, current.data, filled);
+            if (cut == 0 && !eof) {
+                throw new IOException("Record larger than the import chunk size of " + chunkBytes + " bytes");
+            }
+            Chunk next = eof ? null : free.take();
+            if (next != null) {
+                System.arraycopy(current.data, cut, next.data, 0, filled - cut);
+            }
+            current.length = cut;
+            full.put(current);
+            filled -= cut;
+            current = next;
+        }
+        if (current != null) {
+            free.put(current);
+        }
+    }
+
+    /**
+     * @return length of the longest prefix of the chunk made of complete records
+     */
+    private static int boundary(TransferFormat format, byte[] data, int filled) throws IOException {
+        if (format != TransferFormat.BINARY) {
+            for (int i = filled - 1; i >= 0; i--) {
+                if (data[i] == '\n') {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+        int pos = 0;
+        while (pos + MappingCodec.HEADER_BYTES <= filled) {
+            int bodyLength = ByteBuffer.wrap(data, pos, 4).getInt();
+            if (bodyLength < MappingCodec.FIXED_BODY_BYTES || bodyLength > MappingCodec.MAX_BODY_BYTES) {
+                throw new IOException("Invalid record length " + bodyLength);
+            }
+            if (pos + MappingCodec.HEADER_BYTES + bodyLength > filled) {
+                break;
+            }
+            pos += MappingCodec.HEADER_BYTES + bodyLength;
+        }
+        return pos;
+    }
+
+    private void work(BlockingQueue<Chunk> full, BlockingQueue<Chunk> free, TransferFormat format,
+                      LocalDateTime importedAt, LongConsumer reserveIds, Counts counts,
+                      AtomicReference<Exception> failure)
+            throws InterruptedException {
+        while (true) {
+            Chunk chunk = full.take();
+            if (chunk == END) {
+                return;
+            }
+            try {
+                if (failure.get() == null) {
+                    insert(parse(chunk, format, importedAt, counts), reserveIds, counts);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                free.put(chunk);
+            }
+        }
+    }
+
+    private static List<ShortUrl> parse(Chunk chunk, TransferFormat format, LocalDateTime importedAt,
+                                        Counts counts) throws IOException {
+        List<ShortUrl> rows = new ArrayList<>();
+        if (format == TransferFormat.BINARY) {
+            ByteBuffer buffer = ByteBuffer.wrap(chunk.data, 0, chunk.length);
+            try {
+                ShortUrl shortUrl;
+                while ((shortUrl = MappingCodec.decode(buffer)) != null) {
+                    if (Base62Util.decode(shortUrl.getShortKey()) < 1) {
+                        counts.reject("Invalid id 0");
+                    } else {
+                        accept(shortUrl, importedAt, rows, counts);
+                    }
+                }
+            } catch (MappingCodec.CorruptRecordException e) {
+                throw new IOException("Corrupt record in import", e);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Truncated record at end of import");
+            }
+            return rows;
+        }
+
+        int start = 0;
+        while (start < chunk.length) {
+            int end = start;
+            while (end < chunk.length && chunk.data[end] != '\n') {
+                end++;
+            }
+            int lineEnd = end > start && chunk.data[end - 1] == '\r' ? end - 1 : end;
+            if (lineEnd > start) {
+                try {
+                    ShortUrl shortUrl = format == TransferFormat.NDJSON
+                            ? TextMappingCodec.parseNdjson(chunk.data, start, lineEnd - start)
+                            : TextMappingCodec.parseCsv(new String(chunk.data, start, lineEnd - start,
+                                    StandardCharsets.UTF_8));
+                    if (shortUrl != null) {
+                        accept(shortUrl, importedAt, rows, counts);
+                    }
+                } catch (IllegalArgumentException e) {
+                    counts.reject(e.getMessage());
+                }
+            }
+            start = end + 1;
+        }
+        return rows;
+    }
+
+    private static void accept(ShortUrl shortUrl, LocalDateTime importedAt, List<ShortUrl> rows, Counts counts) {
+        try {
+            shortUrl.setOriginalUrl(UrlCanonicalizer.canonicalize(shortUrl.getOriginalUrl()).url());
+        } catch (IllegalArgumentException e) {
+            counts.reject(e.getMessage());
+            return;
+        }
+        if (shortUrl.getCreatedAt() == null) {
+            shortUrl.setCreatedAt(importedAt);
+        }
+        rows.add(shortUrl);
+    }
+
+    private void insert(List<ShortUrl> rows, LongConsumer reserveIds, Counts counts) {
+        long maxId = 0;
+        for (ShortUrl shortUrl : rows) {
+            maxId = Math.max(maxId, Base62Util.decode(shortUrl.getShortKey()));
+        }
+        if (maxId > 0) {
+            reserveIds.accept(maxId);
+            counts.maxId.accumulateAndGet(maxId, Math::max);
+        }
+        for (ShortUrl shortUrl : rows) {
+            if (store.putIfAbsent(shortUrl)) {
+                counts.imported.increment();
+            } else {
+                counts.duplicates.increment();
+            }
+        }
+    }
+
+    private static final class Chunk {
+        final byte[] data;
+        int length;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    private static final class Counts {
+        final LongAdder imported = new LongAdder();
+        final LongAdder duplicates = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final AtomicLong maxId = new AtomicLong();
+
+        void reject(String reason) {
+            rejected.increment();
+            if (rejected.sum() <= MAX_LOGGED_REJECTS) {
+                log.warn("Skipping import row: {}", reason);
+            }
+        }
+    }
+}
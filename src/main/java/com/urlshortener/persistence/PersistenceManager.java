@@ -0,0 +1,299 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Makes a {@link UrlStore} durable with a write-ahead log plus periodic compacted snapshots.
+ * <p>
+ * Directory layout:
+ * - wal-&lt;seq&gt;.log: log segments of created mappings, a new one per startup and per snapshot
+ * - snapshot-&lt;seq&gt;/part-N.dat: every mapping (with access counts) at the time segment seq was started
+ * <p>
+ * A snapshot at seq S replaces all segments older than S. Recovery loads the newest snapshot plus
+ * segments &gt;= S; every file holds distinct creates, so all of them are replayed in parallel.
+ * Access counts are only persisted by snapshots, so counts since the last snapshot are lost on a crash.
+ */
+@Slf4j
+public class PersistenceManager implements AutoCloseable {
+
+    private static final Pattern SEGMENT = Pattern.compile("wal-(\\d{20})\\.log");
+    private static final Pattern SNAPSHOT = Pattern.compile("snapshot-(\\d{20})");
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final long snapshotIntervalSeconds;
+    private final int threads;
+
+    private UrlStore store;
+    private WriteAheadLog wal;
+    private ScheduledExecutorService scheduler;
+    // Guarded by this; set first thing in close, so a snapshot that starts later does nothing
+    private boolean closed;
+
+    /**
+     * @param directory               directory holding log segments and snapshots
+     * @param policy                  when appended records are fsynced
+     * @param fsyncIntervalMillis     background flush interval for INTERVAL and NEVER policies
+     * @param snapshotIntervalSeconds time between snapshots, 0 to disable periodic snapshots
+     * @param threads                 recovery parallelism and number of snapshot parts, 0 for one per core
+     */
+    public PersistenceManager(Path directory, FsyncPolicy policy, long fsyncIntervalMillis,
+                              long snapshotIntervalSeconds, int threads) {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Recovers the persisted mappings into the backing store and starts logging new ones.
+     *
+     * @param backend empty (or already persistent) store to recover into
+     * @return the store to use; every create through it is logged
+     */
+    public synchronized UrlStore open(UrlStore backend) throws IOException {
+        Files.createDirectories(directory);
+        long lastSegment = recover(backend);
+
+        this.store = backend;
+        this.wal = new WriteAheadLog(directory, lastSegment + 1, policy);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "url-store-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (policy != FsyncPolicy.ALWAYS) {
+            scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                    fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (snapshotIntervalSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly,
+                    snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+        return new DurableUrlStore(backend, this);
+    }
+
+    /**
+     * Loads the newest snapshot and the log segments after it into the store.
+     *
+     * @return the highest segment or snapshot sequence number found, 0 for an empty directory
+     */
+    long recover(UrlStore target) throws IOException {
+        long started = System.nanoTime();
+
+        long snapshot = 0;
+        List<Long> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher segmentMatch = SEGMENT.matcher(name);
+                Matcher snapshotMatch = SNAPSHOT.matcher(name);
+                if (segmentMatch.matches()) {
+                    segments.add(Long.parseLong(segmentMatch.group(1)));
+                } else if (snapshotMatch.matches()) {
+                    snapshot = Math.max(snapshot, Long.parseLong(snapshotMatch.group(1)));
+                } else if (name.endsWith(".tmp")) {
+                    deleteRecursively(file); // unfinished snapshot
+                }
+            }
+        }
+
+        List<Callable<Long>> tasks = new ArrayList<>();
+        if (snapshot > 0) {
+            try (Stream<Path> parts = Files.list(snapshotPath(snapshot))) {
+                parts.forEach(part -> tasks.add(() -> MappingFiles.read(part, false, target::putIfAbsent)));
+            }
+        }
+        long last = snapshot;
+        for (long segment : segments) {
+            last = Math.max(last, segment);
+            if (segment >= snapshot) {
+                Path path = WriteAheadLog.segmentPath(directory, segment);
+                tasks.add(() -> MappingFiles.read(path, true, target::putIfAbsent));
+            }
+        }
+
+        long records = runAll(tasks);
+        log.info("Recovered {} mappings ({} records, snapshot {}, {} files) in {} ms",
+                target.size(), records, snapshot, tasks.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return last;
+    }
+
+    /**
+     * Writes a compacted snapshot of the store and deletes the snapshots and log segments it replaces.
+     * Does nothing once the manager is closing.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (closed) {
+            return;
+        }
+        long started = System.nanoTime();
+        long seq = wal.rotate();
+
+        Path target = snapshotPath(seq);
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        Files.createDirectories(tmp);
+        MappingFiles.Writer[] writers = new MappingFiles.Writer[threads];
+        try {
+            for (int i = 0; i < threads; i++) {
+                writers[i] = new MappingFiles.Writer(tmp.resolve(String.format("part-%03d.dat", i)));
+            }
+            long[] count = new long[1];
+            store.forEach(shortUrl -> {
+                try {
+                    writers[(int) (count[0]++ % threads)].write(shortUrl);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            for (MappingFiles.Writer writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                Matcher segmentMatch = SEGMENT.matcher(name);
+                Matcher snapshotMatch = SNAPSHOT.matcher(name);
+                if ((segmentMatch.matches() && Long.parseLong(segmentMatch.group(1)) < seq)
+                        || (snapshotMatch.matches() && Long.parseLong(snapshotMatch.group(1)) < seq)) {
+                    deleteRecursively(file);
+                }
+            }
+        }
+        log.info("Wrote snapshot {} in {} ms", seq, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    void log(ShortUrl shortUrl) {
+        wal.append(shortUrl);
+    }
+
+    void logAll(List<ShortUrl> shortUrls) {
+        wal.appendAll(shortUrls);
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService tasks;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            tasks = scheduler;
+        }
+        // Awaited without the monitor: a snapshot already running holds it until it completes
+        if (tasks != null) {
+            // No interrupt: interrupting a flush in progress would close the log channel under it
+            tasks.shutdown();
+            try {
+                if (!tasks.awaitTermination(30, TimeUnit.SECONDS)) {
+                    log.warn("Persistence tasks still running at close");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Taken after any snapshot in progress has rotated and released the log
+        synchronized (this) {
+            try {
+                if (wal != null) {
+                    wal.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            wal.flush();
+        } catch (RuntimeException e) {
+            log.error("Write-ahead log flush failed", e);
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed", e);
+        }
+    }
+
+    private long runAll(List<Callable<Long>> tasks) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+        try {
+            long total = 0;
+            for (Future<Long> future : pool.invokeAll(tasks)) {
+                total += future.get();
+            }
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Recovery interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Recovery failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Path snapshotPath(long seq) {
+        return directory.resolve(String.format("snapshot-%020d", seq));
+    }
+
+    private void syncDirectory() throws IOException {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not every platform allows opening a directory; the rename is still atomic
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.urlshortener.persistence;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line formats of {@link TransferFormat#NDJSON} and {@link TransferFormat#CSV}.
+ * Every mapping is a single line; parse methods take one line without its terminator.
+ * The expiry is optional: an NDJSON line has an expiresAt field and a CSV row a non-empty fifth column only
+ * for a mapping that expires. CSV rows of four columns (exported before expiry was added) are still read.
+ */
+final class TextMappingCodec {
+
+    static final String CSV_HEADER = "originalUrl,shortKey,createdAt,accessCount,expiresAt";
+    // Header of exports without the expiresAt column
+    private static final String CSV_HEADER_V1 = "originalUrl,shortKey,createdAt,accessCount";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private TextMappingCodec() {
+    }
+
+    static String toNdjson(ShortUrl shortUrl) {
+        StringBuilder line = new StringBuilder(shortUrl.getOriginalUrl().length() + 96);
+        line.append("{\"originalUrl\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(shortUrl.getOriginalUrl(), line);
+        line.append("\",\"shortKey\":\"").append(shortUrl.getShortKey()).append('"');
+        line.append(",\"createdAt\":");
+        if (shortUrl.getCreatedAt() == null) {
+            line.append("null");
+        } else {
+            line.append('"').append(shortUrl.getCreatedAt()).append('"');
+        }
+        line.append(",\"accessCount\":").append(shortUrl.getAccessCount());
+        if (shortUrl.getExpiresAt() != null) {
+            line.append(",\"expiresAt\":\"").append(shortUrl.getExpiresAt()).append('"');
+        }
+        line.append("}\n");
+        return line.toString();
+    }
+
+    static String toCsv(ShortUrl shortUrl) {
+        String url = shortUrl.getOriginalUrl();
+        StringBuilder line = new StringBuilder(url.length() + 48);
+        if (url.indexOf(',') >= 0 || url.indexOf('"') >= 0) {
+            line.append('"').append(url.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(url);
+        }
+        line.append(',').append(shortUrl.getShortKey()).append(',');
+        if (shortUrl.getCreatedAt() != null) {
+            line.append(shortUrl.getCreatedAt());
+        }
+        line.append(',').append(shortUrl.getAccessCount()).append(',');
+        if (shortUrl.getExpiresAt() != null) {
+            line.append(shortUrl.getExpiresAt());
+        }
+        line.append('\n');
+        return line.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the line is not a valid mapping
+     */
+    static ShortUrl parseNdjson(byte[] data, int offset, int length) {
+        String url = null;
+        String key = null;
+        String createdAt = null;
+        String expiresAt = null;
+        long accessCount = 0;
+        try (JsonParser parser = JSON.createParser(data, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "originalUrl" -> url = parser.getValueAsString();
+                    case "shortKey" -> key = parser.getValueAsString();
+                    case "createdAt" -> createdAt = parser.getValueAsString();
+                    case "accessCount" -> accessCount = parser.getValueAsLong();
+                    case "expiresAt" -> expiresAt = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON", e);
+        }
+        return toShortUrl(url, key, createdAt, accessCount, expiresAt);
+    }
+
+    /**
+     * @return the mapping, or null for the header line
+     * @throws IllegalArgumentException if the line is not a valid mapping
+     */
+    static ShortUrl parseCsv(String line) {
+        if (line.equals(CSV_HEADER) || line.equals(CSV_HEADER_V1)) {
+            return null;
+        }
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 4 && fields.size() != 5) {
+            throw new IllegalArgumentException("Expected 5 fields, found " + fields.size());
+        }
+        long accessCount;
+        try {
+            accessCount = fields.get(3).isEmpty() ? 0 : Long.parseLong(fields.get(3));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid access count '" + fields.get(3) + "'");
+        }
+        return toShortUrl(fields.get(0), fields.get(1), fields.get(2), accessCount,
+                fields.size() == 5 ? fields.get(4) : null);
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static ShortUrl toShortUrl(String url, String key, String createdAt, long accessCount,
+                                       String expiresAt) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("Missing originalUrl");
+        }
+        if (key == null || key.isEmpty() || key.charAt(0) == '0' || Base62Util.tryDecode(key) <= 0) {
+            throw new IllegalArgumentException("Invalid shortKey '" + key + "'");
+        }
+        if (accessCount < 0) {
+            throw new IllegalArgumentException("Negative access count");
+        }
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setShortKey(key);
+        shortUrl.setCreatedAt(parseTime("createdAt", createdAt));
+        shortUrl.setExpiresAt(parseTime("expiresAt", expiresAt));
+        shortUrl.setAccessCount(accessCount);
+        return shortUrl;
+    }
+
+    private static LocalDateTime parseTime(String field, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + field + " '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.urlshortener.persistence;
+
+/**
+ * Formats for bulk import and export of mappings.
+ * <p>
+ * - ndjson: one {"originalUrl", "shortKey", "createdAt", "accessCount"[, "expiresAt"]} object per line
+ * - csv: header line, then originalUrl,shortKey,createdAt,accessCount,expiresAt (RFC 4180 quoting)
+ * - binary: {@link MappingCodec} records, the format of snapshots and log segments
+ * <p>
+ * createdAt and expiresAt are ISO-8601 local date-times in the text formats and may be empty; an empty
+ * createdAt is imported as the time of the import, and expiresAt is only set for mappings that expire.
+ */
+public enum TransferFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv"),
+    BINARY("binary", "application/octet-stream");
+
+    private final String label;
+    private final String contentType;
+
+    TransferFormat(String label, String contentType) {
+        this.label = label;
+        this.contentType = contentType;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    /**
+     * @param label one of ndjson, csv, binary
+     * @throws IllegalArgumentException for an unknown label
+     */
+    public static TransferFormat fromLabel(String label) {
+        for (TransferFormat format : values()) {
+            if (format.label.equalsIgnoreCase(label)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown format '" + label + "', expected one of ndjson, csv, binary");
+    }
+}
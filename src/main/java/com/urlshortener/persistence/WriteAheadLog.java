@@ -0,0 +1,230 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of created mappings, split into numbered segments (wal-&lt;seq&gt;.log).
+ * <p>
+ * Appends are encoded into a shared in-memory batch. Depending on the {@link FsyncPolicy} the batch
+ * is written either by the appending thread (ALWAYS) or by {@link #flush} called periodically.
+ * With ALWAYS, the first thread to take the flush lock writes and fsyncs everything appended so far;
+ * threads queued behind it usually find their record already durable and return (group commit).
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final int MAX_PENDING_BYTES = 4 << 20;
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Guarded by this
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appended;
+
+    // Guarded by flushLock
+    private FileChannel channel;
+    private long segment;
+
+    private volatile long written;
+    private volatile long synced;
+
+    /**
+     * Opens a new segment with the given sequence number. Existing segments are never appended to,
+     * so a torn tail left by a crash stays at the end of its own segment.
+     */
+    public WriteAheadLog(Path directory, long segment, FsyncPolicy policy) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+    }
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("wal-%020d.log", segment));
+    }
+
+    /**
+     * @return sequence number of the segment receiving appends
+     */
+    public long currentSegment() {
+        flushLock.lock();
+        try {
+            return segment;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Appends a created mapping. With {@link FsyncPolicy#ALWAYS} this returns once the record is durable.
+     */
+    public void append(ShortUrl shortUrl) {
+        byte[] url = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+        int size = MappingCodec.encodedSize(shortUrl, url);
+        long seq;
+        boolean full;
+        synchronized (this) {
+            if (pending.remaining() < size) {
+                pending = grow(pending, size);
+            }
+            MappingCodec.encode(shortUrl, url, pending);
+            seq = ++appended;
+            full = pending.position() >= MAX_PENDING_BYTES;
+        }
+        if (policy == FsyncPolicy.ALWAYS) {
+            commit(seq, true);
+        } else if (full) {
+            commit(seq, false);
+        }
+    }
+
+    /**
+     * Appends several created mappings as one group: a single fsync covers all of them with
+     * {@link FsyncPolicy#ALWAYS}, which returns once every record is durable.
+     */
+    public void appendAll(List<ShortUrl> shortUrls) {
+        if (shortUrls.isEmpty()) {
+            return;
+        }
+        List<byte[]> urls = new ArrayList<>(shortUrls.size());
+        int size = 0;
+        for (ShortUrl shortUrl : shortUrls) {
+            byte[] url = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+            urls.add(url);
+            size += MappingCodec.encodedSize(shortUrl, url);
+        }
+        long seq;
+        boolean full;
+        synchronized (this) {
+            if (pending.remaining() < size) {
+                pending = grow(pending, size);
+            }
+            for (int i = 0; i < urls.size(); i++) {
+                MappingCodec.encode(shortUrls.get(i), urls.get(i), pending);
+            }
+            appended += urls.size();
+            seq = appended;
+            full = pending.position() >= MAX_PENDING_BYTES;
+        }
+        if (policy == FsyncPolicy.ALWAYS) {
+            commit(seq, true);
+        } else if (full) {
+            commit(seq, false);
+        }
+    }
+
+    /**
+     * Writes everything appended so far, and fsyncs it unless the policy is {@link FsyncPolicy#NEVER}.
+     * Called periodically for the background policies.
+     */
+    public void flush() {
+        long seq;
+        synchronized (this) {
+            seq = appended;
+        }
+        commit(seq, policy != FsyncPolicy.NEVER);
+    }
+
+    /**
+     * Closes the current segment and starts the next one.
+     *
+     * @return sequence number of the new segment; every earlier append is durable in an older segment
+     */
+    public long rotate() throws IOException {
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                writeBatch();
+            }
+            channel.force(false);
+            channel.close();
+            segment++;
+            channel = openSegment(segment);
+            return segment;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                writeBatch();
+            }
+            channel.force(false);
+            channel.close();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void commit(long seq, boolean fsync) {
+        flushLock.lock();
+        try {
+            if (fsync ? synced >= seq : written >= seq) {
+                return; // covered by another thread's batch
+            }
+            ByteBuffer batch;
+            long batchSeq;
+            synchronized (this) {
+                batch = pending;
+                batchSeq = appended;
+                pending = spare;
+                spare = batch;
+            }
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            batch.clear();
+            written = batchSeq;
+            if (fsync) {
+                channel.force(false);
+                synced = batchSeq;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the write-ahead log", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Caller holds flushLock and this
+    private void writeBatch() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+        written = appended;
+        synced = appended;
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        return FileChannel.open(segmentPath(directory, segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
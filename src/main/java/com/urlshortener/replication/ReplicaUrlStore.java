@@ -0,0 +1,123 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.cluster.ClusterClient;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator on a follower: redirects and lookups are answered from the local copy, which a
+ * {@link ReplicationFollower} keeps up to date, and shortening is forwarded to the leader through its internal
+ * API, like a create for another node's shard in cluster mode (TTL, creation time and count are not
+ * transferred); the follower records the create in its own metrics.
+ * A link shortened through a follower redirects there once its create has been replicated back.
+ * <p>
+ * When the follower needs a snapshot (a new leader run, or it fell out of the leader's log) it loads it into
+ * an empty copy, and {@link #replace} swaps that in whole, so no mapping of the earlier run survives and
+ * redirects keep being answered from the old copy until then.
+ * <p>
+ * Access counts on a follower are the leader's replicated counts plus the follower's own redirects; the
+ * leader does not learn about redirects served by followers.
+ */
+public class ReplicaUrlStore implements UrlStore {
+
+    private static final String LEADER = "leader";
+
+    private volatile UrlStore delegate;
+    private final ReplicationFollower follower;
+    private final ClusterClient leader;
+
+    /**
+     * @param delegate  initial local copy
+     * @param follower  follower to stop on close; started by the caller
+     * @param leaderUrl base URL of the leader's API
+     */
+    public ReplicaUrlStore(UrlStore delegate, ReplicationFollower follower, URI leaderUrl) {
+        this.delegate = delegate;
+        this.follower = follower;
+        this.leader = new ClusterClient(Map.of(LEADER, leaderUrl));
+    }
+
+    /**
+     * Swaps in a new local copy and closes the old one.
+     */
+    public void replace(UrlStore replacement) {
+        UrlStore old = delegate;
+        delegate = replacement;
+        old.close();
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        return leader.createAll(LEADER, List.of(originalUrl)).get(0);
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        return leader.createAll(LEADER, originalUrls);
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        return delegate.putIfAbsent(shortUrl);
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return delegate.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        return delegate.resolve(shortKey);
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        return delegate.peek(shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        return delegate.remove(shortKey);
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        try {
+            follower.close();
+        } finally {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator on the leader that appends every change to the {@link ReplicationLog}:
+ * creates and inserts once they are in the delegate, removals that found the mapping, and the accesses
+ * of every redirect. It sits below the expiration decorator so the expiry worker's removals pass through it.
+ */
+public class ReplicatingUrlStore implements UrlStore {
+
+    private final UrlStore delegate;
+    private final ReplicationLog replicationLog;
+
+    public ReplicatingUrlStore(UrlStore delegate, ReplicationLog replicationLog) {
+        this.delegate = delegate;
+        this.replicationLog = replicationLog;
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        ShortUrl[] created = new ShortUrl[1];
+        ShortUrl shortUrl = delegate.findOrCreate(originalUrl, url -> created[0] = factory.apply(url));
+        if (created[0] != null) {
+            replicationLog.created(created[0]);
+        }
+        return shortUrl;
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        // By URL: a retried factory call (key already taken) replaces the mapping it built first
+        Map<String, ShortUrl> created = new LinkedHashMap<>();
+        List<ShortUrl> shortUrls = delegate.findOrCreateAll(originalUrls, url -> {
+            ShortUrl shortUrl = factory.apply(url);
+            created.put(url, shortUrl);
+            return shortUrl;
+        });
+        replicationLog.createdAll(new ArrayList<>(created.values()));
+        return shortUrls;
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        boolean inserted = delegate.putIfAbsent(shortUrl);
+        if (inserted) {
+            replicationLog.created(shortUrl);
+            if (shortUrl.getAccessCount() > 0) {
+                replicationLog.accessed(shortUrl.getShortKey(), shortUrl.getAccessCount());
+            }
+        }
+        return inserted;
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return delegate.findByKey(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        String originalUrl = delegate.resolve(shortKey);
+        if (originalUrl != null) {
+            replicationLog.accessed(shortKey, 1);
+        }
+        return originalUrl;
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        return delegate.peek(shortKey);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+        replicationLog.accessed(shortKey, 1);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+        replicationLog.accessed(shortKey, count);
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        boolean removed = delegate.remove(shortKey);
+        if (removed) {
+            replicationLog.removed(shortKey);
+        }
+        return removed;
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        try {
+            replicationLog.close();
+        } finally {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.expiration.ExpiredKeys;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.IdBitmap;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Follower side of replication: keeps a connection to the leader's {@link ReplicationServer} and applies
+ * its change stream to a local store, reconnecting after {@code reconnectMillis} when the connection drops.
+ * <p>
+ * A snapshot is loaded into a new empty store and swapped in once it is complete, never merged into the
+ * current one: after a leader restart keys are reissued for other URLs, and mappings the leader expired while
+ * this follower was out of its log must not come back.
+ * <p>
+ * The keys the leader expired are remembered, so a follower answers them as expired like the leader does. A
+ * snapshot of the same leader run also marks the keys of the current copy it no longer holds; a new run
+ * starts over, since its keys are reissued.
+ * <p>
+ * Lag is the time between the leader appending the newest applied change and the follower applying it,
+ * 0 once a heartbeat confirms nothing is outstanding, and the time since the last frame while disconnected.
+ * Leader and follower clocks are assumed to be in sync to within a few milliseconds.
+ */
+@Slf4j
+public class ReplicationFollower implements ExpiredKeys, AutoCloseable {
+
+    private final String leaderHost;
+    private final int leaderPort;
+    private final long reconnectMillis;
+    private final int readTimeoutMillis;
+
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    // Ids the leader expired in the current epoch; replaced when the leader starts a new run
+    private volatile IdBitmap expiredKeys = new IdBitmap();
+    private volatile long epoch;
+    private volatile long appliedSeq;
+    private volatile long leaderSeq;
+    private volatile long lagMillis;
+    private volatile long lastContactMillis = System.currentTimeMillis();
+    private volatile boolean connected;
+    private volatile boolean closed;
+    private volatile Socket socket;
+    private volatile Thread worker;
+
+    /**
+     * @param heartbeatMillis the leader's heartbeat interval; the connection is dropped after five missed
+     */
+    public ReplicationFollower(String leaderHost, int leaderPort, long reconnectMillis, long heartbeatMillis) {
+        this.leaderHost = leaderHost;
+        this.leaderPort = leaderPort;
+        this.reconnectMillis = reconnectMillis;
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, heartbeatMillis * 5);
+    }
+
+    /**
+     * Starts applying the leader's changes to the store.
+     *
+     * @param target     store changes are applied through
+     * @param emptyStore creates an empty store to load a snapshot into
+     * @param replace    swaps a loaded snapshot in behind {@code target}
+     */
+    public synchronized void start(UrlStore target, Supplier<UrlStore> emptyStore, Consumer<UrlStore> replace) {
+        if (worker != null) {
+            throw new IllegalStateException("Already started");
+        }
+        Thread thread = new Thread(() -> run(target, emptyStore, replace), "replication-follower");
+        thread.setDaemon(true);
+        thread.start();
+        this.worker = thread;
+    }
+
+    @Override
+    public boolean isExpired(String shortKey) {
+        return expiredKeys.contains(Base62Util.tryDecode(shortKey));
+    }
+
+    /**
+     * @return sequence number of the last change applied
+     */
+    public long appliedSeq() {
+        return appliedSeq;
+    }
+
+    /**
+     * @return changes the leader has that this follower has not applied, as of the last frame received
+     */
+    public long lagChanges() {
+        return Math.max(0, leaderSeq - appliedSeq);
+    }
+
+    /**
+     * @return replication lag in milliseconds
+     */
+    public long lagMillis() {
+        return connected ? lagMillis : System.currentTimeMillis() - lastContactMillis;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return changes applied since startup
+     */
+    public long applied() {
+        return applied.get();
+    }
+
+    /**
+     * @return snapshots received since startup
+     */
+    public long snapshots() {
+        return snapshots.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+
+    private void run(UrlStore target, Supplier<UrlStore> emptyStore, Consumer<UrlStore> replace) {
+        while (!closed) {
+            try (Socket s = new Socket()) {
+                socket = s;
+                s.connect(new InetSocketAddress(leaderHost, leaderPort), readTimeoutMillis);
+                s.setSoTimeout(readTimeoutMillis);
+                s.setTcpNoDelay(true);
+                follow(s, target, emptyStore, replace);
+            } catch (IOException e) {
+                if (!closed) {
+                    log.warn("Replication from {}:{} interrupted: {}", leaderHost, leaderPort, e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to apply replicated changes", e);
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(reconnectMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow(Socket s, UrlStore target, Supplier<UrlStore> emptyStore, Consumer<UrlStore> replace)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(s.getOutputStream());
+        out.writeInt(ReplicationProtocol.MAGIC);
+        out.writeLong(epoch);
+        out.writeLong(appliedSeq);
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+        if (in.readByte() != ReplicationProtocol.HELLO) {
+            throw new IOException("Unexpected handshake from leader");
+        }
+        long leaderEpoch = in.readLong();
+        boolean snapshot = in.readBoolean();
+        long fromSeq = in.readLong();
+        contact();
+        connected = true;
+        if (snapshot) {
+            UrlStore copy = emptyStore.get();
+            long mappings;
+            try {
+                mappings = receiveSnapshot(in, copy);
+            } catch (IOException | RuntimeException e) {
+                copy.close();
+                throw e;
+            }
+            if (leaderEpoch != epoch) {
+                expiredKeys = new IdBitmap();
+            } else {
+                // Expired while this follower was out of the leader's log
+                IdBitmap expired = expiredKeys;
+                target.forEach(shortUrl -> {
+                    if (copy.findByKey(shortUrl.getShortKey()) == null) {
+                        expired.add(Base62Util.decode(shortUrl.getShortKey()));
+                    }
+                });
+            }
+            replace.accept(copy);
+            snapshots.incrementAndGet();
+            log.info("Loaded {} mappings from the leader's snapshot, following from change {}", mappings, fromSeq);
+        }
+        epoch = leaderEpoch;
+        appliedSeq = fromSeq;
+
+        while (!closed) {
+            byte frame = in.readByte();
+            long seq = in.readLong();
+            if (frame == ReplicationProtocol.BATCH) {
+                int count = in.readInt();
+                ReplicationLog.Change last = null;
+                for (int i = 0; i < count; i++) {
+                    last = ReplicationProtocol.readChange(in);
+                    apply(last, target);
+                    appliedSeq = last.seq();
+                }
+                applied.addAndGet(count);
+                if (last != null) {
+                    lagMillis = Math.max(0, System.currentTimeMillis() - last.appendedAt());
+                }
+            } else if (frame == ReplicationProtocol.HEARTBEAT) {
+                if (seq == appliedSeq) {
+                    lagMillis = 0;
+                }
+            } else {
+                throw new IOException("Unexpected frame " + frame);
+            }
+            leaderSeq = seq;
+            contact();
+        }
+    }
+
+    private long receiveSnapshot(DataInputStream in, UrlStore target) throws IOException {
+        long mappings = 0;
+        byte frame;
+        while ((frame = in.readByte()) == ReplicationProtocol.SNAPSHOT) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ShortUrl shortUrl = ReplicationProtocol.readMapping(in);
+                target.putIfAbsent(shortUrl);
+            }
+            mappings += count;
+            contact();
+        }
+        if (frame != ReplicationProtocol.SNAPSHOT_END) {
+            throw new IOException("Unexpected frame " + frame + " in snapshot");
+        }
+        return mappings;
+    }
+
+    private void apply(ReplicationLog.Change change, UrlStore target) {
+        switch (change.kind()) {
+            case ReplicationLog.Change.CREATE -> target.putIfAbsent(change.mapping());
+            case ReplicationLog.Change.EXPIRE -> {
+                expiredKeys.add(Base62Util.decode(change.key()));
+                target.remove(change.key());
+            }
+            case ReplicationLog.Change.COUNT -> target.recordAccesses(change.key(), change.count());
+            default -> throw new IllegalStateException("Unknown change kind " + change.kind());
+        }
+    }
+
+    private void contact() {
+        lastContactMillis = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,192 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.model.ShortUrl;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The leader's ordered change stream: every create and expiry, plus access count deltas, numbered by a
+ * sequence that starts at 1 on every leader start. The newest {@code capacity} changes are kept in a ring
+ * for followers to read from; a follower further behind than that catches up from a snapshot instead.
+ * <p>
+ * Redirects only bump a per-key counter; every {@code countIntervalMillis} the counters are turned into one
+ * count change per key accessed since the last interval, so a hot key costs one change per interval rather
+ * than one per click. A counter found idle at an interval is dropped, and an access racing with that drop
+ * is not replicated: follower counts are approximate.
+ * <p>
+ * The epoch is random per leader start, so a follower can tell that sequence numbers it holds came from an
+ * earlier leader run.
+ */
+@Slf4j
+public class ReplicationLog implements AutoCloseable {
+
+    private final long epoch = new SecureRandom().nextLong() | 1;
+    private final Change[] ring;
+    private final Map<String, LongAdder> pendingCounts = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService counter;
+
+    // Guarded by this
+    private long lastSeq;
+
+    /**
+     * @param capacity            changes kept for followers to read
+     * @param countIntervalMillis interval at which access counts are turned into count changes
+     */
+    public ReplicationLog(int capacity, long countIntervalMillis) {
+        if (capacity <= 0 || countIntervalMillis <= 0) {
+            throw new IllegalArgumentException("capacity and countIntervalMillis must be positive");
+        }
+        this.ring = new Change[capacity];
+        this.counter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replication-counts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        counter.scheduleWithFixedDelay(this::flushCountsQuietly, countIntervalMillis, countIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * @return sequence number of the newest change, 0 before the first
+     */
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    public void created(ShortUrl shortUrl) {
+        append(List.of(shortUrl));
+    }
+
+    public void createdAll(List<ShortUrl> shortUrls) {
+        if (!shortUrls.isEmpty()) {
+            append(shortUrls);
+        }
+    }
+
+    public synchronized void removed(String shortKey) {
+        add(new Change(Change.EXPIRE, ++lastSeq, System.currentTimeMillis(), shortKey, null, 0));
+        notifyAll();
+    }
+
+    /**
+     * Counts accesses of a key, replicated at the next count interval.
+     */
+    public void accessed(String shortKey, long count) {
+        LongAdder adder = pendingCounts.get(shortKey);
+        if (adder == null) {
+            adder = pendingCounts.computeIfAbsent(shortKey, key -> new LongAdder());
+        }
+        adder.add(count);
+    }
+
+    /**
+     * Turns the access counters into count changes.
+     */
+    public void flushCounts() {
+        List<Change> counts = new ArrayList<>();
+        for (Map.Entry<String, LongAdder> entry : pendingCounts.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count == 0) {
+                pendingCounts.remove(entry.getKey(), entry.getValue());
+            } else {
+                counts.add(new Change(Change.COUNT, 0, 0, entry.getKey(), null, count));
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            for (Change count : counts) {
+                add(new Change(Change.COUNT, ++lastSeq, now, count.key(), null, count.count()));
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return whether a follower that applied every change up to {@code appliedSeq} can continue from the ring
+     */
+    public synchronized boolean canResumeFrom(long appliedSeq) {
+        return appliedSeq <= lastSeq && appliedSeq >= lastSeq - ring.length;
+    }
+
+    /**
+     * Waits for changes after {@code afterSeq}.
+     *
+     * @param max           maximum number of changes to return
+     * @param timeoutMillis how long to wait for a change
+     * @return the changes after {@code afterSeq} in order, empty if none arrived in time, or null if some of
+     * them have already left the ring
+     */
+    public synchronized List<Change> await(long afterSeq, int max, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (lastSeq <= afterSeq && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        if (afterSeq < lastSeq - ring.length) {
+            return null;
+        }
+        int count = (int) Math.min(max, lastSeq - afterSeq);
+        List<Change> changes = new ArrayList<>(Math.max(count, 0));
+        for (long seq = afterSeq + 1; seq <= afterSeq + count; seq++) {
+            changes.add(ring[(int) ((seq - 1) % ring.length)]);
+        }
+        return changes;
+    }
+
+    @Override
+    public void close() {
+        counter.shutdownNow();
+    }
+
+    private synchronized void append(List<ShortUrl> shortUrls) {
+        long now = System.currentTimeMillis();
+        for (ShortUrl shortUrl : shortUrls) {
+            add(new Change(Change.CREATE, ++lastSeq, now, shortUrl.getShortKey(), shortUrl, 0));
+        }
+        notifyAll();
+    }
+
+    // Caller holds this and has just assigned change.seq()
+    private void add(Change change) {
+        ring[(int) ((change.seq() - 1) % ring.length)] = change;
+    }
+
+    private void flushCountsQuietly() {
+        try {
+            flushCounts();
+        } catch (RuntimeException e) {
+            log.error("Failed to replicate access counts", e);
+        }
+    }
+
+    /**
+     * One entry of the change stream.
+     *
+     * @param kind       {@link #CREATE}, {@link #EXPIRE} or {@link #COUNT}
+     * @param appendedAt leader wall-clock time the change was appended, epoch millis
+     * @param mapping    the created mapping (CREATE only); its access count is not part of the change
+     * @param count      accesses to add (COUNT only)
+     */
+    public record Change(byte kind, long seq, long appendedAt, String key, ShortUrl mapping, long count) {
+        public static final byte CREATE = 1;
+        public static final byte EXPIRE = 2;
+        public static final byte COUNT = 3;
+    }
+}
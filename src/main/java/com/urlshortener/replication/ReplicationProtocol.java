@@ -0,0 +1,127 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.model.ShortUrl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Wire format between the leader and a follower, over one TCP connection per follower.
+ * <pre>
+ * follower: int MAGIC, long epoch, long appliedSeq        (epoch 0 when the follower holds nothing)
+ * leader:   byte HELLO, long epoch, boolean snapshot, long fromSeq
+ *           [byte SNAPSHOT, int count, count * mapping]... byte SNAPSHOT_END   (only if snapshot)
+ *           then, until either side closes:
+ *           byte BATCH, long leaderSeq, int count, count * change
+ *           byte HEARTBEAT, long leaderSeq
+ * mapping:  UTF key, int urlLength, byte[] url (UTF-8), long createdAt, long expiresAt (0 if none), long accessCount
+ * change:   byte kind, long seq, long appendedAt, UTF key, then mapping fields without the key (CREATE)
+ *           or long count (COUNT); nothing more for EXPIRE
+ * </pre>
+ * Times are epoch millis. A follower resumes after {@code fromSeq}: its own sequence, or the leader's
+ * sequence when the snapshot was started.
+ */
+final class ReplicationProtocol {
+
+    static final int MAGIC = 0x55524c52; // "URLR"
+
+    static final byte HELLO = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte SNAPSHOT_END = 3;
+    static final byte BATCH = 4;
+    static final byte HEARTBEAT = 5;
+
+    private ReplicationProtocol() {
+    }
+
+    static void writeBatch(DataOutputStream out, long leaderSeq, List<ReplicationLog.Change> changes)
+            throws IOException {
+        out.writeByte(BATCH);
+        out.writeLong(leaderSeq);
+        out.writeInt(changes.size());
+        for (ReplicationLog.Change change : changes) {
+            out.writeByte(change.kind());
+            out.writeLong(change.seq());
+            out.writeLong(change.appendedAt());
+            out.writeUTF(change.key());
+            if (change.kind() == ReplicationLog.Change.CREATE) {
+                // Counts of new mappings follow as COUNT changes, so the create carries none
+                writeMappingFields(out, change.mapping(), 0);
+            } else if (change.kind() == ReplicationLog.Change.COUNT) {
+                out.writeLong(change.count());
+            }
+        }
+    }
+
+    static ReplicationLog.Change readChange(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        long seq = in.readLong();
+        long appendedAt = in.readLong();
+        String key = in.readUTF();
+        return switch (kind) {
+            case ReplicationLog.Change.CREATE -> new ReplicationLog.Change(kind, seq, appendedAt, key,
+                    readMappingFields(in, key), 0);
+            case ReplicationLog.Change.EXPIRE -> new ReplicationLog.Change(kind, seq, appendedAt, key, null, 0);
+            case ReplicationLog.Change.COUNT -> new ReplicationLog.Change(kind, seq, appendedAt, key, null,
+                    in.readLong());
+            default -> throw new IOException("Unknown change kind " + kind);
+        };
+    }
+
+    static void writeMapping(DataOutputStream out, ShortUrl shortUrl) throws IOException {
+        out.writeUTF(shortUrl.getShortKey());
+        writeMappingFields(out, shortUrl, shortUrl.getAccessCount());
+    }
+
+    static ShortUrl readMapping(DataInputStream in) throws IOException {
+        return readMappingFields(in, in.readUTF());
+    }
+
+    private static void writeMappingFields(DataOutputStream out, ShortUrl shortUrl, long accessCount)
+            throws IOException {
+        byte[] url = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(url.length);
+        out.write(url);
+        out.writeLong(toEpochMillis(shortUrl.getCreatedAt()));
+        out.writeLong(toEpochMillis(shortUrl.getExpiresAt()));
+        out.writeLong(accessCount);
+    }
+
+    private static ShortUrl readMappingFields(DataInputStream in, String key) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 1 << 24) {
+            throw new IOException("Invalid URL length " + length);
+        }
+        byte[] url = in.readNBytes(length);
+        if (url.length != length) {
+            throw new IOException("Connection closed inside a mapping");
+        }
+        long createdAt = in.readLong();
+        long expiresAt = in.readLong();
+        long accessCount = in.readLong();
+
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(key);
+        shortUrl.setOriginalUrl(new String(url, StandardCharsets.UTF_8));
+        shortUrl.setCreatedAt(toLocalDateTime(createdAt));
+        if (expiresAt != 0) {
+            shortUrl.setExpiresAt(toLocalDateTime(expiresAt));
+        }
+        shortUrl.setAccessCount(accessCount);
+        return shortUrl;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
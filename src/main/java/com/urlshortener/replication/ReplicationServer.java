@@ -0,0 +1,223 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leader side of replication: accepts follower connections and streams the {@link ReplicationLog} to each
+ * on its own thread, in batches of up to {@code batchSize} changes.
+ * <p>
+ * A follower that reconnects to the same leader run resumes after the last change it applied. A new
+ * follower, one that last saw an earlier leader run, or one that fell out of the log's ring first receives
+ * every mapping in the store and then the changes made since the snapshot was started. Changes that
+ * overlap the snapshot are applied on top of it: creates and expiries are idempotent, but count changes are
+ * not. Accesses counted in a mapping when it is read for the snapshot and flushed as a count change after the
+ * snapshot started are added twice, so right after a snapshot a follower's counts can be ahead of the leader's
+ * by up to one count interval of accesses plus those made while the snapshot was sent.
+ */
+@Slf4j
+public class ReplicationServer implements AutoCloseable {
+
+    private static final int SNAPSHOT_CHUNK = 1024;
+
+    private final ReplicationLog replicationLog;
+    private final UrlStore store;
+    private final int batchSize;
+    private final long heartbeatMillis;
+    private final ServerSocket serverSocket;
+    private final Set<Socket> followers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final Thread acceptor;
+
+    /**
+     * Binds the port and starts accepting followers.
+     *
+     * @param store           store to take snapshots from
+     * @param port            port to listen on, 0 for any free port
+     * @param heartbeatMillis longest time a follower goes without a frame, so it can tell the leader is alive
+     */
+    public ReplicationServer(ReplicationLog replicationLog, UrlStore store, int port, int batchSize,
+                             long heartbeatMillis) throws IOException {
+        this.replicationLog = replicationLog;
+        this.store = store;
+        this.batchSize = batchSize;
+        this.heartbeatMillis = heartbeatMillis;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+        this.acceptor = new Thread(this::acceptLoop, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Replication leader listening on port {}", getPort());
+    }
+
+    /**
+     * @return the port followers connect to
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return followers currently connected
+     */
+    public int followers() {
+        return followers.size();
+    }
+
+    /**
+     * @return sequence number of the newest change in the log
+     */
+    public long lastSeq() {
+        return replicationLog.lastSeq();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.warn("Failed to close replication port", e);
+        }
+        for (Socket follower : followers) {
+            closeQuietly(follower);
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread session = new Thread(() -> serve(socket), "replication-sender-" + sessions.incrementAndGet());
+                session.setDaemon(true);
+                session.start();
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                log.warn("Failed to accept a follower", e);
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        String follower = socket.getRemoteSocketAddress().toString();
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            if (in.readInt() != ReplicationProtocol.MAGIC) {
+                log.warn("Closing replication connection from {}: not a follower", follower);
+                return;
+            }
+            long followerEpoch = in.readLong();
+            long appliedSeq = in.readLong();
+
+            long fromSeq;
+            if (followerEpoch == replicationLog.epoch() && replicationLog.canResumeFrom(appliedSeq)) {
+                fromSeq = appliedSeq;
+                hello(out, false, fromSeq);
+                log.info("Follower {} resumes after change {}", follower, fromSeq);
+            } else {
+                fromSeq = replicationLog.lastSeq();
+                hello(out, true, fromSeq);
+                long mappings = sendSnapshot(out);
+                log.info("Sent {} mappings to follower {}, streaming from change {}", mappings, follower, fromSeq);
+            }
+            stream(out, fromSeq, follower);
+        } catch (IOException | UncheckedIOException e) {
+            log.info("Follower {} disconnected: {}", follower, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            followers.remove(socket);
+        }
+    }
+
+    private void hello(DataOutputStream out, boolean snapshot, long fromSeq) throws IOException {
+        out.writeByte(ReplicationProtocol.HELLO);
+        out.writeLong(replicationLog.epoch());
+        out.writeBoolean(snapshot);
+        out.writeLong(fromSeq);
+        out.flush();
+    }
+
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        List<ShortUrl> chunk = new ArrayList<>(SNAPSHOT_CHUNK);
+        long[] sent = new long[1];
+        store.forEach(shortUrl -> {
+            chunk.add(shortUrl);
+            if (chunk.size() == SNAPSHOT_CHUNK) {
+                sent[0] += writeChunk(out, chunk);
+            }
+        });
+        sent[0] += writeChunk(out, chunk);
+        out.writeByte(ReplicationProtocol.SNAPSHOT_END);
+        out.flush();
+        return sent[0];
+    }
+
+    private static int writeChunk(DataOutputStream out, List<ShortUrl> chunk) {
+        int size = chunk.size();
+        if (size == 0) {
+            return 0;
+        }
+        try {
+            out.writeByte(ReplicationProtocol.SNAPSHOT);
+            out.writeInt(size);
+            for (ShortUrl shortUrl : chunk) {
+                ReplicationProtocol.writeMapping(out, shortUrl);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunk.clear();
+        return size;
+    }
+
+    private void stream(DataOutputStream out, long fromSeq, String follower)
+            throws IOException, InterruptedException {
+        long sentSeq = fromSeq;
+        while (!serverSocket.isClosed()) {
+            List<ReplicationLog.Change> changes = replicationLog.await(sentSeq, batchSize, heartbeatMillis);
+            if (changes == null) {
+                // The follower reconnects and receives a snapshot
+                log.warn("Follower {} fell behind the replication log at change {}", follower, sentSeq);
+                return;
+            }
+            if (changes.isEmpty()) {
+                out.writeByte(ReplicationProtocol.HEARTBEAT);
+                out.writeLong(replicationLog.lastSeq());
+            } else {
+                ReplicationProtocol.writeBatch(out, replicationLog.lastSeq(), changes);
+                sentSeq = changes.get(changes.size() - 1).seq();
+            }
+            out.flush();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+}
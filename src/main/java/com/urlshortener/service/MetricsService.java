@@ -1,32 +1,106 @@
 package com.urlshortener.service;
 
+import com.urlshortener.cache.CacheStats;
+import com.urlshortener.cache.HotKeyCache;
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.DomainCount;
+import com.urlshortener.metrics.HeavyHitter;
+import com.urlshortener.metrics.LinkClicks;
+import com.urlshortener.metrics.TimeWindow;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class MetricsService {
 
+    public static final int DEFAULT_TOP_DOMAINS = 3;
+
+    public static final int MAX_TRENDING_LINKS = 100;
+
     private final UrlShortenerService urlShortenerService;
 
+    // Redirect cache, null unless app.cache.enabled
+    private final HotKeyCache hotKeyCache;
+
     public MetricsService(UrlShortenerService urlShortenerService) {
         this.urlShortenerService = urlShortenerService;
+        this.hotKeyCache = null;
+    }
+
+    @Autowired
+    public MetricsService(UrlShortenerService urlShortenerService, ObjectProvider<HotKeyCache> hotKeyCache) {
+        this.urlShortenerService = urlShortenerService;
+        this.hotKeyCache = hotKeyCache.getIfAvailable();
+    }
+
+    public List<DomainCount> topDomains() {
+        return topDomains(DEFAULT_TOP_DOMAINS, TimeWindow.ALL_TIME);
+    }
+
+    /**
+     * Returns the most shortened domains within a time window.
+     * Counts are Space-Saving estimates: exact while fewer distinct domains than the
+     * summary capacity have been seen, otherwise overestimated by at most N / capacity.
+     *
+     * @param k      number of domains to return
+     * @param window time window to report on
+     * @return domains with their counts and error bounds, by count descending, alphabetically if counts tie
+     * @throws IllegalArgumentException if k is out of range
+     */
+    public List<DomainCount> topDomains(int k, TimeWindow window) {
+        int capacity = urlShortenerService.getTopDomainsCapacity();
+        if (k < 1 || k > capacity) {
+            throw new IllegalArgumentException("k must be between 1 and " + capacity);
+        }
+        return urlShortenerService.getTopDomains(k, window)
+                .stream()
+                .map(hitter -> new DomainCount(hitter.item(), hitter.count(), hitter.error()))
+                .toList();
+    }
+
+    /**
+     * @param shortKey the short key
+     * @return lifetime count plus per-minute (last hour) and per-hour (last week) clicks
+     */
+    public LinkClicks linkClicks(String shortKey) {
+        return urlShortenerService.getLinkClicks(shortKey);
+    }
+
+    /**
+     * Returns the most clicked links within a time window. Only recently active keys are tracked,
+     * so a key that fell out of the tracked set is not reported.
+     *
+     * @param k      number of links to return
+     * @param window time window to rank by
+     * @return shortKey -> clicks, sorted by clicks descending, alphabetically if counts tie
+     * @throws IllegalArgumentException if k is out of range
+     */
+    public Map<String, Long> trendingLinks(int k, ClickWindow window) {
+        if (k < 1 || k > MAX_TRENDING_LINKS) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_TRENDING_LINKS);
+        }
+        return toMap(urlShortenerService.getTrendingLinks(k, window));
+    }
+
+    /**
+     * @return hit ratio, eviction and size counters of the redirect cache, or null if it is disabled
+     */
+    public CacheStats cacheStats() {
+        return hotKeyCache == null ? null : hotKeyCache.stats();
     }
 
-    public Map<String, Integer> topDomains() {
-        return urlShortenerService.getDomainCounts().entrySet()
+    private static Map<String, Long> toMap(List<HeavyHitter> hitters) {
+        return hitters
                 .stream()
-                .sorted((a, b) -> {
-                    int cmp = b.getValue().compareTo(a.getValue());
-                    if (cmp != 0) return cmp;
-                    return a.getKey().compareTo(b.getKey());
-                })
-                .limit(3)
                 .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
+                        HeavyHitter::item,
+                        HeavyHitter::count,
                         (a, b) -> a,
                         LinkedHashMap::new
                 ));
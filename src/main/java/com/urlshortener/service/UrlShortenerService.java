@@ -1,45 +1,164 @@
 package com.urlshortener.service;
 
+import com.urlshortener.exception.LinkExpiredException;
 import com.urlshortener.exception.UrlNotFoundException;
+import com.urlshortener.expiration.ExpirationManager;
+import com.urlshortener.expiration.ExpiredKeys;
+import com.urlshortener.id.IdAllocator;
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.metrics.ClickTracker;
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.DomainTracker;
+import com.urlshortener.metrics.HeavyHitter;
+import com.urlshortener.metrics.LinkClicks;
+import com.urlshortener.metrics.ShortenerMetrics;
+import com.urlshortener.metrics.TimeWindow;
+import com.urlshortener.model.BatchItem;
 import com.urlshortener.model.ShortUrl;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.persistence.ImportResult;
+import com.urlshortener.persistence.MappingExporter;
+import com.urlshortener.persistence.MappingImporter;
+import com.urlshortener.persistence.TransferFormat;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
 import com.urlshortener.util.Base62Util;
+import com.urlshortener.util.CanonicalUrl;
+import com.urlshortener.util.UrlCanonicalizer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * Core service for URL shortening operations.
  * This service handles:
- * - Generate short keys using a counter + Base62 encoding
- * - Store URL mappings in memory
+ * - Generate short keys from leased id blocks + Base62 encoding
+ * - Store URL mappings in the configured {@link UrlStore}
  * - Ensure idempotency (same URL always returns the same short key)
  * - Resolve short keys back to original URLs
+ * - Optionally give links a time to live (see {@link ExpirationManager})
  */
 @Service
 public class UrlShortenerService {
-    // In-memory storage for URLs
-    // Using ConcurrentHashMap for thread-safe operations in a multithreaded web environment
-    private final ConcurrentHashMap<String, String> longToKey = new ConcurrentHashMap<>();
+    // URL mappings (shortKey <-> originalUrl), pluggable via app.store.type
+    private final UrlStore store;
 
-    // Redirect: shortKey -> ShortUrl
-    private final ConcurrentHashMap<String, ShortUrl> keyToShortUrl = new ConcurrentHashMap<>();
+    // Ids for Base62 generation, leased in blocks so that creates share no hot counter
+    private final IdAllocator ids;
 
-    // Counter for Base62 generation
-    private final AtomicLong counter = new AtomicLong(0);
+    // Metrics: bounded top-K of shortened domains (all-time and rolling windows)
+    private final DomainTracker domainTracker = new DomainTracker();
 
-    // Metrics: domain -> number of shorten calls
-    private final ConcurrentHashMap<String, AtomicInteger> domainCounts = new ConcurrentHashMap<>();
+    // Metrics: rolling per-minute/per-hour clicks of recently active keys
+    private final ClickTracker clickTracker = new ClickTracker();
 
+    // Redirect warm-up: requests carrying this token are resolved without counting (see RedirectWarmup)
+    private final String warmupToken = UUID.randomUUID().toString();
 
-    public Map<String, Integer> getDomainCounts() {
-        Map<String, Integer> snapshot = new ConcurrentHashMap<>();
-        domainCounts.forEach((k, v) -> snapshot.put(k, v.get()));
-        return snapshot;
+    // Clicks of warm-up redirects, so the recording code is compiled without touching the real tracker
+    private final ClickTracker warmupClicks = new ClickTracker();
+
+    // Micrometer timers, counters and gauges; redirect timing is sampled
+    private final ShortenerMetrics metrics;
+
+    // Null unless app.expiration.enabled=true
+    private final ExpirationManager expiration;
+
+    // The expiration manager, or on a follower the leader's expiries; null if links never expire
+    private final ExpiredKeys expiredKeys;
+
+    public UrlShortenerService() {
+        this(new InMemoryUrlStore());
+    }
+
+    public UrlShortenerService(UrlStore store) {
+        this(store, new LeasedIdAllocator(new InMemoryBlockCoordinator(store.maxId())));
+    }
+
+    public UrlShortenerService(UrlStore store, IdAllocator ids) {
+        this(store, ids, ShortenerMetrics.noop());
+    }
+
+    public UrlShortenerService(UrlStore store, IdAllocator ids, ShortenerMetrics metrics) {
+        this(store, ids, metrics, (ExpirationManager) null);
+    }
+
+    @Autowired
+    public UrlShortenerService(UrlStore store, IdAllocator ids, ShortenerMetrics metrics,
+                               ObjectProvider<ExpirationManager> expiration,
+                               ObjectProvider<ExpiredKeys> expiredKeys) {
+        this(store, ids, metrics, expiration.getIfAvailable(), expiredKeys.getIfAvailable());
+    }
+
+    /**
+     * @param expiration expiration of the store's mappings, or null if links never expire
+     */
+    public UrlShortenerService(UrlStore store, IdAllocator ids, ShortenerMetrics metrics,
+                               ExpirationManager expiration) {
+        this(store, ids, metrics, expiration, expiration);
+    }
+
+    /**
+     * @param expiration  expiration of the store's mappings, or null if this node does not expire them
+     * @param expiredKeys keys to answer as expired, or null if none are
+     */
+    public UrlShortenerService(UrlStore store, IdAllocator ids, ShortenerMetrics metrics,
+                               ExpirationManager expiration, ExpiredKeys expiredKeys) {
+        this.store = store;
+        this.ids = ids;
+        this.metrics = metrics;
+        this.expiration = expiration;
+        this.expiredKeys = expiredKeys;
+        // Never hand out an id already held by the store, whatever the allocator's coordinator remembers
+        ids.advanceTo(store.maxId());
+        metrics.bind(store, clickTracker);
+    }
+
+    /**
+     * @param k      number of domains to return
+     * @param window time window to report on
+     * @return most shortened domains, by estimated count descending, ties broken alphabetically
+     */
+    public List<HeavyHitter> getTopDomains(int k, TimeWindow window) {
+        return domainTracker.top(k, window);
+    }
+
+    /**
+     * @return maximum number of domains the top-domain summaries can report
+     */
+    public int getTopDomainsCapacity() {
+        return domainTracker.capacity();
+    }
+
+    /**
+     * @param shortKey the short key
+     * @return lifetime count and rolling click history of the key
+     * @throws UrlNotFoundException if the short key doesn't exist
+     */
+    public LinkClicks getLinkClicks(String shortKey) {
+        return clickTracker.clicks(shortKey, getAccessCount(shortKey));
+    }
+
+    /**
+     * @param k      number of links to return
+     * @param window time window to rank by
+     * @return most clicked keys within the window, by count descending, ties broken alphabetically
+     */
+    public List<HeavyHitter> getTrendingLinks(int k, ClickWindow window) {
+        return clickTracker.trending(k, window);
     }
 
     /**
@@ -49,47 +168,206 @@ public class UrlShortenerService {
      * @return ShortUrl object containing the original URL and generated short key
      */
     public ShortUrl createShortUrl(String originalUrl) {
-        URI uri = validate(originalUrl);
-        String normalizedUrl = uri.toString();
+        return createShortUrl(originalUrl, null);
+    }
+
+    /**
+     * Creates a shortened URL that expires after the given time.
+     * The TTL only applies if the URL has no mapping yet; an existing mapping keeps its expiry.
+     *
+     * @param originalUrl the original URL to shorten
+     * @param ttlSeconds  seconds until the link expires, or null for the default (app.expiration.max-age-seconds)
+     * @return ShortUrl object containing the original URL, generated short key and expiry
+     */
+    public ShortUrl createShortUrl(String originalUrl, Long ttlSeconds) {
+        long start = metrics.startShorten();
+        CanonicalUrl canonical;
+        try {
+            canonical = validate(originalUrl);
+            validateTtl(ttlSeconds);
+        } catch (IllegalArgumentException e) {
+            metrics.shortenRejected();
+            throw e;
+        }
 
         // Metrics
-        String domain = uri.getHost().toLowerCase();
-        domainCounts.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+        domainTracker.record(canonical.host());
+
+        // Thread-safe idempotent creation: the factory runs at most once per URL
+        boolean[] created = new boolean[1];
+        ShortUrl shortUrl = store.findOrCreate(canonical.url(), url -> {
+            created[0] = true;
+            return newShortUrl(url, ttlSeconds);
+        });
+        metrics.shortened(start, created[0]);
+        return shortUrl;
+    }
+
+    /**
+     * Creates shortened URLs for a batch of original URLs.
+     * All URLs are validated first, then the valid URLs are inserted with one store call; ids for new
+     * mappings come from the calling thread's sub-block of the allocator, which is refilled in bulk.
+     *
+     * @param originalUrls the original URLs to shorten
+     * @return one item per input URL, in input order; invalid URLs carry an error instead of a mapping
+     */
+    public List<BatchItem> createShortUrls(List<String> originalUrls) {
+        return createShortUrls(originalUrls, null);
+    }
 
-        // Thread-safe idempotent creation using computeIfAbsent
-        String key = longToKey.computeIfAbsent(normalizedUrl, k -> {
-            String newKey = Base62Util.encode(counter.incrementAndGet());
+    /**
+     * Creates shortened URLs for a batch, each with its own optional TTL.
+     * As with {@link #createShortUrl(String, Long)}, a TTL only applies to a new mapping; if a URL occurs
+     * more than once in the batch, the TTL of its first occurrence is used.
+     *
+     * @param originalUrls the original URLs to shorten
+     * @param ttlSeconds   TTL of each URL (null entries for no TTL), or null if no URL has one
+     * @return one item per input URL, in input order; invalid URLs and TTLs carry an error instead of a mapping
+     */
+    public List<BatchItem> createShortUrls(List<String> originalUrls, List<Long> ttlSeconds) {
+        long start = metrics.startShorten();
+        int n = originalUrls.size();
+        String[] errors = new String[n];
+        List<String> valid = new ArrayList<>(n);
+        Map<String, Long> ttls = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            try {
+                CanonicalUrl canonical = validate(originalUrls.get(i));
+                Long ttl = ttlSeconds == null ? null : ttlSeconds.get(i);
+                validateTtl(ttl);
+                valid.add(canonical.url());
+                if (ttl != null) {
+                    ttls.putIfAbsent(canonical.url(), ttl);
+                }
+                domainTracker.record(canonical.host());
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+
+        Set<String> minted = new HashSet<>(); // by URL: the store retries the factory when a key is taken
+        List<ShortUrl> created = valid.isEmpty()
+                ? List.of()
+                : store.findOrCreateAll(valid, url -> {
+                    minted.add(url);
+                    return newShortUrl(url, ttls.get(url));
+                });
+        metrics.shortenedBatch(start, minted.size(), valid.size() - minted.size(), n - valid.size());
 
-            ShortUrl shortUrl = new ShortUrl();
-            shortUrl.setOriginalUrl(normalizedUrl);
-            shortUrl.setShortKey(newKey);
-            shortUrl.setCreatedAt(LocalDateTime.now());
-            shortUrl.setAccessCount(0);
+        List<BatchItem> items = new ArrayList<>(n);
+        int next = 0;
+        for (int i = 0; i < n; i++) {
+            items.add(errors[i] != null
+                    ? new BatchItem(originalUrls.get(i), null, errors[i])
+                    : new BatchItem(originalUrls.get(i), created.get(next++), null));
+        }
+        return items;
+    }
+
+    /**
+     * Creates (or finds) mappings for another node that received the request (cluster mode) or for a
+     * follower. That node has already validated the URLs and recorded the creates in its metrics, so only
+     * newly minted keys are counted here.
+     *
+     * @param originalUrls canonical URLs owned by this node
+     * @return the mappings in input order
+     * @throws IllegalArgumentException if a URL is invalid
+     */
+    public List<ShortUrl> createForwarded(List<String> originalUrls) {
+        List<String> canonical = new ArrayList<>(originalUrls.size());
+        for (String originalUrl : originalUrls) {
+            canonical.add(validate(originalUrl).url());
+        }
+        return store.findOrCreateAll(canonical, url -> newShortUrl(url, null));
+    }
+
+    /**
+     * Looks up a key for another node that serves the redirect (cluster mode). That node records the click
+     * and sends the access count later, so nothing is recorded here.
+     *
+     * @param shortKey the short key
+     * @return original url
+     * @throws LinkExpiredException if the short key has expired
+     * @throws UrlNotFoundException if the short key doesn't exist
+     */
+    public String lookupForwarded(String shortKey) {
+        ShortUrl shortUrl = shortKey == null || Base62Util.tryDecode(shortKey) < 0 ? null : store.findByKey(shortKey);
+        if (shortUrl == null) {
+            throw notFound(shortKey);
+        }
+        return shortUrl.getOriginalUrl();
+    }
 
-            keyToShortUrl.put(newKey, shortUrl);
-            return newKey;
+    /**
+     * Adds access counts of redirects that other nodes served for keys of this node (cluster mode).
+     *
+     * @param counts accesses to add, by short key; unknown keys are ignored
+     */
+    public void recordForwardedAccesses(Map<String, Long> counts) {
+        counts.forEach((shortKey, count) -> {
+            if (count != null && count > 0) {
+                store.recordAccesses(shortKey, count);
+            }
         });
+    }
+
+    /**
+     * Bulk-imports mappings, keeping the id allocator ahead of every imported id.
+     *
+     * @param in     input, read to its end
+     * @param format input format
+     * @return counts of imported, duplicate and rejected rows
+     */
+    public ImportResult importMappings(ReadableByteChannel in, TransferFormat format) throws IOException {
+        return new MappingImporter(store, 0).importFrom(in, format, ids::advanceTo);
+    }
 
-        return keyToShortUrl.get(key);
+    /**
+     * Streams every mapping to the output.
+     *
+     * @return number of mappings written
+     */
+    public long exportMappings(WritableByteChannel out, TransferFormat format) throws IOException {
+        return MappingExporter.export(store, out, format);
+    }
 
+    private ShortUrl newShortUrl(String url, Long ttlSeconds) {
+        metrics.keyGenerated();
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setShortKey(Base62Util.encode(ids.nextId()));
+        shortUrl.setCreatedAt(LocalDateTime.now());
+        shortUrl.setAccessCount(0);
+        if (ttlSeconds != null) {
+            shortUrl.setExpiresAt(shortUrl.getCreatedAt().plusSeconds(ttlSeconds));
+        }
+        return shortUrl;
+    }
+
+    private void validateTtl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return;
+        }
+        if (expiration == null) {
+            throw new IllegalArgumentException("Link expiration is not enabled");
+        }
+        if (ttlSeconds <= 0) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (ttlSeconds > UrlRequest.MAX_TTL_SECONDS) {
+            throw new IllegalArgumentException("TTL must be at most 100 years");
+        }
     }
 
     /**
-     * Validates and normalizes the input URL.
+     * Validates and normalizes the input URL, so variant spellings of one URL map to one short key.
      *
      * @param url raw input URL
-     * @return parsed and validated URI
+     * @return canonical form and host of the URL
      * @throws IllegalArgumentException if validation fails
      */
-    private URI validate(String url) {
-        if (url == null || url.isBlank()) {
-            throw new IllegalArgumentException("URL cannot be empty");
-        }
-        URI uri = URI.create(url.trim());
-        if (uri.getScheme() == null || uri.getHost() == null) {
-            throw new IllegalArgumentException("URL must include scheme and host");
-        }
-        return uri;
+    CanonicalUrl validate(String url) {
+        return UrlCanonicalizer.canonicalize(url);
     }
 
     /**
@@ -97,18 +375,93 @@ public class UrlShortenerService {
      *
      * @param shortKey the short key
      * @return original url
+     * @throws LinkExpiredException if the short key has expired
      * @throws UrlNotFoundException if the short key doesn't exist
      */
     public String getOriginalUrl(String shortKey) {
-        if (shortKey == null) {
-            throw new UrlNotFoundException("Short URL not found: null");
+        String originalUrl = findOriginalUrl(shortKey);
+        if (originalUrl == null) {
+            throw notFound(shortKey);
+        }
+        return originalUrl;
+    }
+
+    /**
+     * Exception-free variant of {@link #getOriginalUrl} for the redirect fast path.
+     * Records the access like getOriginalUrl does.
+     *
+     * @param shortKey the short key
+     * @return original url, or null if the short key doesn't exist
+     */
+    public String findOriginalUrl(String shortKey) {
+        long start = metrics.startRedirect();
+        // Keys that are not valid Base62 can never have been issued; skip the store lookup
+        String originalUrl = Base62Util.tryDecode(shortKey) < 0 ? null : store.resolve(shortKey);
+        if (originalUrl != null) {
+            clickTracker.record(shortKey);
         }
-        ShortUrl shortUrl = keyToShortUrl.get(shortKey);
+        metrics.resolved(start, originalUrl != null);
+        return originalUrl;
+    }
+
+    /**
+     * Warm-up form of {@link #findOriginalUrl}: the same lookup, through the store's caches and filters,
+     * without counting the access, the click or the redirect metrics.
+     *
+     * @param shortKey the short key
+     * @return original url, or null if the short key doesn't exist
+     */
+    public String peekOriginalUrl(String shortKey) {
+        String originalUrl = Base62Util.tryDecode(shortKey) < 0 ? null : store.peek(shortKey);
+        if (originalUrl != null) {
+            warmupClicks.record(shortKey);
+        }
+        return originalUrl;
+    }
+
+    /**
+     * @return the token that marks this node's own warm-up redirects
+     */
+    public String warmupToken() {
+        return warmupToken;
+    }
+
+    /**
+     * @param token value of the request's {@code X-Warmup-Token} header, or null
+     * @return true if the request is one of this node's warm-up redirects, to be resolved with
+     * {@link #peekOriginalUrl}
+     */
+    public boolean isWarmup(String token) {
+        return warmupToken.equals(token);
+    }
+
+    /**
+     * Returns how many times a short key has been resolved.
+     *
+     * @param shortKey the short key
+     * @return aggregated access count
+     * @throws UrlNotFoundException if the short key doesn't exist
+     */
+    public long getAccessCount(String shortKey) {
+        ShortUrl shortUrl = shortKey == null ? null : store.findByKey(shortKey);
         if (shortUrl == null) {
-            throw new UrlNotFoundException("Short URL not found: " + shortKey);
+            throw notFound(shortKey);
         }
-        shortUrl.incrementAccessCount();
-        return shortUrl.getOriginalUrl();
+        return shortUrl.getAccessCount();
+    }
+
+    /**
+     * @return true if the short key belonged to a mapping that has expired
+     */
+    public boolean isExpired(String shortKey) {
+        return expiredKeys != null && shortKey != null && expiredKeys.isExpired(shortKey);
+    }
+
+    private UrlNotFoundException notFound(String shortKey) {
+        if (isExpired(shortKey)) {
+            return new LinkExpiredException("Short URL has expired: " + shortKey);
+        }
+        return new UrlNotFoundException("Short URL not found: " + shortKey);
     }
 
 }
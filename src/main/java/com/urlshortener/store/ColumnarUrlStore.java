@@ -0,0 +1,401 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * On-heap {@link UrlStore} keyed by the numeric id behind each short key, with records stored
+ * column-wise in primitive arrays instead of one ShortUrl object per link.
+ * <p>
+ * Columns (one page per 64K ids, so growing never copies record data):
+ * - createdAt: epoch millis
+ * - accessCounts: redirect counts
+ * - urlOffsets / urlLengths: location of the URL's UTF-8 bytes in a shared, paged byte arena
+ * <p>
+ * The reverse index (URL -> id) is an open-addressing table of ids probed by URL hash and
+ * verified against the arena bytes. A record costs about 50 bytes plus its URL bytes, versus
+ * roughly 300 bytes of object and map overhead in {@link InMemoryUrlStore}.
+ * <p>
+ * Reads are lock-free. Creates are serialized on a single lock and publish a record by writing
+ * its URL length last (release), so a reader that sees a non-zero length sees the whole record.
+ */
+public class ColumnarUrlStore implements UrlStore {
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    // Highest id whose page index still fits in an int
+    static final long MAX_ID = (1L << (31 + PAGE_SHIFT)) - 1;
+
+    private static final int ARENA_PAGE_SHIFT = 22;
+    private static final int ARENA_PAGE_SIZE = 1 << ARENA_PAGE_SHIFT;
+    private static final int ARENA_PAGE_MASK = ARENA_PAGE_SIZE - 1;
+
+    private static final int INITIAL_INDEX_SLOTS = 1 << 10;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private volatile Columns columns = new Columns(0);
+    private volatile byte[][] arena = new byte[0][];
+    private volatile long[] index = new long[INITIAL_INDEX_SLOTS];
+    private volatile long size;
+    private volatile long maxId;
+
+    // Guarded by writeLock
+    private long arenaTail;
+    private final Object writeLock = new Object();
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        byte[] bytes = toBytes(originalUrl);
+        long hash = UrlHashing.hash(bytes);
+
+        long existing = lookup(index, bytes, hash);
+        if (existing != 0) {
+            return read(existing);
+        }
+
+        synchronized (writeLock) {
+            long[] table = ensureIndexCapacity();
+            int slot = findSlot(table, bytes, hash);
+            existing = (long) LONGS.getAcquire(table, slot);
+            if (existing != 0) {
+                return read(existing);
+            }
+
+            ShortUrl shortUrl = factory.apply(originalUrl);
+            while (isTaken(shortUrl.getShortKey())) { // an imported mapping got the key first
+                shortUrl = factory.apply(originalUrl);
+            }
+            insert(table, slot, bytes, shortUrl);
+            return shortUrl;
+        }
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        List<ShortUrl> result = new ArrayList<>(originalUrls.size());
+        synchronized (writeLock) { // one acquisition for the batch; findOrCreate re-enters it
+            for (String originalUrl : originalUrls) {
+                result.add(findOrCreate(originalUrl, factory));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        byte[] bytes = toBytes(shortUrl.getOriginalUrl());
+        long hash = UrlHashing.hash(bytes);
+        synchronized (writeLock) {
+            if (isTaken(shortUrl.getShortKey())) {
+                return false;
+            }
+            long[] table = ensureIndexCapacity();
+            int slot = findSlot(table, bytes, hash);
+            // An existing mapping for the same URL keeps serving idempotent creates; only the key is added
+            insert(table, (long) LONGS.getAcquire(table, slot) == 0 ? slot : -1, bytes, shortUrl);
+            return true;
+        }
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        long id = idOf(shortKey);
+        return id == 0 ? null : read(id);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        long id = idOf(shortKey);
+        if (id == 0) {
+            return null;
+        }
+        Columns c = columns;
+        int length = urlLength(c, id);
+        if (length == 0) {
+            return null;
+        }
+        int page = (int) (id >>> PAGE_SHIFT);
+        int slot = (int) (id & PAGE_MASK);
+        LONGS.getAndAdd(c.accessCounts[page], slot, 1L);
+        return readUrl(c.urlOffsets[page][slot], length);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        recordAccesses(shortKey, 1);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        long id = idOf(shortKey);
+        if (id == 0) {
+            return;
+        }
+        Columns c = columns;
+        if (urlLength(c, id) != 0) {
+            LONGS.getAndAdd(c.accessCounts[(int) (id >>> PAGE_SHIFT)], (int) (id & PAGE_MASK), count);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        long max = maxId;
+        for (long id = 1; id <= max; id++) {
+            ShortUrl shortUrl = read(id);
+            if (shortUrl != null) {
+                action.accept(shortUrl);
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public long maxId() {
+        return maxId;
+    }
+
+    // Must be called while holding writeLock; an indexSlot of -1 stores the record without indexing its URL
+    private void insert(long[] table, int indexSlot, byte[] bytes, ShortUrl shortUrl) {
+        long id = Base62Util.decode(shortUrl.getShortKey());
+        if (id < 1 || id > MAX_ID) {
+            throw new IllegalArgumentException("Invalid id for key " + shortUrl.getShortKey());
+        }
+        Columns c = ensurePage((int) (id >>> PAGE_SHIFT));
+        int page = (int) (id >>> PAGE_SHIFT);
+        int slot = (int) (id & PAGE_MASK);
+        if ((int) INTS.getAcquire(c.urlLengths[page], slot) != 0) {
+            throw new IllegalStateException("Duplicate id for key " + shortUrl.getShortKey());
+        }
+
+        c.urlOffsets[page][slot] = append(bytes);
+        c.createdAt[page][slot] = toEpochMillis(shortUrl.getCreatedAt());
+        c.accessCounts[page][slot] = shortUrl.getAccessCount();
+        INTS.setRelease(c.urlLengths[page], slot, bytes.length);
+
+        size = size + 1;
+        if (id > maxId) {
+            maxId = id;
+        }
+        if (indexSlot >= 0) {
+            LONGS.setRelease(table, indexSlot, id);
+        }
+    }
+
+    // Must be called while holding writeLock
+    private Columns ensurePage(int page) {
+        Columns c = columns;
+        if (page >= c.pages()) {
+            c = c.grow(Math.max(page + 1, c.pages() * 2));
+            columns = c;
+        }
+        if (c.urlLengths[page] == null) {
+            c.createdAt[page] = new long[1 << PAGE_SHIFT];
+            c.accessCounts[page] = new long[1 << PAGE_SHIFT];
+            c.urlOffsets[page] = new long[1 << PAGE_SHIFT];
+            c.urlLengths[page] = new int[1 << PAGE_SHIFT];
+        }
+        return c;
+    }
+
+    /**
+     * Copies the URL bytes into the arena. A URL never spans two arena pages.
+     * Must be called while holding writeLock.
+     *
+     * @return arena position of the first byte
+     */
+    private long append(byte[] bytes) {
+        long position = arenaTail;
+        if ((position & ARENA_PAGE_MASK) + bytes.length > ARENA_PAGE_SIZE) {
+            position = ((position >>> ARENA_PAGE_SHIFT) + 1) << ARENA_PAGE_SHIFT;
+        }
+        int page = (int) (position >>> ARENA_PAGE_SHIFT);
+        byte[][] pages = arena;
+        if (page >= pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(page + 1, pages.length * 2));
+            pages[page] = new byte[ARENA_PAGE_SIZE];
+            arena = pages;
+        } else if (pages[page] == null) {
+            pages[page] = new byte[ARENA_PAGE_SIZE];
+        }
+        System.arraycopy(bytes, 0, pages[page], (int) (position & ARENA_PAGE_MASK), bytes.length);
+        arenaTail = position + bytes.length;
+        return position;
+    }
+
+    /**
+     * Doubles the reverse index when it is half full. Readers keep probing the table they
+     * started with; a miss there is re-checked under the lock against the current table.
+     * Must be called while holding writeLock.
+     */
+    private long[] ensureIndexCapacity() {
+        long[] table = index;
+        if ((size + 1) * 2 <= table.length) {
+            return table;
+        }
+        long[] larger = new long[table.length * 2];
+        Columns c = columns;
+        for (long id : table) {
+            if (id != 0) {
+                byte[] bytes = urlBytes(c, id);
+                int slot = (int) (UrlHashing.hash(bytes) & (larger.length - 1));
+                while (larger[slot] != 0) {
+                    slot = (slot + 1) & (larger.length - 1);
+                }
+                larger[slot] = id;
+            }
+        }
+        index = larger;
+        return larger;
+    }
+
+    private long lookup(long[] table, byte[] bytes, long hash) {
+        return (long) LONGS.getAcquire(table, findSlot(table, bytes, hash));
+    }
+
+    /**
+     * @return slot holding the URL's id, or the empty slot where it would be inserted
+     */
+    private int findSlot(long[] table, byte[] bytes, long hash) {
+        int mask = table.length - 1;
+        int slot = (int) (hash & mask);
+        while (true) {
+            long id = (long) LONGS.getAcquire(table, slot);
+            if (id == 0 || urlEquals(id, bytes)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the id of a key that may be stored, 0 for malformed keys and ids above the highest stored one
+     * (which would otherwise be truncated to another id's page)
+     */
+    // Guarded by writeLock
+    private boolean isTaken(String shortKey) {
+        long id = idOf(shortKey);
+        return id != 0 && urlLength(columns, id) != 0;
+    }
+
+    private long idOf(String shortKey) {
+        long id = ShortKeys.idOf(shortKey);
+        return id <= maxId ? id : 0;
+    }
+
+    private boolean urlEquals(long id, byte[] bytes) {
+        Columns c = columns;
+        if (urlLength(c, id) != bytes.length) {
+            return false;
+        }
+        long position = c.urlOffsets[(int) (id >>> PAGE_SHIFT)][(int) (id & PAGE_MASK)];
+        int from = (int) (position & ARENA_PAGE_MASK);
+        return Arrays.equals(arena[(int) (position >>> ARENA_PAGE_SHIFT)], from, from + bytes.length,
+                bytes, 0, bytes.length);
+    }
+
+    private ShortUrl read(long id) {
+        Columns c = columns;
+        int length = urlLength(c, id);
+        if (length == 0) {
+            return null;
+        }
+        int page = (int) (id >>> PAGE_SHIFT);
+        int slot = (int) (id & PAGE_MASK);
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(readUrl(c.urlOffsets[page][slot], length));
+        shortUrl.setShortKey(Base62Util.encode(id));
+        shortUrl.setCreatedAt(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(c.createdAt[page][slot]), ZoneId.systemDefault()));
+        shortUrl.setAccessCount((long) LONGS.getVolatile(c.accessCounts[page], slot));
+        return shortUrl;
+    }
+
+    /**
+     * @return URL byte length of the record, 0 if the id has no (published) record
+     */
+    private static int urlLength(Columns c, long id) {
+        int page = (int) (id >>> PAGE_SHIFT);
+        if (page >= c.pages()) {
+            return 0;
+        }
+        int[] lengths = c.urlLengths[page];
+        return lengths == null ? 0 : (int) INTS.getAcquire(lengths, (int) (id & PAGE_MASK));
+    }
+
+    private byte[] urlBytes(Columns c, long id) {
+        int page = (int) (id >>> PAGE_SHIFT);
+        int slot = (int) (id & PAGE_MASK);
+        long position = c.urlOffsets[page][slot];
+        int from = (int) (position & ARENA_PAGE_MASK);
+        return Arrays.copyOfRange(arena[(int) (position >>> ARENA_PAGE_SHIFT)], from, from + c.urlLengths[page][slot]);
+    }
+
+    private String readUrl(long position, int length) {
+        return new String(arena[(int) (position >>> ARENA_PAGE_SHIFT)],
+                (int) (position & ARENA_PAGE_MASK), length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] toBytes(String url) {
+        byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("URL cannot be empty");
+        }
+        if (bytes.length > ARENA_PAGE_SIZE) {
+            throw new IllegalArgumentException("URL is too long");
+        }
+        return bytes;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Page directories of the record columns. Replaced, never resized in place, when more pages
+     * are needed; pages themselves are shared between the old and new directory.
+     */
+    private static final class Columns {
+        final long[][] createdAt;
+        final long[][] accessCounts;
+        final long[][] urlOffsets;
+        final int[][] urlLengths;
+
+        Columns(int pages) {
+            this(new long[pages][], new long[pages][], new long[pages][], new int[pages][]);
+        }
+
+        private Columns(long[][] createdAt, long[][] accessCounts, long[][] urlOffsets, int[][] urlLengths) {
+            this.createdAt = createdAt;
+            this.accessCounts = accessCounts;
+            this.urlOffsets = urlOffsets;
+            this.urlLengths = urlLengths;
+        }
+
+        int pages() {
+            return urlLengths.length;
+        }
+
+        Columns grow(int pages) {
+            return new Columns(Arrays.copyOf(createdAt, pages), Arrays.copyOf(accessCounts, pages),
+                    Arrays.copyOf(urlOffsets, pages), Arrays.copyOf(urlLengths, pages));
+        }
+    }
+}
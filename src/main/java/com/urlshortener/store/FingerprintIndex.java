@@ -0,0 +1,159 @@
+package com.urlshortener.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongPredicate;
+
+/**
+ * Compact concurrent reverse index from a 64-bit URL hash to the numeric id of its mapping.
+ * <p>
+ * Each entry is a single long: 24 bits of the hash (the fingerprint) above a 40-bit id. Entries live
+ * in open-addressing tables split into segments by the low hash bits; the fingerprint also picks the
+ * home slot, so a table can be resized without rehashing any URL. Two URLs can share a fingerprint,
+ * so a match is only a candidate: callers verify it against the stored URL and probing continues on
+ * a mismatch.
+ * <p>
+ * Lookups are lock-free. Inserts must hold {@link #lockFor} of the hash, which makes check-then-insert
+ * atomic per URL.
+ */
+final class FingerprintIndex {
+
+    static final long MAX_ID = (1L << 40) - 1;
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int FINGERPRINT_BITS = 24;
+    private static final int ID_BITS = 40;
+    private static final int MAX_SLOTS = 1 << FINGERPRINT_BITS;
+    private static final int INITIAL_SLOTS = 1 << 6;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    FingerprintIndex() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @param hash    64-bit hash of the URL
+     * @param matches tells whether a candidate id belongs to the URL being looked up
+     * @return the id of the URL, or 0 if it is not indexed
+     */
+    long find(long hash, LongPredicate matches) {
+        long[] table = segmentFor(hash).table;
+        int mask = table.length - 1;
+        int fingerprint = fingerprint(hash);
+        for (int slot = fingerprint & mask; ; slot = (slot + 1) & mask) {
+            long entry = (long) LONGS.getAcquire(table, slot);
+            if (entry == 0) {
+                return 0;
+            }
+            if ((int) (entry >>> ID_BITS) == fingerprint && matches.test(entry & MAX_ID)) {
+                return entry & MAX_ID;
+            }
+        }
+    }
+
+    /**
+     * @return the lock to hold while checking for and inserting the URL with this hash
+     */
+    Object lockFor(long hash) {
+        return segmentFor(hash);
+    }
+
+    /**
+     * Adds an entry. The caller holds {@link #lockFor} of the hash and has checked the URL is absent.
+     */
+    void insert(long hash, long id) {
+        if (id < 1 || id > MAX_ID) {
+            throw new IllegalStateException("Id " + id + " is outside the reverse index range");
+        }
+        Segment segment = segmentFor(hash);
+        long[] table = segment.ensureCapacity();
+        int mask = table.length - 1;
+        int fingerprint = fingerprint(hash);
+        int slot = fingerprint & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        LONGS.setRelease(table, slot, ((long) fingerprint << ID_BITS) | id);
+        segment.size++;
+    }
+
+    /**
+     * Removes the entry of the URL with this hash and id, shifting later entries of its probe run back
+     * so no tombstone is left. The caller holds {@link #lockFor} of the hash. A lock-free {@link #find}
+     * racing with the shift can miss an entry that is being moved; callers only trust a miss after
+     * repeating the lookup under the lock.
+     *
+     * @return true if the entry was found
+     */
+    boolean remove(long hash, long id) {
+        Segment segment = segmentFor(hash);
+        long[] table = segment.table;
+        int mask = table.length - 1;
+        long target = ((long) fingerprint(hash) << ID_BITS) | id;
+        int slot = fingerprint(hash) & mask;
+        while (table[slot] != target) {
+            if (table[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = (int) (table[next] >>> ID_BITS) & mask;
+            // The entry may fill the hole unless its home lies cyclically in (hole, next]
+            boolean homeAfterHole = hole <= next ? home > hole && home <= next : home > hole || home <= next;
+            if (!homeAfterHole) {
+                LONGS.setRelease(table, hole, table[next]);
+                hole = next;
+            }
+        }
+        LONGS.setRelease(table, hole, 0L);
+        segment.size--;
+        return true;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) hash & (SEGMENTS - 1)];
+    }
+
+    private static int fingerprint(long hash) {
+        return (int) (hash >>> SEGMENT_BITS) & (MAX_SLOTS - 1);
+    }
+
+    private static final class Segment {
+        volatile long[] table = new long[INITIAL_SLOTS];
+
+        // Guarded by this
+        int size;
+
+        // Keeps the load factor at or below 3/4; caller holds this
+        long[] ensureCapacity() {
+            long[] current = table;
+            if ((size + 1) * 4L <= current.length * 3L) {
+                return current;
+            }
+            if (current.length == MAX_SLOTS) {
+                throw new IllegalStateException("Reverse index segment is full (" + size + " entries)");
+            }
+            long[] larger = new long[current.length * 2];
+            int mask = larger.length - 1;
+            for (long entry : current) {
+                if (entry != 0) {
+                    int slot = (int) (entry >>> ID_BITS) & mask;
+                    while (larger[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    larger[slot] = entry;
+                }
+            }
+            table = larger;
+            return larger;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.urlshortener.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent set of numeric ids, one bit per id.
+ * <p>
+ * Bits live in 8 KB pages of 64K ids, allocated on first use and found through a two-level directory
+ * (4K entries of 4K pages), so ids up to {@link #MAX_ID} can be held. Ids are handed out in increasing
+ * order, so they cluster and a page costs the same whatever the number of ids in it. Lookups take no
+ * lock and allocate nothing; updates are one atomic bitwise operation.
+ */
+public final class IdBitmap {
+
+    public static final long MAX_ID = (1L << 40) - 1;
+
+    private static final int PAGE_BITS = 16;
+    private static final int MID_BITS = 12;
+    private static final int TOP_BITS = 40 - PAGE_BITS - MID_BITS;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final AtomicReferenceArray<AtomicReferenceArray<long[]>> directory =
+            new AtomicReferenceArray<>(1 << TOP_BITS);
+
+    /**
+     * @throws IllegalArgumentException if the id is outside 1..{@link #MAX_ID}
+     */
+    public void add(long id) {
+        if (id < 1 || id > MAX_ID) {
+            throw new IllegalArgumentException("Id " + id + " is outside the bitmap range");
+        }
+        long[] page = pageFor(id, true);
+        WORDS.getAndBitwiseOr(page, word(id), bit(id));
+    }
+
+    public void remove(long id) {
+        long[] page = id < 1 || id > MAX_ID ? null : pageFor(id, false);
+        if (page != null) {
+            WORDS.getAndBitwiseAnd(page, word(id), ~bit(id));
+        }
+    }
+
+    public boolean contains(long id) {
+        long[] page = id < 1 || id > MAX_ID ? null : pageFor(id, false);
+        return page != null && ((long) WORDS.getAcquire(page, word(id)) & bit(id)) != 0;
+    }
+
+    private long[] pageFor(long id, boolean create) {
+        int top = (int) (id >>> (PAGE_BITS + MID_BITS));
+        AtomicReferenceArray<long[]> pages = directory.get(top);
+        if (pages == null) {
+            if (!create) {
+                return null;
+            }
+            directory.compareAndSet(top, null, new AtomicReferenceArray<>(1 << MID_BITS));
+            pages = directory.get(top);
+        }
+        int mid = (int) (id >>> PAGE_BITS) & ((1 << MID_BITS) - 1);
+        long[] page = pages.get(mid);
+        if (page == null && create) {
+            pages.compareAndSet(mid, null, new long[WORDS_PER_PAGE]);
+            page = pages.get(mid);
+        }
+        return page;
+    }
+
+    private static int word(long id) {
+        return (int) (id >>> 6) & (WORDS_PER_PAGE - 1);
+    }
+
+    private static long bit(long id) {
+        return 1L << id;
+    }
+}
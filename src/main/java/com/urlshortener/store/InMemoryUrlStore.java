@@ -0,0 +1,142 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Default on-heap {@link UrlStore}: a ConcurrentHashMap of ShortUrl objects by key plus a
+ * compact fingerprint index for idempotency. Data lives only as long as the JVM does.
+ */
+public class InMemoryUrlStore implements UrlStore {
+
+    // Idempotency: hash(originalUrl) -> id, verified against the ShortUrl on a match
+    private final FingerprintIndex urlIndex = new FingerprintIndex();
+
+    // Redirect: shortKey -> ShortUrl
+    private final ConcurrentHashMap<String, ShortUrl> keyToShortUrl = new ConcurrentHashMap<>();
+
+    private final AtomicLong maxId = new AtomicLong();
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        long hash = UrlHashing.hash(originalUrl);
+        ShortUrl existing = find(hash, originalUrl);
+        if (existing != null) {
+            return existing;
+        }
+
+        // The factory runs at most once per URL: check and insert under the URL's index lock
+        synchronized (urlIndex.lockFor(hash)) {
+            existing = find(hash, originalUrl);
+            if (existing != null) {
+                return existing;
+            }
+            ShortUrl shortUrl = factory.apply(originalUrl);
+            while (keyToShortUrl.putIfAbsent(shortUrl.getShortKey(), shortUrl) != null) {
+                shortUrl = factory.apply(originalUrl); // an imported mapping got the key first
+            }
+            long id = Base62Util.decode(shortUrl.getShortKey());
+            urlIndex.insert(hash, id);
+            maxId.accumulateAndGet(id, Math::max);
+            return shortUrl;
+        }
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        if (keyToShortUrl.putIfAbsent(shortUrl.getShortKey(), shortUrl) != null) {
+            return false;
+        }
+        long id = Base62Util.decode(shortUrl.getShortKey());
+        long hash = UrlHashing.hash(shortUrl.getOriginalUrl());
+        synchronized (urlIndex.lockFor(hash)) {
+            // An existing mapping for the same URL keeps serving idempotent creates
+            if (find(hash, shortUrl.getOriginalUrl()) == null) {
+                urlIndex.insert(hash, id);
+            }
+        }
+        maxId.accumulateAndGet(id, Math::max);
+        return true;
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return keyToShortUrl.get(shortKey);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        ShortUrl shortUrl = keyToShortUrl.get(shortKey);
+        if (shortUrl == null) {
+            return null;
+        }
+        shortUrl.incrementAccessCount();
+        return shortUrl.getOriginalUrl();
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        ShortUrl shortUrl = keyToShortUrl.get(shortKey);
+        if (shortUrl != null) {
+            shortUrl.incrementAccessCount();
+        }
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        ShortUrl shortUrl = keyToShortUrl.get(shortKey);
+        if (shortUrl != null) {
+            shortUrl.addAccessCount(count);
+        }
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        ShortUrl shortUrl = keyToShortUrl.get(shortKey);
+        if (shortUrl == null) {
+            return false;
+        }
+        long hash = UrlHashing.hash(shortUrl.getOriginalUrl());
+        // Under the URL's index lock, so a concurrent create of the same URL sees both directions or neither
+        synchronized (urlIndex.lockFor(hash)) {
+            if (!keyToShortUrl.remove(shortKey, shortUrl)) {
+                return false;
+            }
+            urlIndex.remove(hash, Base62Util.decode(shortKey));
+        }
+        return true;
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        keyToShortUrl.values().forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return keyToShortUrl.size();
+    }
+
+    @Override
+    public long maxId() {
+        return maxId.get();
+    }
+
+    private ShortUrl find(long hash, String originalUrl) {
+        ShortUrl[] found = new ShortUrl[1];
+        urlIndex.find(hash, id -> {
+            ShortUrl candidate = keyToShortUrl.get(Base62Util.encode(id));
+            if (candidate != null && candidate.getOriginalUrl().equals(originalUrl)) {
+                found[0] = candidate;
+                return true;
+            }
+            return false;
+        });
+        return found[0];
+    }
+}
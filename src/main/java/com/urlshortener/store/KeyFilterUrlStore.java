@@ -0,0 +1,115 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link UrlStore} decorator that answers lookups of keys it never stored without touching the delegate,
+ * so scanners probing random keys cost a Base62 decode and one bit test.
+ * <p>
+ * Short keys are ids handed out in increasing order, so the stored keys are kept exactly, as an
+ * {@link IdBitmap} of their ids (about one bit per id issued), rather than in a Bloom filter: an id that
+ * was never stored is never let through, and removed mappings clear their bit. A key whose id is set can
+ * still miss (it is spelled differently, e.g. "01" for "1"); such lookups go to the delegate.
+ * <p>
+ * A new mapping's bit is set before the delegate stores it and a removed mapping's bit cleared after the
+ * delegate removed it, so a lookup never misses a stored key. Mappings already in the delegate (e.g.
+ * recovered from disk) are added once when the decorator is created.
+ */
+public class KeyFilterUrlStore implements UrlStore {
+
+    private final UrlStore delegate;
+    private final IdBitmap keys = new IdBitmap();
+
+    public KeyFilterUrlStore(UrlStore delegate) {
+        this.delegate = delegate;
+        delegate.forEach(this::add);
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        return delegate.findOrCreate(originalUrl, url -> add(factory.apply(url)));
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        return delegate.findOrCreateAll(originalUrls, url -> add(factory.apply(url)));
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        return delegate.putIfAbsent(add(shortUrl));
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        return mightContain(shortKey) ? delegate.findByKey(shortKey) : null;
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        return mightContain(shortKey) ? delegate.resolve(shortKey) : null;
+    }
+
+    @Override
+    public String peek(String shortKey) {
+        return mightContain(shortKey) ? delegate.peek(shortKey) : null;
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        delegate.recordAccess(shortKey);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        delegate.recordAccesses(shortKey, count);
+    }
+
+    @Override
+    public boolean remove(String shortKey) {
+        if (!delegate.remove(shortKey)) {
+            return false;
+        }
+        keys.remove(Base62Util.tryDecode(shortKey));
+        return true;
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        delegate.forEach(action);
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long maxId() {
+        return delegate.maxId();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private ShortUrl add(ShortUrl shortUrl) {
+        long id = Base62Util.tryDecode(shortUrl.getShortKey());
+        if (id > 0 && id <= IdBitmap.MAX_ID) {
+            keys.add(id);
+        }
+        return shortUrl;
+    }
+
+    // Ids the bitmap cannot hold are passed on, whether or not they were stored
+    private boolean mightContain(String shortKey) {
+        long id = Base62Util.tryDecode(shortKey);
+        return id > IdBitmap.MAX_ID || keys.contains(id);
+    }
+}
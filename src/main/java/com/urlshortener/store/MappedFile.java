@@ -0,0 +1,144 @@
+package com.urlshortener.store;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file mapped into memory as a sequence of 1 GiB chunks, addressable with long offsets.
+ * A single MappedByteBuffer is limited to 2 GiB, so larger files are split into chunks.
+ * Callers must keep fixed-width fields from straddling a chunk boundary (any 8-byte aligned
+ * field is safe); byte ranges may span chunks.
+ */
+final class MappedFile implements AutoCloseable {
+
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private MappedFile(FileChannel channel, long size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        int count = (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(CHUNK_SIZE, size - start));
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Opens (or creates) the file and maps at least {@code size} bytes of it.
+     * New files are extended sparsely, so unused space does not consume disk.
+     */
+    static MappedFile open(Path path, long size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long mapped = Math.max(size, channel.size());
+            if (channel.size() < mapped) {
+                // Writing the last byte grows the file without touching the pages in between
+                channel.write(ByteBuffer.wrap(new byte[1]), mapped - 1);
+            }
+            return new MappedFile(channel, mapped);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    long getLong(long pos) {
+        return (long) LONGS.get(chunk(pos), offset(pos));
+    }
+
+    void putLong(long pos, long value) {
+        LONGS.set(chunk(pos), offset(pos), value);
+    }
+
+    long getLongAcquire(long pos) {
+        return (long) LONGS.getAcquire(chunk(pos), offset(pos));
+    }
+
+    void putLongRelease(long pos, long value) {
+        LONGS.setRelease(chunk(pos), offset(pos), value);
+    }
+
+    long getAndAddLong(long pos, long delta) {
+        return (long) LONGS.getAndAdd(chunk(pos), offset(pos), delta);
+    }
+
+    int getIntAcquire(long pos) {
+        return (int) INTS.getAcquire(chunk(pos), offset(pos));
+    }
+
+    void putIntRelease(long pos, int value) {
+        INTS.setRelease(chunk(pos), offset(pos), value);
+    }
+
+    void read(long pos, byte[] dst, int off, int len) {
+        while (len > 0) {
+            MappedByteBuffer chunk = chunk(pos);
+            int chunkOffset = offset(pos);
+            int n = (int) Math.min(len, chunk.capacity() - chunkOffset);
+            chunk.get(chunkOffset, dst, off, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    void write(long pos, byte[] src, int off, int len) {
+        while (len > 0) {
+            MappedByteBuffer chunk = chunk(pos);
+            int chunkOffset = offset(pos);
+            int n = (int) Math.min(len, chunk.capacity() - chunkOffset);
+            chunk.put(chunkOffset, src, off, n);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Flushes dirty pages to the storage device.
+     */
+    void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private MappedByteBuffer chunk(long pos) {
+        return chunks[(int) (pos >>> CHUNK_SHIFT)];
+    }
+
+    private static int offset(long pos) {
+        return (int) (pos & CHUNK_MASK);
+    }
+}
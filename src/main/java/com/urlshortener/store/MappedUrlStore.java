@@ -0,0 +1,313 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Off-heap, persistent {@link UrlStore} backed by memory-mapped files.
+ * <p>
+ * Files inside the store directory:
+ * - records.dat: header + fixed-size record slots addressed by numeric id (the decoded short key)
+ * - urls.dat: append-only arena holding the UTF-8 bytes of every original URL
+ * - index.dat: open-addressing table of URL hash -> id, used for idempotent creation
+ * <p>
+ * Reads are lock-free. Creates are serialized on a single lock and publish a record by writing
+ * its URL length last (release), so a reader that sees a non-zero length sees the whole record.
+ * Capacity is fixed when the store is first created.
+ */
+public class MappedUrlStore implements UrlStore {
+
+    private static final long MAGIC = 0x55524C53544F5245L; // "URLSTORE"
+
+    // Header layout (records.dat)
+    private static final int HEADER_BYTES = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_CAPACITY = 8;
+    private static final int H_MAX_ID = 16;
+    private static final int H_ARENA_TAIL = 24;
+    private static final int H_SIZE = 32;
+
+    // Record layout
+    private static final int RECORD_BYTES = 32;
+    private static final int R_URL_OFFSET = 0;   // long: position in urls.dat
+    private static final int R_URL_LENGTH = 8;   // int: byte length, 0 = empty slot
+    private static final int R_CREATED_AT = 16;  // long: epoch millis
+    private static final int R_ACCESS_COUNT = 24; // long
+
+    private final MappedFile records;
+    private final MappedFile urls;
+    private final MappedFile index;
+    private final long capacity;
+    private final long indexMask;
+    private final Object writeLock = new Object();
+
+    /**
+     * Opens the store in the given directory, creating it if needed.
+     *
+     * @param directory  directory holding the store files
+     * @param capacity   maximum number of records (highest id that can be stored)
+     * @param arenaBytes size of the URL byte arena
+     */
+    public MappedUrlStore(Path directory, long capacity, long arenaBytes) throws IOException {
+        if (capacity <= 0 || arenaBytes <= 0) {
+            throw new IllegalArgumentException("Store capacity and arena size must be positive");
+        }
+        Files.createDirectories(directory);
+        long indexSlots = Long.highestOneBit(capacity * 2 - 1) << 1;
+
+        this.records = MappedFile.open(directory.resolve("records.dat"), HEADER_BYTES + capacity * RECORD_BYTES);
+        this.urls = MappedFile.open(directory.resolve("urls.dat"), arenaBytes);
+        this.index = MappedFile.open(directory.resolve("index.dat"), indexSlots * Long.BYTES);
+        this.capacity = capacity;
+        this.indexMask = indexSlots - 1;
+
+        long magic = records.getLong(H_MAGIC);
+        if (magic == 0) {
+            records.putLong(H_CAPACITY, capacity);
+            records.putLong(H_MAGIC, MAGIC);
+        } else if (magic != MAGIC) {
+            close();
+            throw new IllegalStateException("Not a URL store: " + directory);
+        } else if (records.getLong(H_CAPACITY) != capacity) {
+            close();
+            throw new IllegalStateException("Store at " + directory + " was created with capacity "
+                    + records.getLong(H_CAPACITY) + ", configured " + capacity);
+        }
+    }
+
+    @Override
+    public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+        byte[] bytes = originalUrl.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("URL cannot be empty");
+        }
+        long hash = UrlHashing.hash(bytes);
+
+        long existing = index.getLongAcquire(findSlot(bytes, hash));
+        if (existing != 0) {
+            return read(existing);
+        }
+
+        synchronized (writeLock) {
+            long slot = findSlot(bytes, hash);
+            existing = index.getLongAcquire(slot);
+            if (existing != 0) {
+                return read(existing);
+            }
+
+            ShortUrl shortUrl = factory.apply(originalUrl);
+            while (isTaken(shortUrl.getShortKey())) { // an imported mapping got the key first
+                shortUrl = factory.apply(originalUrl);
+            }
+            insert(slot, bytes, shortUrl);
+            return shortUrl;
+        }
+    }
+
+    @Override
+    public List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        List<ShortUrl> result = new ArrayList<>(originalUrls.size());
+        synchronized (writeLock) { // one acquisition for the batch; findOrCreate re-enters it
+            for (String originalUrl : originalUrls) {
+                result.add(findOrCreate(originalUrl, factory));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean putIfAbsent(ShortUrl shortUrl) {
+        byte[] bytes = shortUrl.getOriginalUrl().getBytes(StandardCharsets.UTF_8);
+        long hash = UrlHashing.hash(bytes);
+        synchronized (writeLock) {
+            if (isTaken(shortUrl.getShortKey())) {
+                return false;
+            }
+            long slot = findSlot(bytes, hash);
+            // An existing mapping for the same URL keeps serving idempotent creates; only the key is added
+            insert(index.getLongAcquire(slot) == 0 ? slot : -1, bytes, shortUrl);
+            return true;
+        }
+    }
+
+    @Override
+    public ShortUrl findByKey(String shortKey) {
+        long id = idOf(shortKey);
+        return id == 0 ? null : read(id);
+    }
+
+    @Override
+    public String resolve(String shortKey) {
+        long id = idOf(shortKey);
+        if (id == 0) {
+            return null;
+        }
+        long record = recordPos(id);
+        int length = records.getIntAcquire(record + R_URL_LENGTH);
+        if (length == 0) {
+            return null;
+        }
+        records.getAndAddLong(record + R_ACCESS_COUNT, 1);
+        return readUrl(record, length);
+    }
+
+    @Override
+    public void recordAccess(String shortKey) {
+        recordAccesses(shortKey, 1);
+    }
+
+    @Override
+    public void recordAccesses(String shortKey, long count) {
+        long id = idOf(shortKey);
+        if (id != 0 && records.getIntAcquire(recordPos(id) + R_URL_LENGTH) != 0) {
+            records.getAndAddLong(recordPos(id) + R_ACCESS_COUNT, count);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<ShortUrl> action) {
+        long maxId = maxId();
+        for (long id = 1; id <= maxId; id++) {
+            ShortUrl shortUrl = read(id);
+            if (shortUrl != null) {
+                action.accept(shortUrl);
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return records.getLongAcquire(H_SIZE);
+    }
+
+    @Override
+    public long maxId() {
+        return records.getLongAcquire(H_MAX_ID);
+    }
+
+    @Override
+    public void close() {
+        try {
+            records.close();
+            urls.close();
+            index.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Must be called while holding writeLock; a slot of -1 stores the record without indexing its URL
+    private void insert(long slot, byte[] bytes, ShortUrl shortUrl) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("URL cannot be empty");
+        }
+        long id = Base62Util.decode(shortUrl.getShortKey());
+        if (id < 1 || id > capacity) {
+            throw new IllegalStateException("URL store is full (capacity " + capacity + ")");
+        }
+        long record = recordPos(id);
+        if (records.getIntAcquire(record + R_URL_LENGTH) != 0) {
+            throw new IllegalStateException("Duplicate id for key " + shortUrl.getShortKey());
+        }
+
+        long tail = records.getLong(H_ARENA_TAIL);
+        if (tail + bytes.length > urls.size()) {
+            throw new IllegalStateException("URL arena is full (" + urls.size() + " bytes)");
+        }
+        urls.write(tail, bytes, 0, bytes.length);
+        records.putLong(record + R_URL_OFFSET, tail);
+        records.putLong(record + R_CREATED_AT, toEpochMillis(shortUrl.getCreatedAt()));
+        records.putLong(record + R_ACCESS_COUNT, shortUrl.getAccessCount());
+        records.putIntRelease(record + R_URL_LENGTH, bytes.length);
+
+        records.putLong(H_ARENA_TAIL, tail + bytes.length);
+        records.putLong(H_SIZE, records.getLong(H_SIZE) + 1);
+        records.putLongRelease(H_MAX_ID, Math.max(records.getLong(H_MAX_ID), id));
+        if (slot >= 0) {
+            index.putLongRelease(slot, id);
+        }
+    }
+
+    private ShortUrl read(long id) {
+        long record = recordPos(id);
+        int length = records.getIntAcquire(record + R_URL_LENGTH);
+        if (length == 0) {
+            return null;
+        }
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(readUrl(record, length));
+        shortUrl.setShortKey(Base62Util.encode(id));
+        shortUrl.setCreatedAt(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(records.getLong(record + R_CREATED_AT)), ZoneId.systemDefault()));
+        shortUrl.setAccessCount(records.getLongAcquire(record + R_ACCESS_COUNT));
+        return shortUrl;
+    }
+
+    private String readUrl(long record, int length) {
+        byte[] bytes = new byte[length];
+        urls.read(records.getLong(record + R_URL_OFFSET), bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Probes the index for the URL. Returns the position of the slot holding its id,
+     * or of the empty slot where it would be inserted.
+     */
+    private long findSlot(byte[] bytes, long hash) {
+        long i = hash & indexMask;
+        while (true) {
+            long pos = i * Long.BYTES;
+            long id = index.getLongAcquire(pos);
+            if (id == 0 || urlEquals(id, bytes)) {
+                return pos;
+            }
+            i = (i + 1) & indexMask;
+        }
+    }
+
+    private boolean urlEquals(long id, byte[] bytes) {
+        long record = recordPos(id);
+        if (records.getIntAcquire(record + R_URL_LENGTH) != bytes.length) {
+            return false;
+        }
+        byte[] stored = new byte[bytes.length];
+        urls.read(records.getLong(record + R_URL_OFFSET), stored, 0, bytes.length);
+        return Arrays.equals(stored, bytes);
+    }
+
+    /**
+     * @return numeric id for a short key, or 0 if the key is malformed or out of range
+     */
+    // Guarded by writeLock
+    private boolean isTaken(String shortKey) {
+        long id = idOf(shortKey);
+        return id != 0 && records.getIntAcquire(recordPos(id) + R_URL_LENGTH) != 0;
+    }
+
+    private long idOf(String shortKey) {
+        long id = ShortKeys.idOf(shortKey);
+        return id <= capacity ? id : 0;
+    }
+
+    private static long recordPos(long id) {
+        return HEADER_BYTES + (id - 1) * RECORD_BYTES;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
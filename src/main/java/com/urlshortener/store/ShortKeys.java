@@ -0,0 +1,22 @@
+package com.urlshortener.store;
+
+import com.urlshortener.util.Base62Util;
+
+/**
+ * Maps user-supplied short keys to the numeric ids used by the id-addressed stores.
+ */
+final class ShortKeys {
+
+    private ShortKeys() {
+    }
+
+    /**
+     * @return the id for a canonical Base62 key, or 0 for a malformed, non-canonical or out of range key
+     */
+    static long idOf(String shortKey) {
+        if (shortKey == null || shortKey.isEmpty() || shortKey.charAt(0) == '0') {
+            return 0; // encode() never produces leading zeros, so "01" must not alias "1"
+        }
+        return Math.max(0, Base62Util.tryDecode(shortKey));
+    }
+}
@@ -0,0 +1,37 @@
+package com.urlshortener.store;
+
+/**
+ * 64-bit hashing of URLs and keys, for the open-addressing reverse indexes and the cluster hash ring.
+ */
+public final class UrlHashing {
+
+    private UrlHashing() {
+    }
+
+    // FNV-1a with a final avalanche step so that linear probing sees well-spread slots
+    public static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // Same scheme over UTF-16 chars, for URLs and keys kept as Strings
+    public static long hash(String url) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            h ^= url.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,137 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Storage SPI for URL mappings.
+ * Implementations keep both directions of the mapping:
+ * - shortKey -> ShortUrl, used by redirects
+ * - originalUrl -> shortKey, used to keep shortening idempotent
+ * All methods must be safe to call from many request threads at once.
+ */
+public interface UrlStore extends AutoCloseable {
+
+    /**
+     * Returns the mapping for the given URL, creating it with the factory if it does not exist yet.
+     * The factory is invoked at most once per URL, even under concurrent calls, unless the key it returns is
+     * already taken (an id handed out just before an import reserved it): then it is invoked again and only
+     * the last mapping it built is stored.
+     *
+     * @param originalUrl normalized original URL
+     * @param factory     builds the new mapping (short key, timestamps) for a URL seen for the first time
+     * @return the existing or newly created mapping
+     */
+    ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory);
+
+    /**
+     * Batch form of {@link #findOrCreate}: resolves every URL, creating the missing mappings.
+     * Stores with a write lock override this to take it once for the whole batch.
+     * The factory is called from the calling thread only.
+     *
+     * @param originalUrls normalized original URLs; duplicates resolve to the same mapping
+     * @param factory      builds the new mapping for a URL seen for the first time
+     * @return the existing or newly created mappings, in the order of the input
+     */
+    default List<ShortUrl> findOrCreateAll(List<String> originalUrls, Function<String, ShortUrl> factory) {
+        List<ShortUrl> result = new ArrayList<>(originalUrls.size());
+        for (String originalUrl : originalUrls) {
+            result.add(findOrCreate(originalUrl, factory));
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an already-built mapping (e.g. one restored from a snapshot or log) if its key is not present.
+     *
+     * @param shortUrl mapping with key, URL, creation time and access count set
+     * @return true if the mapping was inserted, false if the key already existed
+     */
+    boolean putIfAbsent(ShortUrl shortUrl);
+
+    /**
+     * @param shortKey the short key
+     * @return the mapping for the key, or null if it does not exist
+     */
+    ShortUrl findByKey(String shortKey);
+
+    /**
+     * Looks up the original URL for a redirect and records the access.
+     *
+     * @param shortKey the short key
+     * @return original URL, or null if the key does not exist
+     */
+    String resolve(String shortKey);
+
+    /**
+     * Reads the original URL like {@link #resolve} without counting an access, e.g. for warm-up redirects.
+     * Decorators pass it on, so it takes the same path through them (caches, key filters) as a redirect.
+     *
+     * @param shortKey the short key
+     * @return original URL, or null if the key does not exist
+     */
+    default String peek(String shortKey) {
+        ShortUrl shortUrl = findByKey(shortKey);
+        return shortUrl == null ? null : shortUrl.getOriginalUrl();
+    }
+
+    /**
+     * Records a redirect of a key whose URL was served from a cache, without reading the mapping.
+     * Stores that can bump the access count directly override this.
+     *
+     * @param shortKey the short key
+     */
+    default void recordAccess(String shortKey) {
+        resolve(shortKey);
+    }
+
+    /**
+     * Adds several accesses at once, e.g. access counts replicated from another node.
+     * Stores that can add to the access count directly override this.
+     *
+     * @param shortKey the short key
+     * @param count    accesses to add
+     */
+    default void recordAccesses(String shortKey, long count) {
+        for (long i = 0; i < count; i++) {
+            recordAccess(shortKey);
+        }
+    }
+
+    /**
+     * Deletes a mapping in both directions, e.g. when it expires. Its short key is not reused, and
+     * shortening the same URL again creates a new mapping.
+     *
+     * @param shortKey the short key
+     * @return true if the mapping existed and was removed
+     * @throws UnsupportedOperationException if the store cannot delete mappings
+     */
+    default boolean remove(String shortKey) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removing mappings");
+    }
+
+    /**
+     * Visits every stored mapping. Mappings created concurrently may or may not be visited.
+     *
+     * @param action callback receiving each mapping
+     */
+    void forEach(Consumer<ShortUrl> action);
+
+    /**
+     * @return number of stored mappings
+     */
+    long size();
+
+    /**
+     * @return highest numeric id (decoded short key) held by the store, 0 when empty
+     */
+    long maxId();
+
+    @Override
+    default void close() {
+    }
+}
@@ -1,21 +1,133 @@
 package com.urlshortener.util;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Table-driven Base62 codec for short keys (alphabet 0-9, a-z, A-Z).
+ * Encoding writes digits straight into a right-sized array; decoding is allocation-free.
+ */
 public final class Base62Util {
     private static final char[] ALPHABET =
             "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
 
+    private static final byte[] ALPHABET_BYTES = new String(ALPHABET).getBytes(StandardCharsets.US_ASCII);
+
+    // char -> digit value, -1 for characters outside the alphabet
+    private static final byte[] DIGITS = new byte[128];
+
+    // Longest encoding of a non-negative long: 62^10 < Long.MAX_VALUE < 62^11
+    public static final int MAX_LENGTH = 11;
+
+    private static final long MAX_BEFORE_MULTIPLY = Long.MAX_VALUE / 62;
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DIGITS[ALPHABET[i]] = (byte) i;
+        }
+    }
+
     private Base62Util() {
     }
 
     public static String encode(long value) {
         if (value == 0) return "0";
-        StringBuilder sb = new StringBuilder();
+        byte[] digits = new byte[length(value)];
+        encode(value, digits, 0);
+        return new String(digits, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the encoding of {@code value} into {@code dst} starting at {@code offset}.
+     *
+     * @return number of characters written, at most {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException if value is negative
+     * @throws ArrayIndexOutOfBoundsException if dst is too small
+     */
+    public static int encode(long value, char[] dst, int offset) {
+        int length = length(value);
         long v = value;
-        while (v > 0) {
-            int idx = (int) (v % 62);
-            sb.append(ALPHABET[idx]);
+        for (int i = offset + length - 1; i >= offset; i--) {
+            dst[i] = ALPHABET[(int) (v % 62)];
             v /= 62;
         }
-        return sb.reverse().toString();
+        return length;
+    }
+
+    /**
+     * Writes the US-ASCII encoding of {@code value} into {@code dst} starting at {@code offset}.
+     *
+     * @return number of bytes written, at most {@link #MAX_LENGTH}
+     * @throws IllegalArgumentException if value is negative
+     * @throws ArrayIndexOutOfBoundsException if dst is too small
+     */
+    public static int encode(long value, byte[] dst, int offset) {
+        int length = length(value);
+        long v = value;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            dst[i] = ALPHABET_BYTES[(int) (v % 62)];
+            v /= 62;
+        }
+        return length;
+    }
+
+    /**
+     * @return number of Base62 digits needed for the value
+     * @throws IllegalArgumentException if value is negative
+     */
+    public static int length(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Cannot encode negative value: " + value);
+        }
+        int length = 1;
+        for (long v = value / 62; v > 0; v /= 62) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Decodes a Base62 key back to its numeric value.
+     *
+     * @throws IllegalArgumentException if the key is empty, contains a character outside the
+     *                                  alphabet, or does not fit in a long
+     */
+    public static long decode(CharSequence key) {
+        long value = tryDecode(key);
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid Base62 key: " + key);
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a Base62 key without throwing, for validating untrusted input on hot paths.
+     *
+     * @return the decoded value, or -1 if the key is null, empty, contains a character outside
+     * the alphabet, or does not fit in a long
+     */
+    public static long tryDecode(CharSequence key) {
+        if (key == null) {
+            return -1;
+        }
+        int length = key.length();
+        if (length == 0 || length > MAX_LENGTH) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            int digit = c < 128 ? DIGITS[c] : -1;
+            if (digit < 0 || value > MAX_BEFORE_MULTIPLY) {
+                return -1;
+            }
+            value = value * 62;
+            if (value > Long.MAX_VALUE - digit) {
+                return -1;
+            }
+            value += digit;
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
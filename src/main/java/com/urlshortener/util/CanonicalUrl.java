@@ -0,0 +1,10 @@
+package com.urlshortener.util;
+
+/**
+ * Result of {@link UrlCanonicalizer#canonicalize}.
+ *
+ * @param url  normalized spelling of the URL, the one mappings are stored under
+ * @param host lowercase host, without trailing dot or port (IPv6 literals keep their brackets)
+ */
+public record CanonicalUrl(String url, String host) {
+}
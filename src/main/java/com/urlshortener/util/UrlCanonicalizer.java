@@ -0,0 +1,464 @@
+package com.urlshortener.util;
+
+import java.net.IDN;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass validator and canonicalizer of http(s) URLs, so spellings of the same resource share one
+ * short key.
+ * <p>
+ * The normal form follows the syntax- and scheme-based normalizations of RFC 3986 (section 6.2):
+ * <ul>
+ *   <li>scheme and host are lowercased, and a non-ASCII host is converted to its IDNA (punycode) form</li>
+ *   <li>the trailing dot of a fully qualified host is dropped</li>
+ *   <li>an empty or default port (80 for http, 443 for https) is dropped, leading zeros of others too</li>
+ *   <li>an empty path becomes "/", and "." and ".." segments are removed</li>
+ *   <li>percent-escapes of unreserved characters are decoded, the hex digits of the others uppercased</li>
+ *   <li>non-ASCII characters outside the host are percent-encoded as UTF-8</li>
+ * </ul>
+ * Userinfo, query and fragment are otherwise kept as written; query parameters are not reordered.
+ * <p>
+ * The URL is read once, left to right, without building a {@link java.net.URI}. Output is written only
+ * from the first character that differs from the input, so an already canonical URL allocates no copy:
+ * the result holds the (trimmed) input itself and the host is its only new string.
+ */
+public final class UrlCanonicalizer {
+
+    static final String MISSING_HOST = "URL must include scheme and host";
+    static final String UNSUPPORTED_SCHEME = "URL must start with http:// or https://";
+    static final String INVALID_HOST = "URL has an invalid host";
+    static final String INVALID_PORT = "URL has an invalid port";
+
+    // Character classes of the ASCII range, as bit masks
+    private static final byte UNRESERVED = 1;
+    private static final byte HOST = 2;
+    private static final byte USERINFO = 4;
+    private static final byte PATH = 8;
+    private static final byte QUERY = 16;
+    private static final byte SCHEME = 32;
+
+    private static final byte[] CLASSES = new byte[128];
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            boolean alphaNum = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+            boolean unreserved = alphaNum || "-._~".indexOf(c) >= 0;
+            boolean subDelim = "!$&'()*+,;=".indexOf(c) >= 0;
+            int classes = 0;
+            if (unreserved) {
+                classes |= UNRESERVED;
+            }
+            if (alphaNum || "-._".indexOf(c) >= 0) {
+                classes |= HOST;
+            }
+            if (unreserved || subDelim || c == ':') {
+                classes |= USERINFO;
+            }
+            if (unreserved || subDelim || c == ':' || c == '@') {
+                classes |= PATH;
+            }
+            // Brackets are not allowed unescaped by RFC 3986 but common in query strings ("a[]=1")
+            if (unreserved || subDelim || ":@/?[]".indexOf(c) >= 0) {
+                classes |= QUERY;
+            }
+            if (alphaNum || "+-.".indexOf(c) >= 0) {
+                classes |= SCHEME;
+            }
+            CLASSES[c] = (byte) classes;
+        }
+    }
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * @param url URL to check, surrounding whitespace is ignored
+     * @return normal form and host of the URL
+     * @throws IllegalArgumentException if the URL is blank, not an absolute http(s) URL with a host, or
+     *                                  contains a character or escape that is not allowed where it appears
+     */
+    public static CanonicalUrl canonicalize(String url) {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("URL cannot be empty");
+        }
+        return new Parser(url).parse();
+    }
+
+    private static boolean is(char c, byte mask) {
+        return c < 128 && (CLASSES[c] & mask) != 0;
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        char l = lower(c);
+        return l >= 'a' && l <= 'f' ? l - 'a' + 10 : -1;
+    }
+
+    /**
+     * One pass over one URL. While {@code out} is null the output written so far equals the input from
+     * {@code begin} on, and only its {@code length} is tracked.
+     */
+    private static final class Parser {
+        private final String in;
+        private final int begin;
+        private final int end;
+
+        private StringBuilder out;
+        private int length;
+
+        Parser(String in) {
+            int b = 0;
+            int e = in.length();
+            while (b < e && in.charAt(b) <= ' ') {
+                b++;
+            }
+            while (e > b && in.charAt(e - 1) <= ' ') {
+                e--;
+            }
+            this.in = in;
+            this.begin = b;
+            this.end = e;
+        }
+
+        CanonicalUrl parse() {
+            int colon = schemeEnd();
+            if (colon < 0 || colon + 2 >= end || in.charAt(colon + 1) != '/' || in.charAt(colon + 2) != '/') {
+                throw new IllegalArgumentException(MISSING_HOST);
+            }
+            int schemeLength = colon - begin;
+            boolean http = schemeLength == 4 && in.regionMatches(true, begin, "http", 0, 4);
+            boolean https = schemeLength == 5 && in.regionMatches(true, begin, "https", 0, 5);
+            if (!http && !https) {
+                throw new IllegalArgumentException(UNSUPPORTED_SCHEME);
+            }
+            for (int i = begin; i < colon; i++) {
+                put(lower(in.charAt(i)));
+            }
+            put(':');
+            put('/');
+            put('/');
+
+            int i = colon + 3;
+            int authorityEnd = i;
+            while (authorityEnd < end && "/?#".indexOf(in.charAt(authorityEnd)) < 0) {
+                authorityEnd++;
+            }
+            int at = in.lastIndexOf('@', authorityEnd - 1);
+            if (at >= i) {
+                component(i, at, USERINFO);
+                put('@');
+                i = at + 1;
+            }
+            int hostStart = length;
+            i = host(i, authorityEnd);
+            int hostEnd = length;
+            if (i < authorityEnd) {
+                port(i + 1, authorityEnd, https ? 443 : 80);
+            }
+
+            int pathEnd = authorityEnd;
+            while (pathEnd < end && in.charAt(pathEnd) != '?' && in.charAt(pathEnd) != '#') {
+                pathEnd++;
+            }
+            path(authorityEnd, pathEnd);
+            i = pathEnd;
+            if (i < end && in.charAt(i) == '?') {
+                put('?');
+                int queryEnd = in.indexOf('#', i + 1);
+                queryEnd = queryEnd < 0 || queryEnd > end ? end : queryEnd;
+                component(i + 1, queryEnd, QUERY);
+                i = queryEnd;
+            }
+            if (i < end) {
+                put('#');
+                component(i + 1, end, QUERY);
+            }
+
+            String url = out != null ? out.toString() : in.substring(begin, begin + length);
+            return new CanonicalUrl(url, url.substring(hostStart, hostEnd));
+        }
+
+        // Index of the colon ending a syntactically valid scheme, or -1
+        private int schemeEnd() {
+            if (!Character.isLetter(in.charAt(begin)) || in.charAt(begin) >= 128) {
+                return -1;
+            }
+            for (int i = begin + 1; i < end; i++) {
+                char c = in.charAt(i);
+                if (c == ':') {
+                    return i;
+                }
+                if (!is(c, SCHEME)) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+
+        // Writes the host and returns the index of the port's colon, or authorityEnd
+        private int host(int from, int authorityEnd) {
+            int start = length;
+            if (from < authorityEnd && in.charAt(from) == '[') {
+                int close = in.indexOf(']', from);
+                if (close < 0 || close >= authorityEnd || close == from + 1) {
+                    throw new IllegalArgumentException(INVALID_HOST);
+                }
+                put('[');
+                for (int i = from + 1; i < close; i++) {
+                    char c = in.charAt(i);
+                    if (hexValue(c) < 0 && c != ':' && c != '.') {
+                        throw new IllegalArgumentException(INVALID_HOST);
+                    }
+                    put(lower(c));
+                }
+                put(']');
+                if (close + 1 < authorityEnd && in.charAt(close + 1) != ':') {
+                    throw new IllegalArgumentException(INVALID_HOST);
+                }
+                return close + 1;
+            }
+            int i = from;
+            for (; i < authorityEnd; i++) {
+                char c = in.charAt(i);
+                if (c == ':') {
+                    break;
+                }
+                if (c >= 128) {
+                    i = internationalHost(from, authorityEnd, start);
+                    break;
+                }
+                if (!is(c, HOST)) {
+                    throw new IllegalArgumentException(INVALID_HOST);
+                }
+                put(lower(c));
+            }
+            // "example.com." names the same host as "example.com"
+            if (length > start && charAt(length - 1) == '.') {
+                truncate(length - 1);
+            }
+            if (length == start) {
+                throw new IllegalArgumentException(MISSING_HOST);
+            }
+            for (int k = start; k < length; k++) {
+                if (charAt(k) == '.' && (k == start || k == length - 1 || charAt(k - 1) == '.')) {
+                    throw new IllegalArgumentException(INVALID_HOST);
+                }
+            }
+            return i;
+        }
+
+        // Rewrites the host from its start as IDNA ASCII and returns the index after it
+        private int internationalHost(int from, int authorityEnd, int start) {
+            int hostEnd = in.indexOf(':', from);
+            hostEnd = hostEnd < 0 || hostEnd > authorityEnd ? authorityEnd : hostEnd;
+            String ascii;
+            try {
+                ascii = IDN.toASCII(in.substring(from, hostEnd));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(INVALID_HOST);
+            }
+            truncate(start);
+            for (int i = 0; i < ascii.length(); i++) {
+                char c = ascii.charAt(i);
+                if (!is(c, HOST)) {
+                    throw new IllegalArgumentException(INVALID_HOST);
+                }
+                put(lower(c));
+            }
+            return hostEnd;
+        }
+
+        private void port(int from, int to, int defaultPort) {
+            int value = 0;
+            for (int i = from; i < to; i++) {
+                char c = in.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new IllegalArgumentException(INVALID_PORT);
+                }
+                value = value * 10 + (c - '0');
+                if (value > 65535) {
+                    throw new IllegalArgumentException(INVALID_PORT);
+                }
+            }
+            if (from == to || value == defaultPort) {
+                return;
+            }
+            put(':');
+            int i = from;
+            while (i < to - 1 && in.charAt(i) == '0') {
+                i++;
+            }
+            for (; i < to; i++) {
+                put(in.charAt(i));
+            }
+        }
+
+        private void path(int from, int to) {
+            int start = length;
+            put('/');
+            if (from == to) {
+                return;
+            }
+            boolean dotSegments = false;
+            int segment = length;
+            for (int i = from + 1; i < to; ) {
+                if (in.charAt(i) == '/') {
+                    dotSegments |= isDotSegment(segment);
+                    put('/');
+                    segment = length;
+                    i++;
+                } else {
+                    i = next(i, to, PATH);
+                }
+            }
+            if (dotSegments || isDotSegment(segment)) {
+                removeDotSegments(start);
+            }
+        }
+
+        private boolean isDotSegment(int segment) {
+            int n = length - segment;
+            return (n == 1 || n == 2) && charAt(segment) == '.' && charAt(length - 1) == '.';
+        }
+
+        // Rare, so done on the written path rather than during the pass (RFC 3986 section 5.2.4)
+        private void removeDotSegments(int start) {
+            String path = output().substring(start);
+            List<String> segments = new ArrayList<>();
+            for (int from = 1; ; ) {
+                int slash = path.indexOf('/', from);
+                boolean last = slash < 0;
+                String segment = path.substring(from, last ? path.length() : slash);
+                if (segment.equals("..")) {
+                    if (!segments.isEmpty()) {
+                        segments.remove(segments.size() - 1);
+                    }
+                } else if (!segment.equals(".")) {
+                    segments.add(segment);
+                }
+                if (last) {
+                    // A path ending in a dot segment names a directory
+                    if (segment.equals(".") || segment.equals("..")) {
+                        segments.add("");
+                    }
+                    break;
+                }
+                from = slash + 1;
+            }
+            truncate(start);
+            for (String segment : segments) {
+                put('/');
+                for (int i = 0; i < segment.length(); i++) {
+                    put(segment.charAt(i));
+                }
+            }
+        }
+
+        private void component(int from, int to, byte allowed) {
+            for (int i = from; i < to; ) {
+                i = next(i, to, allowed);
+            }
+        }
+
+        // Writes the character (or escape) at i and returns the index after it
+        private int next(int i, int to, byte allowed) {
+            char c = in.charAt(i);
+            if (is(c, allowed)) {
+                put(c);
+                return i + 1;
+            }
+            if (c == '%') {
+                int high = i + 2 < to ? hexValue(in.charAt(i + 1)) : -1;
+                int low = high < 0 ? -1 : hexValue(in.charAt(i + 2));
+                if (low < 0) {
+                    throw new IllegalArgumentException("URL has a malformed percent-escape at index " + (i - begin));
+                }
+                int value = high << 4 | low;
+                if (is((char) value, UNRESERVED)) {
+                    put((char) value);
+                } else {
+                    putEscaped(value);
+                }
+                return i + 3;
+            }
+            if (c >= 128) {
+                int codePoint = c;
+                int next = i + 1;
+                if (Character.isHighSurrogate(c) && next < to && Character.isLowSurrogate(in.charAt(next))) {
+                    codePoint = Character.toCodePoint(c, in.charAt(next++));
+                } else if (Character.isSurrogate(c)) {
+                    throw invalidCharacter(i);
+                }
+                putUtf8(codePoint);
+                return next;
+            }
+            throw invalidCharacter(i);
+        }
+
+        private IllegalArgumentException invalidCharacter(int i) {
+            return new IllegalArgumentException("URL has an invalid character at index " + (i - begin));
+        }
+
+        private void putUtf8(int codePoint) {
+            if (codePoint < 0x800) {
+                putEscaped(0xC0 | codePoint >> 6);
+            } else {
+                if (codePoint < 0x10000) {
+                    putEscaped(0xE0 | codePoint >> 12);
+                } else {
+                    putEscaped(0xF0 | codePoint >> 18);
+                    putEscaped(0x80 | (codePoint >> 12 & 0x3F));
+                }
+                putEscaped(0x80 | (codePoint >> 6 & 0x3F));
+            }
+            putEscaped(0x80 | (codePoint & 0x3F));
+        }
+
+        private void putEscaped(int value) {
+            put('%');
+            put(HEX[value >> 4]);
+            put(HEX[value & 0xF]);
+        }
+
+        private void put(char c) {
+            if (out == null) {
+                int i = begin + length;
+                if (i < end && in.charAt(i) == c) {
+                    length++;
+                    return;
+                }
+                output();
+            }
+            out.append(c);
+            length++;
+        }
+
+        private char charAt(int index) {
+            return out == null ? in.charAt(begin + index) : out.charAt(index);
+        }
+
+        private void truncate(int newLength) {
+            if (out != null) {
+                out.setLength(newLength);
+            }
+            length = newLength;
+        }
+
+        // Starts writing a copy, from the unchanged prefix written so far
+        private StringBuilder output() {
+            if (out == null) {
+                out = new StringBuilder(end - begin + 16).append(in, begin, begin + length);
+            }
+            return out;
+        }
+    }
+}
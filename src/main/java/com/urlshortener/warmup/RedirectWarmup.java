@@ -0,0 +1,144 @@
+package com.urlshortener.warmup;
+
+import com.urlshortener.store.IdBitmap;
+import com.urlshortener.util.Base62Util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Sends redirect requests to this node over loopback before it takes traffic, so the server stack,
+ * the redirect fast path (or {@code RedirectionController}), the service and the store lookups are loaded
+ * and compiled by the JIT before the first real request.
+ * <p>
+ * Requests alternate between existing keys, answered 302 through the same lookup, cache, click recording,
+ * {@code Location} header and click event code as real redirects, and a key no node can have issued,
+ * answered 404. The existing keys are requested with the node's {@link #TOKEN_HEADER}, so they are resolved
+ * with {@code UrlShortenerService.peekOriginalUrl}: the warm-up writes nothing, no mapping, click, access
+ * count or published click event, only the redirect miss counter. Requests run on a few threads over
+ * keep-alive connections and stop early at the deadline, so a slow start is never held up for long.
+ */
+public class RedirectWarmup {
+
+    /**
+     * Request header carrying {@code UrlShortenerService.warmupToken()}; redirects with it are not counted.
+     */
+    public static final String TOKEN_HEADER = "X-Warmup-Token";
+
+    // Just above the highest id a store can hold, so its keys are always unknown
+    static final long UNKNOWN_ID = IdBitmap.MAX_ID + 1;
+
+    private final URI redirectBase;
+    private final int requests;
+    private final int concurrency;
+    private final Duration maxDuration;
+
+    /**
+     * @param redirectBase base URI that short keys are appended to, e.g. {@code http://127.0.0.1:8080/r/}
+     * @param requests     total requests to send
+     * @param concurrency  requests in flight at once
+     * @param maxDuration  time after which the remaining requests are skipped
+     */
+    public RedirectWarmup(URI redirectBase, int requests, int concurrency, Duration maxDuration) {
+        if (requests < 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("requests must not be negative and concurrency must be positive");
+        }
+        this.redirectBase = redirectBase;
+        this.requests = requests;
+        this.concurrency = concurrency;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * @param ownedHere whether this node answers a key itself; in cluster mode other nodes' keys are forwarded
+     * @return the first never-issued key at or above {@link #UNKNOWN_ID} that this node answers itself
+     */
+    public static String unknownKey(Predicate<String> ownedHere) {
+        for (long id = UNKNOWN_ID; ; id++) {
+            String key = Base62Util.encode(id);
+            if (ownedHere.test(key)) {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * @param unknownKey key that is never issued, from {@link #unknownKey}
+     * @param hitKeys    existing keys this node answers itself; without any, every request is a miss
+     * @param token      the node's warm-up token, sent with requests for {@code hitKeys}
+     * @return requests sent and how many were not answered as expected (302 for hit keys, 404 otherwise)
+     */
+    public Result run(String unknownKey, List<String> hitKeys, String token) throws InterruptedException {
+        HttpRequest miss = HttpRequest.newBuilder(redirectBase.resolve(unknownKey)).timeout(Duration.ofSeconds(5)).build();
+        List<HttpRequest> hits = new ArrayList<>(hitKeys.size());
+        for (String key : hitKeys) {
+            hits.add(HttpRequest.newBuilder(redirectBase.resolve(key))
+                    .header(TOKEN_HEADER, token)
+                    .timeout(Duration.ofSeconds(5))
+                    .build());
+        }
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService threads = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "redirect-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        try {
+            List<Future<?>> workers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(threads.submit(() -> {
+                    int n;
+                    while ((n = next.getAndIncrement()) < requests && System.nanoTime() < deadline) {
+                        sent.incrementAndGet();
+                        boolean hit = !hits.isEmpty() && n % 2 == 0;
+                        HttpRequest request = hit ? hits.get(n / 2 % hits.size()) : miss;
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status != (hit ? 302 : 404)) {
+                                failed.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Warm-up request failed", e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+        return new Result(sent.get(), failed.get());
+    }
+
+    /**
+     * @param sent   requests sent, fewer than requested if the deadline passed
+     * @param failed requests that failed or were answered with an unexpected status
+     */
+    public record Result(int sent, int failed) {
+    }
+}
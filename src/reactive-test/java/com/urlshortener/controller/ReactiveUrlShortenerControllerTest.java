@@ -0,0 +1,112 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive", "app.batch.chunk-size=2"})
+class ReactiveUrlShortenerControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private UrlShortenerService service;
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Test
+    void servesOnTheReactiveStackOnly() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+        assertEquals(1, context.getBeanNamesForType(NettyRedirectRoutes.class).length);
+        assertEquals(0, context.getBeanNamesForType(UrlShortenerController.class).length);
+        assertEquals(0, context.getBeanNamesForType(RedirectionController.class).length);
+    }
+
+    @Test
+    void shortenThenRedirect() {
+        client.post().uri("/api/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"originalUrl\":\"HTTPS://Reactive.Example/a\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.originalUrl").isEqualTo("https://reactive.example/a")
+                .jsonPath("$.shortUrl").isNotEmpty();
+        String key = service.createShortUrl("https://reactive.example/a").getShortKey();
+
+        client.get().uri("/r/" + key).exchange()
+                .expectStatus().isFound()
+                .expectHeader().valueEquals("Location", "https://reactive.example/a");
+    }
+
+    @Test
+    void errorsMatchTheServletStack() {
+        client.get().uri("/r/unknownKey").exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Short URL not found")
+                .jsonPath("$.path").isEqualTo("URL Redirection");
+        client.post().uri("/api/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"originalUrl\":\"ftp://reactive.example/file\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Bad Request")
+                .jsonPath("$.message").isEqualTo("URL must start with http:// or https://");
+        client.post().uri("/api/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"originalUrl\":\"\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Error")
+                .jsonPath("$.errors.originalUrl").isEqualTo("URL cannot be empty");
+    }
+
+    @Test
+    void batchJsonArrayAndNdjsonStream() {
+        client.post().uri("/api/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"originalUrl\":\"https://batch.reactive/1\"},{\"originalUrl\":\"nope\"}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].originalUrl").isEqualTo("https://batch.reactive/1")
+                .jsonPath("$[1].error").isEqualTo("URL must include scheme and host");
+
+        String body = "{\"originalUrl\":\"https://stream.reactive/1\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"originalUrl\":\"https://stream.reactive/2\"}\n"
+                + "{\"originalUrl\":\"https://stream.reactive/1\"}\n";
+        String response = client.post().uri("/api/shorten/batch")
+                .contentType(MediaType.parseMediaType(ShortenResults.NDJSON))
+                .accept(MediaType.parseMediaType(ShortenResults.NDJSON))
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        String[] lines = response.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("https://stream.reactive/1"));
+        assertTrue(lines[1].contains("Malformed JSON line"));
+        assertTrue(lines[2].contains("https://stream.reactive/2"));
+        assertEquals(lines[0], lines[3]);
+        assertFalse(lines[0].contains("error"));
+    }
+}
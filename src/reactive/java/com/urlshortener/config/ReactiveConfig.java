@@ -0,0 +1,36 @@
+package com.urlshortener.config;
+
+import com.urlshortener.controller.NettyRedirectRoutes;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Reactive (Reactor Netty) web setup, built with the {@code reactive} Maven profile and active with
+ * {@code spring.main.web-application-type=reactive} (the reactive Spring profile). That build has no Tomcat,
+ * so Spring Boot configures the Netty server itself and adds the {@link NettyRedirectRoutes} bean to it.
+ * Store, service and metrics are shared with the servlet stack; the concurrency limits and admin endpoints
+ * are servlet-only.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    /**
+     * Redirect fast path as a Reactor Netty route, ahead of Spring WebFlux.
+     * Disable with {@code app.redirect.fast-path=false} to serve redirects through the controller only.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.redirect.fast-path", havingValue = "true", matchIfMissing = true)
+    public NettyRedirectRoutes nettyRedirectRoutes(UrlShortenerService service, AppConfig appConfig,
+                                                   ObjectProvider<ClickEventPipeline> events,
+                                                   @Value("${app.cluster.enabled:false}") boolean cluster) {
+        // In cluster mode a lookup may call another node, so it must not run on the event loop
+        return new NettyRedirectRoutes(service, appConfig.getShortUrlPrefix(), events.getIfAvailable(), cluster);
+    }
+}
@@ -0,0 +1,112 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.events.ClickEvent;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.exception.LinkExpiredException;
+import com.urlshortener.exception.ServiceUnavailableException;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.warmup.RedirectWarmup;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+import java.net.InetSocketAddress;
+
+/**
+ * {@link RedirectFilter} for the reactive stack: a Reactor Netty route that answers
+ * {@code GET|HEAD <prefix><key>} with a 302 (or a preallocated 404/410/503) before the request reaches Spring
+ * WebFlux, with the same responses and click events (none for warm-up redirects). Other requests, nested paths included, go on to
+ * WebFlux ({@link ReactiveUrlShortenerController}).
+ * <p>
+ * Lookups run on the event loop, as the local stores answer from memory. With {@code blocking} (cluster
+ * mode, where a lookup may call another node) they run on the bounded elastic scheduler instead.
+ */
+public class NettyRedirectRoutes implements NettyRouteProvider {
+
+    private static final byte[] NOT_FOUND = RedirectFilter.errorBody(HttpResponseStatus.NOT_FOUND.code(),
+            "Not Found", "Short URL not found");
+    private static final byte[] GONE = RedirectFilter.errorBody(HttpResponseStatus.GONE.code(), "Gone",
+            "Short URL has expired");
+
+    private final UrlShortenerService service;
+    private final String prefix;
+    private final ClickEventPipeline events;
+    private final boolean blocking;
+
+    /**
+     * @param events   click-event pipeline, or null if click events are disabled
+     * @param blocking whether lookups may block, so must leave the event loop
+     */
+    public NettyRedirectRoutes(UrlShortenerService service, String prefix, ClickEventPipeline events,
+                               boolean blocking) {
+        this.service = service;
+        this.prefix = prefix;
+        this.events = events;
+        this.blocking = blocking;
+    }
+
+    @Override
+    public HttpServerRoutes apply(HttpServerRoutes routes) {
+        // {key} matches one path segment
+        String template = prefix + "{key}";
+        return routes.get(template, this::redirect).head(template, this::redirect);
+    }
+
+    private Publisher<Void> redirect(HttpServerRequest request, HttpServerResponse response) {
+        String key = request.param("key");
+        return blocking
+                ? Mono.defer(() -> Mono.from(redirect(key, request, response))).subscribeOn(Schedulers.boundedElastic())
+                : redirect(key, request, response);
+    }
+
+    private Publisher<Void> redirect(String key, HttpServerRequest request, HttpServerResponse response) {
+        boolean warmup = service.isWarmup(request.requestHeaders().get(RedirectWarmup.TOKEN_HEADER));
+        String originalUrl;
+        try {
+            originalUrl = warmup ? service.peekOriginalUrl(key) : service.findOriginalUrl(key);
+        } catch (LinkExpiredException e) {
+            return error(response, HttpResponseStatus.GONE, GONE);
+        } catch (ServiceUnavailableException e) {
+            if (e.getRetryAfter() != null) {
+                response.header(HttpHeaderNames.RETRY_AFTER, e.getRetryAfter());
+            }
+            return error(response, HttpResponseStatus.SERVICE_UNAVAILABLE, RedirectFilter.UNAVAILABLE);
+        }
+        if (originalUrl == null) {
+            boolean expired = service.isExpired(key);
+            return expired ? error(response, HttpResponseStatus.GONE, GONE)
+                    : error(response, HttpResponseStatus.NOT_FOUND, NOT_FOUND);
+        }
+        response.status(HttpResponseStatus.FOUND)
+                .header(HttpHeaderNames.LOCATION, RedirectFilter.location(originalUrl));
+        if (events != null) {
+            ClickEvent event = clickEvent(key, request);
+            if (!warmup) {
+                events.publish(event);
+            }
+        }
+        return response.send();
+    }
+
+    private static Publisher<Void> error(HttpServerResponse response, HttpResponseStatus status, byte[] body) {
+        return response.status(status)
+                .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                .header(HttpHeaderNames.CONTENT_LENGTH, Integer.toString(body.length))
+                .sendByteArray(Mono.just(body));
+    }
+
+    private static ClickEvent clickEvent(String key, HttpServerRequest request) {
+        InetSocketAddress remote = request.remoteAddress();
+        String address = remote == null ? null
+                : remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+        return new ClickEvent(key, System.currentTimeMillis(), request.requestHeaders().get(HttpHeaderNames.REFERER),
+                request.requestHeaders().get(HttpHeaderNames.USER_AGENT), address);
+    }
+}
@@ -0,0 +1,49 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.cluster.ClusterClient;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.service.UrlShortenerService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The reactive stack's {@link InternalController}. Creates and access counts run on the bounded elastic
+ * scheduler, as the service may write its log; lookups answer from the local shard on the event loop.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInternalController {
+
+    private final UrlShortenerService service;
+
+    public ReactiveInternalController(UrlShortenerService service) {
+        this.service = service;
+    }
+
+    @GetMapping(ClusterClient.MAPPINGS + "/{key}")
+    public Mono<Map<String, String>> lookup(@PathVariable String key) {
+        return Mono.fromCallable(() -> InternalResults.lookup(service, key));
+    }
+
+    @PostMapping(ClusterClient.MAPPINGS)
+    public Mono<List<Map<String, String>>> create(@RequestBody Mono<List<UrlRequest>> requests) {
+        return requests.publishOn(Schedulers.boundedElastic()).map(list -> InternalResults.create(service, list));
+    }
+
+    @PostMapping(ClusterClient.ACCESSES)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> recordAccesses(@RequestBody Mono<Map<String, Long>> counts) {
+        return counts.publishOn(Schedulers.boundedElastic()).doOnNext(service::recordForwardedAccesses).then();
+    }
+}
@@ -0,0 +1,125 @@
+package com.urlshortener.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.urlshortener.config.AppConfig;
+import com.urlshortener.events.ClickEvent;
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.model.UrlRequest;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.warmup.RedirectWarmup;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shorten and redirect endpoints of the reactive stack (Reactor Netty), with the same paths, bodies and
+ * errors ({@link com.urlshortener.exception.GlobalExceptionHandler}) as {@link UrlShortenerController} and
+ * {@link RedirectionController}.
+ * <p>
+ * Request bodies are read without blocking; shortening then runs on the bounded elastic scheduler, as the
+ * service may write its log or forward to another node. NDJSON batches are shortened chunk by chunk
+ * while the body streams in, and each chunk's results are written before the next is shortened.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlShortenerController {
+
+    private final UrlShortenerService service;
+    private final AppConfig appConfig;
+    private final ShortenResults results;
+
+    // Null unless app.events.enabled=true
+    private final ClickEventPipeline events;
+
+    // Where redirect lookups run: the calling event loop, or the elastic scheduler if they may block
+    private final Scheduler lookups;
+
+    public ReactiveUrlShortenerController(UrlShortenerService service, AppConfig appConfig,
+                                          ObjectMapper objectMapper, ObjectProvider<ClickEventPipeline> events,
+                                          @Value("${app.cluster.enabled:false}") boolean cluster) {
+        this.service = service;
+        this.appConfig = appConfig;
+        this.results = new ShortenResults(service, appConfig, objectMapper);
+        this.events = events.getIfAvailable();
+        this.lookups = cluster ? Schedulers.boundedElastic() : Schedulers.immediate();
+    }
+
+    @PostMapping("/api/shorten")
+    public Mono<Map<String, String>> shorten(@Valid @RequestBody Mono<UrlRequest> request) {
+        return request.publishOn(Schedulers.boundedElastic()).map(results::shorten);
+    }
+
+    /**
+     * Shortens a JSON array of requests. Results are returned in request order;
+     * an invalid URL yields an item with an error instead of failing the batch.
+     */
+    @PostMapping(value = "/api/shorten/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Map<String, String>>> shortenBatch(@RequestBody Mono<List<UrlRequest>> requests) {
+        return requests.publishOn(Schedulers.boundedElastic()).map(results::shortenBatch);
+    }
+
+    /**
+     * Shortens a streamed NDJSON body, one {"originalUrl": ...} object per line, answering one JSON object
+     * per line in input order.
+     */
+    @PostMapping(value = "/api/shorten/batch", consumes = ShortenResults.NDJSON, produces = ShortenResults.NDJSON)
+    public Flux<Map<String, String>> shortenStream(@RequestBody Flux<String> lines) {
+        return lines.filter(line -> !line.isBlank())
+                .buffer(Math.max(1, appConfig.getBatchChunkSize()))
+                .concatMap(chunk -> Mono.fromCallable(() -> results.shortenLines(chunk))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .concatMapIterable(chunkResults -> chunkResults);
+    }
+
+    /**
+     * Redirects not answered by {@link NettyRedirectRoutes} (e.g. with the fast path disabled).
+     */
+    @GetMapping("/r/{key}")
+    public Mono<ResponseEntity<Void>> redirect(@PathVariable String key, ServerHttpRequest request) {
+        boolean warmup = service.isWarmup(request.getHeaders().getFirst(RedirectWarmup.TOKEN_HEADER));
+        return Mono.fromCallable(() -> {
+                    String originalUrl = warmup ? service.peekOriginalUrl(key) : null;
+                    return originalUrl != null ? originalUrl : service.getOriginalUrl(key);
+                })
+                .subscribeOn(lookups)
+                .map(originalUrl -> {
+                    if (events != null) {
+                        ClickEvent event = clickEvent(key, request);
+                        if (!warmup) {
+                            events.publish(event);
+                        }
+                    }
+                    return ResponseEntity.status(HttpStatus.FOUND)
+                            .header(HttpHeaders.LOCATION, RedirectFilter.location(originalUrl))
+                            .build();
+                });
+    }
+
+    private static ClickEvent clickEvent(String key, ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        String address = remote == null ? null
+                : remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString();
+        HttpHeaders headers = request.getHeaders();
+        return new ClickEvent(key, System.currentTimeMillis(), headers.getFirst(HttpHeaders.REFERER),
+                headers.getFirst(HttpHeaders.USER_AGENT), address);
+    }
+}
@@ -0,0 +1,51 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.ColumnarUrlStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingUrlStoreTest {
+
+    private static ShortUrl mapping(String key, String url) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(key);
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setCreatedAt(LocalDateTime.now());
+        return shortUrl;
+    }
+
+    @Test
+    void testHitsAreServedFromCacheAndCounted() {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        CachingUrlStore store = new CachingUrlStore(new ColumnarUrlStore(), cache);
+        store.findOrCreate("https://example.com/a", url -> mapping("1", url));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("https://example.com/a", store.resolve("1"));
+        }
+        assertNull(store.resolve("2"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(4, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(1, stats.entries());
+        assertEquals(5, store.findByKey("1").getAccessCount());
+    }
+
+    @Test
+    void testInvalidateFallsBackToStore() {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        CachingUrlStore store = new CachingUrlStore(new ColumnarUrlStore(), cache);
+        store.findOrCreate("https://example.com/a", url -> mapping("1", url));
+        store.resolve("1");
+
+        store.invalidate("1");
+        assertEquals(0, cache.stats().entries());
+        assertEquals("https://example.com/a", store.resolve("1"));
+        assertEquals(2, store.findByKey("1").getAccessCount());
+    }
+}
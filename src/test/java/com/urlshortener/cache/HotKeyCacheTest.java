@@ -0,0 +1,145 @@
+package com.urlshortener.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyCacheTest {
+
+    @Test
+    void testGetPutAndStats() {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        assertNull(cache.get("a"));
+        cache.put("a", "https://example.com/a");
+        assertEquals("https://example.com/a", cache.get("a"));
+        assertEquals("https://example.com/a", cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(2.0 / 3, stats.hitRatio(), 1e-9);
+        assertEquals(1, stats.entries());
+        assertEquals(1, stats.weight());
+    }
+
+    @Test
+    void testEntryLimit() {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("k" + i, "https://example.com/" + i);
+        }
+        CacheStats stats = cache.stats();
+        assertEquals(100, stats.entries());
+        assertEquals(100, stats.weight());
+        assertEquals(9_900, stats.evictions());
+    }
+
+    @Test
+    void testByteLimit() {
+        long limit = 100 * (HotKeyCache.ENTRY_OVERHEAD_BYTES + 100L);
+        HotKeyCache cache = HotKeyCache.ofBytes(limit);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("k" + i, "https://example.com/" + "x".repeat(i % 200));
+        }
+        CacheStats stats = cache.stats();
+        assertTrue(stats.weight() <= limit, "weight " + stats.weight());
+        assertTrue(stats.entries() > 50, "entries " + stats.entries());
+    }
+
+    @Test
+    void testFrequentKeysSurviveScan() {
+        HotKeyCache cache = HotKeyCache.ofEntries(1_000);
+        for (int i = 0; i < 500; i++) {
+            cache.put("hot" + i, "https://hot.example.com/" + i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 500; i++) {
+                assertNotNull(cache.get("hot" + i));
+            }
+            cache.cleanUp();
+        }
+
+        // A scan of one-off keys ten times the cache size must not flush the popular ones
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("cold" + i, "https://cold.example.com/" + i);
+        }
+        int kept = 0;
+        for (int i = 0; i < 500; i++) {
+            if (cache.get("hot" + i) != null) {
+                kept++;
+            }
+        }
+        assertTrue(kept >= 490, "hot keys kept: " + kept);
+        assertTrue(cache.stats().rejections() > 0);
+    }
+
+    @Test
+    void testInvalidate() {
+        HotKeyCache cache = HotKeyCache.ofEntries(10);
+        cache.put("a", "https://example.com/a");
+        cache.put("b", "https://example.com/b");
+        cache.invalidate("a");
+        cache.invalidate("missing");
+
+        assertNull(cache.get("a"));
+        assertEquals("https://example.com/b", cache.get("b"));
+        assertEquals(1, cache.stats().entries());
+        assertEquals(1, cache.stats().weight());
+
+        cache.put("a", "https://example.com/a2");
+        assertEquals("https://example.com/a2", cache.get("a"));
+    }
+
+    @Test
+    void testHotKeysListProtectedThenProbationThenWindow() {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        for (String key : new String[]{"a", "b", "c", "d", "e"}) {
+            cache.put(key, "https://example.com/" + key);
+        }
+        cache.get("b");
+
+        assertEquals(List.of("b", "d", "c", "a", "e"), cache.hotKeys(10));
+        assertEquals(List.of("b", "d"), cache.hotKeys(2));
+        assertEquals(List.of(), HotKeyCache.ofEntries(10).hotKeys(10));
+    }
+
+    @Test
+    void testConcurrentAccessStaysBounded() throws Exception {
+        HotKeyCache cache = HotKeyCache.ofEntries(500);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        String key = "k" + ((i * 31 + seed) % 2_000);
+                        if (cache.get(key) == null) {
+                            cache.put(key, "https://example.com/" + key);
+                        }
+                        if (i % 1_000 == 0) {
+                            cache.invalidate(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        assertTrue(stats.entries() <= 500, "entries " + stats.entries());
+        assertEquals(stats.entries(), stats.weight());
+        assertEquals(200_000, stats.hits() + stats.misses());
+    }
+}
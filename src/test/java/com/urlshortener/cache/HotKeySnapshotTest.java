@@ -0,0 +1,70 @@
+package com.urlshortener.cache;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeySnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    private static ShortUrl mapping(String key, String url) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(key);
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setCreatedAt(LocalDateTime.now());
+        return shortUrl;
+    }
+
+    @Test
+    void testSavedKeysAreLoadedWithoutCountingAccesses() throws Exception {
+        UrlStore store = new InMemoryUrlStore();
+        store.findOrCreate("https://example.com/1", url -> mapping("1", url));
+        store.findOrCreate("https://example.com/2", url -> mapping("2", url));
+        store.findOrCreate("https://example.com/3", url -> mapping("3", url));
+
+        HotKeyCache before = HotKeyCache.ofEntries(100);
+        before.put("1", "https://example.com/1");
+        before.put("2", "https://example.com/2");
+        before.put("gone", "https://example.com/gone");
+        Path file = dir.resolve("state/hot-keys");
+        new HotKeySnapshot(before, file, 2).close();
+        assertEquals(List.of("2", "1"), Files.readAllLines(file));
+
+        HotKeyCache after = HotKeyCache.ofEntries(100);
+        assertEquals(2, new HotKeySnapshot(after, file, 2).load(store));
+        assertEquals("https://example.com/1", after.get("1"));
+        assertEquals("https://example.com/2", after.get("2"));
+        assertEquals(0, store.findByKey("1").getAccessCount());
+    }
+
+    @Test
+    void testKeysMissingFromTheStoreAreSkipped() throws Exception {
+        UrlStore store = new InMemoryUrlStore();
+        store.findOrCreate("https://example.com/1", url -> mapping("1", url));
+        Path file = dir.resolve("hot-keys");
+        Files.write(file, List.of("gone", "", "1"));
+
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        assertEquals(1, new HotKeySnapshot(cache, file, 10).load(store));
+        assertEquals("https://example.com/1", cache.get("1"));
+        assertNull(cache.get("gone"));
+    }
+
+    @Test
+    void testMissingFileLoadsNothing() throws Exception {
+        HotKeyCache cache = HotKeyCache.ofEntries(100);
+        assertEquals(0, new HotKeySnapshot(cache, dir.resolve("none"), 10).load(new InMemoryUrlStore()));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.urlshortener.cluster;
+
+import com.sun.net.httpserver.HttpServer;
+import com.urlshortener.exception.LinkExpiredException;
+import com.urlshortener.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statuses of a stub owner node mapped by {@link ClusterClient}.
+ */
+class ClusterClientTest {
+
+    private HttpServer owner;
+    private ClusterClient client;
+    private final List<String> accesses = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void start() throws Exception {
+        owner = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        owner.createContext(ClusterClient.MAPPINGS + "/", exchange -> {
+            String key = exchange.getRequestURI().getPath().substring(ClusterClient.MAPPINGS.length() + 1);
+            int status = switch (key) {
+                case "found" -> 200;
+                case "expired" -> 410;
+                case "busy", "busier" -> 503;
+                case "broken" -> 500;
+                default -> 404;
+            };
+            if (key.equals("busy")) {
+                exchange.getResponseHeaders().add("Retry-After", "3");
+            }
+            if (status == 200) {
+                byte[] body = "{\"originalUrl\":\"https://owner.example/\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            } else {
+                exchange.sendResponseHeaders(status, -1);
+            }
+            exchange.close();
+        });
+        owner.createContext(ClusterClient.MAPPINGS, exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        owner.createContext(ClusterClient.ACCESSES, exchange -> {
+            accesses.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        owner.start();
+        client = new ClusterClient(Map.of("node-0",
+                URI.create("http://127.0.0.1:" + owner.getAddress().getPort())));
+    }
+
+    @AfterEach
+    void stop() {
+        owner.stop(0);
+    }
+
+    @Test
+    void testResolveMapsOwnerStatuses() {
+        assertEquals("https://owner.example/", client.resolve("node-0", "found"));
+        assertNull(client.resolve("node-0", "missing"));
+        assertThrows(LinkExpiredException.class, () -> client.resolve("node-0", "expired"));
+
+        ServiceUnavailableException busy = assertThrows(ServiceUnavailableException.class,
+                () -> client.resolve("node-0", "busy"));
+        assertEquals("3", busy.getRetryAfter());
+        assertNull(assertThrows(ServiceUnavailableException.class,
+                () -> client.resolve("node-0", "busier")).getRetryAfter());
+
+        assertThrows(IllegalStateException.class, () -> client.resolve("node-0", "broken"));
+    }
+
+    @Test
+    void testCreatePassesUnavailableOwnerOn() {
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class,
+                () -> client.createAll("node-0", List.of("https://owner.example/a")));
+        assertEquals("1", e.getRetryAfter());
+    }
+
+    @Test
+    void testRecordAccessesPostsCountsByKey() {
+        client.recordAccesses("node-0", Map.of("abc", 3L));
+
+        assertEquals(List.of("{\"abc\":3}"), accesses);
+    }
+}
@@ -0,0 +1,164 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.HeavyHitter;
+import com.urlshortener.metrics.TimeWindow;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.UrlStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three nodes on loopback: creates and redirects sent to any node reach the owning node.
+ */
+class ClusterIntegrationTest {
+
+    private static final Pattern SHORT_KEY = Pattern.compile("\"shortKey\":\"(\\w+)\"");
+
+    private static LocalCluster cluster;
+    private static HttpClient http;
+
+    @BeforeAll
+    static void start() throws Exception {
+        cluster = new LocalCluster(3);
+        http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+    }
+
+    @AfterAll
+    static void stop() {
+        cluster.close();
+    }
+
+    private static String shorten(int node, String url) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                        URI.create(cluster.baseUrls.get(node) + "/api/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"" + url + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        Matcher matcher = SHORT_KEY.matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return matcher.group(1);
+    }
+
+    private static HttpResponse<Void> redirect(int node, String key) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(cluster.baseUrls.get(node) + "/r/" + key)).build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Test
+    void testCreatesAndRedirectsWorkFromAnyNode() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            keys.add(shorten(i % 3, "https://cluster.example/" + i));
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            for (int node = 0; node < 3; node++) {
+                HttpResponse<Void> response = redirect(node, keys.get(i));
+                assertEquals(302, response.statusCode());
+                assertEquals("https://cluster.example/" + i, response.headers().firstValue("Location").orElseThrow());
+            }
+        }
+        assertEquals(404, redirect(1, "zzzzzz").statusCode());
+
+        // Idempotent whichever node receives the create
+        assertEquals(keys.get(5), shorten(0, "https://cluster.example/5"));
+        assertEquals(keys.get(5), shorten(1, "https://cluster.example/5"));
+        assertEquals(keys.get(5), shorten(2, "https://cluster.example/5"));
+    }
+
+    @Test
+    void testEachMappingIsStoredOnItsOwnerOnly() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 90; i++) {
+            keys.add(shorten(0, "https://owner.example/" + i));
+        }
+
+        HashRing ring = cluster.bean(0, ClusterNode.class).ring();
+        for (String key : keys) {
+            int owner = Integer.parseInt(ring.ownerOfKey(key).substring("node-".length()));
+            for (int node = 0; node < 3; node++) {
+                UrlStore store = cluster.bean(node, UrlStore.class);
+                assertEquals(node == owner, store.findByKey(key) != null, key + " on node " + node);
+            }
+        }
+    }
+
+    @Test
+    void testClicksAndCreatesAreRecordedOnce() throws Exception {
+        String url = "https://once.example/counted";
+        HashRing ring = cluster.bean(0, ClusterNode.class).ring();
+        int urlOwner = Integer.parseInt(ring.ownerOfUrl(url).substring("node-".length()));
+        int receiver = (urlOwner + 1) % 3;
+        String key = shorten(receiver, url);
+        int owner = Integer.parseInt(ring.ownerOfKey(key).substring("node-".length()));
+
+        for (int node = 0; node < 3; node++) {
+            long created = cluster.bean(node, UrlShortenerService.class).getTopDomains(10, TimeWindow.ALL_TIME).stream()
+                    .filter(domain -> domain.item().equals("once.example"))
+                    .mapToLong(HeavyHitter::count)
+                    .sum();
+            assertEquals(node == receiver ? 1 : 0, created, "creates recorded on node " + node);
+        }
+
+        // Remote keys are looked up once, then served from the read cache
+        for (int node = 0; node < 3; node++) {
+            for (int i = 0; i < node + 2; i++) {
+                assertEquals(302, redirect(node, key).statusCode());
+            }
+        }
+        for (int node = 0; node < 3; node++) {
+            long clicks = cluster.bean(node, UrlShortenerService.class).getTrendingLinks(10, ClickWindow.LAST_HOUR)
+                    .stream()
+                    .filter(link -> link.item().equals(key))
+                    .mapToLong(HeavyHitter::count)
+                    .sum();
+            assertEquals(node + 2, clicks, "clicks recorded on node " + node);
+        }
+
+        // 2 + 3 + 4 redirects, whichever node served them
+        UrlStore ownerStore = cluster.bean(owner, UrlStore.class);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (ownerStore.findByKey(key).getAccessCount() < 9 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(1500); // one more flush interval: nothing is sent twice
+        assertEquals(9, ownerStore.findByKey(key).getAccessCount());
+    }
+
+    @Test
+    void testCreateWithTtlIsRejected() throws Exception {
+        for (int node = 0; node < 3; node++) {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(
+                            URI.create(cluster.baseUrls.get(node) + "/api/shorten"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"originalUrl\":\"https://ttl.example/\",\"ttlSeconds\":60}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, response.statusCode(), response.body());
+        }
+    }
+
+    @Test
+    void testExpirationIsRejectedInClusterMode() {
+        Exception e = assertThrows(Exception.class, () -> new LocalCluster(1, "--app.expiration.enabled=true"));
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertEquals("app.expiration.enabled requires app.cluster.enabled=false", cause.getMessage());
+    }
+}
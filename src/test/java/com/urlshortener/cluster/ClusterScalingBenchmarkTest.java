@@ -0,0 +1,96 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.model.BatchItem;
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redirect throughput of 1, 2 and 4 node clusters on loopback. Skipped unless a key count is given, e.g.
+ * {@code mvn test -Dtest=ClusterScalingBenchmarkTest -Dbenchmark.records=100000 -Dbenchmark.clients=32}
+ * <p>
+ * "owner" sends each redirect straight to the key's owner (client-side routing with the same ring);
+ * "any" sends it to a random node, so most requests are forwarded once (repeat keys hit the read cache).
+ * All nodes share this JVM and machine, so scaling is bounded by the cores available to the test.
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class ClusterScalingBenchmarkTest {
+
+    private static final long DURATION_MILLIS = 10_000;
+
+    @Test
+    void measureScaling() throws Exception {
+        int records = Integer.getInteger("benchmark.records");
+        int clients = Integer.getInteger("benchmark.clients", 16);
+        for (int nodes : new int[]{1, 2, 4}) {
+            try (LocalCluster cluster = new LocalCluster(nodes)) {
+                UrlShortenerService seed = cluster.bean(0, UrlShortenerService.class);
+                List<String> urls = new ArrayList<>(records);
+                for (int i = 0; i < records; i++) {
+                    urls.add("https://scale.example/" + i);
+                }
+                String[] keys = new String[records];
+                for (int from = 0; from < records; from += 1000) {
+                    List<String> chunk = urls.subList(from, Math.min(records, from + 1000));
+                    List<BatchItem> items = seed.createShortUrls(chunk);
+                    for (int j = 0; j < items.size(); j++) {
+                        keys[from + j] = items.get(j).getShortUrl().getShortKey();
+                    }
+                }
+                HashRing ring = cluster.bean(0, ClusterNode.class).ring();
+                double owner = run(cluster, keys, clients, key ->
+                        Integer.parseInt(ring.ownerOfKey(key).substring("node-".length())));
+                double any = run(cluster, keys, clients, key -> ThreadLocalRandom.current().nextInt(nodes));
+                System.out.printf("%d node(s): %.0f redirects/s routed to owner, %.0f redirects/s to any node%n",
+                        nodes, owner, any);
+            }
+        }
+    }
+
+    private static double run(LocalCluster cluster, String[] keys, int clients,
+                              ToIntFunction<String> target) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                long done = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+                    URI uri = URI.create(cluster.baseUrls.get(target.applyAsInt(key)) + "/r/" + key);
+                    HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    assertEquals(302, response.statusCode());
+                    done++;
+                }
+                return done;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return total * 1000.0 / DURATION_MILLIS;
+    }
+}
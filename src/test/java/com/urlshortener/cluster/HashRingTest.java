@@ -0,0 +1,65 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void testOwnerOf_SpreadsKeysEvenly() {
+        HashRing ring = new HashRing(List.of("a", "b", "c", "d"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= KEYS; id++) {
+            counts.merge(ring.ownerOfKey(Base62Util.encode(id)), 1, Integer::sum);
+        }
+        for (String node : ring.nodes()) {
+            double share = counts.get(node) / (double) KEYS;
+            assertEquals(0.25, share, 0.05, node);
+        }
+    }
+
+    @Test
+    void testOwnerOf_AddingANodeOnlyMovesItsShare() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), 128);
+        HashRing after = new HashRing(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+        for (long id = 1; id <= KEYS; id++) {
+            String key = Base62Util.encode(id);
+            String owner = after.ownerOfKey(key);
+            if (!owner.equals(before.ownerOfKey(key))) {
+                assertEquals("d", owner); // keys only move to the new node
+                moved++;
+            }
+        }
+        assertEquals(0.25, moved / (double) KEYS, 0.05);
+    }
+
+    @Test
+    void testOwnerOf_SameForEveryInstance() {
+        HashRing one = new HashRing(List.of("a", "b"), 16);
+        HashRing two = new HashRing(List.of("a", "b"), 16);
+        for (long id = 1; id <= 1000; id++) {
+            assertEquals(one.ownerOfUrl("https://example.com/" + id), two.ownerOfUrl("https://example.com/" + id));
+        }
+    }
+
+    @Test
+    void testShardedIdAllocator_OnlyMintsOwnedKeys() {
+        HashRing ring = new HashRing(List.of("a", "b", "c"), 64);
+        ShardedIdAllocator ids = new ShardedIdAllocator(
+                new LeasedIdAllocator(new InMemoryBlockCoordinator(0)), ring, "b");
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("b", ring.ownerOfKey(Base62Util.encode(ids.nextId())));
+        }
+    }
+}
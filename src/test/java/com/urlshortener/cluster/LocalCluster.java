@@ -0,0 +1,61 @@
+package com.urlshortener.cluster;
+
+import com.urlshortener.UrlShortenerApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Several application contexts in this JVM, each on its own loopback port, forming one cluster.
+ */
+class LocalCluster implements AutoCloseable {
+
+    final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    final List<String> baseUrls = new ArrayList<>();
+
+    LocalCluster(int nodes, String... extraArgs) throws IOException {
+        List<Integer> ports = new ArrayList<>();
+        StringBuilder ring = new StringBuilder();
+        for (int i = 0; i < nodes; i++) {
+            int port = freePort();
+            ports.add(port);
+            baseUrls.add("http://127.0.0.1:" + port);
+            ring.append(i == 0 ? "" : ",").append("node-").append(i).append('=').append(baseUrls.get(i));
+        }
+        try {
+            for (int i = 0; i < nodes; i++) {
+                List<String> args = new ArrayList<>(List.of(
+                        "--server.port=" + ports.get(i),
+                        "--app.base-url=" + baseUrls.get(i),
+                        "--app.cluster.enabled=true",
+                        "--app.cluster.node-id=node-" + i,
+                        "--app.cluster.nodes=" + ring,
+                        "--logging.level.root=WARN"));
+                args.addAll(List.of(extraArgs));
+                contexts.add(SpringApplication.run(UrlShortenerApplication.class, args.toArray(String[]::new)));
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    <T> T bean(int node, Class<T> type) {
+        return contexts.get(node).getBean(type);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+}
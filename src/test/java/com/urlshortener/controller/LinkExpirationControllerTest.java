@@ -0,0 +1,85 @@
+package com.urlshortener.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.expiration.enabled=true", "app.expiration.tick-millis=100"})
+@AutoConfigureMockMvc
+class LinkExpirationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void expiredLinkReturnsGone() throws Exception {
+        String response = mockMvc.perform(post("/api/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\":\"https://expiring.example/a\",\"ttlSeconds\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresAt").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String key = objectMapper.readTree(response).get("shortKey").asText();
+
+        mockMvc.perform(get("/r/" + key)).andExpect(status().isFound());
+
+        int status = 0;
+        for (int i = 0; i < 50 && status != 410; i++) {
+            Thread.sleep(100);
+            status = mockMvc.perform(get("/r/" + key)).andReturn().getResponse().getStatus();
+        }
+        assertEquals(410, status);
+        mockMvc.perform(get("/r/unknownKey")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void invalidTtlIsRejected() throws Exception {
+        mockMvc.perform(post("/api/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\":\"https://expiring.example/b\",\"ttlSeconds\":0}"))
+                .andExpect(status().isBadRequest());
+        // Beyond what LocalDateTime.plusSeconds and epoch-millisecond deadlines can hold
+        for (long ttl : new long[]{Long.MAX_VALUE, 20_000_000_000_000_000L}) {
+            mockMvc.perform(post("/api/shorten")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"originalUrl\":\"https://expiring.example/c\",\"ttlSeconds\":" + ttl + "}"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void batchItemsKeepTheirTtl() throws Exception {
+        mockMvc.perform(post("/api/shorten/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"originalUrl\":\"https://expiring.example/batch1\",\"ttlSeconds\":60},"
+                                + "{\"originalUrl\":\"https://expiring.example/batch2\"},"
+                                + "{\"originalUrl\":\"https://expiring.example/batch3\",\"ttlSeconds\":0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].expiresAt").isNotEmpty())
+                .andExpect(jsonPath("$[1].shortKey").isNotEmpty())
+                .andExpect(jsonPath("$[1].expiresAt").doesNotExist())
+                .andExpect(jsonPath("$[2].error").value("TTL must be positive"))
+                .andExpect(jsonPath("$[2].shortKey").doesNotExist());
+
+        String response = mockMvc.perform(post("/api/shorten/batch")
+                        .contentType(UrlShortenerController.NDJSON)
+                        .content("{\"originalUrl\":\"https://expiring.example/batch4\",\"ttlSeconds\":1}\n"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(objectMapper.readTree(response.lines().findFirst().orElseThrow()).has("expiresAt"), response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.urlshortener.controller;
+
+import com.urlshortener.events.ClickEventPipeline;
+import com.urlshortener.events.ClickEventSink;
+import com.urlshortener.events.FullPolicy;
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedirectFilterTest {
+
+    private UrlShortenerService service;
+
+    private RedirectFilter filter;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        service = new UrlShortenerService();
+        filter = new RedirectFilter(service, "/r/");
+    }
+
+    private MockFilterChain filter(String method, String uri) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(method, uri), response, chain);
+        return chain;
+    }
+
+    @Test
+    void testRedirect_KnownKey() throws Exception {
+        String key = service.createShortUrl("https://example.com/a?b=c").getShortKey();
+
+        MockFilterChain chain = filter("GET", "/r/" + key);
+
+        assertNull(chain.getRequest()); // not passed on to Spring MVC
+        assertEquals(302, response.getStatus());
+        assertEquals("https://example.com/a?b=c", response.getHeader("Location"));
+        assertEquals(1, service.getAccessCount(key));
+    }
+
+    @Test
+    void testRedirect_NonAsciiUrlIsEncoded() throws Exception {
+        String key = service.createShortUrl("https://example.com/café").getShortKey();
+
+        filter("GET", "/r/" + key);
+
+        assertEquals("https://example.com/caf%C3%A9", response.getHeader("Location"));
+    }
+
+    @Test
+    void testUnknownKey_AnsweredNotFound() throws Exception {
+        MockFilterChain chain = filter("GET", "/r/zzz");
+
+        assertNull(chain.getRequest());
+        assertEquals(404, response.getStatus());
+        assertNull(response.getHeader("Location"));
+        assertEquals("application/json", response.getContentType());
+        assertTrue(response.getContentAsString().contains("\"status\":404"));
+    }
+
+    @Test
+    void testInvalidKey_AnsweredNotFound() throws Exception {
+        assertNull(filter("GET", "/r/not-base62!").getRequest());
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void testOtherRequests_FallThrough() throws Exception {
+        String key = service.createShortUrl("https://example.com").getShortKey();
+
+        assertNotNull(filter("POST", "/r/" + key).getRequest());
+        assertNotNull(filter("GET", "/r/" + key + "/extra").getRequest());
+        assertNotNull(filter("GET", "/r/").getRequest());
+        assertNotNull(filter("GET", "/api/shorten").getRequest());
+        assertEquals(0, service.getAccessCount(key));
+    }
+
+    @Test
+    void testRedirectPublishesClickEvent(@TempDir Path dir) throws Exception {
+        ClickEventPipeline events = new ClickEventPipeline(16, FullPolicy.DROP,
+                new ClickEventSink(dir, 1 << 20, 60_000, new byte[16]), 16);
+        filter = new RedirectFilter(service, "/r/", events);
+        String key = service.createShortUrl("https://example.com").getShortKey();
+
+        filter("GET", "/r/" + key);
+        filter("GET", "/r/zzz");
+        events.close();
+
+        assertEquals(1, events.written());
+    }
+}
@@ -0,0 +1,95 @@
+package com.urlshortener.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.batch.chunk-size=2")
+@AutoConfigureMockMvc
+// Test contexts leave metrics export off unless asked; the Prometheus endpoint needs it
+@AutoConfigureObservability
+class UrlShortenerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void batchJsonArrayReturnsResultsInOrder() throws Exception {
+        mockMvc.perform(post("/api/shorten/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"originalUrl\":\"https://batch.example/1\"},"
+                                + "{\"originalUrl\":\"nope\"},"
+                                + "{\"originalUrl\":\"https://batch.example/2\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].originalUrl").value("https://batch.example/1"))
+                .andExpect(jsonPath("$[0].shortKey").isNotEmpty())
+                .andExpect(jsonPath("$[1].error").value("URL must include scheme and host"))
+                .andExpect(jsonPath("$[2].shortUrl").isNotEmpty());
+    }
+
+    @Test
+    void batchNdjsonStreamsOneLinePerInput() throws Exception {
+        String body = "{\"originalUrl\":\"https://stream.example/1\"}\n"
+                + "{broken\n"
+                + "\n"
+                + "{\"originalUrl\":\"https://stream.example/2\"}\n"
+                + "{\"originalUrl\":\"https://stream.example/1\"}\n";
+
+        String response = mockMvc.perform(post("/api/shorten/batch")
+                        .contentType(UrlShortenerController.NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(UrlShortenerController.NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = response.split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].contains("https://stream.example/1"));
+        assertTrue(lines[1].contains("Malformed JSON line"));
+        assertTrue(lines[2].contains("https://stream.example/2"));
+        assertEquals(lines[0], lines[3]);
+    }
+
+    @Test
+    void shortenCanonicalizesAndRejectsOtherSchemes() throws Exception {
+        mockMvc.perform(post("/api/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\":\"HTTP://Canonical.Example:80/a/./b\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.originalUrl").value("http://canonical.example/a/b"));
+        mockMvc.perform(post("/api/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\":\"ftp://canonical.example/file\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("URL must start with http:// or https://"));
+    }
+
+    @Test
+    void prometheusEndpointExposesShortenerMeters() throws Exception {
+        mockMvc.perform(post("/api/shorten")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"originalUrl\":\"https://scrape.example/1\"}"))
+                .andExpect(status().is2xxSuccessful());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("urlshortener_shorten_requests_total{result=\"created\"}"));
+        assertTrue(scrape.contains("urlshortener_shorten_seconds_bucket"));
+        assertTrue(scrape.contains("urlshortener_store_mappings"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.urlshortener.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickEventPipelineTest {
+
+    private static final byte[] SALT = "salt".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testEventsWrittenAsCompressedTsvWithHashedClient() throws IOException {
+        ClickEventPipeline pipeline = new ClickEventPipeline(16,
+                FullPolicy.DROP, new ClickEventSink(dir, 1 << 20, 60_000, SALT), 4);
+        for (int i = 0; i < 100; i++) {
+            while (!pipeline.publish(new ClickEvent("k" + i, 1_000 + i, "https://ref.example/\tx", null, "10.0.0.1"))) {
+                Thread.yield();
+            }
+        }
+        pipeline.close();
+
+        assertEquals(100, pipeline.written());
+        assertEquals(0, pipeline.depth());
+        List<String> lines = readAll();
+        assertEquals(100, lines.size());
+        String[] fields = lines.get(0).split("\t", -1);
+        assertEquals(5, fields.length);
+        assertEquals("1000", fields[0]);
+        assertEquals("k0", fields[1]);
+        assertEquals(16, fields[2].length());
+        assertNotEquals("10.0.0.1", fields[2]);
+        assertEquals("https://ref.example/ x", fields[3]);
+        assertEquals("-", fields[4]);
+        // Same address, same hash
+        assertEquals(fields[2], lines.get(99).split("\t")[2]);
+    }
+
+    @Test
+    void testRollsOverBySizeAndAge() throws IOException {
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+        ClickEventSink sink = new ClickEventSink(dir, 4096, 60_000, SALT, now::get);
+        for (int i = 0; i < 20_000; i++) {
+            // Random-looking user agents so that the files do not compress to nothing
+            sink.write(new ClickEvent("k" + i, now.get(), null, Integer.toHexString(i * 0x9E3779B9), "10.0.0." + i));
+        }
+        long bySize = sink.filesCompleted();
+        assertTrue(bySize > 1, "files " + bySize);
+
+        sink.rollIfDue();
+        assertEquals(bySize, sink.filesCompleted());
+        now.addAndGet(60_000);
+        sink.rollIfDue();
+        assertEquals(bySize + 1, sink.filesCompleted());
+        // Nothing open while idle
+        now.addAndGet(60_000);
+        sink.rollIfDue();
+        sink.close();
+        assertEquals(bySize + 1, sink.filesCompleted());
+        assertEquals(20_000, readAll().size());
+    }
+
+    @Test
+    void testLeftoverPartFileCompletedOnStartup() throws IOException {
+        ClickEventSink crashed = new ClickEventSink(dir, 1 << 20, 60_000, SALT);
+        crashed.write(new ClickEvent("k", 1, null, null, null));
+        // Not closed: still .part
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.allMatch(file -> file.toString().endsWith(".part")));
+        }
+
+        ClickEventSink restarted = new ClickEventSink(dir, 1 << 20, 60_000, SALT);
+        restarted.write(new ClickEvent("k", 2, null, null, null));
+        restarted.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().toList();
+            assertEquals(2, names.size());
+            assertTrue(names.get(0).endsWith("-000001.tsv.gz"));
+            assertTrue(names.get(1).endsWith("-000002.tsv.gz"));
+        }
+    }
+
+    @Test
+    void testFullQueueDropsAndCounts() throws IOException {
+        ClickEventPipeline pipeline = new ClickEventPipeline(2,
+                FullPolicy.DROP, new ClickEventSink(dir, 1 << 20, 60_000, SALT), 1);
+        int accepted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (pipeline.publish(new ClickEvent("k", i, null, null, null))) {
+                accepted++;
+            }
+        }
+        pipeline.close();
+
+        assertEquals(10_000, accepted + pipeline.dropped());
+        assertEquals(accepted, pipeline.written());
+        assertEquals(accepted, readAll().size());
+    }
+
+    private List<String> readAll() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.sorted().toList()) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    in.transferTo(bytes);
+                    String text = bytes.toString(StandardCharsets.UTF_8);
+                    if (!text.isEmpty()) {
+                        lines.addAll(Arrays.asList(text.split("\n")));
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,73 @@
+package com.urlshortener.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpscRingBufferTest {
+
+    @Test
+    void testCapacityRoundedUpAndFullRejects() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(5);
+        assertEquals(8, buffer.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(8));
+        assertEquals(8, buffer.size());
+
+        List<Integer> taken = new ArrayList<>();
+        assertEquals(3, buffer.drain(taken::add, 3));
+        assertEquals(List.of(0, 1, 2), taken);
+        assertTrue(buffer.offer(8));
+        assertEquals(6, buffer.drain(taken::add, 100));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), taken);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void testConcurrentProducersLoseNothingAndKeepPerProducerOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 100_000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(1024);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                long producer = p;
+                futures.add(pool.submit(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        long[] element = {producer, i};
+                        while (!buffer.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                }));
+            }
+
+            long[] next = new long[producers];
+            long received = 0;
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < (long) producers * perProducer) {
+                assertTrue(System.nanoTime() < deadline, "timed out");
+                received += buffer.drain(element -> {
+                    int producer = (int) element[0];
+                    assertEquals(next[producer]++, element[1]);
+                }, 256);
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(0, buffer.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
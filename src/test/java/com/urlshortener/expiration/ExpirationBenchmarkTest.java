@@ -0,0 +1,139 @@
+package com.urlshortener.expiration;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures expiry bookkeeping and eviction. Skipped unless a record count is given, e.g.
+ * {@code mvn test -Dtest=ExpirationBenchmarkTest -Dbenchmark.records=100000000 -DargLine=-Xmx4g}
+ * <p>
+ * The wheel alone is measured at the full count; store eviction, which needs every mapping on the
+ * heap, at up to {@code benchmark.store-records} (default 2M).
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class ExpirationBenchmarkTest {
+
+    // Thirty days at one-second ticks, which spans all five levels
+    private static final long HORIZON_TICKS = 30 * 86_400;
+    private static final int BATCH = 1_000;
+
+    @Test
+    void measureWheel() {
+        long records = Long.getLong("benchmark.records");
+        long before = usedHeap();
+        TimingWheel wheel = new TimingWheel(0);
+        long started = System.nanoTime();
+        for (long id = 1; id <= records; id++) {
+            wheel.schedule(id, dueTick(id));
+        }
+        long scheduleNanos = System.nanoTime() - started;
+        System.out.printf("TimingWheel: %d entries, %.1f bytes/entry, schedule %.0f ns/entry%n",
+                records, (double) (usedHeap() - before) / records, (double) scheduleNanos / records);
+
+        long[] batch = new long[BATCH];
+        long expired = 0;
+        long longestCall = 0;
+        long gcBefore = gcMillis();
+        started = System.nanoTime();
+        for (long now = 0; now < HORIZON_TICKS; now++) {
+            while (!wheel.caughtUp(now)) {
+                long call = System.nanoTime();
+                expired += wheel.advance(now, batch);
+                longestCall = Math.max(longestCall, System.nanoTime() - call);
+            }
+        }
+        long advanceNanos = System.nanoTime() - started;
+        System.out.printf("TimingWheel: expired %d in %d ms (%.1f M/s), longest advance of %d moves %.1f us, GC %d ms%n",
+                expired, advanceNanos / 1_000_000, expired * 1e3 / advanceNanos, BATCH, longestCall / 1e3,
+                gcMillis() - gcBefore);
+        assertEquals(records, expired);
+    }
+
+    /**
+     * Evicts every mapping while a reader keeps redirecting, and reports the reader's worst stall.
+     */
+    @Test
+    void measureStoreEviction() throws Exception {
+        int records = (int) Math.min(Long.getLong("benchmark.records"), Long.getLong("benchmark.store-records", 2_000_000));
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        ExpirationManager expiration = new ExpirationManager(0, 1_000, BATCH, clock::get);
+        InMemoryUrlStore memory = new InMemoryUrlStore();
+        LocalDateTime now = LocalDateTime.now();
+        try (ExpiringUrlStore store = new ExpiringUrlStore(memory, expiration)) {
+            for (long id = 1; id <= records; id++) {
+                long key = id;
+                store.findOrCreate("https://example.com/articles/" + id + "?utm_source=benchmark", url -> {
+                    ShortUrl shortUrl = new ShortUrl();
+                    shortUrl.setOriginalUrl(url);
+                    shortUrl.setShortKey(Base62Util.encode(key));
+                    shortUrl.setCreatedAt(now);
+                    shortUrl.setExpiresAt(now.plusSeconds(1 + key % 60));
+                    return shortUrl;
+                });
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong longestRedirect = new AtomicLong();
+            AtomicLong redirects = new AtomicLong();
+            Thread reader = new Thread(() -> {
+                long id = 1;
+                while (running.get()) {
+                    long started = System.nanoTime();
+                    store.resolve(Base62Util.encode(id));
+                    longestRedirect.accumulateAndGet(System.nanoTime() - started, Math::max);
+                    redirects.incrementAndGet();
+                    id = id % records + 1;
+                }
+            }, "redirects");
+            reader.start();
+
+            clock.addAndGet(62_000);
+            long gcBefore = gcMillis();
+            long started = System.nanoTime();
+            expiration.expireDue();
+            // The store's own worker may have taken some batches and still be removing its last one
+            while (expiration.expired() < records && System.nanoTime() - started < 60_000_000_000L) {
+                Thread.sleep(1);
+            }
+            long nanos = System.nanoTime() - started;
+            long removed = expiration.expired();
+            running.set(false);
+            reader.join();
+
+            System.out.printf("Store eviction: removed %d in %d ms (%.0f K/s), longest batch of %d %.1f ms%n",
+                    removed, nanos / 1_000_000, removed * 1e6 / nanos, BATCH, expiration.longestBatchNanos() / 1e6);
+            System.out.printf("Concurrent redirects: %d, longest %.1f ms, GC %d ms%n",
+                    redirects.get(), longestRedirect.get() / 1e6, gcMillis() - gcBefore);
+            assertEquals(records, removed);
+            assertEquals(0, memory.size());
+        }
+    }
+
+    // Spread evenly over the horizon, in no particular order
+    private static long dueTick(long id) {
+        return ((id * 0x9E3779B97F4A7C15L) >>> 1) % HORIZON_TICKS;
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,115 @@
+package com.urlshortener.expiration;
+
+import com.urlshortener.exception.LinkExpiredException;
+import com.urlshortener.exception.UrlNotFoundException;
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.metrics.ShortenerMetrics;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.InMemoryUrlStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpirationManagerTest {
+
+    // Advanced by hand; each store's worker thread first wakes a real tick (1s) later, after the test is done
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final List<ExpiringUrlStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(ExpiringUrlStore::close);
+    }
+
+    @Test
+    void testTtl_RemovesBothDirectionsAfterDeadline() {
+        ExpirationManager expiration = new ExpirationManager(0, 1_000, 2, clock::get);
+        UrlShortenerService service = service(expiration);
+
+        ShortUrl shortLived = service.createShortUrl("https://example.com/a", 10L);
+        ShortUrl permanent = service.createShortUrl("https://example.com/b");
+        assertEquals(shortLived.getCreatedAt().plusSeconds(10), shortLived.getExpiresAt());
+        assertNull(permanent.getExpiresAt());
+        assertEquals(1, expiration.pending());
+
+        clock.addAndGet(9_000);
+        expiration.expireDue();
+        assertEquals("https://example.com/a", service.getOriginalUrl(shortLived.getShortKey()));
+
+        clock.addAndGet(2_500);
+        expiration.expireDue();
+        assertThrows(LinkExpiredException.class, () -> service.getOriginalUrl(shortLived.getShortKey()));
+        assertThrows(LinkExpiredException.class, () -> service.getAccessCount(shortLived.getShortKey()));
+        assertEquals("https://example.com/b", service.getOriginalUrl(permanent.getShortKey()));
+        assertEquals(1, expiration.expired());
+        assertEquals(0, expiration.pending());
+
+        // The URL is free again and gets a new key
+        ShortUrl again = service.createShortUrl("https://example.com/a");
+        assertNotEquals(shortLived.getShortKey(), again.getShortKey());
+        assertEquals(permanent.getShortKey(), service.createShortUrl("https://example.com/b").getShortKey());
+    }
+
+    @Test
+    void testMaxAge_CapsTtlAndAppliesToEveryLink() {
+        ExpirationManager expiration = new ExpirationManager(5_000, 1_000, 100, clock::get);
+        UrlShortenerService service = service(expiration);
+
+        ShortUrl capped = service.createShortUrl("https://example.com/a", 60L);
+        ShortUrl shorter = service.createShortUrl("https://example.com/b", 2L);
+        ShortUrl defaulted = service.createShortUrl("https://example.com/c");
+        assertEquals(capped.getCreatedAt().plus(Duration.ofSeconds(5)), capped.getExpiresAt());
+        assertEquals(shorter.getCreatedAt().plusSeconds(2), shorter.getExpiresAt());
+        assertEquals(defaulted.getCreatedAt().plus(Duration.ofSeconds(5)), defaulted.getExpiresAt());
+
+        clock.addAndGet(3_500);
+        assertEquals(1, expiration.expireDue());
+        clock.addAndGet(3_000);
+        assertEquals(2, expiration.expireDue());
+        assertTrue(expiration.isExpired(capped.getShortKey()));
+        assertFalse(expiration.isExpired("zzzz"));
+    }
+
+    @Test
+    void testExpireDue_RemovesEverythingDueInBatches() {
+        ExpirationManager expiration = new ExpirationManager(0, 1_000, 7, clock::get);
+        UrlShortenerService service = service(expiration);
+        for (int i = 0; i < 500; i++) {
+            service.createShortUrl("https://example.com/" + i, 1L + i % 3);
+        }
+        assertEquals(500, expiration.pending());
+
+        clock.addAndGet(4_000);
+        assertEquals(500, expiration.expireDue());
+        assertEquals(0, expiration.pending());
+        assertThrows(LinkExpiredException.class, () -> service.getOriginalUrl("1"));
+        assertThrows(UrlNotFoundException.class, () -> service.getOriginalUrl("zzzz"));
+    }
+
+    @Test
+    void testTtl_RejectedWhenExpirationDisabled() {
+        UrlShortenerService service = new UrlShortenerService();
+        assertThrows(IllegalArgumentException.class, () -> service.createShortUrl("https://example.com", 10L));
+    }
+
+    @Test
+    void testTtl_MustBePositive() {
+        UrlShortenerService service = service(new ExpirationManager(0, 1_000, 100, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> service.createShortUrl("https://example.com", 0L));
+    }
+
+    private UrlShortenerService service(ExpirationManager expiration) {
+        ExpiringUrlStore store = new ExpiringUrlStore(new InMemoryUrlStore(), expiration);
+        stores.add(store);
+        return new UrlShortenerService(store, new LeasedIdAllocator(new InMemoryBlockCoordinator(0)),
+                ShortenerMetrics.noop(), expiration);
+    }
+}
@@ -0,0 +1,118 @@
+package com.urlshortener.expiration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testEveryIdExpiresAtItsTickAcrossAllLevels() {
+        long start = 1_000_003;
+        TimingWheel wheel = new TimingWheel(start);
+        Random random = new Random(42);
+        Map<Long, Long> due = new HashMap<>();
+        long[] horizons = {10, 100, 5_000, 300_000, 3_000_000};
+        for (long id = 1; id <= 20_000; id++) {
+            long tick = start + (long) (random.nextDouble() * horizons[(int) (id % horizons.length)]);
+            wheel.schedule(id, tick);
+            due.put(id, tick);
+        }
+        assertEquals(20_000, wheel.size());
+
+        long[] batch = new long[64];
+        long lastTick = start + 3_000_000;
+        // Uneven steps, some of them several ticks at once
+        for (long now = start; now <= lastTick; now += 1 + random.nextInt(7)) {
+            int count;
+            do {
+                count = wheel.advance(now, batch);
+                for (int i = 0; i < count; i++) {
+                    Long tick = due.remove(batch[i]);
+                    assertNotNull(tick, "expired twice: " + batch[i]);
+                    assertTrue(tick <= now, "early: due " + tick + " at " + now);
+                    // Once caught up, nothing due before the previous step may still be pending
+                    assertTrue(tick > now - 8, "late: due " + tick + " at " + now);
+                }
+            } while (!wheel.caughtUp(now));
+        }
+        while (!wheel.caughtUp(lastTick + 8)) {
+            int count = wheel.advance(lastTick + 8, batch);
+            for (int i = 0; i < count; i++) {
+                due.remove(batch[i]);
+            }
+        }
+        assertTrue(due.isEmpty(), due.size() + " never expired");
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastAndCurrentTicksAreDueNext() {
+        TimingWheel wheel = new TimingWheel(100);
+        wheel.schedule(1, 5);
+        wheel.schedule(2, 100);
+        long[] batch = new long[8];
+        assertEquals(2, wheel.advance(100, batch));
+        assertTrue(wheel.caughtUp(100));
+
+        // Tick 100 is processed; scheduling into it lands on 101
+        wheel.schedule(3, 100);
+        assertEquals(0, wheel.advance(100, batch));
+        assertEquals(1, wheel.advance(101, batch));
+        assertEquals(3, batch[0]);
+    }
+
+    @Test
+    void testOverflowBeyondTopLevelIsPlacedAgain() {
+        long boundary = 1L << 30;
+        TimingWheel wheel = new TimingWheel(boundary - 100);
+        wheel.schedule(1, boundary + 5_000);
+        wheel.schedule(2, boundary - 50);
+        long[] batch = new long[8];
+
+        List<Long> expired = new ArrayList<>();
+        for (long now = boundary - 100; now <= boundary + 5_000; now++) {
+            int count = wheel.advance(now, batch);
+            for (int i = 0; i < count; i++) {
+                expired.add(batch[i]);
+                assertEquals(batch[i] == 1 ? boundary + 5_000 : boundary - 50, now);
+            }
+        }
+        assertEquals(List.of(2L, 1L), expired);
+    }
+
+    @Test
+    void testAdvanceStopsAtBudgetAndResumes() {
+        TimingWheel wheel = new TimingWheel(0);
+        for (long id = 1; id <= 10_000; id++) {
+            // All in one level-2 slot, so they are cascaded before they expire
+            wheel.schedule(id, 8_192);
+        }
+        long[] batch = new long[100];
+        long total = 0;
+        int calls = 0;
+        while (!wheel.caughtUp(8_192)) {
+            int count = wheel.advance(8_192, batch);
+            assertTrue(count <= batch.length);
+            total += count;
+            calls++;
+        }
+        assertEquals(10_000, total);
+        // 10K cascade moves and 10K expiries, 100 moves per call
+        assertEquals(200, calls);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testRejectsIdsOutsideRange() {
+        TimingWheel wheel = new TimingWheel(0);
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> wheel.schedule(TimingWheel.MAX_ID + 1, 1));
+    }
+}
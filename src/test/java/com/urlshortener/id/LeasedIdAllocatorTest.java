@@ -0,0 +1,87 @@
+package com.urlshortener.id;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeasedIdAllocatorTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Long> take(IdAllocator ids, int count) {
+        List<Long> taken = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            taken.add(ids.nextId());
+        }
+        return taken;
+    }
+
+    @Test
+    void testNextId_SequentialOnOneThread() {
+        IdAllocator ids = new LeasedIdAllocator(new InMemoryBlockCoordinator(41), 1000, 10);
+        assertEquals(List.of(42L, 43L, 44L), take(ids, 3));
+    }
+
+    @Test
+    void testNextId_UniqueAcrossThreadsAndNodes() throws Exception {
+        Path leases = dir.resolve("id-lease");
+        // Two "nodes" with their own coordinator instances over the same lease file
+        IdAllocator[] nodes = {
+                new LeasedIdAllocator(new FileBlockCoordinator(leases), 500, 7),
+                new LeasedIdAllocator(new FileBlockCoordinator(leases), 500, 7)
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                IdAllocator ids = nodes[t % 2];
+                futures.add(pool.submit(() -> take(ids, 5_000)));
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                for (long id : future.get()) {
+                    assertTrue(id > 0);
+                    assertTrue(seen.add(id), "duplicate id " + id);
+                }
+            }
+            assertEquals(40_000, seen.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRestart_NeverReusesLeasedRange() throws Exception {
+        Path leases = dir.resolve("id-lease");
+        List<Long> before = take(new LeasedIdAllocator(new FileBlockCoordinator(leases), 1000, 10), 5);
+        List<Long> after = take(new LeasedIdAllocator(new FileBlockCoordinator(leases), 1000, 10), 5);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), before);
+        // The whole first block stays retired, not just the ids handed out from it
+        assertTrue(Collections.min(after) > 1000);
+    }
+
+    @Test
+    void testAdvanceTo_SkipsHeldSubBlocks() throws Exception {
+        IdAllocator ids = new LeasedIdAllocator(new FileBlockCoordinator(dir.resolve("id-lease")), 100, 10);
+        assertEquals(1, ids.nextId());
+
+        ids.advanceTo(250);
+        assertEquals(251, ids.nextId());
+
+        IdAllocator restarted = new LeasedIdAllocator(new FileBlockCoordinator(dir.resolve("id-lease")), 100, 10);
+        assertTrue(restarted.nextId() > 250);
+    }
+}
@@ -0,0 +1,107 @@
+package com.urlshortener.limit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void testTryAcquire_RejectsOverLimitUntilReleased() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, 2, 2.0, 0, 10);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(System.nanoTime());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimit_BacksOffWhenLatencyRisesAndRecoversWhenBusy() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 4, 40, 2.0, 0, 10);
+        runWindow(limiter, 10, 1 * MILLIS);
+        assertEquals(40, limiter.getLimit());
+        assertEquals(1 * MILLIS, limiter.getNoLoadNanos(), MILLIS / 10.0);
+
+        // Queueing: latency well above twice the no-load latency
+        for (int i = 0; i < 5; i++) {
+            runWindow(limiter, 10, 5 * MILLIS);
+        }
+        int shed = limiter.getLimit();
+        assertTrue(shed < 40 * 0.9 * 0.9, "limit " + shed);
+        for (int i = 0; i < 15; i++) {
+            runWindow(limiter, 10, 5 * MILLIS);
+        }
+        assertEquals(4, limiter.getLimit());
+        assertEquals(1 * MILLIS, limiter.getNoLoadNanos(), MILLIS / 2.0);
+
+        // Fast again, with half the limit in use: additive increase, one per window
+        for (int i = 0; i < 6; i++) {
+            runWindow(limiter, limiter.getLimit(), 1 * MILLIS);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void testLimit_LatencyUnderFloorIsNeverOverload() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, 20, 2.0, 5 * MILLIS, 10);
+        runWindow(limiter, 10, MILLIS / 10);
+        for (int i = 0; i < 10; i++) {
+            runWindow(limiter, 10, 4 * MILLIS);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void testFilter_ShedsOverBudgetWithRetryAfterAndKeepsBudgetsSeparate() throws Exception {
+        RequestLimits limits = new RequestLimits(new ConcurrencyLimiter("redirect", 1, 1, 2.0, 0, 10),
+                new ConcurrencyLimiter("api", 1, 1, 2.0, 0, 10));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limits, "/r/", 3);
+        assertTrue(limits.api().tryAcquire());
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockFilterChain shedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/shorten"), shed, shedChain);
+        assertNull(shedChain.getRequest());
+        assertEquals(503, shed.getStatus());
+        assertEquals("3", shed.getHeader("Retry-After"));
+        assertTrue(shed.getContentAsString().contains("overloaded"));
+
+        MockFilterChain redirect = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/r/abc"), new MockHttpServletResponse(), redirect);
+        assertNotNull(redirect.getRequest());
+        assertEquals(0, limits.redirects().getInFlight());
+
+        MockFilterChain health = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), new MockHttpServletResponse(), health);
+        assertNotNull(health.getRequest());
+        assertEquals(1, limits.api().getRejected());
+        assertEquals(0, limits.redirects().getRejected());
+    }
+
+    // Runs one window of requests, `concurrency` of them at once, each taking `latency` nanoseconds
+    private static void runWindow(ConcurrencyLimiter limiter, int concurrency, long latency) {
+        int remaining = 10;
+        while (remaining > 0) {
+            int started = 0;
+            while (started < Math.min(concurrency, remaining) && limiter.tryAcquire()) {
+                started++;
+            }
+            assertTrue(started > 0);
+            for (int i = 0; i < started; i++) {
+                limiter.release(System.nanoTime() - latency);
+            }
+            remaining -= started;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.urlshortener.limit;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.model.BatchItem;
+import com.urlshortener.service.UrlShortenerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redirect latency while a burst of creates overloads the server, without and with concurrency limits.
+ * Skipped unless a key count is given, e.g.
+ * {@code mvn test -Dtest=LoadSheddingBenchmarkTest -Dbenchmark.records=10000 -Dbenchmark.clients=64}
+ * <p>
+ * Creates are made slow by fsyncing every one ({@code app.persistence.fsync=always}), and the server
+ * has 16 worker threads, so {@code benchmark.clients} creating clients can hold every thread. A few
+ * redirect clients measure their latency meanwhile.
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class LoadSheddingBenchmarkTest {
+
+    private static final long DURATION_MILLIS = 10_000;
+    private static final int REDIRECT_CLIENTS = 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void measureRedirectLatencyUnderCreateBurst() throws Exception {
+        int records = Integer.getInteger("benchmark.records");
+        int clients = Integer.getInteger("benchmark.clients", 64);
+        for (boolean limited : new boolean[]{false, true}) {
+            int port;
+            try (ServerSocket socket = new ServerSocket(0)) {
+                port = socket.getLocalPort();
+            }
+            try (ConfigurableApplicationContext context = SpringApplication.run(UrlShortenerApplication.class,
+                    "--server.port=" + port,
+                    "--server.tomcat.threads.max=16",
+                    "--app.persistence.enabled=true",
+                    "--app.persistence.path=" + dir.resolve(limited ? "limited" : "unlimited"),
+                    "--app.persistence.fsync=always",
+                    "--app.limit.enabled=" + limited,
+                    "--app.limit.redirect.max=12",
+                    "--app.limit.api.max=8",
+                    "--logging.level.root=WARN")) {
+                String[] keys = seed(context.getBean(UrlShortenerService.class), records);
+                run("http://127.0.0.1:" + port, keys, clients, limited);
+            }
+        }
+    }
+
+    private static String[] seed(UrlShortenerService service, int records) {
+        String[] keys = new String[records];
+        for (int from = 0; from < records; from += 1000) {
+            List<String> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(records, from + 1000); i++) {
+                chunk.add("https://shed.example/" + i);
+            }
+            List<BatchItem> items = service.createShortUrls(chunk);
+            for (int j = 0; j < items.size(); j++) {
+                keys[from + j] = items.get(j).getShortUrl().getShortKey();
+            }
+        }
+        return keys;
+    }
+
+    private static void run(String baseUrl, String[] keys, int clients, boolean limited) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        ExecutorService pool = Executors.newFixedThreadPool(clients + REDIRECT_CLIENTS);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong created = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        AtomicLong next = new AtomicLong();
+        for (int c = 0; c < clients; c++) {
+            pool.submit(() -> {
+                while (running.get()) {
+                    String body = "{\"originalUrl\":\"https://burst.example/" + next.incrementAndGet() + "\"}";
+                    HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/shorten"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 503) {
+                        assertTrue(response.headers().firstValue("Retry-After").isPresent());
+                        shed.incrementAndGet();
+                    } else {
+                        assertEquals(200, response.statusCode());
+                        created.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        // Let the burst fill the server before measuring redirects
+        Thread.sleep(1_000);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        List<Future<long[]>> redirects = new ArrayList<>();
+        for (int c = 0; c < REDIRECT_CLIENTS; c++) {
+            redirects.add(pool.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+                    long start = System.nanoTime();
+                    HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/r/" + key)).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 302) {
+                        continue;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : redirects) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        running.set(false);
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.SECONDS);
+
+        Arrays.sort(all);
+        System.out.printf("%s: redirects %d (p50 %.1f ms, p99 %.1f ms, max %.1f ms), creates %d ok, %d shed (503)%n",
+                limited ? "limited" : "unlimited", all.length, percentile(all, 0.50), percentile(all, 0.99),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6, created.get(), shed.get());
+        assertTrue(all.length > 0);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, sorted.length * p)] / 1e6;
+    }
+}
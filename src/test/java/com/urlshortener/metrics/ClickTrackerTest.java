@@ -0,0 +1,146 @@
+package com.urlshortener.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClickTrackerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    // Start on an hour boundary a while after the epoch
+    private final AtomicLong now = new AtomicLong(1_000 * HOUR);
+
+    @Test
+    void testPerMinuteAndPerHourBuckets() {
+        ClickTracker tracker = new ClickTracker(100, now::get);
+        tracker.record("a");
+        tracker.record("a");
+        now.addAndGet(MINUTE);
+        tracker.record("a");
+        now.addAndGet(59 * MINUTE);
+        tracker.record("a");
+
+        LinkClicks clicks = tracker.clicks("a", 42);
+        assertEquals(42, clicks.accessCount());
+        // The first minute has left the hour window, the second is the oldest bucket
+        assertEquals(2, clicks.lastHour());
+        assertEquals(1, clicks.perMinute()[0]);
+        assertEquals(1, clicks.perMinute()[59]);
+        assertEquals(3, clicks.perHour()[166]);
+        assertEquals(1, clicks.perHour()[167]);
+        assertEquals(4, clicks.lastDay());
+        assertEquals(4, clicks.lastWeek());
+    }
+
+    @Test
+    void testBucketsResetOnNextLap() {
+        ClickTracker tracker = new ClickTracker(100, now::get);
+        for (int i = 0; i < 5; i++) {
+            tracker.record("a");
+        }
+        // Same minute and hour slots one lap of each ring later
+        now.addAndGet(168 * HOUR);
+        tracker.record("a");
+
+        LinkClicks clicks = tracker.clicks("a", 0);
+        assertEquals(1, clicks.lastHour());
+        assertEquals(1, clicks.lastWeek());
+
+        now.addAndGet(8 * 24 * HOUR);
+        assertEquals(0, tracker.clicks("a", 0).lastWeek());
+    }
+
+    @Test
+    void testUnknownKeyIsAllZero() {
+        ClickTracker tracker = new ClickTracker(100, now::get);
+        LinkClicks clicks = tracker.clicks("missing", 0);
+        assertEquals(60, clicks.perMinute().length);
+        assertEquals(168, clicks.perHour().length);
+        assertEquals(0, clicks.lastWeek());
+    }
+
+    @Test
+    void testOneOffClicksAreNotTracked() {
+        ClickTracker tracker = new ClickTracker(1_000, now::get);
+        for (int i = 0; i < 10_000; i++) {
+            tracker.record("once" + i);
+        }
+        tracker.record("twice");
+        tracker.record("twice");
+
+        // Only doorkeeper false positives (a few percent) get a ring
+        assertTrue(tracker.trackedKeys() < 200, "tracked " + tracker.trackedKeys());
+        assertEquals(2, tracker.clicks("twice", 0).lastHour());
+    }
+
+    @Test
+    void testTrending() {
+        ClickTracker tracker = new ClickTracker(100, now::get);
+        record(tracker, "old", 50);
+        now.addAndGet(2 * HOUR);
+        record(tracker, "b", 3);
+        record(tracker, "a", 3);
+        record(tracker, "c", 7);
+
+        assertEquals(List.of(
+                new HeavyHitter("c", 7, 0),
+                new HeavyHitter("a", 3, 0)), tracker.trending(2, ClickWindow.LAST_HOUR));
+        assertEquals("old", tracker.trending(1, ClickWindow.LAST_DAY).get(0).item());
+    }
+
+    @Test
+    void testTrackedKeysAreBoundedAndRecentKeysKept() {
+        ClickTracker tracker = new ClickTracker(1_000, now::get);
+        record(tracker, "hot", 10);
+        for (int i = 0; i < 20_000; i++) {
+            if (i % 100 == 0) {
+                now.addAndGet(MINUTE);
+                tracker.record("hot");
+            }
+            tracker.record("k" + i);
+            tracker.record("k" + i);
+            assertTrue(tracker.trackedKeys() <= 1_000);
+        }
+        // Each minute the sweep makes room for the first 100 new keys of that minute
+        assertTrue(tracker.trackedKeys() >= 900);
+        assertEquals(60, tracker.clicks("hot", 0).lastHour());
+        assertEquals(0, tracker.clicks("k0", 0).lastWeek());
+        assertTrue(tracker.clicks("k19999", 0).lastHour() >= 2);
+    }
+
+    @Test
+    void testConcurrentClicksAreExact() throws Exception {
+        ClickTracker tracker = new ClickTracker(100, now::get);
+        // Once the key has a ring every click is counted
+        record(tracker, "a", 2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(pool.submit(() -> record(tracker, "a", 25_000)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(100_002, tracker.clicks("a", 0).lastHour());
+    }
+
+    private static void record(ClickTracker tracker, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.urlshortener.metrics;
+
+import com.urlshortener.id.InMemoryBlockCoordinator;
+import com.urlshortener.id.LeasedIdAllocator;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.InMemoryUrlStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShortenerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private UrlShortenerService service(int redirectSampleRate) {
+        return new UrlShortenerService(new InMemoryUrlStore(),
+                new LeasedIdAllocator(new InMemoryBlockCoordinator(0)),
+                new ShortenerMetrics(registry, redirectSampleRate));
+    }
+
+    @Test
+    void testShortenCountsCreatedExistingAndInvalid() {
+        UrlShortenerService service = service(1);
+        service.createShortUrl("https://example.com/a");
+        service.createShortUrl("https://example.com/a");
+        assertThrows(IllegalArgumentException.class, () -> service.createShortUrl("nope"));
+        service.createShortUrls(List.of("https://example.com/b", "https://example.com/a", "bad"));
+
+        assertEquals(2, shortenRequests("created"));
+        assertEquals(2, shortenRequests("existing"));
+        assertEquals(2, shortenRequests("invalid"));
+        assertEquals(2, registry.get("urlshortener.keys.generated").counter().count());
+        // Batches are timed once each, apart from single URLs
+        assertEquals(2, registry.get("urlshortener.shorten").timer().count());
+        assertEquals(1, registry.get("urlshortener.shorten.batch").timer().count());
+        assertEquals(2, registry.get("urlshortener.store.mappings").gauge().value());
+    }
+
+    @Test
+    void testRedirectsCountedAndTimed() {
+        UrlShortenerService service = service(1);
+        String key = service.createShortUrl("https://example.com/a").getShortKey();
+        service.findOriginalUrl(key);
+        service.findOriginalUrl(key);
+        service.findOriginalUrl("zzzzzz");
+        service.findOriginalUrl("not-base62!");
+
+        assertEquals(2, redirectRequests("found"));
+        assertEquals(2, redirectRequests("not_found"));
+        assertEquals(4, registry.get("urlshortener.redirect").timer().count());
+    }
+
+    @Test
+    void testRedirectTimingSampled() {
+        UrlShortenerService service = service(8);
+        String key = service.createShortUrl("https://example.com/a").getShortKey();
+        for (int i = 0; i < 8_000; i++) {
+            service.findOriginalUrl(key);
+        }
+
+        assertEquals(8_000, redirectRequests("found"));
+        long timed = registry.get("urlshortener.redirect").timer().count();
+        assertTrue(timed > 700 && timed < 1_300, "timed " + timed);
+    }
+
+    @Test
+    void testRedirectTimingOff() {
+        UrlShortenerService service = service(0);
+        String key = service.createShortUrl("https://example.com/a").getShortKey();
+        service.findOriginalUrl(key);
+
+        assertEquals(1, redirectRequests("found"));
+        assertEquals(0, registry.get("urlshortener.redirect").timer().count());
+    }
+
+    private double shortenRequests(String result) {
+        return registry.get("urlshortener.shorten.requests").tag("result", result).counter().count();
+    }
+
+    private double redirectRequests(String result) {
+        return registry.get("urlshortener.redirect.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,121 @@
+package com.urlshortener.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void testExactBelowCapacity() {
+        SpaceSaving summary = new SpaceSaving(10);
+        for (int i = 0; i < 5; i++) summary.add("a.com");
+        for (int i = 0; i < 3; i++) summary.add("b.com");
+        summary.add("c.com");
+
+        assertEquals(List.of(
+                new HeavyHitter("a.com", 5, 0),
+                new HeavyHitter("b.com", 3, 0)), summary.top(2));
+        assertEquals(9, summary.total());
+    }
+
+    @Test
+    void testBoundedMemoryKeepsHeavyHitters() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Random random = new Random(42);
+        int n = 100_000;
+        int heavy = 0;
+        for (int i = 0; i < n; i++) {
+            if (random.nextInt(10) == 0) {
+                summary.add("heavy.com");
+                heavy++;
+            } else {
+                summary.add("noise" + random.nextInt(10_000) + ".com");
+            }
+        }
+
+        assertEquals(50, summary.entries().size());
+        HeavyHitter top = summary.top(1).get(0);
+        assertEquals("heavy.com", top.item());
+        // Space-Saving guarantee: count - error <= true count <= count, error <= N / capacity
+        assertTrue(top.count() >= heavy);
+        assertTrue(top.count() - top.error() <= heavy);
+        assertTrue(top.error() <= n / 50);
+    }
+
+    @Test
+    void testEvictionInheritsMinimumCount() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add("a");
+        summary.add("a");
+        summary.add("b");
+        summary.add("c"); // evicts b (count 1)
+
+        assertEquals(List.of(
+                new HeavyHitter("a", 2, 0),
+                new HeavyHitter("c", 2, 1)), summary.top(5));
+    }
+
+    @Test
+    void testWindowsExpireOldSlices() {
+        AtomicLong now = new AtomicLong(1_000_000);
+        DomainTracker tracker = new DomainTracker(100, now::get);
+        tracker.record("old.com");
+        tracker.record("old.com");
+
+        now.addAndGet(5 * 60_000); // five minutes later
+        tracker.record("new.com");
+
+        assertEquals(List.of(new HeavyHitter("new.com", 1, 0)), tracker.top(3, TimeWindow.LAST_MINUTE));
+        assertEquals(List.of(
+                new HeavyHitter("old.com", 2, 0),
+                new HeavyHitter("new.com", 1, 0)), tracker.top(3, TimeWindow.LAST_HOUR));
+        assertEquals(tracker.top(3, TimeWindow.LAST_HOUR), tracker.top(3, TimeWindow.ALL_TIME));
+    }
+
+    @Test
+    void testMergedSlicesNeverUnderestimate() {
+        // Capacity 2: "a" is tracked in the first slice only and evicted from the second by one-off items
+        WindowedSpaceSaving window = new WindowedSpaceSaving(6, 1_000, 2);
+        for (int i = 0; i < 3; i++) window.add("a", 0);
+        window.add("x", 1_000);
+        window.add("a", 1_000);
+        window.add("y", 1_000); // evicts "a", the newest of the minimum-count items
+
+        HeavyHitter a = window.top(1, 1_000).get(0);
+        assertEquals("a", a.item());
+        // Summing tracked counts alone would report 3
+        assertEquals(new HeavyHitter("a", 4, 1), a);
+    }
+
+    @Test
+    void testStripedRecordsMergeExactlyBelowCapacity() throws Exception {
+        DomainTracker tracker = new DomainTracker(100, () -> 1_000_000, 4);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record(i % 10 == 0 ? "hot.com" : "d" + (i % 20) + ".com");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (TimeWindow window : TimeWindow.values()) {
+            assertEquals(new HeavyHitter("hot.com", 8_000, 0), tracker.top(1, window).get(0));
+        }
+    }
+
+    @Test
+    void testTimeWindowLabels() {
+        assertEquals(TimeWindow.LAST_DAY, TimeWindow.fromLabel("24h"));
+        assertThrows(IllegalArgumentException.class, () -> TimeWindow.fromLabel("2d"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.ColumnarUrlStore;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures bulk import throughput into the columnar store. Skipped unless a record count is given, e.g.
+ * {@code mvn test -Dtest=ImportBenchmarkTest -Dbenchmark.records=50000000 -Dbenchmark.format=csv}
+ * (format defaults to ndjson). The input file is generated by exporting a source store of the same size,
+ * so give the JVM room for two copies; the import itself only adds its fixed chunk pool.
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class ImportBenchmarkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void measureImport() throws Exception {
+        long records = Long.getLong("benchmark.records");
+        TransferFormat format = TransferFormat.fromLabel(System.getProperty("benchmark.format", "ndjson"));
+        Path file = dir.resolve("mappings." + format.label());
+        LocalDateTime now = LocalDateTime.now();
+
+        try (UrlStore source = new ColumnarUrlStore();
+             FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            for (long id = 1; id <= records; id++) {
+                ShortUrl shortUrl = new ShortUrl();
+                shortUrl.setShortKey(Base62Util.encode(id));
+                shortUrl.setOriginalUrl("https://example.com/articles/" + id + "?utm_source=benchmark");
+                shortUrl.setCreatedAt(now);
+                source.putIfAbsent(shortUrl);
+            }
+            MappingExporter.export(source, out, format);
+        }
+        System.gc();
+
+        AtomicLong counter = new AtomicLong();
+        long started = System.nanoTime();
+        try (UrlStore target = new ColumnarUrlStore();
+             FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ImportResult result = new MappingImporter(target, 0).importFrom(in, format,
+                    id -> counter.accumulateAndGet(id, Math::max));
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.printf("Imported %d %s records (%d MB) in %d ms (%.0f records/s)%n",
+                    result.imported(), format.label(), Files.size(file) >> 20, millis,
+                    result.imported() * 1000.0 / Math.max(1, millis));
+            assertEquals(records, result.imported());
+            assertEquals(records, counter.get());
+        }
+    }
+}
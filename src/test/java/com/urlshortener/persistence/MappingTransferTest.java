@@ -0,0 +1,278 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.id.IdAllocator;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.ColumnarUrlStore;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappingTransferTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+
+    private static byte[] export(UrlStore store, TransferFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MappingExporter.export(store, Channels.newChannel(out), format);
+        return out.toByteArray();
+    }
+
+    private static ImportResult importInto(UrlStore store, byte[] input, TransferFormat format,
+                                           AtomicLong counter) throws IOException {
+        // Small chunks so that records straddle chunk boundaries
+        return new MappingImporter(store, 3, 256).importFrom(
+                Channels.newChannel(new ByteArrayInputStream(input)), format,
+                id -> counter.accumulateAndGet(id, Math::max));
+    }
+
+    private static ShortUrl mapping(String key, String url, long accessCount) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(key);
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setCreatedAt(CREATED);
+        shortUrl.setAccessCount(accessCount);
+        return shortUrl;
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void testRoundTrip(TransferFormat format) throws Exception {
+        UrlStore source = new InMemoryUrlStore();
+        for (int i = 1; i <= 500; i++) {
+            source.putIfAbsent(mapping(Long.toString(i, 36).replace('0', 'z'), "https://example.com/" + i, i));
+        }
+        source.putIfAbsent(mapping("Quo7", "https://example.com/a,b?q=%22%C3%A9%5C", 7)); // quoted in CSV
+
+        UrlStore target = new ColumnarUrlStore();
+        AtomicLong counter = new AtomicLong();
+        ImportResult result = importInto(target, export(source, format), format, counter);
+
+        assertEquals(source.size(), result.imported());
+        assertEquals(0, result.rejected());
+        assertEquals(source.maxId(), result.maxId());
+        assertEquals(source.maxId(), counter.get());
+        source.forEach(expected -> {
+            ShortUrl actual = target.findByKey(expected.getShortKey());
+            assertNotNull(actual, expected.getShortKey());
+            assertEquals(expected.getOriginalUrl(), actual.getOriginalUrl());
+            assertEquals(CREATED, actual.getCreatedAt());
+            assertEquals(expected.getAccessCount(), actual.getAccessCount());
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void testRoundTrip_KeepsExpiry(TransferFormat format) throws Exception {
+        UrlStore source = new InMemoryUrlStore();
+        ShortUrl expiring = mapping("b", "https://example.com/expiring", 1);
+        expiring.setExpiresAt(CREATED.plusDays(30));
+        source.putIfAbsent(expiring);
+        source.putIfAbsent(mapping("c", "https://example.com/permanent", 2));
+
+        UrlStore target = new InMemoryUrlStore();
+        ImportResult result = importInto(target, export(source, format), format, new AtomicLong());
+
+        assertEquals(2, result.imported());
+        assertEquals(CREATED.plusDays(30), target.findByKey("b").getExpiresAt());
+        assertNull(target.findByKey("c").getExpiresAt());
+    }
+
+    @Test
+    void testImport_CsvWithoutExpiryColumn() throws Exception {
+        String csv = "originalUrl,shortKey,createdAt,accessCount\n"
+                + "https://example.com/1,b,2024-05-01T12:30:15,4\n"
+                + "https://example.com/2,c,,0,2024-06-01T00:00\n"
+                + "https://example.com/3,d,,0,never\n"; // bad expiry
+        UrlStore store = new InMemoryUrlStore();
+        ImportResult result = importInto(store, csv.getBytes(StandardCharsets.UTF_8), TransferFormat.CSV,
+                new AtomicLong());
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+        assertNull(store.findByKey("b").getExpiresAt());
+        assertEquals(LocalDateTime.of(2024, 6, 1, 0, 0), store.findByKey("c").getExpiresAt());
+    }
+
+    @Test
+    void testImport_SkipsInvalidRowsAndDuplicates() throws Exception {
+        String csv = TextMappingCodec.CSV_HEADER + "\r\n"
+                + "https://example.com/1,b,2024-05-01T12:30:15,4\r\n"
+                + "https://example.com/2,0b,,0\r\n"       // non-canonical key
+                + "https://example.com/3,c,yesterday,0\n"  // bad timestamp
+                + "\"https://example.com/4,x\",d,,1\n"
+                + "https://example.com/5,b,,0\n";          // key already imported
+        UrlStore store = new InMemoryUrlStore();
+        ImportResult result = importInto(store, csv.getBytes(StandardCharsets.UTF_8), TransferFormat.CSV,
+                new AtomicLong());
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.duplicates());
+        assertEquals(2, result.rejected());
+        assertEquals("https://example.com/4,x", store.findByKey("d").getOriginalUrl());
+        assertEquals(4, store.findByKey("b").getAccessCount());
+    }
+
+    @Test
+    void testImport_NdjsonIgnoresUnknownFields() throws Exception {
+        String ndjson = "{\"shortKey\":\"e\",\"extra\":{\"a\":[1]},\"originalUrl\":\"https://example.com/e\"}\n"
+                + "not json\n"
+                + "{\"originalUrl\":\"https://example.com/f\"}\n"; // no key
+        UrlStore store = new InMemoryUrlStore();
+        ImportResult result = importInto(store, ndjson.getBytes(StandardCharsets.UTF_8), TransferFormat.NDJSON,
+                new AtomicLong());
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.rejected());
+        assertNotNull(store.findByKey("e").getCreatedAt());
+    }
+
+    @ParameterizedTest
+    @EnumSource(TransferFormat.class)
+    void testImport_CanonicalizesUrlsAndRejectsInvalidOnes(TransferFormat format) throws Exception {
+        UrlStore source = new InMemoryUrlStore();
+        source.putIfAbsent(mapping("b", "HTTPS://Example.COM:443/a", 0));
+        source.putIfAbsent(mapping("c", "javascript:alert(1)", 0));
+        source.putIfAbsent(mapping("d", "https://exa mple.com/", 0));
+
+        UrlStore store = new InMemoryUrlStore();
+        ImportResult result = importInto(store, export(source, format), format, new AtomicLong());
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals("https://example.com/a", store.findByKey("b").getOriginalUrl());
+        assertNull(store.findByKey("c"));
+        assertNull(store.findByKey("d"));
+    }
+
+    @Test
+    void testImport_MissingCreatedAtIsImportTimeOnEveryStore() throws Exception {
+        byte[] csv = (TextMappingCodec.CSV_HEADER + "\nhttps://example.com/1,b,,0\n")
+                .getBytes(StandardCharsets.UTF_8);
+        for (UrlStore store : List.of(new InMemoryUrlStore(), new ColumnarUrlStore())) {
+            LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            importInto(store, csv, TransferFormat.CSV, new AtomicLong());
+
+            LocalDateTime createdAt = store.findByKey("b").getCreatedAt();
+            assertFalse(createdAt.isBefore(before), store.getClass().getSimpleName());
+            assertFalse(createdAt.isAfter(LocalDateTime.now()), store.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void testImport_CorruptBinaryFails() throws Exception {
+        UrlStore source = new InMemoryUrlStore();
+        source.putIfAbsent(mapping("b", "https://example.com/b", 0));
+        byte[] binary = export(source, TransferFormat.BINARY);
+        binary[binary.length - 1] ^= 1;
+
+        assertThrows(IOException.class,
+                () -> importInto(new InMemoryUrlStore(), binary, TransferFormat.BINARY, new AtomicLong()));
+    }
+
+    @Test
+    void testServiceImport_KeepsCounterAheadOfImportedIds() throws Exception {
+        UrlStore source = new InMemoryUrlStore();
+        source.putIfAbsent(mapping("ZZ", "https://example.com/old", 0));
+
+        UrlShortenerService service = new UrlShortenerService(new InMemoryUrlStore());
+        service.importMappings(Channels.newChannel(new ByteArrayInputStream(export(source, TransferFormat.NDJSON))),
+                TransferFormat.NDJSON);
+
+        assertEquals("https://example.com/old", service.getOriginalUrl("ZZ"));
+        ShortUrl created = service.createShortUrl("https://example.com/new");
+        assertEquals("100", created.getShortKey()); // "ZZ" + 1
+    }
+
+    @Test
+    void testServiceImport_ConcurrentCreatesKeepImportedRows() throws Exception {
+        // Dense ids from 1: creates racing the import are handed ids the import is about to insert
+        int rows = 20_000;
+        UrlStore source = new InMemoryUrlStore();
+        for (int i = 1; i <= rows; i++) {
+            source.putIfAbsent(mapping(Base62Util.encode(i), "https://example.com/imported/" + i, 0));
+        }
+        byte[] ndjson = export(source, TransferFormat.NDJSON);
+
+        UrlStore store = new InMemoryUrlStore();
+        UrlShortenerService service = new UrlShortenerService(store);
+        List<ShortUrl> created = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean importing = new AtomicBoolean(true);
+        List<Thread> creators = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String prefix = "https://example.com/created/" + t + "/";
+            Thread creator = new Thread(() -> {
+                for (int i = 0; importing.get(); i++) {
+                    created.add(service.createShortUrl(prefix + i));
+                }
+            });
+            creator.start();
+            creators.add(creator);
+        }
+        ImportResult result;
+        try {
+            result = service.importMappings(Channels.newChannel(new ByteArrayInputStream(ndjson)),
+                    TransferFormat.NDJSON);
+        } finally {
+            importing.set(false);
+            for (Thread creator : creators) {
+                creator.join();
+            }
+        }
+
+        // Nothing was overwritten: every create and every imported row that was not a duplicate is stored
+        assertEquals(rows, result.imported() + result.duplicates());
+        assertEquals(result.imported() + created.size(), store.size());
+        for (ShortUrl shortUrl : created) {
+            assertEquals(shortUrl.getOriginalUrl(), store.findByKey(shortUrl.getShortKey()).getOriginalUrl());
+        }
+    }
+
+    @Test
+    void testServiceCreate_SkipsIdImportedAfterItWasHandedOut() {
+        UrlStore store = new InMemoryUrlStore();
+        AtomicLong next = new AtomicLong();
+        IdAllocator ids = new IdAllocator() {
+            @Override
+            public long nextId() {
+                long id = next.incrementAndGet();
+                if (id == 1) {
+                    // An import reserves and inserts the id between the allocation and the create's insert
+                    advanceTo(id);
+                    store.putIfAbsent(mapping(Base62Util.encode(id), "https://example.com/imported", 0));
+                }
+                return id;
+            }
+
+            @Override
+            public void advanceTo(long id) {
+                next.accumulateAndGet(id, Math::max);
+            }
+        };
+
+        ShortUrl created = new UrlShortenerService(store, ids).createShortUrl("https://example.com/new");
+
+        assertEquals("2", created.getShortKey());
+        assertEquals("https://example.com/imported", store.findByKey("1").getOriginalUrl());
+        assertEquals("https://example.com/new", store.findByKey("2").getOriginalUrl());
+        assertEquals(2, store.size());
+    }
+}
@@ -0,0 +1,158 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceManagerTest {
+
+    @TempDir
+    Path dir;
+
+    private UrlStore open(FsyncPolicy policy) throws IOException {
+        return new PersistenceManager(dir, policy, 10, 0, 2).open(new InMemoryUrlStore());
+    }
+
+    @Test
+    void testRecover_FromLog() throws Exception {
+        String key;
+        try (UrlStore store = open(FsyncPolicy.ALWAYS)) {
+            UrlShortenerService service = new UrlShortenerService(store);
+            key = service.createShortUrl("https://example.com/a").getShortKey();
+            service.createShortUrl("https://example.com/b");
+        }
+
+        try (UrlStore store = open(FsyncPolicy.ALWAYS)) {
+            UrlShortenerService service = new UrlShortenerService(store);
+            assertEquals(2, store.size());
+            assertEquals("https://example.com/a", service.getOriginalUrl(key));
+            assertEquals(key, service.createShortUrl("https://example.com/a").getShortKey());
+
+            // The counter continues after the recovered ids
+            ShortUrl next = service.createShortUrl("https://example.com/c");
+            assertEquals(3, store.maxId());
+            assertEquals("3", next.getShortKey());
+        }
+    }
+
+    @Test
+    void testRecover_FromSnapshotAndTail() throws Exception {
+        PersistenceManager persistence = new PersistenceManager(dir, FsyncPolicy.INTERVAL, 10, 0, 3);
+        try (UrlStore store = persistence.open(new InMemoryUrlStore())) {
+            UrlShortenerService service = new UrlShortenerService(store);
+            for (int i = 0; i < 100; i++) {
+                service.createShortUrl("https://example.com/" + i);
+            }
+            service.getOriginalUrl("1");
+            persistence.snapshot();
+            for (int i = 100; i < 150; i++) {
+                service.createShortUrl("https://example.com/" + i);
+            }
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            // One snapshot plus the segment started by it; older segments were compacted away
+            assertEquals(2, files.count());
+        }
+
+        try (UrlStore store = open(FsyncPolicy.INTERVAL)) {
+            assertEquals(150, store.size());
+            assertEquals(150, store.maxId());
+            assertEquals("https://example.com/0", store.findByKey("1").getOriginalUrl());
+            assertEquals(1, store.findByKey("1").getAccessCount());
+        }
+    }
+
+    @Test
+    void testRecover_KeepsExpiry() throws Exception {
+        LocalDateTime expiresAt = LocalDateTime.of(2030, 1, 2, 3, 4, 5, 6_000_000);
+        PersistenceManager persistence = new PersistenceManager(dir, FsyncPolicy.ALWAYS, 10, 0, 2);
+        try (UrlStore store = persistence.open(new InMemoryUrlStore())) {
+            // Mappings 1-15 are recovered from the snapshot, 16-25 from the log tail
+            for (int i = 0; i < 25; i++) {
+                if (i == 15) {
+                    persistence.snapshot();
+                }
+                ShortUrl shortUrl = new ShortUrl();
+                shortUrl.setShortKey(Integer.toString(i + 1));
+                shortUrl.setOriginalUrl("https://example.com/" + i);
+                shortUrl.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0));
+                shortUrl.setExpiresAt(i % 2 == 0 ? expiresAt : null);
+                assertTrue(store.putIfAbsent(shortUrl));
+            }
+            new UrlShortenerService(store).createShortUrl("https://example.com/plain");
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.anyMatch(file -> file.getFileName().toString().startsWith("snapshot-")));
+        }
+
+        try (UrlStore store = open(FsyncPolicy.ALWAYS)) {
+            assertEquals(26, store.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals(i % 2 == 0 ? expiresAt : null, store.findByKey(Integer.toString(i + 1)).getExpiresAt());
+            }
+            assertNull(store.findByKey("26").getExpiresAt());
+        }
+    }
+
+    @Test
+    void testClose_DuringSnapshot() throws Exception {
+        PersistenceManager persistence = new PersistenceManager(dir, FsyncPolicy.INTERVAL, 10, 0, 2);
+        UrlStore store = persistence.open(new InMemoryUrlStore());
+        UrlShortenerService service = new UrlShortenerService(store);
+        for (int i = 0; i < 20_000; i++) {
+            service.createShortUrl("https://example.com/" + i);
+        }
+
+        // Whichever takes the monitor first, the snapshot neither fails nor rotates a closed log
+        ExecutorService snapshots = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> running = snapshots.submit(() -> {
+                persistence.snapshot();
+                return null;
+            });
+            store.close();
+            running.get(30, TimeUnit.SECONDS);
+            persistence.snapshot();
+        } finally {
+            snapshots.shutdownNow();
+        }
+
+        try (UrlStore reopened = open(FsyncPolicy.INTERVAL)) {
+            assertEquals(20_000, reopened.size());
+        }
+    }
+
+    @Test
+    void testRecover_IgnoresTornTail() throws Exception {
+        try (UrlStore store = open(FsyncPolicy.ALWAYS)) {
+            new UrlShortenerService(store).createShortUrl("https://example.com/a");
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(p -> p.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        }
+        // Simulate a crash in the middle of writing the next record
+        Files.write(segment, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (UrlStore store = open(FsyncPolicy.ALWAYS)) {
+            assertEquals(1, store.size());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.urlshortener.persistence;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.InMemoryUrlStore;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures startup recovery time. Skipped unless a record count is given, e.g.
+ * {@code mvn test -Dtest=RecoveryBenchmarkTest -Dbenchmark.records=10000000}
+ * (100M records needs a heap of roughly 40 GB with the in-memory store).
+ * 90% of the records go to a snapshot, the rest stay in the log tail.
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class RecoveryBenchmarkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void measureRecovery() throws Exception {
+        long records = Long.getLong("benchmark.records");
+        LocalDateTime now = LocalDateTime.now();
+
+        PersistenceManager persistence = new PersistenceManager(dir, FsyncPolicy.NEVER, 100, 0, 0);
+        try (UrlStore store = persistence.open(new InMemoryUrlStore())) {
+            for (long id = 1; id <= records; id++) {
+                ShortUrl shortUrl = new ShortUrl();
+                shortUrl.setShortKey(Base62Util.encode(id));
+                shortUrl.setOriginalUrl("https://example.com/articles/" + id + "?utm_source=benchmark");
+                shortUrl.setCreatedAt(now);
+                store.putIfAbsent(shortUrl);
+                if (id == records * 9 / 10) {
+                    persistence.snapshot();
+                }
+            }
+        }
+
+        long started = System.nanoTime();
+        try (UrlStore store = new PersistenceManager(dir, FsyncPolicy.NEVER, 100, 0, 0).open(new InMemoryUrlStore())) {
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            System.out.printf("Recovered %d records in %d ms (%.0f records/s)%n",
+                    store.size(), millis, store.size() * 1000.0 / Math.max(1, millis));
+            assertEquals(records, store.size());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.store.UrlStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A leader and a follower on loopback, plus a follower started late that catches up from a snapshot.
+ */
+class ReplicationIntegrationTest {
+
+    private static final Pattern SHORT_KEY = Pattern.compile("\"shortKey\":\"(\\w+)\"");
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private static HttpClient http;
+    private static int replicationPort;
+    private static String leader;
+    private static String follower;
+
+    @BeforeAll
+    static void start() throws Exception {
+        http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+        replicationPort = freePort();
+        leader = startNode("--app.replication.role=leader",
+                "--app.replication.count-interval-millis=50",
+                "--app.expiration.enabled=true",
+                "--app.expiration.tick-millis=100");
+        follower = startFollower();
+    }
+
+    @AfterAll
+    static void stop() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static String startFollower() throws IOException {
+        return startNode("--app.replication.role=follower", "--app.replication.leader-host=127.0.0.1",
+                "--app.replication.leader-url=" + leader, "--app.replication.reconnect-millis=100");
+    }
+
+    private static String startNode(String... extraArgs) throws IOException {
+        int port = freePort();
+        String baseUrl = "http://127.0.0.1:" + port;
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--app.base-url=" + baseUrl,
+                "--app.replication.port=" + replicationPort,
+                "--app.replication.heartbeat-millis=100",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        contexts.add(SpringApplication.run(UrlShortenerApplication.class, args.toArray(String[]::new)));
+        return baseUrl;
+    }
+
+    private static <T> T bean(String node, Class<T> type) {
+        return contexts.get(List.of(leader, follower).indexOf(node)).getBean(type);
+    }
+
+    private static String shorten(String node, String body) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(node + "/api/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        Matcher matcher = SHORT_KEY.matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return matcher.group(1);
+    }
+
+    private static int redirect(String node, String key) {
+        try {
+            return http.send(HttpRequest.newBuilder(URI.create(node + "/r/" + key)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for " + what);
+            Thread.sleep(20);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void testLinksShortenedOnTheLeaderRedirectOnTheFollower() throws Exception {
+        String key = shorten(leader, "{\"originalUrl\":\"https://replica.example/leader\"}");
+        assertEquals(302, redirect(leader, key));
+
+        await(() -> redirect(follower, key) == 302, "the create to reach the follower");
+        assertTrue(bean(follower, ReplicationFollower.class).isConnected());
+    }
+
+    @Test
+    void testShorteningOnTheFollowerIsForwardedToTheLeader() throws Exception {
+        String key = shorten(follower, "{\"originalUrl\":\"https://replica.example/follower\"}");
+        assertEquals(302, redirect(leader, key));
+        assertNotNull(bean(leader, UrlStore.class).findByKey(key));
+        await(() -> redirect(follower, key) == 302, "the forwarded create to be replicated back");
+
+        // Idempotent whichever node receives the create
+        assertEquals(key, shorten(leader, "{\"originalUrl\":\"https://replica.example/follower\"}"));
+    }
+
+    @Test
+    void testAccessCountsAreReplicated() throws Exception {
+        String key = shorten(leader, "{\"originalUrl\":\"https://replica.example/counted\"}");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(302, redirect(leader, key));
+        }
+        UrlStore replica = bean(follower, UrlStore.class);
+        await(() -> replica.findByKey(key) != null && replica.findByKey(key).getAccessCount() == 3,
+                "3 accesses on the follower");
+
+        ReplicationFollower replication = bean(follower, ReplicationFollower.class);
+        await(() -> replication.lagChanges() == 0, "the follower to catch up");
+        assertTrue(replication.applied() > 0);
+    }
+
+    @Test
+    void testExpiriesAreReplicated() throws Exception {
+        String key = shorten(leader, "{\"originalUrl\":\"https://replica.example/expiring\",\"ttlSeconds\":1}");
+        await(() -> redirect(follower, key) == 302, "the create to reach the follower");
+        // Answered as expired, like on the leader, rather than unknown
+        await(() -> redirect(follower, key) == 410, "the expiry to reach the follower");
+        assertEquals(410, redirect(leader, key));
+        assertNull(bean(follower, UrlStore.class).findByKey(key));
+        assertTrue(bean(follower, ReplicationFollower.class).isExpired(key));
+    }
+
+    @Test
+    void testFollowerRequiresTheInMemoryStore() {
+        Exception e = assertThrows(Exception.class, () -> startNode("--app.replication.role=follower",
+                "--app.replication.leader-host=127.0.0.1", "--app.replication.leader-url=" + leader,
+                "--app.store.type=columnar"));
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertEquals("app.replication.role=follower requires app.store.type=memory without persistence",
+                cause.getMessage());
+    }
+
+    @Test
+    void testLateFollowerCatchesUpFromASnapshot() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            keys.add(shorten(leader, "{\"originalUrl\":\"https://replica.example/early/" + i + "\"}"));
+        }
+
+        String late = startFollower();
+        ReplicationFollower replication = contexts.get(contexts.size() - 1).getBean(ReplicationFollower.class);
+        await(() -> replication.snapshots() == 1, "the late follower's snapshot");
+        for (String key : keys) {
+            await(() -> redirect(late, key) == 302, "key " + key + " on the late follower");
+        }
+
+        // Changes after the snapshot are streamed
+        String key = shorten(leader, "{\"originalUrl\":\"https://replica.example/after-snapshot\"}");
+        await(() -> redirect(late, key) == 302, "a create after the snapshot");
+        assertEquals(1, replication.snapshots());
+    }
+}
@@ -0,0 +1,136 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.store.UrlStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A leader restarted while its follower stays connected: the new run reissues keys from the start, so the
+ * follower must drop every mapping of the old run rather than merge the new snapshot into them.
+ */
+class ReplicationLeaderRestartTest {
+
+    private static final Pattern SHORT_KEY = Pattern.compile("\"shortKey\":\"(\\w+)\"");
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+    private final HttpClient http = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NEVER).build();
+    private int replicationPort;
+
+    @AfterEach
+    void stop() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private ConfigurableApplicationContext startNode(String... extraArgs) throws IOException {
+        int port = freePort();
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--app.base-url=http://127.0.0.1:" + port,
+                "--app.replication.port=" + replicationPort,
+                "--app.replication.heartbeat-millis=100",
+                "--logging.level.root=WARN"));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = SpringApplication.run(UrlShortenerApplication.class,
+                args.toArray(String[]::new));
+        contexts.add(context);
+        return context;
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    private String shorten(ConfigurableApplicationContext node, String url) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl(node) + "/api/shorten"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"originalUrl\":\"" + url + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        Matcher matcher = SHORT_KEY.matcher(response.body());
+        assertTrue(matcher.find(), response.body());
+        return matcher.group(1);
+    }
+
+    private HttpResponse<Void> redirect(ConfigurableApplicationContext node, String key) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl(node) + "/r/" + key)).build(),
+                HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for " + what);
+            Thread.sleep(20);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void testFollowerDropsTheOldRunAfterALeaderRestart() throws Exception {
+        replicationPort = freePort();
+        ConfigurableApplicationContext leader = startNode("--app.replication.role=leader");
+        List<String> oldKeys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            oldKeys.add(shorten(leader, "https://restart.example/old/" + i));
+        }
+
+        ConfigurableApplicationContext follower = startNode("--app.replication.role=follower",
+                "--app.replication.leader-host=127.0.0.1", "--app.replication.leader-url=" + baseUrl(leader),
+                "--app.replication.reconnect-millis=100", "--app.cache.enabled=true");
+        UrlStore replica = follower.getBean(UrlStore.class);
+        ReplicationFollower replication = follower.getBean(ReplicationFollower.class);
+        await(() -> replica.size() == 10, "the old run on the follower");
+        for (String key : oldKeys) {
+            assertEquals(302, redirect(follower, key).statusCode()); // and into the follower's cache
+        }
+
+        // Same replication port, fresh store: keys are issued again from the start, for other URLs
+        leader.close();
+        contexts.remove(leader);
+        leader = startNode("--app.replication.role=leader");
+        List<String> newKeys = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            newKeys.add(shorten(leader, "https://restart.example/new/" + i));
+        }
+        UrlStore leaderStore = leader.getBean(UrlStore.class);
+        await(() -> replication.snapshots() == 2 && replica.size() == 5, "the new run's snapshot to replace the old");
+
+        for (int i = 0; i < newKeys.size(); i++) {
+            HttpResponse<Void> response = redirect(follower, newKeys.get(i));
+            assertEquals(302, response.statusCode());
+            assertEquals("https://restart.example/new/" + i, response.headers().firstValue("Location").orElseThrow());
+        }
+        for (String key : oldKeys) {
+            ShortUrl current = leaderStore.findByKey(key);
+            HttpResponse<Void> response = redirect(follower, key);
+            if (current == null) {
+                assertEquals(404, response.statusCode(), key);
+            } else {
+                assertEquals(current.getOriginalUrl(), response.headers().firstValue("Location").orElseThrow(), key);
+            }
+        }
+    }
+}
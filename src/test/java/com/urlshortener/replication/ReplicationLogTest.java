@@ -0,0 +1,95 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.model.ShortUrl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationLogTest {
+
+    private final ReplicationLog log = new ReplicationLog(4, 60_000);
+
+    @AfterEach
+    void close() {
+        log.close();
+    }
+
+    private static ShortUrl mapping(String key) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(key);
+        shortUrl.setOriginalUrl("https://example.com/" + key);
+        shortUrl.setCreatedAt(LocalDateTime.now());
+        return shortUrl;
+    }
+
+    @Test
+    void testChangesAreNumberedInOrder() throws Exception {
+        log.created(mapping("a"));
+        log.createdAll(List.of(mapping("b"), mapping("c")));
+        log.removed("a");
+
+        List<ReplicationLog.Change> changes = log.await(0, 10, 0);
+        assertEquals(4, changes.size());
+        assertEquals(List.of(1L, 2L, 3L, 4L), changes.stream().map(ReplicationLog.Change::seq).toList());
+        assertEquals(List.of("a", "b", "c", "a"), changes.stream().map(ReplicationLog.Change::key).toList());
+        assertEquals(ReplicationLog.Change.CREATE, changes.get(0).kind());
+        assertEquals(ReplicationLog.Change.EXPIRE, changes.get(3).kind());
+
+        assertEquals(List.of(3L), log.await(2, 1, 0).stream().map(ReplicationLog.Change::seq).toList());
+        assertEquals(List.of(), log.await(4, 10, 10));
+    }
+
+    @Test
+    void testAccessesAreFlushedAsOneCountPerKey() throws Exception {
+        log.accessed("a", 1);
+        log.accessed("a", 1);
+        log.accessed("b", 5);
+        log.flushCounts();
+
+        List<ReplicationLog.Change> changes = log.await(0, 10, 0);
+        assertEquals(2, changes.size());
+        for (ReplicationLog.Change change : changes) {
+            assertEquals(ReplicationLog.Change.COUNT, change.kind());
+            assertEquals(change.key().equals("a") ? 2 : 5, change.count());
+        }
+
+        // Nothing accessed since: no new changes
+        log.flushCounts();
+        assertEquals(2, log.lastSeq());
+    }
+
+    @Test
+    void testFollowersBehindTheRingMustTakeASnapshot() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            log.created(mapping("k" + i));
+        }
+        assertTrue(log.canResumeFrom(6));
+        assertTrue(log.canResumeFrom(2));
+        assertFalse(log.canResumeFrom(1));
+        assertFalse(log.canResumeFrom(7));
+
+        assertEquals(List.of("k2", "k3", "k4", "k5"),
+                log.await(2, 10, 0).stream().map(ReplicationLog.Change::key).toList());
+        assertNull(log.await(1, 10, 0));
+    }
+
+    @Test
+    void testAwaitWakesUpOnAppend() throws Exception {
+        Thread appender = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            log.created(mapping("late"));
+        });
+        appender.start();
+        List<ReplicationLog.Change> changes = log.await(0, 10, 10_000);
+        appender.join();
+        assertEquals("late", changes.get(0).key());
+    }
+}
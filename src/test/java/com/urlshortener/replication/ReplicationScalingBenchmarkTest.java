@@ -0,0 +1,194 @@
+package com.urlshortener.replication;
+
+import com.urlshortener.UrlShortenerApplication;
+import com.urlshortener.cluster.ClusterClient;
+import com.urlshortener.model.ShortUrl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redirect throughput of a leader alone and with 1 and 3 read replicas, each node in its own JVM on loopback.
+ * Skipped unless a key count is given, e.g.
+ * {@code mvn test -Dtest=ReplicationScalingBenchmarkTest -Dbenchmark.records=100000 -Dbenchmark.clients=32}
+ * <p>
+ * Links are shortened on the leader only; redirects are spread over every node once the followers have
+ * caught up. Node logs are written to target/replication-benchmark. All processes share this machine, so
+ * scaling is bounded by its cores.
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class ReplicationScalingBenchmarkTest {
+
+    private static final long DURATION_MILLIS = 10_000;
+    private static final Pattern VALUE = Pattern.compile("\"value\":([-0-9.E]+)");
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @Test
+    void measureReadScaling() throws Exception {
+        int records = Integer.getInteger("benchmark.records");
+        int clients = Integer.getInteger("benchmark.clients", 16);
+        for (int followers : new int[]{0, 1, 3}) {
+            List<Process> processes = new ArrayList<>();
+            try {
+                int replicationPort = freePort();
+                List<String> nodes = new ArrayList<>();
+                String leader = startNode(processes, "leader", replicationPort, "--app.replication.role=leader");
+                nodes.add(leader);
+                for (int i = 0; i < followers; i++) {
+                    nodes.add(startNode(processes, "follower-" + i, replicationPort,
+                            "--app.replication.role=follower", "--app.replication.leader-host=127.0.0.1",
+                            "--app.replication.leader-url=" + leader));
+                }
+                for (String node : nodes) {
+                    awaitHealthy(node);
+                }
+
+                String[] keys = seed(leader, records);
+                long seeded = System.currentTimeMillis();
+                for (String node : nodes) {
+                    awaitRedirect(node, keys[keys.length - 1]);
+                }
+                long caughtUp = System.currentTimeMillis() - seeded;
+
+                double throughput = run(nodes, keys, clients);
+                String lag = followers == 0 ? "-" : metric(nodes.get(1), "urlshortener.replication.lag") + " s";
+                System.out.printf("leader + %d follower(s): %.0f redirects/s, caught up %d ms after seeding, "
+                        + "lag after load %s%n", followers, throughput, caughtUp, lag);
+            } finally {
+                for (Process process : processes) {
+                    process.destroy();
+                }
+                for (Process process : processes) {
+                    process.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        }
+    }
+
+    private static String startNode(List<Process> processes, String name, int replicationPort, String... extraArgs)
+            throws IOException {
+        int port = freePort();
+        String baseUrl = "http://127.0.0.1:" + port;
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx1g",
+                "-cp", System.getProperty("java.class.path"),
+                UrlShortenerApplication.class.getName(),
+                "--server.port=" + port,
+                "--app.base-url=" + baseUrl,
+                "--app.replication.port=" + replicationPort,
+                "--logging.level.root=WARN"));
+        command.addAll(List.of(extraArgs));
+        File log = new File("target/replication-benchmark/" + name + ".log");
+        log.getParentFile().mkdirs();
+        processes.add(new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start());
+        return baseUrl;
+    }
+
+    private String[] seed(String leader, int records) {
+        ClusterClient client = new ClusterClient(Map.of("leader", URI.create(leader)));
+        String[] keys = new String[records];
+        for (int from = 0; from < records; from += 1000) {
+            List<String> urls = new ArrayList<>();
+            for (int i = from; i < Math.min(records, from + 1000); i++) {
+                urls.add("https://replica.example/" + i);
+            }
+            List<ShortUrl> created = client.createAll("leader", urls);
+            for (int j = 0; j < created.size(); j++) {
+                keys[from + j] = created.get(j).getShortKey();
+            }
+        }
+        return keys;
+    }
+
+    private void awaitHealthy(String node) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (true) {
+            try {
+                HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(node + "/actuator/health"))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            assertTrue(System.currentTimeMillis() < deadline, node + " did not start");
+            Thread.sleep(100);
+        }
+    }
+
+    private void awaitRedirect(String node, String key) throws Exception {
+        long deadline = System.currentTimeMillis() + 120_000;
+        while (http.send(HttpRequest.newBuilder(URI.create(node + "/r/" + key)).build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode() != 302) {
+            assertTrue(System.currentTimeMillis() < deadline, node + " did not catch up");
+            Thread.sleep(10);
+        }
+    }
+
+    private String metric(String node, String name) throws Exception {
+        String body = http.send(HttpRequest.newBuilder(URI.create(node + "/actuator/metrics/" + name)).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = VALUE.matcher(body);
+        return matcher.find() ? matcher.group(1) : "?";
+    }
+
+    private double run(List<String> nodes, String[] keys, int clients) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(pool.submit(() -> {
+                long done = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    String key = keys[random.nextInt(keys.length)];
+                    URI uri = URI.create(nodes.get(random.nextInt(nodes.size())) + "/r/" + key);
+                    HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    assertEquals(302, response.statusCode());
+                    done++;
+                }
+                return done;
+            }));
+        }
+        long total = 0;
+        for (Future<Long> future : futures) {
+            total += future.get();
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        return total * 1000.0 / DURATION_MILLIS;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -1,90 +1,131 @@
 package com.urlshortener.service;
 
+import com.urlshortener.exception.UrlNotFoundException;
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.DomainCount;
+import com.urlshortener.metrics.LinkClicks;
+import com.urlshortener.metrics.TimeWindow;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
 class MetricsServiceTest {
 
-    @Mock
     private UrlShortenerService urlShortenerService;
 
-    @InjectMocks
     private MetricsService metricsService;
 
+    @BeforeEach
+    void setUp() {
+        urlShortenerService = new UrlShortenerService();
+        metricsService = new MetricsService(urlShortenerService);
+    }
+
+    private void shorten(String domain, int times) {
+        for (int i = 0; i < times; i++) {
+            urlShortenerService.createShortUrl("https://" + domain + "/page" + i);
+        }
+    }
+
     @Test
     void testTopDomains_Empty() {
-        when(urlShortenerService.getDomainCounts()).thenReturn(new HashMap<>());
-
-        Map<String, Integer> result = metricsService.topDomains();
+        List<DomainCount> result = metricsService.topDomains();
 
         assertTrue(result.isEmpty());
     }
 
     @Test
     void testTopDomains_LessThanThree() {
-        Map<String, Integer> mockData = new HashMap<>();
-        mockData.put("example.com", 5);
-        mockData.put("google.com", 3);
-
-        when(urlShortenerService.getDomainCounts()).thenReturn(mockData);
+        shorten("example.com", 5);
+        shorten("google.com", 3);
 
-        Map<String, Integer> result = metricsService.topDomains();
+        List<DomainCount> result = metricsService.topDomains();
 
-        assertEquals(2, result.size());
-        assertEquals(5, result.get("example.com"));
-        assertEquals(3, result.get("google.com"));
+        assertEquals(List.of(new DomainCount("example.com", 5, 0), new DomainCount("google.com", 3, 0)), result);
     }
 
     @Test
     void testTopDomains_MoreThanThree() {
-        Map<String, Integer> mockData = new HashMap<>();
-        mockData.put("example.com", 10);
-        mockData.put("google.com", 8);
-        mockData.put("github.com", 12);
-        mockData.put("stackoverflow.com", 5);
-        mockData.put("youtube.com", 3);
+        shorten("example.com", 10);
+        shorten("google.com", 8);
+        shorten("github.com", 12);
+        shorten("stackoverflow.com", 5);
+        shorten("youtube.com", 3);
 
-        when(urlShortenerService.getDomainCounts()).thenReturn(mockData);
-
-        Map<String, Integer> result = metricsService.topDomains();
+        List<DomainCount> result = metricsService.topDomains();
 
         assertEquals(3, result.size());
 
         // Should be sorted by count descending
-        assertEquals("github.com", result.keySet().toArray()[0]);
-        assertEquals("example.com", result.keySet().toArray()[1]);
-        assertEquals("google.com", result.keySet().toArray()[2]);
+        assertEquals("github.com", result.get(0).domain());
+        assertEquals("example.com", result.get(1).domain());
+        assertEquals("google.com", result.get(2).domain());
 
-        assertEquals(12, result.get("github.com"));
-        assertEquals(10, result.get("example.com"));
-        assertEquals(8, result.get("google.com"));
+        assertEquals(12, result.get(0).count());
+        assertEquals(10, result.get(1).count());
+        assertEquals(8, result.get(2).count());
     }
 
     @Test
     void testTopDomains_TieBreaking() {
-        Map<String, Integer> mockData = new HashMap<>();
-        mockData.put("example.com", 10);
-        mockData.put("google.com", 10); // Same count as example.com
-        mockData.put("aaa.com", 5);     // Should come after alphabetically
-
-        when(urlShortenerService.getDomainCounts()).thenReturn(mockData);
+        shorten("example.com", 10);
+        shorten("google.com", 10); // Same count as example.com
+        shorten("aaa.com", 5);     // Should come after alphabetically
 
-        Map<String, Integer> result = metricsService.topDomains();
+        List<DomainCount> result = metricsService.topDomains();
 
         // With tie, should be sorted alphabetically by domain
-        assertEquals("example.com", result.keySet().toArray()[0]); // e before g
-        assertEquals("google.com", result.keySet().toArray()[1]);
-        assertEquals("aaa.com", result.keySet().toArray()[2]);
+        assertEquals("example.com", result.get(0).domain()); // e before g
+        assertEquals("google.com", result.get(1).domain());
+        assertEquals("aaa.com", result.get(2).domain());
+    }
+
+    @Test
+    void testTopDomains_CustomKAndWindow() {
+        shorten("example.com", 4);
+        shorten("google.com", 2);
+
+        List<DomainCount> result = metricsService.topDomains(1, TimeWindow.LAST_MINUTE);
+
+        assertEquals(List.of(new DomainCount("example.com", 4, 0)), result);
+    }
+
+    @Test
+    void testTopDomains_InvalidK() {
+        assertThrows(IllegalArgumentException.class, () -> metricsService.topDomains(0, TimeWindow.ALL_TIME));
+        assertThrows(IllegalArgumentException.class, () -> metricsService.topDomains(100_000, TimeWindow.ALL_TIME));
+    }
+
+    @Test
+    void testLinkClicksAndTrending() {
+        String a = urlShortenerService.createShortUrl("https://example.com/a").getShortKey();
+        String b = urlShortenerService.createShortUrl("https://example.com/b").getShortKey();
+        for (int i = 0; i < 3; i++) {
+            urlShortenerService.getOriginalUrl(a);
+        }
+        urlShortenerService.findOriginalUrl(b);
+        urlShortenerService.findOriginalUrl(b);
+        urlShortenerService.findOriginalUrl("zzzzzz");
+
+        LinkClicks clicks = metricsService.linkClicks(a);
+        assertEquals(3, clicks.accessCount());
+        assertEquals(3, clicks.lastHour());
+        assertEquals(3, clicks.perMinute()[59]);
+
+        Map<String, Long> trending = metricsService.trendingLinks(10, ClickWindow.LAST_HOUR);
+        assertEquals(2, trending.size());
+        assertEquals(a, trending.keySet().iterator().next());
+        assertEquals(2, trending.get(b));
+    }
+
+    @Test
+    void testLinkClicks_UnknownKeyAndInvalidK() {
+        assertThrows(UrlNotFoundException.class, () -> metricsService.linkClicks("zzzzzz"));
+        assertThrows(IllegalArgumentException.class, () -> metricsService.trendingLinks(0, ClickWindow.LAST_DAY));
+        assertThrows(IllegalArgumentException.class, () -> ClickWindow.fromLabel("1y"));
     }
 }
@@ -1,13 +1,17 @@
 package com.urlshortener.service;
 
 import com.urlshortener.exception.UrlNotFoundException;
+import com.urlshortener.metrics.HeavyHitter;
+import com.urlshortener.metrics.TimeWindow;
+import com.urlshortener.model.BatchItem;
 import com.urlshortener.model.ShortUrl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,7 +32,8 @@ class UrlShortenerServiceTest {
         ShortUrl shortUrl = urlShortenerService.createShortUrl(originalUrl);
 
         assertNotNull(shortUrl);
-        assertEquals(originalUrl, shortUrl.getOriginalUrl());
+        // Stored in canonical form, with the empty path as "/"
+        assertEquals("https://example.com/", shortUrl.getOriginalUrl());
         assertNotNull(shortUrl.getShortKey());
         assertFalse(shortUrl.getShortKey().isEmpty());
         assertEquals(0, shortUrl.getAccessCount());
@@ -45,6 +50,18 @@ class UrlShortenerServiceTest {
         assertEquals(firstCall.getOriginalUrl(), secondCall.getOriginalUrl());
     }
 
+    @Test
+    void testCreateShortUrl_VariantSpellingsShareKey() {
+        ShortUrl canonical = urlShortenerService.createShortUrl("https://example.com/a%2Fb");
+
+        for (String variant : new String[]{"HTTPS://Example.COM/a%2fb", "https://example.com.:443/a%2Fb",
+                "https://example.com/x/../a%2Fb"}) {
+            assertEquals(canonical.getShortKey(), urlShortenerService.createShortUrl(variant).getShortKey(), variant);
+        }
+        List<BatchItem> items = urlShortenerService.createShortUrls(List.of("http://EXAMPLE.com:80"));
+        assertEquals("http://example.com/", items.get(0).getShortUrl().getOriginalUrl());
+    }
+
     @Test
     void testCreateShortUrl_InvalidUrl() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -103,10 +120,45 @@ class UrlShortenerServiceTest {
 
         String retrieved = urlShortenerService.getOriginalUrl(shortUrl.getShortKey());
 
-        assertEquals(originalUrl, retrieved);
+        assertEquals("https://example.com/", retrieved);
         assertEquals(1, shortUrl.getAccessCount()); // Should be incremented
     }
 
+    @Test
+    void testGetOriginalUrl_ConcurrentAccessCount() throws InterruptedException {
+        ShortUrl shortUrl = urlShortenerService.createShortUrl("https://hot-key.com");
+        String key = shortUrl.getShortKey();
+
+        int threadCount = 8;
+        int redirectsPerThread = 10_000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < redirectsPerThread; j++) {
+                    urlShortenerService.getOriginalUrl(key);
+                }
+            });
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // No increments may be lost under contention
+        assertEquals((long) threadCount * redirectsPerThread, urlShortenerService.getAccessCount(key));
+    }
+
+    @Test
+    void testGetAccessCount_InvalidKey() {
+        assertThrows(UrlNotFoundException.class, () -> {
+            urlShortenerService.getAccessCount("non-existent-key");
+        });
+    }
+
     @Test
     void testGetOriginalUrl_InvalidKey() {
         assertThrows(UrlNotFoundException.class, () -> {
@@ -135,10 +187,55 @@ class UrlShortenerServiceTest {
             urlShortenerService.createShortUrl(url);
         }
 
-        Map<String, Integer> domainCounts = urlShortenerService.getDomainCounts();
+        List<HeavyHitter> domainCounts = urlShortenerService.getTopDomains(10, TimeWindow.ALL_TIME);
+
+        assertEquals(List.of(
+                new HeavyHitter("example.com", 3, 0),
+                new HeavyHitter("github.com", 1, 0),
+                new HeavyHitter("google.com", 1, 0)), domainCounts);
+    }
+
+    @Test
+    void testCreateShortUrls_KeepsOrderAndReportsErrorsPerItem() {
+        ShortUrl existing = urlShortenerService.createShortUrl("https://example.com/existing");
+
+        List<BatchItem> items = urlShortenerService.createShortUrls(Arrays.asList(
+                "https://example.com/a", "example.com", null, "https://example.com/existing",
+                "ftp://example.com/file", "https://example.com/a"));
+
+        assertEquals(6, items.size());
+        assertEquals("https://example.com/a", items.get(0).getShortUrl().getOriginalUrl());
+        assertEquals("URL must include scheme and host", items.get(1).getError());
+        assertEquals("URL cannot be empty", items.get(2).getError());
+        assertEquals(existing.getShortKey(), items.get(3).getShortUrl().getShortKey());
+        assertEquals("URL must start with http:// or https://", items.get(4).getError());
+        assertEquals(items.get(0).getShortUrl().getShortKey(), items.get(5).getShortUrl().getShortKey());
+        assertNull(items.get(0).getError());
+        assertNull(items.get(1).getShortUrl());
+    }
+
+    @Test
+    void testCreateShortUrls_MatchesSingleCreation() {
+        List<BatchItem> items = urlShortenerService.createShortUrls(List.of(
+                "https://example.com/1", "https://example.com/2"));
+        String key = items.get(1).getShortUrl().getShortKey();
+
+        assertEquals("https://example.com/2", urlShortenerService.getOriginalUrl(key));
+        assertEquals(key, urlShortenerService.createShortUrl("https://example.com/2").getShortKey());
+
+        // Keys created after a batch never collide with keys reserved by it
+        ShortUrl next = urlShortenerService.createShortUrl("https://example.com/3");
+        assertNotEquals(items.get(0).getShortUrl().getShortKey(), next.getShortKey());
+        assertNotEquals(key, next.getShortKey());
+    }
+
+    @Test
+    void testCreateShortUrls_CountsDomains() {
+        urlShortenerService.createShortUrls(List.of(
+                "https://a.com/1", "https://a.com/2", "https://b.com/1", "invalid"));
 
-        assertEquals(3, domainCounts.get("example.com"));
-        assertEquals(1, domainCounts.get("google.com"));
-        assertEquals(1, domainCounts.get("github.com"));
+        List<HeavyHitter> top = urlShortenerService.getTopDomains(1, TimeWindow.ALL_TIME);
+        assertEquals("a.com", top.get(0).item());
+        assertEquals(2, top.get(0).count());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarUrlStoreTest {
+
+    private final ColumnarUrlStore store = new ColumnarUrlStore();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Function<String, ShortUrl> factory = url -> {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setShortKey(Base62Util.encode(ids.incrementAndGet()));
+        shortUrl.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return shortUrl;
+    };
+
+    @Test
+    void testFindOrCreate_Idempotent() {
+        ShortUrl first = store.findOrCreate("https://example.com/a", factory);
+        ShortUrl second = store.findOrCreate("https://example.com/a", factory);
+
+        assertEquals(first.getShortKey(), second.getShortKey());
+        assertEquals(first.getCreatedAt(), second.getCreatedAt());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testResolve_CountsAccess() {
+        ShortUrl shortUrl = store.findOrCreate("https://example.com/ünïcode", factory);
+
+        assertEquals("https://example.com/ünïcode", store.resolve(shortUrl.getShortKey()));
+        assertEquals("https://example.com/ünïcode", store.resolve(shortUrl.getShortKey()));
+        assertEquals(2, store.findByKey(shortUrl.getShortKey()).getAccessCount());
+    }
+
+    @Test
+    void testResolve_UnknownOrNonCanonicalKey() {
+        store.findOrCreate("https://example.com/a", factory); // key "1"
+
+        assertNull(store.resolve("2"));
+        assertNull(store.resolve("01"));
+        assertNull(store.resolve("non-existent-key"));
+        assertNull(store.resolve("ZZZZZZZZZZZZZZZ"));
+    }
+
+    @Test
+    void testResolve_IdsBeyondPageRangeDoNotAliasStoredIds() {
+        for (int i = 0; i < 5; i++) {
+            store.findOrCreate("https://example.com/" + i, factory); // keys "1" to "5"
+        }
+
+        // 2^48 + 5 would truncate to id 5's page and slot, 2^47 + 5 to a negative page
+        assertEquals((1L << 48) + 5, Base62Util.decode("1hVwxnaAd"));
+        assertNull(store.resolve("1hVwxnaAd"));
+        assertNull(store.findByKey("1hVwxnaAd"));
+        assertEquals((1L << 47) + 5, Base62Util.decode("DXLgGAi9"));
+        assertNull(store.resolve("DXLgGAi9"));
+        store.recordAccess("DXLgGAi9");
+        assertEquals(0, store.findByKey("5").getAccessCount());
+    }
+
+    @Test
+    void testManyRecords_AcrossPagesAndIndexGrowth() {
+        int count = 200_000;
+        for (int i = 0; i < count; i++) {
+            store.findOrCreate("https://example.com/item/" + i, factory);
+        }
+
+        assertEquals(count, store.size());
+        assertEquals(count, store.maxId());
+        for (int i = 0; i < count; i += 997) {
+            String url = "https://example.com/item/" + i;
+            assertEquals(url, store.resolve(Base62Util.encode(i + 1)));
+            assertEquals(Base62Util.encode(i + 1), store.findOrCreate(url, factory).getShortKey());
+        }
+        long[] visited = new long[1];
+        store.forEach(s -> visited[0]++);
+        assertEquals(count, visited[0]);
+    }
+
+    @Test
+    void testPutIfAbsent() {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey("abc");
+        shortUrl.setOriginalUrl("https://example.com/restored");
+        shortUrl.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        shortUrl.setAccessCount(7);
+
+        assertTrue(store.putIfAbsent(shortUrl));
+        assertFalse(store.putIfAbsent(shortUrl));
+
+        ShortUrl restored = store.findByKey("abc");
+        assertEquals(shortUrl.getOriginalUrl(), restored.getOriginalUrl());
+        assertEquals(shortUrl.getCreatedAt(), restored.getCreatedAt());
+        assertEquals(7, restored.getAccessCount());
+        assertEquals(Base62Util.decode("abc"), store.maxId());
+    }
+
+    @Test
+    void testPutIfAbsent_SecondKeyForSameUrl() {
+        ShortUrl first = store.findOrCreate("https://example.com/shared", factory);
+        ShortUrl second = new ShortUrl();
+        second.setShortKey("abc");
+        second.setOriginalUrl("https://example.com/shared");
+        second.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+
+        assertTrue(store.putIfAbsent(second));
+
+        assertEquals(2, store.size());
+        assertEquals("https://example.com/shared", store.resolve("abc"));
+        // The first key keeps serving idempotent creates
+        assertEquals(first.getShortKey(), store.findOrCreate("https://example.com/shared", factory).getShortKey());
+    }
+
+    @Test
+    void testFindOrCreate_SkipsKeyTakenByImport() {
+        ShortUrl imported = new ShortUrl();
+        imported.setShortKey(Base62Util.encode(1));
+        imported.setOriginalUrl("https://example.com/imported");
+        imported.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        assertTrue(store.putIfAbsent(imported));
+
+        ShortUrl created = store.findOrCreate("https://example.com/new", factory);
+
+        assertEquals(Base62Util.encode(2), created.getShortKey());
+        assertEquals("https://example.com/imported", store.resolve(Base62Util.encode(1)));
+        assertEquals("https://example.com/new", store.resolve(created.getShortKey()));
+        assertEquals(2, store.size());
+    }
+}
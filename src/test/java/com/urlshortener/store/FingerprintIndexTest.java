@@ -0,0 +1,110 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintIndexTest {
+
+    @Test
+    void testFind_VerifiesCandidatesWithTheSameHash() {
+        FingerprintIndex index = new FingerprintIndex();
+        long hash = 0x1234_5678_9abc_def0L;
+        index.insert(hash, 7);
+        index.insert(hash, 9);
+
+        assertEquals(7, index.find(hash, id -> id == 7));
+        assertEquals(9, index.find(hash, id -> id == 9));
+        assertEquals(0, index.find(hash, id -> false));
+        assertEquals(0, index.find(hash + 1, id -> true));
+    }
+
+    @Test
+    void testInsert_GrowsWithoutLosingEntries() {
+        FingerprintIndex index = new FingerprintIndex();
+        for (long id = 1; id <= 100_000; id++) {
+            index.insert(UrlHashing.hash("https://example.com/" + id), id);
+        }
+        for (long id = 1; id <= 100_000; id++) {
+            long expected = id;
+            assertEquals(id, index.find(UrlHashing.hash("https://example.com/" + id), candidate -> candidate == expected));
+        }
+    }
+
+    @Test
+    void testInsert_RejectsIdsOutsideRange() {
+        FingerprintIndex index = new FingerprintIndex();
+        assertThrows(IllegalStateException.class, () -> index.insert(1, FingerprintIndex.MAX_ID + 1));
+        assertThrows(IllegalStateException.class, () -> index.insert(1, 0));
+    }
+
+    @Test
+    void testRemove_MatchesReferenceModelUnderCollisions() {
+        FingerprintIndex index = new FingerprintIndex();
+        Map<Long, Long> model = new HashMap<>();
+        Random random = new Random(42);
+        // Few distinct hashes in one segment, so probe runs are long and wrap around the table
+        long[] hashes = new long[40];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = ((long) random.nextInt(64) << 6) | ((long) random.nextInt(4) << 30);
+        }
+        for (int step = 0; step < 20_000; step++) {
+            long id = 1 + random.nextInt(200);
+            long hash = hashes[(int) (id % hashes.length)];
+            if (model.containsKey(id)) {
+                assertTrue(index.remove(hash, id));
+                model.remove(id);
+            } else if (random.nextBoolean()) {
+                index.insert(hash, id);
+                model.put(id, hash);
+            } else {
+                assertFalse(index.remove(hash, id));
+            }
+        }
+        for (long id = 1; id <= 200; id++) {
+            long expected = id;
+            long hash = hashes[(int) (id % hashes.length)];
+            assertEquals(model.containsKey(id) ? id : 0, index.find(hash, candidate -> candidate == expected));
+        }
+    }
+
+    @Test
+    void testInMemoryStore_RemoveDropsBothDirections() {
+        InMemoryUrlStore store = new InMemoryUrlStore();
+        store.findOrCreate("https://example.com/a", url -> mapping(1, url));
+        store.findOrCreate("https://example.com/b", url -> mapping(2, url));
+
+        assertTrue(store.remove("1"));
+        assertFalse(store.remove("1"));
+        assertNull(store.findByKey("1"));
+        assertNull(store.resolve("1"));
+        assertEquals(1, store.size());
+        assertEquals("3", store.findOrCreate("https://example.com/a", url -> mapping(3, url)).getShortKey());
+        assertEquals("2", store.findOrCreate("https://example.com/b", url -> fail("factory called")).getShortKey());
+    }
+
+    @Test
+    void testInMemoryStore_PutIfAbsentKeepsFirstMappingForUrl() {
+        InMemoryUrlStore store = new InMemoryUrlStore();
+        assertTrue(store.putIfAbsent(mapping(1, "https://example.com/a")));
+        assertTrue(store.putIfAbsent(mapping(2, "https://example.com/a")));
+        assertFalse(store.putIfAbsent(mapping(2, "https://example.com/b")));
+
+        assertEquals("1", store.findOrCreate("https://example.com/a", url -> fail("factory called")).getShortKey());
+        assertEquals("3", store.findOrCreate("https://example.com/b", url -> mapping(3, url)).getShortKey());
+        assertEquals(3, store.maxId());
+    }
+
+    private static ShortUrl mapping(long id, String url) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(Base62Util.encode(id));
+        shortUrl.setOriginalUrl(url);
+        return shortUrl;
+    }
+}
@@ -0,0 +1,134 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyFilterUrlStoreTest {
+
+    @Test
+    void testIdBitmap_AddRemoveAcrossPagesAndRange() {
+        IdBitmap bitmap = new IdBitmap();
+        long[] ids = {1, 63, 64, 65_535, 65_536, 1L << 28, (1L << 28) + 1, IdBitmap.MAX_ID};
+        for (long id : ids) {
+            assertFalse(bitmap.contains(id));
+            bitmap.add(id);
+        }
+        for (long id : ids) {
+            assertTrue(bitmap.contains(id), "id " + id);
+        }
+        for (long id : new long[]{2, 62, 65_534, 65_537, (1L << 28) - 1, IdBitmap.MAX_ID - 1}) {
+            assertFalse(bitmap.contains(id), "id " + id);
+        }
+        bitmap.remove(64);
+        assertFalse(bitmap.contains(64));
+        assertTrue(bitmap.contains(63));
+        assertTrue(bitmap.contains(65_535));
+
+        assertFalse(bitmap.contains(0));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.contains(IdBitmap.MAX_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(0));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(IdBitmap.MAX_ID + 1));
+        bitmap.remove(IdBitmap.MAX_ID + 1);
+    }
+
+    @Test
+    void testMisses_NeverReachTheDelegate() {
+        CountingStore counting = new CountingStore(new InMemoryUrlStore());
+        KeyFilterUrlStore store = new KeyFilterUrlStore(counting);
+        ShortUrl created = store.findOrCreate("https://example.com/a", url -> mapping(5, url));
+        store.findOrCreateAll(List.of("https://example.com/b"), url -> mapping(6, url));
+        assertTrue(store.putIfAbsent(mapping(7, "https://example.com/c")));
+
+        assertEquals("https://example.com/a", store.resolve(created.getShortKey()));
+        assertNotNull(store.findByKey("6"));
+        assertNotNull(store.findByKey("7"));
+        int lookups = counting.lookups.get();
+
+        for (String key : new String[]{"1", "8", "zzzzzz", "not-base62!", "", "ZZZZZZZZZZZ"}) {
+            assertNull(store.resolve(key));
+            assertNull(store.findByKey(key));
+        }
+        assertEquals(lookups, counting.lookups.get());
+
+        // Another spelling of a stored id is passed on, and misses in the delegate
+        assertNull(store.resolve("05"));
+        assertEquals(lookups + 1, counting.lookups.get());
+    }
+
+    @Test
+    void testRemoveClearsKeyAndRecoveredMappingsAreKept() {
+        InMemoryUrlStore memory = new InMemoryUrlStore();
+        memory.putIfAbsent(mapping(3, "https://example.com/recovered"));
+        KeyFilterUrlStore store = new KeyFilterUrlStore(memory);
+        assertEquals("https://example.com/recovered", store.resolve("3"));
+
+        assertTrue(store.remove("3"));
+        assertFalse(store.remove("3"));
+        assertNull(store.resolve("3"));
+        // Put back behind the filter's back: the filter no longer lets the key through
+        memory.putIfAbsent(mapping(3, "https://example.com/recovered"));
+        assertNull(store.resolve("3"));
+    }
+
+    private static ShortUrl mapping(long id, String url) {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setShortKey(Base62Util.encode(id));
+        shortUrl.setOriginalUrl(url);
+        return shortUrl;
+    }
+
+    private static final class CountingStore implements UrlStore {
+        final UrlStore delegate;
+        final AtomicInteger lookups = new AtomicInteger();
+
+        CountingStore(UrlStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ShortUrl findOrCreate(String originalUrl, Function<String, ShortUrl> factory) {
+            return delegate.findOrCreate(originalUrl, factory);
+        }
+
+        @Override
+        public boolean putIfAbsent(ShortUrl shortUrl) {
+            return delegate.putIfAbsent(shortUrl);
+        }
+
+        @Override
+        public ShortUrl findByKey(String shortKey) {
+            lookups.incrementAndGet();
+            return delegate.findByKey(shortKey);
+        }
+
+        @Override
+        public String resolve(String shortKey) {
+            lookups.incrementAndGet();
+            return delegate.resolve(shortKey);
+        }
+
+        @Override
+        public void forEach(Consumer<ShortUrl> action) {
+            delegate.forEach(action);
+        }
+
+        @Override
+        public long size() {
+            return delegate.size();
+        }
+
+        @Override
+        public long maxId() {
+            return delegate.maxId();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedUrlStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final Function<String, ShortUrl> factory = url -> {
+        ShortUrl shortUrl = new ShortUrl();
+        shortUrl.setOriginalUrl(url);
+        shortUrl.setShortKey(Base62Util.encode(ids.incrementAndGet()));
+        shortUrl.setCreatedAt(LocalDateTime.now());
+        return shortUrl;
+    };
+
+    @Test
+    void testFindOrCreate_Idempotent() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            ShortUrl first = store.findOrCreate("https://example.com/a", factory);
+            ShortUrl second = store.findOrCreate("https://example.com/a", factory);
+            ShortUrl other = store.findOrCreate("https://example.com/b", factory);
+
+            assertEquals(first.getShortKey(), second.getShortKey());
+            assertNotEquals(first.getShortKey(), other.getShortKey());
+            assertEquals(2, store.size());
+            assertEquals(2, store.maxId());
+        }
+    }
+
+    @Test
+    void testResolve_CountsAccess() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            ShortUrl shortUrl = store.findOrCreate("https://example.com/ünïcode", factory);
+
+            assertEquals("https://example.com/ünïcode", store.resolve(shortUrl.getShortKey()));
+            assertEquals("https://example.com/ünïcode", store.resolve(shortUrl.getShortKey()));
+            assertEquals(2, store.findByKey(shortUrl.getShortKey()).getAccessCount());
+        }
+    }
+
+    @Test
+    void testResolve_UnknownOrMalformedKey() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            assertNull(store.resolve("5"));
+            assertNull(store.resolve("non-existent-key"));
+            assertNull(store.resolve("ZZZZZZ"));
+            assertNull(store.findByKey(""));
+        }
+    }
+
+    @Test
+    void testReopen_KeepsMappings() throws Exception {
+        String key;
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            key = store.findOrCreate("https://example.com/persist", factory).getShortKey();
+            store.resolve(key);
+        }
+
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            assertEquals(1, store.size());
+            assertEquals(1, store.maxId());
+            assertEquals("https://example.com/persist", store.resolve(key));
+            assertEquals(key, store.findOrCreate("https://example.com/persist", factory).getShortKey());
+            assertEquals(2, store.findByKey(key).getAccessCount());
+        }
+    }
+
+    @Test
+    void testReopen_CapacityMismatch() throws Exception {
+        new MappedUrlStore(dir, 1000, 1 << 16).close();
+
+        assertThrows(IllegalStateException.class, () -> new MappedUrlStore(dir, 2000, 1 << 16));
+    }
+
+    @Test
+    void testFindOrCreate_Full() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 2, 1 << 16)) {
+            store.findOrCreate("https://example.com/1", factory);
+            store.findOrCreate("https://example.com/2", factory);
+
+            assertThrows(IllegalStateException.class, () -> store.findOrCreate("https://example.com/3", factory));
+        }
+    }
+
+    @Test
+    void testPutIfAbsent_SecondKeyForSameUrl() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            ShortUrl first = store.findOrCreate("https://example.com/shared", factory);
+            ShortUrl second = new ShortUrl();
+            second.setShortKey("abc");
+            second.setOriginalUrl("https://example.com/shared");
+            second.setCreatedAt(LocalDateTime.now());
+
+            assertTrue(store.putIfAbsent(second));
+            assertFalse(store.putIfAbsent(second));
+
+            assertEquals(2, store.size());
+            assertEquals("https://example.com/shared", store.resolve("abc"));
+            // The first key keeps serving idempotent creates
+            assertEquals(first.getShortKey(), store.findOrCreate("https://example.com/shared", factory).getShortKey());
+        }
+    }
+
+    @Test
+    void testFindOrCreate_SkipsKeyTakenByImport() throws Exception {
+        try (MappedUrlStore store = new MappedUrlStore(dir, 1000, 1 << 16)) {
+            ShortUrl imported = new ShortUrl();
+            imported.setShortKey(Base62Util.encode(1));
+            imported.setOriginalUrl("https://example.com/imported");
+            imported.setCreatedAt(LocalDateTime.now());
+            assertTrue(store.putIfAbsent(imported));
+
+            ShortUrl created = store.findOrCreate("https://example.com/new", factory);
+
+            assertEquals(Base62Util.encode(2), created.getShortKey());
+            assertEquals("https://example.com/imported", store.resolve(Base62Util.encode(1)));
+            assertEquals("https://example.com/new", store.resolve(created.getShortKey()));
+            assertEquals(2, store.size());
+        }
+    }
+}
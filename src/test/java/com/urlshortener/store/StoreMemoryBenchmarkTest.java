@@ -0,0 +1,86 @@
+package com.urlshortener.store;
+
+import com.urlshortener.model.ShortUrl;
+import com.urlshortener.util.Base62Util;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures retained heap per stored mapping for the on-heap stores. Skipped unless a record count is given, e.g.
+ * {@code mvn test -Dtest=StoreMemoryBenchmarkTest -Dbenchmark.records=1000000}
+ */
+@EnabledIfSystemProperty(named = "benchmark.records", matches = "\\d+")
+class StoreMemoryBenchmarkTest {
+
+    @Test
+    void measureBytesPerRecord() {
+        int records = Integer.getInteger("benchmark.records");
+        report("InMemoryUrlStore", records, InMemoryUrlStore::new);
+        report("ColumnarUrlStore", records, ColumnarUrlStore::new);
+    }
+
+    /**
+     * Reverse index alone: URL-keyed map (each key its own String, as when the key and the ShortUrl
+     * hold separate copies) versus the fingerprint index of ids.
+     */
+    @Test
+    void measureReverseIndexBytesPerEntry() {
+        int records = Integer.getInteger("benchmark.records");
+
+        long before = usedHeap();
+        ConcurrentHashMap<String, String> byUrl = new ConcurrentHashMap<>();
+        for (long id = 1; id <= records; id++) {
+            byUrl.put("https://example.com/articles/" + id + "?utm_source=benchmark", Base62Util.encode(id));
+        }
+        System.out.printf("URL-keyed ConcurrentHashMap: %.1f bytes/entry%n",
+                (double) (usedHeap() - before) / byUrl.size());
+
+        before = usedHeap();
+        FingerprintIndex index = new FingerprintIndex();
+        for (long id = 1; id <= records; id++) {
+            long hash = UrlHashing.hash("https://example.com/articles/" + id + "?utm_source=benchmark");
+            synchronized (index.lockFor(hash)) {
+                index.insert(hash, id);
+            }
+        }
+        System.out.printf("FingerprintIndex: %.1f bytes/entry%n", (double) (usedHeap() - before) / records);
+        assertEquals(records, byUrl.size());
+    }
+
+    private static void report(String name, int records, Supplier<UrlStore> factory) {
+        long before = usedHeap();
+        UrlStore store = factory.get();
+        LocalDateTime now = LocalDateTime.now();
+        long urlBytes = 0;
+        for (long id = 1; id <= records; id++) {
+            String url = "https://example.com/articles/" + id + "?utm_source=benchmark";
+            urlBytes += url.length();
+            long key = id;
+            store.findOrCreate(url, u -> {
+                ShortUrl shortUrl = new ShortUrl();
+                shortUrl.setOriginalUrl(u);
+                shortUrl.setShortKey(Base62Util.encode(key));
+                shortUrl.setCreatedAt(now);
+                return shortUrl;
+            });
+        }
+        long used = usedHeap() - before;
+        System.out.printf("%s: %d records, %.1f bytes/record (%.1f bytes/record excluding URL bytes)%n",
+                name, store.size(), (double) used / records, (double) (used - urlBytes) / records);
+        store.close();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
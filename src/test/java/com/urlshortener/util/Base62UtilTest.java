@@ -33,8 +33,8 @@ class Base62UtilTest {
         assertFalse(encoded.isEmpty());
 
         // Verify it can be decoded (test consistency)
-        // Note: We don't have decode, but we can verify it's not the same as input
         assertNotEquals(String.valueOf(largeNumber), encoded);
+        assertEquals(largeNumber, Base62Util.decode(encoded));
     }
 
     @Test
@@ -45,4 +45,55 @@ class Base62UtilTest {
             assertNotNull(encoded);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEncode_MaxValue() {
+        String encoded = Base62Util.encode(Long.MAX_VALUE);
+        assertEquals(Base62Util.MAX_LENGTH, encoded.length());
+        assertEquals(Long.MAX_VALUE, Base62Util.decode(encoded));
+    }
+
+    @Test
+    void testEncode_Negative() {
+        assertThrows(IllegalArgumentException.class, () -> Base62Util.encode(-1));
+    }
+
+    @Test
+    void testEncode_IntoBuffer() {
+        char[] chars = new char[Base62Util.MAX_LENGTH + 2];
+        int length = Base62Util.encode(62 * 62, chars, 2);
+        assertEquals("100", new String(chars, 2, length));
+
+        byte[] bytes = new byte[Base62Util.MAX_LENGTH];
+        length = Base62Util.encode(61, bytes, 0);
+        assertEquals(1, length);
+        assertEquals('Z', bytes[0]);
+    }
+
+    @Test
+    void testDecode_RoundTrip() {
+        long[] testValues = {0, 1, 10, 36, 61, 62, 100, 1000, 10000, 1000000, 123456789012345L};
+        for (long value : testValues) {
+            assertEquals(value, Base62Util.decode(Base62Util.encode(value)));
+        }
+        assertEquals(62 + 36, Base62Util.decode(new StringBuilder("1A")));
+    }
+
+    @Test
+    void testDecode_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Base62Util.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> Base62Util.decode("abc-def"));
+        assertThrows(IllegalArgumentException.class, () -> Base62Util.decode("ab\u00e9"));
+        assertEquals(-1, Base62Util.tryDecode(null));
+        assertEquals(-1, Base62Util.tryDecode("non-existent-key"));
+    }
+
+    @Test
+    void testDecode_Overflow() {
+        // "aZl8N0y58M7" is Long.MAX_VALUE; one more overflows
+        assertEquals(Long.MAX_VALUE, Base62Util.decode("aZl8N0y58M7"));
+        assertEquals(-1, Base62Util.tryDecode("aZl8N0y58M8"));
+        assertEquals(-1, Base62Util.tryDecode("ZZZZZZZZZZZ"));
+        assertEquals(-1, Base62Util.tryDecode("100000000000"));
+    }
+}
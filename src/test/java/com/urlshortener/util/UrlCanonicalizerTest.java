@@ -0,0 +1,116 @@
+package com.urlshortener.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlCanonicalizerTest {
+
+    /**
+     * Runs every case of {@code url-canonicalization.tsv}, reporting all failures at once.
+     */
+    @Test
+    void testConformanceCorpus() throws IOException {
+        List<String> failures = new ArrayList<>();
+        int cases = 0;
+        for (String[] row : corpus()) {
+            cases++;
+            String input = row[1];
+            String expected = row[2];
+            try {
+                CanonicalUrl canonical = UrlCanonicalizer.canonicalize(input);
+                if (expected.startsWith("!")) {
+                    failures.add(row[0] + ": " + input + " accepted as " + canonical.url());
+                } else if (!canonical.url().equals(expected) || !canonical.host().equals(row[3])) {
+                    failures.add(row[0] + ": " + input + " gave " + canonical + ", expected " + expected + " " + row[3]);
+                }
+            } catch (IllegalArgumentException e) {
+                if (!expected.startsWith("!") || !e.getMessage().startsWith(expected.substring(1))) {
+                    failures.add(row[0] + ": " + input + " rejected with '" + e.getMessage() + "'");
+                }
+            }
+        }
+        assertTrue(cases > 80, "corpus not found or truncated");
+        assertTrue(failures.isEmpty(), String.join("\n", failures));
+    }
+
+    @Test
+    void testCanonicalFormIsStableAndParsesAsUri() throws IOException {
+        for (String[] row : corpus()) {
+            if (row[2].startsWith("!")) {
+                continue;
+            }
+            CanonicalUrl canonical = UrlCanonicalizer.canonicalize(row[1]);
+            CanonicalUrl again = UrlCanonicalizer.canonicalize(canonical.url());
+            assertSame(canonical.url(), again.url(), row[0]);
+            // The normal form is also a URI that java.net.URI accepts, with the same host (URI finds no
+            // host in names with an underscore, which RFC 3986 allows)
+            URI uri = URI.create(canonical.url());
+            if (!canonical.host().contains("_")) {
+                assertEquals(canonical.host(), uri.getHost(), row[0]);
+            }
+        }
+    }
+
+    @Test
+    void testCanonicalInputIsNotCopied() {
+        String url = "https://example.com/articles/2024?utm_source=newsletter";
+        assertSame(url, UrlCanonicalizer.canonicalize(url).url());
+        assertEquals("https://example.com/", UrlCanonicalizer.canonicalize("  https://example.com/\n").url());
+    }
+
+    @Test
+    void testVariantSpellingsShareOneForm() {
+        String[] variants = {
+                "https://example.com/a~b",
+                "HTTPS://EXAMPLE.COM/a~b",
+                "https://example.com.:443/a~b",
+                "https://example.com/a%7Eb",
+                "https://example.com/a%7eb",
+                "https://example.com/x/../a~b",
+                " https://Example.com/./a~b "};
+        for (String variant : variants) {
+            assertEquals("https://example.com/a~b", UrlCanonicalizer.canonicalize(variant).url(), variant);
+        }
+    }
+
+    @Test
+    void testBlankInputIsRejected() {
+        for (String blank : new String[]{null, "", "   ", "\t\n"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> UrlCanonicalizer.canonicalize(blank));
+            assertEquals("URL cannot be empty", e.getMessage());
+        }
+    }
+
+    // Rows of {line number, input, expected url or !message, expected host}
+    private static List<String[]> corpus() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = UrlCanonicalizerTest.class.getResourceAsStream("/url-canonicalization.tsv")) {
+            assertNotNull(in, "url-canonicalization.tsv is missing");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                assertTrue(fields.length == 3 || (fields.length == 2 && fields[1].startsWith("!")),
+                        "line " + number + " is malformed");
+                rows.add(new String[]{"line " + number, fields[0], fields[1], fields.length == 3 ? fields[2] : null});
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,96 @@
+package com.urlshortener.warmup;
+
+import com.urlshortener.cache.HotKeySnapshot;
+import com.urlshortener.metrics.ClickWindow;
+import com.urlshortener.metrics.HeavyHitter;
+import com.urlshortener.service.UrlShortenerService;
+import com.urlshortener.store.IdBitmap;
+import com.urlshortener.store.UrlStore;
+import com.urlshortener.util.Base62Util;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.warmup.enabled=true", "app.cache.enabled=true", "app.warmup.requests=200",
+                "app.warmup.concurrency=2", "app.warmup.hot-keys.path=target/test-warmup/hot-keys"})
+class StartupWarmupTest {
+
+    @Autowired
+    private UrlShortenerService service;
+
+    @Autowired
+    private UrlStore store;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private HotKeySnapshot hotKeys;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Test
+    void warmsTheRedirectPathBeforeReportingReady() throws Exception {
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+        // Every warm-up request was a miss, and none wrote a mapping
+        assertEquals(200, registry.get("urlshortener.redirect.requests").tag("result", "not_found").counter().count());
+        assertEquals(0, registry.get("urlshortener.redirect.requests").tag("result", "found").counter().count());
+        assertEquals(0, store.size());
+
+        String key = service.createShortUrl("https://warmup.example/").getShortKey();
+        for (int i = 0; i < 10; i++) {
+            service.findOriginalUrl(key);
+        }
+        assertTrue(hotKeys.save() > 0);
+        assertTrue(Files.readAllLines(Path.of("target/test-warmup/hot-keys")).contains(key));
+
+        // Warm-up redirects of an existing key are answered 302 but counted nowhere
+        RedirectWarmup.Result result = new RedirectWarmup(URI.create("http://127.0.0.1:" + port + "/r/"), 20, 2,
+                Duration.ofSeconds(10)).run(RedirectWarmup.unknownKey(k -> true), List.of(key), service.warmupToken());
+        assertEquals(20, result.sent());
+        assertEquals(0, result.failed());
+        assertEquals(10, service.getAccessCount(key));
+        assertEquals(10, clicks(key));
+        assertEquals(10, registry.get("urlshortener.redirect.requests").tag("result", "found").counter().count());
+        assertEquals(1, store.size());
+
+        // Without the node's token they are ordinary redirects
+        assertEquals(0, new RedirectWarmup(URI.create("http://127.0.0.1:" + port + "/r/"), 2, 1,
+                Duration.ofSeconds(10)).run(RedirectWarmup.unknownKey(k -> true), List.of(key), "other").failed());
+        assertEquals(11, service.getAccessCount(key));
+        assertEquals(11, clicks(key));
+    }
+
+    private long clicks(String key) {
+        return service.getTrendingLinks(10, ClickWindow.LAST_HOUR).stream()
+                .filter(link -> link.item().equals(key))
+                .mapToLong(HeavyHitter::count)
+                .sum();
+    }
+
+    @Test
+    void unknownKeyIsAboveEveryStorableId() {
+        assertEquals(IdBitmap.MAX_ID + 1, Base62Util.decode(RedirectWarmup.unknownKey(key -> true)));
+        assertEquals(IdBitmap.MAX_ID + 2,
+                Base62Util.decode(RedirectWarmup.unknownKey(key -> Base62Util.decode(key) % 2 == 1)));
+    }
+}